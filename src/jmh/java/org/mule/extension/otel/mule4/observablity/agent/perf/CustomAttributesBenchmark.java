@@ -0,0 +1,103 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.resource.Attribute;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.core.api.el.ExpressionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+//------------------------------------------------------------------------------------------------
+//	Custom attributes added to a span builder.
+//
+//	static:			4 plain attributes, pre-built at compile time
+//	dynamic:		2 plain and 2 DataWeave attributes, evaluated for every span
+//	reusedPerTrace:	as dynamic, evaluated once per trace and reused for the other spans
+//
+//	The expression manager is a mock, so the numbers are the agent's own overhead and do not 
+//	include the DataWeave evaluation itself.  spanBuilderBaseline is the span builder alone.
+//------------------------------------------------------------------------------------------------
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomAttributesBenchmark
+{
+	@Param({"static", "dynamic", "reusedPerTrace"})
+	public String attributes;
+	
+	private Tracer                       tracer;
+	private ExpressionManager            expressionManager;
+	private CustomAttributesConfig       customAttributesConfig;
+	private NotificationSnapshot         notification;
+	
+	@Setup
+	public void setup()
+	{
+		List<Attribute> customAttributes;
+		
+		if ("static".equals(attributes))
+			customAttributes = Arrays.asList(AgentFixtures.attribute("team", "orders"),
+			                                 AgentFixtures.attribute("tier", "gold"),
+			                                 AgentFixtures.attribute("region", "us-east-1"),
+			                                 AgentFixtures.attribute("layer", "experience"));
+		else
+			customAttributes = Arrays.asList(AgentFixtures.attribute("team", "orders"),
+			                                 AgentFixtures.attribute("tier", "gold"),
+			                                 AgentFixtures.attribute("customer", "#[vars.customerId]"),
+			                                 AgentFixtures.attribute("order", "#[attributes.queryParams.orderId]"));
+		
+		tracer = SdkTracerProvider.builder().build().get("perf");
+		expressionManager = MuleFixtures.expressionManager("value");
+		customAttributesConfig = AgentFixtures.customAttributesConfig(true, true, "reusedPerTrace".equals(attributes), customAttributes);
+		customAttributesConfig.compile(expressionManager);
+		
+		NotificationSnapshot.setBindingContextCaptured(customAttributesConfig.hasExpressions());
+		
+		notification = new NotificationSnapshot(MuleFixtures.notification(MessageProcessorNotification.class, 
+		                                                                  MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE, 
+		                                                                  MuleFixtures.component("perf-flow/processors/0", "perf-flow", "mule", "logger",
+		                                                                                         MuleFixtures.parameters("doc:name", "Logger")),
+		                                                                  MuleFixtures.event("perf-trace", null, null, null),
+		                                                                  null),
+		                                        MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+	}
+	
+	@Benchmark
+	public SpanBuilder setAttributes()
+	{
+		SpanBuilder spanBuilder = tracer.spanBuilder("perf");
+		
+		customAttributesConfig.setAttributes(spanBuilder, expressionManager, notification, "perf-trace");
+		
+		return spanBuilder;
+	}
+	
+	@Benchmark
+	public SpanBuilder spanBuilderBaseline()
+	{
+		return tracer.spanBuilder("perf");
+	}
+}
@@ -0,0 +1,108 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.FlowFixture;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//------------------------------------------------------------------------------------------------
+//	Complete traces, flow start to flow end, through the notification dispatcher and handler with
+//	the OpenTelemetry SDK exporting to memory.  One operation is one trace of FlowFixture.httpApi
+//	(16 notifications, 8 spans), so gc.alloc.rate.norm is the allocation per trace.
+//
+//	Every trace must be closed at the end of the run; a trace left in the store fails the run.
+//------------------------------------------------------------------------------------------------
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlowCycleBenchmark
+{
+	private static final int TRACE_IDS = 1024;
+	
+	@State(Scope.Benchmark)
+	public static class AgentState
+	{
+		@Param({"true", "false"})
+		public boolean generateMessageProcessorsSpans;
+		
+		private NotificationDispatcher notificationDispatcher;
+		private MuleSoftTraceStore     traceStore;
+		
+		private final AtomicInteger threads = new AtomicInteger();
+		
+		@Setup
+		public void setup()
+		{
+			OTelMuleNotificationHandler handler = new OTelMuleNotificationHandler(
+				AgentFixtures.sdkInitializer(AgentFixtures.spanGenerationConfig(generateMessageProcessorsSpans),
+				                             AgentFixtures.customAttributesConfig(false, false, false, null),
+				                             MuleFixtures.expressionManager("value")));
+			
+			notificationDispatcher = new NotificationDispatcher(handler, null);
+			traceStore = OTelMuleNotificationHandler.getMuleSoftTraceStore();
+		}
+		
+		@TearDown
+		public void verify()
+		{
+			if (traceStore.getInFlightTraceCount() != 0 || traceStore.getInFlightSpanCount() != 0)
+				throw new IllegalStateException("Traces left in the store: " + traceStore.getInFlightTraceCount() + 
+				                                " traces, " + traceStore.getInFlightSpanCount() + " spans");
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Per thread flow fixture, cycling through a fixed set of trace ids
+	// --------------------------------------------------------------------------------------------
+	@State(Scope.Thread)
+	public static class TraceState
+	{
+		private final String[] traceIds = new String[TRACE_IDS];
+		private int            next;
+		private String         traceId;
+		private FlowFixture    httpApi;
+		
+		@Setup(Level.Trial)
+		public void setup(AgentState agent)
+		{
+			int thread = agent.threads.getAndIncrement();
+			
+			for (int i = 0; i < TRACE_IDS; i++)
+				traceIds[i] = "perf-" + thread + "-" + i;
+			
+			httpApi = FlowFixture.httpApi(() -> traceId);
+		}
+		
+		void nextTrace()
+		{
+			traceId = traceIds[next++ & (TRACE_IDS - 1)];
+		}
+	}
+	
+	@Benchmark
+	public void httpApiTrace(AgentState agent, TraceState trace)
+	{
+		trace.nextTrace();
+		trace.httpApi.replay(agent.notificationDispatcher);
+	}
+}
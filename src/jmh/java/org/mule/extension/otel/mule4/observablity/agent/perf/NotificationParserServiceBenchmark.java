@@ -0,0 +1,122 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.NotificationParserService;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//------------------------------------------------------------------------------------------------
+//	Parser resolution through the dispatch table.  "componentId" is the processor which fired
+//	the processor notification and the source of the flow for the pipeline notification;
+//	ee:transform has no parser and resolves to the base parser.
+//------------------------------------------------------------------------------------------------
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationParserServiceBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class ProcessorNotificationState
+	{
+		@Param({"http:request", "db:select", "mule:logger", "anypoint-mq:publish", "ee:transform"})
+		public String processorComponentId;
+		
+		private NotificationSnapshot notification;
+		
+		@Setup
+		public void setup()
+		{
+			String[] processor = processorComponentId.split(":");
+			
+			notification = new NotificationSnapshot(MuleFixtures.notification(MessageProcessorNotification.class, 
+			                                                                  MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE, 
+			                                                                  MuleFixtures.component("perf-flow/processors/0", "perf-flow", processor[0], processor[1],
+			                                                                                         MuleFixtures.parameters("doc:name", processorComponentId)),
+			                                                                  MuleFixtures.event("perf-trace", null, null, null),
+			                                                                  null),
+			                                        MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+		}
+	}
+	
+	@State(Scope.Benchmark)
+	public static class PipelineNotificationState
+	{
+		@Param({"http:listener", "anypoint-mq:subscriber"})
+		public String sourceComponentId;
+		
+		private NotificationSnapshot notification;
+		
+		@Setup
+		public void setup()
+		{
+			String[] source = sourceComponentId.split(":");
+			
+			notification = new NotificationSnapshot(MuleFixtures.notification(PipelineMessageNotification.class, 
+			                                                                  PipelineMessageNotification.PROCESS_START, 
+			                                                                  MuleFixtures.flow("perf-flow"),
+			                                                                  MuleFixtures.event("perf-trace", MuleFixtures.source("perf-flow", source[0], source[1]), null, null),
+			                                                                  null),
+			                                        PipelineMessageNotification.PROCESS_START);
+		}
+	}
+	
+	@State(Scope.Benchmark)
+	public static class ServiceState
+	{
+		private NotificationParserService notificationParserService;
+		
+		@Setup
+		public void setup()
+		{
+			notificationParserService = NotificationParserService.getInstance();
+		}
+	}
+	
+	@Benchmark
+	public NotificationParser processorParser(ServiceState service, ProcessorNotificationState state)
+	{
+		return service.notificationParserService.getParserFor(state.notification, MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Same lookup, with the action read from the notification
+	// --------------------------------------------------------------------------------------------
+	@Benchmark
+	public NotificationParser processorParserFromAction(ServiceState service, ProcessorNotificationState state)
+	{
+		return service.notificationParserService.getParserFor(state.notification);
+	}
+	
+	@Benchmark
+	public NotificationParser pipelineParser(ServiceState service, PipelineNotificationState state)
+	{
+		return service.notificationParserService.getParserFor(state.notification, PipelineMessageNotification.PROCESS_START);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Cost of the mocks alone: the originating location read for every pipeline lookup
+	// --------------------------------------------------------------------------------------------
+	@Benchmark
+	public ComponentIdentifier fixtureBaseline(PipelineNotificationState state)
+	{
+		return state.notification.getOriginatingLocation().getComponentIdentifier().getIdentifier();
+	}
+}
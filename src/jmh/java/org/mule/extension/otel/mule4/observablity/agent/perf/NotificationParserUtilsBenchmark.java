@@ -0,0 +1,133 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.ComponentDescriptor;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//------------------------------------------------------------------------------------------------
+//	Lookups done by the notification handler for every notification.  All of them should be 
+//	served from the cached ComponentDescriptor once the location has been seen.
+//------------------------------------------------------------------------------------------------
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationParserUtilsBenchmark
+{
+	private MessageProcessorNotification muleNotification;
+	private NotificationSnapshot         pipelineNotification;
+	private NotificationSnapshot         processorNotification;
+	private SpanGenerationConfig         spanGenerationConfig;
+	
+	@Setup
+	public void setup()
+	{
+		ComponentLocation source = MuleFixtures.source("perf-api-flow", "http", "listener");
+		
+		pipelineNotification = new NotificationSnapshot(MuleFixtures.notification(PipelineMessageNotification.class, 
+		                                                                          PipelineMessageNotification.PROCESS_START, 
+		                                                                          MuleFixtures.flow("perf-api-flow"),
+		                                                                          MuleFixtures.event("perf-trace", source, MuleFixtures.httpRequestAttributes("GET", "/api"), null),
+		                                                                          null),
+		                                                PipelineMessageNotification.PROCESS_START);
+		
+		muleNotification = MuleFixtures.notification(MessageProcessorNotification.class, 
+		                                             MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE, 
+		                                             MuleFixtures.component("perf-api-flow/processors/0", "perf-api-flow", "http", "request",
+		                                                                    MuleFixtures.parameters("doc:name", "Request", 
+		                                                                                            "config-ref", AgentFixtures.HTTP_REQUEST_CONFIG)),
+		                                             MuleFixtures.event("perf-trace", source, null, null),
+		                                             null);
+		
+		processorNotification = new NotificationSnapshot(muleNotification, MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+		
+		spanGenerationConfig = AgentFixtures.spanGenerationConfig(true);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Cost of the mocks alone: the calls every descriptor lookup makes on the notification
+	// --------------------------------------------------------------------------------------------
+	@Benchmark
+	public String fixtureBaseline()
+	{
+		return processorNotification.getComponent().getLocation().getLocation();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Copy of the notification taken on the Mule thread for every notification
+	// --------------------------------------------------------------------------------------------
+	@Benchmark
+	public NotificationSnapshot snapshot()
+	{
+		return new NotificationSnapshot(muleNotification, MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+	}
+	
+	@Benchmark
+	public ComponentDescriptor componentDescriptor()
+	{
+		return NotificationParserUtils.getComponentDescriptor(processorNotification);
+	}
+	
+	@Benchmark
+	public String spanName()
+	{
+		return NotificationParserUtils.getSpanName(processorNotification);
+	}
+	
+	@Benchmark
+	public String componentId()
+	{
+		return NotificationParserUtils.getComponentId(processorNotification);
+	}
+	
+	@Benchmark
+	public String flowId()
+	{
+		return NotificationParserUtils.getFlowId(pipelineNotification);
+	}
+	
+	@Benchmark
+	public ComponentIdentifier sourceIdentifier()
+	{
+		return NotificationParserUtils.getSourceIdentifier(pipelineNotification);
+	}
+	
+	@Benchmark
+	public String muleSoftTraceId()
+	{
+		return NotificationParserUtils.getMuleSoftTraceId(processorNotification);
+	}
+	
+	@Benchmark
+	public Object messageAttributes()
+	{
+		return NotificationParserUtils.getMessageAttributes(pipelineNotification);
+	}
+	
+	@Benchmark
+	public boolean skipParsing()
+	{
+		return NotificationParserUtils.skipParsing(processorNotification, spanGenerationConfig);
+	}
+}
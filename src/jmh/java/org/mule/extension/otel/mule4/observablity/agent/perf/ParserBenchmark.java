@@ -0,0 +1,204 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.AnypointMQPublishParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.AnypointMQSubscriberParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.DatabaseConnectorParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.HttpListenerParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.HttpRequesterParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.LoggerParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+
+//------------------------------------------------------------------------------------------------
+//	Each notification parser on its own, against the SDK tracer of the agent.
+//
+//	start:	a span builder is created and the parser adds its attributes (pipeline start for the 
+//			flow sources, processor start for the other parsers)
+//	end:	a span is started, the parser adds its end attributes and the span is ended
+//
+//	spanBaseline is the span creation and end without any parser, to be subtracted from "end".
+//------------------------------------------------------------------------------------------------
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark
+{
+	@Param({"HttpListener", "AnypointMQSubscriber", "HttpRequester", "DatabaseConnector", "Logger", "AnypointMQPublish"})
+	public String parser;
+	
+	private Tracer                     tracer;
+	private MuleConnectorConfigStore   muleConnectorConfigStore;
+	private MuleSoftTraceStore         traceStore;
+	private NotificationParser         notificationParser;
+	private boolean                    pipeline;
+	private NotificationSnapshot       startNotification;
+	private NotificationSnapshot       endNotification;
+	
+	@Setup
+	public void setup()
+	{
+		OtelSdkSnapshot sdk = AgentFixtures.sdk();
+		
+		tracer = sdk.getTracer();
+		muleConnectorConfigStore = AgentFixtures.connectorConfigStore(sdk);
+		traceStore = OTelMuleNotificationHandler.getMuleSoftTraceStore();
+		
+		switch (parser)
+		{
+			case "HttpListener":
+				notificationParser = new HttpListenerParser();
+				pipeline(MuleFixtures.source("perf-flow", "http", "listener"), 
+				         MuleFixtures.httpRequestAttributes("GET", "/api/orders"));
+				break;
+				
+			case "AnypointMQSubscriber":
+				notificationParser = new AnypointMQSubscriberParser();
+				pipeline(MuleFixtures.source("perf-flow", "anypoint-mq", "subscriber"), 
+				         MuleFixtures.anypointMQMessageAttributes("orders"));
+				break;
+				
+			case "HttpRequester":
+				notificationParser = new HttpRequesterParser();
+				processor("http", "request", 
+				          MuleFixtures.parameters("doc:name", "Request", "config-ref", AgentFixtures.HTTP_REQUEST_CONFIG, 
+				                                  "method", "GET", "path", "/inventory"),
+				          MuleFixtures.httpResponseAttributes(200), null);
+				break;
+				
+			case "DatabaseConnector":
+				notificationParser = new DatabaseConnectorParser();
+				processor("db", "select", 
+				          MuleFixtures.parameters("doc:name", "Select", "config-ref", AgentFixtures.DB_CONFIG, 
+				                                  "sql", "SELECT * FROM orders WHERE id = :id"),
+				          null, null);
+				break;
+				
+			case "Logger":
+				notificationParser = new LoggerParser();
+				processor("mule", "logger", 
+				          MuleFixtures.parameters("doc:name", "Logger"),
+				          null, Collections.singletonMap(Constants.LOGGER_OUTPUT_KEY, MuleFixtures.typedValue("logger output")));
+				break;
+				
+			case "AnypointMQPublish":
+				notificationParser = new AnypointMQPublishParser();
+				processor("anypoint-mq", "publish", 
+				          MuleFixtures.parameters("doc:name", "Publish", "config-ref", AgentFixtures.ANYPOINT_MQ_CONFIG, 
+				                                  "destination", "orders"),
+				          MuleFixtures.anypointMQMessagePublishAttributes(), null);
+				break;
+				
+			default:
+				throw new IllegalArgumentException("Unknown parser " + parser);
+		}
+	}
+	
+	@Benchmark
+	public SpanBuilder start()
+	{
+		SpanBuilder spanBuilder = tracer.spanBuilder(parser);
+		
+		if (pipeline)
+			return notificationParser.startPipelineNotification(startNotification, muleConnectorConfigStore, spanBuilder);
+		else
+			return notificationParser.startProcessorNotification(startNotification, muleConnectorConfigStore, spanBuilder);
+	}
+	
+	@Benchmark
+	public Span end()
+	{
+		Span span = tracer.spanBuilder(parser).startSpan();
+		
+		if (pipeline)
+			notificationParser.endPipelineNotification(endNotification, traceStore);
+		else
+			notificationParser.endProcessorNotification(endNotification, span);
+		
+		span.end();
+		
+		return span;
+	}
+	
+	@Benchmark
+	public Span spanBaseline()
+	{
+		Span span = tracer.spanBuilder(parser).startSpan();
+		
+		span.end();
+		
+		return span;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private void pipeline(ComponentLocation source, Object attributes)
+	{
+		pipeline = true;
+		startNotification = snapshot(MuleFixtures.notification(PipelineMessageNotification.class, 
+		                                                       PipelineMessageNotification.PROCESS_START, 
+		                                                       MuleFixtures.flow("perf-flow"),
+		                                                       MuleFixtures.event("perf-trace", source, attributes, null),
+		                                                       null));
+		endNotification = snapshot(MuleFixtures.notification(PipelineMessageNotification.class, 
+		                                                     PipelineMessageNotification.PROCESS_COMPLETE, 
+		                                                     MuleFixtures.flow("perf-flow"),
+		                                                     MuleFixtures.event("perf-trace", source, attributes, null),
+		                                                     null));
+	}
+	
+	private void processor(String namespace, String name, Map<String, String> parameters, 
+	                       Object endAttributes, Map<String, TypedValue<?>> endVariables)
+	{
+		pipeline = false;
+		startNotification = snapshot(MuleFixtures.notification(MessageProcessorNotification.class, 
+		                                                       MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE, 
+		                                                       MuleFixtures.component("perf-flow/processors/0", "perf-flow", namespace, name, parameters),
+		                                                       MuleFixtures.event("perf-trace", null, null, null),
+		                                                       null));
+		endNotification = snapshot(MuleFixtures.notification(MessageProcessorNotification.class, 
+		                                                     MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE, 
+		                                                     startNotification.getComponent(),
+		                                                     MuleFixtures.event("perf-trace", null, endAttributes, endVariables),
+		                                                     null));
+	}
+	
+	private static NotificationSnapshot snapshot(EnrichedServerNotification notification)
+	{
+		return new NotificationSnapshot(notification, Integer.parseInt(notification.getAction().getIdentifier()));
+	}
+}
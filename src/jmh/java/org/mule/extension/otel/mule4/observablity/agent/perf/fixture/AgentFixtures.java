@@ -0,0 +1,334 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.OTelSdkConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TailSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.OtlpExporterConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.resource.Attribute;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkConnection;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkInitializer;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.KeyValuePair;
+import org.mule.runtime.core.api.config.DefaultMuleConfiguration;
+import org.mule.runtime.core.api.config.MuleConfiguration;
+import org.mule.runtime.core.api.el.ExpressionManager;
+
+//------------------------------------------------------------------------------------------------
+//	Agent configuration for the benchmarks.
+//
+//	The extension parameters are normally injected by the Mule SDK, so the config objects are
+//	filled in through reflection.  The OpenTelemetry SDK is initialized through the same
+//	autoconfiguration path as in the runtime, exporting to the in-memory PerfSpanExporter, and the
+//	connector configurations are loaded from a generated application folder.
+//
+//	OtelSdkConnection and MuleConnectorConfigStore are JVM singletons:  the first initialization
+//	of a benchmark fork wins.
+//------------------------------------------------------------------------------------------------
+/**
+ * Factory of agent configurations and of an initialized OpenTelemetry SDK.
+ */
+public final class AgentFixtures
+{
+	public static final String APP_NAME            = "perf-app";
+	public static final String HTTP_REQUEST_CONFIG = "perf-http-request-config";
+	public static final String DB_CONFIG           = "perf-db-config";
+	public static final String ANYPOINT_MQ_CONFIG  = "perf-anypoint-mq-config";
+
+	private static final String APP_CONFIG_XML =
+		"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+		"<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\"\n" +
+		"      xmlns:http=\"" + Constants.HTTP_REQUESTER_URI_NS + "\"\n" +
+		"      xmlns:db=\"" + Constants.DB_URI_NS + "\"\n" +
+		"      xmlns:anypoint-mq=\"" + Constants.ANYPOINT_MQ_URI_NS + "\">\n" +
+		"  <http:request-config name=\"" + HTTP_REQUEST_CONFIG + "\">\n" +
+		"    <http:request-connection host=\"localhost\" port=\"8082\" protocol=\"HTTP\"/>\n" +
+		"  </http:request-config>\n" +
+		"  <db:config name=\"" + DB_CONFIG + "\">\n" +
+		"    <db:my-sql-connection host=\"localhost\" port=\"3306\" user=\"perf\" database=\"perf\"/>\n" +
+		"  </db:config>\n" +
+		"  <anypoint-mq:config name=\"" + ANYPOINT_MQ_CONFIG + "\">\n" +
+		"    <anypoint-mq:connection url=\"https://mq-us-east-1.anypoint.mulesoft.com/api/v1\" clientId=\"perf-client\"/>\n" +
+		"  </anypoint-mq:config>\n" +
+		"</mule>\n";
+
+	private AgentFixtures()
+	{
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Extension configurations
+	// --------------------------------------------------------------------------------------------
+	public static SpanGenerationConfig spanGenerationConfig(boolean generateMessageProcessorsSpans)
+	{
+		return spanGenerationConfig(generateMessageProcessorsSpans, false);
+	}
+
+	/**
+	 * @param generateMessageProcessorsSpans
+	 * @param processorDurationMetrics - record processor durations instead of processor spans
+	 * @return span generation options
+	 */
+	public static SpanGenerationConfig spanGenerationConfig(boolean generateMessageProcessorsSpans, boolean processorDurationMetrics)
+	{
+		SpanGenerationConfig spanGenerationConfig = new SpanGenerationConfig();
+
+		set(spanGenerationConfig, "generateMessageProcessorsSpans", generateMessageProcessorsSpans);
+		set(spanGenerationConfig, "runtimeSamplingInterval", 1000L);
+		set(spanGenerationConfig, "processorDurationMetrics", processorDurationMetrics);
+
+		return spanGenerationConfig;
+	}
+
+	public static CustomAttributesConfig customAttributesConfig(boolean perFlow, boolean perProcessor, boolean reusePerTrace,
+	                                                            List<Attribute> customAttributes)
+	{
+		CustomAttributesConfig customAttributesConfig = new CustomAttributesConfig();
+
+		set(customAttributesConfig, "sendCustomAttributesPerFlow", perFlow);
+		set(customAttributesConfig, "sendCustomAttributesPerProcessor", perProcessor);
+		set(customAttributesConfig, "reuseCustomAttributesPerTrace", reusePerTrace);
+		set(customAttributesConfig, "customAttributes", customAttributes != null ? customAttributes : new ArrayList<>());
+
+		return customAttributesConfig;
+	}
+
+	/**
+	 * @param baselineRatio - ratio of the traces kept by the baseline policy
+	 * @param latencyThreshold - root flow duration (ms) above which traces are kept, 0 for none
+	 * @return tail sampling enabled, keeping failed traces, with the default span limits
+	 */
+	public static TailSamplingConfig tailSamplingConfig(double baselineRatio, long latencyThreshold)
+	{
+		TailSamplingConfig tailSamplingConfig = new TailSamplingConfig();
+
+		set(tailSamplingConfig, "enableTailSampling", true);
+		set(tailSamplingConfig, "keepFailedTraces", true);
+		set(tailSamplingConfig, "latencyThreshold", latencyThreshold);
+		set(tailSamplingConfig, "baselineRatio", baselineRatio);
+		set(tailSamplingConfig, "maxSpansPerTrace", 1000);
+		set(tailSamplingConfig, "maxHeldSpans", 100000);
+
+		return tailSamplingConfig;
+	}
+
+	/**
+	 * @param maxSampledTracesPerSecond - throughput budget of the adaptive sampler
+	 * @return adaptive sampling within the default workload, heap and export queue limits
+	 */
+	public static AdaptiveSamplingConfig adaptiveSamplingConfig(double maxSampledTracesPerSecond)
+	{
+		AdaptiveSamplingConfig adaptiveSamplingConfig = new AdaptiveSamplingConfig();
+
+		set(adaptiveSamplingConfig, "enableAdaptiveSampling", true);
+		set(adaptiveSamplingConfig, "maxWorkload", 80.0);
+		set(adaptiveSamplingConfig, "maxHeapUsage", 85.0);
+		set(adaptiveSamplingConfig, "maxExportQueueFill", 75.0);
+		set(adaptiveSamplingConfig, "maxSampledTracesPerSecond", maxSampledTracesPerSecond);
+		set(adaptiveSamplingConfig, "minSamplingRatio", 0.01);
+		set(adaptiveSamplingConfig, "suspendProcessorSpans", true);
+
+		return adaptiveSamplingConfig;
+	}
+
+	public static Attribute attribute(String key, String value)
+	{
+		Attribute attribute = new Attribute();
+
+		set(attribute, KeyValuePair.class, "key", key);
+		set(attribute, KeyValuePair.class, "value", value);
+
+		return attribute;
+	}
+
+	/**
+	 * @return exporter properties sending the spans to the {@link PerfSpanExporter}
+	 */
+	public static OtlpExporterConfig traceExporterConfig()
+	{
+		return traceExporterConfig(null);
+	}
+
+	/**
+	 * @param overrides - SDK autoconfiguration properties replacing the defaults, may be null
+	 * @return exporter properties sending the spans to the {@link PerfSpanExporter} unless
+	 *         overridden, e.g., with {@code otel.traces.exporter=otlp}
+	 */
+	public static OtlpExporterConfig traceExporterConfig(Map<String, String> overrides)
+	{
+		Map<String, String> properties = new HashMap<>();
+
+		properties.put("otel.service.name", APP_NAME);
+		properties.put("otel.traces.exporter", PerfSpanExporterProvider.NAME);
+		properties.put("otel.metrics.exporter", "none");
+		properties.put("otel.logs.exporter", "none");
+		properties.put("otel.bsp.max.queue.size", "65536");
+		properties.put("otel.bsp.schedule.delay", "100");
+
+		if (overrides != null)
+			properties.putAll(overrides);
+
+		return () -> properties;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Mule application
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Create a Mule home with one application holding an HTTP requester, a database and an
+	 * Anypoint MQ configuration.  The folder is deleted when the JVM exits.
+	 *
+	 * @return the mule configuration of the application
+	 */
+	public static MuleConfiguration muleConfiguration()
+	{
+		try
+		{
+			File muleHome = Files.createTempDirectory("otel-agent-perf").toFile();
+			File appDirectory = new File(muleHome, "apps/" + APP_NAME);
+			File workingDirectory = new File(muleHome, ".mule/" + APP_NAME);
+
+			FileUtils.forceMkdir(appDirectory);
+			FileUtils.forceMkdir(workingDirectory);
+			FileUtils.writeStringToFile(new File(appDirectory, APP_NAME + ".xml"), APP_CONFIG_XML, StandardCharsets.UTF_8);
+			FileUtils.forceDeleteOnExit(muleHome);
+
+			return Fakes.of(DefaultMuleConfiguration.class)
+			            .returning("getMuleHomeDirectory", muleHome.getAbsolutePath())
+			            .returning("getDataFolderName", APP_NAME)
+			            .returning("getWorkingDirectory", workingDirectory.getAbsolutePath())
+			            .returning("getId", APP_NAME)
+			            .build();
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Unable to create the benchmark application", e);
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// OpenTelemetry SDK
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Initialize the OpenTelemetry SDK and publish its snapshot.
+	 *
+	 * @param spanGenerationConfig
+	 * @param customAttributesConfig
+	 * @param expressionManager
+	 * @return the initializer to hand to the notification handler
+	 */
+	public static OtelSdkInitializer sdkInitializer(SpanGenerationConfig spanGenerationConfig,
+	                                                CustomAttributesConfig customAttributesConfig,
+	                                                ExpressionManager expressionManager)
+	{
+		return sdkInitializer(spanGenerationConfig, customAttributesConfig, expressionManager, traceExporterConfig());
+	}
+
+	/**
+	 * Initialize the OpenTelemetry SDK, exporting as configured, and publish its snapshot.
+	 *
+	 * @param spanGenerationConfig
+	 * @param customAttributesConfig
+	 * @param expressionManager
+	 * @param traceExporterConfig - see {@link #traceExporterConfig(Map)}
+	 * @return the initializer to hand to the notification handler
+	 */
+	public static OtelSdkInitializer sdkInitializer(SpanGenerationConfig spanGenerationConfig,
+	                                                CustomAttributesConfig customAttributesConfig,
+	                                                ExpressionManager expressionManager,
+	                                                OtlpExporterConfig traceExporterConfig)
+	{
+		return sdkInitializer(spanGenerationConfig, customAttributesConfig, expressionManager, traceExporterConfig, null);
+	}
+
+	/**
+	 * Initialize the OpenTelemetry SDK, exporting as configured and sampling adaptively, and
+	 * publish its snapshot.
+	 *
+	 * @param spanGenerationConfig
+	 * @param customAttributesConfig
+	 * @param expressionManager
+	 * @param traceExporterConfig - see {@link #traceExporterConfig(Map)}
+	 * @param adaptiveSamplingConfig - see {@link #adaptiveSamplingConfig(double)}, null for none
+	 * @return the initializer to hand to the notification handler
+	 */
+	public static OtelSdkInitializer sdkInitializer(SpanGenerationConfig spanGenerationConfig,
+	                                                CustomAttributesConfig customAttributesConfig,
+	                                                ExpressionManager expressionManager,
+	                                                OtlpExporterConfig traceExporterConfig,
+	                                                AdaptiveSamplingConfig adaptiveSamplingConfig)
+	{
+		OTelSdkConfig otelSdkConfig = new OTelSdkConfig(null, traceExporterConfig, null, muleConfiguration(),
+		                                                spanGenerationConfig, expressionManager, customAttributesConfig,
+		                                                adaptiveSamplingConfig);
+
+		// initialized here first so a failure is reported with its cause
+		OtelSdkConnection otelSdkConnection = OtelSdkConnection.getInstance(otelSdkConfig);
+		OtelSdkInitializer otelSdkInitializer = new OtelSdkInitializer(() -> otelSdkConnection, null);
+
+		if (otelSdkInitializer.get() == null)
+			throw new IllegalStateException("Unable to initialize the OpenTelemetry SDK");
+
+		customAttributesConfig.compile(expressionManager);
+
+		return otelSdkInitializer;
+	}
+
+	/**
+	 * Initialize the OpenTelemetry SDK with processor spans and without custom attributes
+	 *
+	 * @return the published SDK snapshot
+	 */
+	public static OtelSdkSnapshot sdk()
+	{
+		return sdkInitializer(spanGenerationConfig(true),
+		                      customAttributesConfig(false, false, false, null),
+		                      MuleFixtures.expressionManager("value")).get();
+	}
+
+	/**
+	 * @param sdk
+	 * @return the connector configurations of the benchmark application, fully loaded
+	 */
+	public static MuleConnectorConfigStore connectorConfigStore(OtelSdkSnapshot sdk)
+	{
+		return MuleConnectorConfigStore.getInstance(sdk.getMuleConfiguration(), sdk.getExpressionManager());
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private static void set(Object target, String fieldName, Object value)
+	{
+		set(target, target.getClass(), fieldName, value);
+	}
+
+	private static void set(Object target, Class<?> declaringClass, String fieldName, Object value)
+	{
+		try
+		{
+			Field field = declaringClass.getDeclaredField(fieldName);
+
+			field.setAccessible(true);
+			field.set(target, value);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Unable to set " + declaringClass.getSimpleName() + "." + fieldName, e);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isFinal;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.InvocationHandlerAdapter;
+
+//------------------------------------------------------------------------------------------------
+//	Cheap stand-ins for the Mule runtime objects handed to the agent.
+//
+//	Mockito records a call site (a stack walk) on every invocation of a mock, even a stub-only one,
+//	which costs more than most of the code being measured.  A fake is a generated subclass (or
+//	implementation) of the type whose methods go straight to a per-instance table of answers;
+//	constructors are bypassed.  Methods without an answer return null, 0 or false.
+//
+//	Final classes (or answers for final methods) cannot be subclassed and fall back to a Mockito
+//	mock answering from the same table.
+//------------------------------------------------------------------------------------------------
+/**
+ * Builder of fake instances of Mule interfaces and classes.
+ *
+ * <pre>
+ * Component component = Fakes.of(Component.class)
+ *                            .returning("getLocation", location)
+ *                            .answering("getAnnotation", (args) -&gt; annotations.get(args[0]))
+ *                            .build();
+ * </pre>
+ *
+ * @param <T> - faked type
+ */
+public final class Fakes<T>
+{
+	private static final Objenesis               objenesis   = new ObjenesisStd(true);
+	private static final Map<Class<?>, Class<?>> fakeClasses = new ConcurrentHashMap<>();
+	private static final String                  HANDLER     = "fakeHandler";
+
+	private final Class<T>            type;
+	private final Map<String, Answer> answers = new HashMap<>();
+
+	/**
+	 * Answer of a faked method
+	 */
+	@FunctionalInterface
+	public interface Answer
+	{
+		Object answer(Object[] args);
+	}
+
+	private Fakes(Class<T> type)
+	{
+		this.type = type;
+	}
+
+	public static <T> Fakes<T> of(Class<T> type)
+	{
+		return new Fakes<>(type);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Answers, by method name (overloads share the answer)
+	// --------------------------------------------------------------------------------------------
+	public Fakes<T> returning(String methodName, Object value)
+	{
+		answers.put(methodName, (args) -> value);
+		return this;
+	}
+
+	public Fakes<T> answering(String methodName, Answer answer)
+	{
+		answers.put(methodName, answer);
+		return this;
+	}
+
+	public T build()
+	{
+		Handler handler = new Handler(new HashMap<>(answers));
+
+		if (Modifier.isFinal(type.getModifiers()) || answersFinalMethod())
+			return mock(type, withSettings().stubOnly().defaultAnswer((invocation) -> handler.invoke(invocation.getMock(),
+			                                                                                        invocation.getMethod(),
+			                                                                                        invocation.getArguments())));
+
+		try
+		{
+			Class<?> fakeClass = fakeClasses.computeIfAbsent(type, Fakes::generate);
+			Object fake = objenesis.newInstance(fakeClass);
+
+			fakeClass.getField(HANDLER).set(fake, handler);
+
+			return type.cast(fake);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Unable to fake " + type.getName(), e);
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private boolean answersFinalMethod()
+	{
+		for (Method method : type.getMethods())
+		{
+			if (Modifier.isFinal(method.getModifiers()) && answers.containsKey(method.getName()))
+				return true;
+		}
+
+		return false;
+	}
+
+	private static Class<?> generate(Class<?> type)
+	{
+		return new ByteBuddy().subclass(type)
+		                      .defineField(HANDLER, InvocationHandler.class, Visibility.PUBLIC)
+		                      .method(not(isDeclaredBy(Object.class)).and(not(isFinal())))
+		                      .intercept(InvocationHandlerAdapter.toField(HANDLER))
+		                      .make()
+		                      .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+		                      .getLoaded();
+	}
+
+	private static final class Handler implements InvocationHandler
+	{
+		private final Map<String, Answer> answers;
+
+		Handler(Map<String, Answer> answers)
+		{
+			this.answers = answers;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+		{
+			Answer answer = answers.get(method.getName());
+
+			if (answer != null)
+				return answer.answer(args);
+
+			Class<?> returnType = method.getReturnType();
+
+			if (!returnType.isPrimitive() || returnType == void.class)
+				return null;
+			if (returnType == boolean.class)
+				return false;
+			if (returnType == char.class)
+				return (char) 0;
+			if (returnType == byte.class)
+				return (byte) 0;
+			if (returnType == short.class)
+				return (short) 0;
+			if (returnType == int.class)
+				return 0;
+			if (returnType == long.class)
+				return 0L;
+			if (returnType == float.class)
+				return 0f;
+
+			return 0d;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+
+//------------------------------------------------------------------------------------------------
+//	The notifications fired by the Mule runtime for one execution of a flow, in order.  Replaying
+//	them through a NotificationDispatcher drives the agent exactly like the notification listeners
+//	do.  All notifications read the correlation id from the supplier, so the same fixture can be
+//	replayed for any number of traces.
+//------------------------------------------------------------------------------------------------
+/**
+ * Recorded flow execution: flow start, message processor start/end pairs (possibly nesting other
+ * flows or sub-flows through a flow-ref) and flow end, with or without errors.
+ */
+public final class FlowFixture
+{
+	private final Supplier<String>                 correlationId;
+	private final ComponentLocation                source;
+	private final Map<String, Component>           components    = new HashMap<>();
+	private final List<EnrichedServerNotification> notifications = new ArrayList<>();
+	private final List<Integer>                    actions       = new ArrayList<>();
+
+	/**
+	 *
+	 * @param correlationId - supplies the MuleSoft trace id of the execution being replayed
+	 * @param source - source (trigger) of the flow execution
+	 */
+	public FlowFixture(Supplier<String> correlationId, ComponentLocation source)
+	{
+		this.correlationId = correlationId;
+		this.source = source;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Recording
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @param flowName
+	 * @param attributes - message attributes when the flow starts (e.g., HttpRequestAttributes)
+	 * @return this fixture
+	 */
+	public FlowFixture flowStart(String flowName, Object attributes)
+	{
+		return add(PipelineMessageNotification.class, PipelineMessageNotification.PROCESS_START,
+		           flowComponent(flowName), attributes, null, null);
+	}
+
+	public FlowFixture flowEnd(String flowName)
+	{
+		return flowEnd(flowName, null);
+	}
+
+	/**
+	 * @param flowName
+	 * @param exception - error propagated by the flow, may be null
+	 * @return this fixture
+	 */
+	public FlowFixture flowEnd(String flowName, Exception exception)
+	{
+		return add(PipelineMessageNotification.class, PipelineMessageNotification.PROCESS_COMPLETE,
+		           flowComponent(flowName), null, null, exception);
+	}
+
+	/**
+	 * @param flowName
+	 * @param index - position of the processor in the flow
+	 * @param namespace - e.g., {@code http}
+	 * @param name - e.g., {@code request}
+	 * @param parameters - component parameters (doc:name, config-ref, ...)
+	 * @return this fixture
+	 */
+	public FlowFixture processorStart(String flowName, int index, String namespace, String name, Map<String, String> parameters)
+	{
+		String location = processorLocation(flowName, index);
+
+		return processorStart(location, MuleFixtures.component(location, flowName, namespace, name, parameters));
+	}
+
+	/**
+	 * @param subFlowName
+	 * @param flowName - flow which called the sub-flow (through a flow-ref)
+	 * @param index - position of the processor in the sub-flow
+	 * @param namespace
+	 * @param name
+	 * @param parameters - component parameters
+	 * @return this fixture
+	 */
+	public FlowFixture subFlowProcessorStart(String subFlowName, String flowName, int index, String namespace, String name,
+	                                         Map<String, String> parameters)
+	{
+		String location = processorLocation(subFlowName, index);
+
+		return processorStart(location, MuleFixtures.subFlowComponent(location, subFlowName, flowName, namespace, name, parameters));
+	}
+
+	/**
+	 * @param containerName - flow or sub-flow of the processor
+	 * @param index - position of the processor in the flow
+	 * @param attributes - message attributes after the processor ran (e.g., HttpResponseAttributes)
+	 * @param variables - flow variables after the processor ran, may be null
+	 * @return this fixture
+	 */
+	public FlowFixture processorEnd(String containerName, int index, Object attributes, Map<String, TypedValue<?>> variables)
+	{
+		return processorEnd(containerName, index, attributes, variables, null);
+	}
+
+	/**
+	 * @param containerName - flow or sub-flow of the processor
+	 * @param index - position of the processor in the flow
+	 * @param attributes - message attributes after the processor ran
+	 * @param variables - flow variables after the processor ran, may be null
+	 * @param exception - error raised by the processor, may be null
+	 * @return this fixture
+	 */
+	public FlowFixture processorEnd(String containerName, int index, Object attributes, Map<String, TypedValue<?>> variables,
+	                                Exception exception)
+	{
+		Component component = components.get(processorLocation(containerName, index));
+
+		if (component == null)
+			throw new IllegalStateException("No processor started at " + processorLocation(containerName, index));
+
+		return add(MessageProcessorNotification.class, MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE,
+		           component, attributes, variables, exception);
+	}
+
+	public FlowFixture processor(String flowName, int index, String namespace, String name, Map<String, String> parameters,
+	                             Object endAttributes, Map<String, TypedValue<?>> endVariables)
+	{
+		return processorStart(flowName, index, namespace, name, parameters).processorEnd(flowName, index, endAttributes, endVariables);
+	}
+
+	public FlowFixture logger(String flowName, int index)
+	{
+		Map<String, TypedValue<?>> variables = Collections.singletonMap(Constants.LOGGER_OUTPUT_KEY,
+		                                                                MuleFixtures.typedValue("logger output of " + flowName));
+
+		return processor(flowName, index, "mule", "logger", MuleFixtures.parameters("doc:name", "Logger " + index), null, variables);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Replay
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Hand every notification of the execution to the dispatcher, in order.
+	 *
+	 * @param notificationDispatcher
+	 */
+	public void replay(NotificationDispatcher notificationDispatcher)
+	{
+		for (int i = 0; i < notifications.size(); i++)
+			notificationDispatcher.dispatch(notifications.get(i), actions.get(i));
+	}
+
+	/**
+	 * @return number of notifications per execution
+	 */
+	public int size()
+	{
+		return notifications.size();
+	}
+
+	public EnrichedServerNotification getNotification(int i)
+	{
+		return notifications.get(i);
+	}
+
+	public int getAction(int i)
+	{
+		return actions.get(i);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// A typical API implementation:  HTTP listener, logger, HTTP request, database select, Anypoint
+	// MQ publish and a flow-ref to a private flow which logs.  8 spans per trace (the flow-ref
+	// itself is bypassed).
+	// --------------------------------------------------------------------------------------------
+	public static FlowFixture httpApi(Supplier<String> correlationId)
+	{
+		String flow = "perf-api-flow";
+		String childFlow = "perf-private-flow";
+
+		FlowFixture fixture = new FlowFixture(correlationId, MuleFixtures.source(flow, "http", "listener"));
+
+		return fixture.flowStart(flow, MuleFixtures.httpRequestAttributes("GET", "/api/orders"))
+		              .logger(flow, 0)
+		              .processor(flow, 1, "http", "request",
+		                         MuleFixtures.parameters("doc:name", "Request", "config-ref", AgentFixtures.HTTP_REQUEST_CONFIG,
+		                                                 "method", "GET", "path", "/inventory"),
+		                         MuleFixtures.httpResponseAttributes(200), null)
+		              .processor(flow, 2, "db", "select",
+		                         MuleFixtures.parameters("doc:name", "Select", "config-ref", AgentFixtures.DB_CONFIG,
+		                                                 "sql", "SELECT * FROM orders WHERE id = :id"),
+		                         null, null)
+		              .processor(flow, 3, "anypoint-mq", "publish",
+		                         MuleFixtures.parameters("doc:name", "Publish", "config-ref", AgentFixtures.ANYPOINT_MQ_CONFIG,
+		                                                 "destination", "orders"),
+		                         MuleFixtures.anypointMQMessagePublishAttributes(), null)
+		              .processorStart(flow, 4, "mule", "flow-ref", MuleFixtures.parameters("doc:name", "Flow Reference", "name", childFlow))
+		              .flowStart(childFlow, null)
+		              .logger(childFlow, 0)
+		              .flowEnd(childFlow)
+		              .processorEnd(flow, 4, null, null)
+		              .logger(flow, 5)
+		              .flowEnd(flow);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private FlowFixture processorStart(String location, Component component)
+	{
+		components.put(location, component);
+
+		return add(MessageProcessorNotification.class, MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE,
+		           component, null, null, null);
+	}
+
+	private FlowFixture add(Class<? extends EnrichedServerNotification> type, int action, Component component,
+	                        Object attributes, Map<String, TypedValue<?>> variables, Exception exception)
+	{
+		notifications.add(MuleFixtures.notification(type, action, component,
+		                                            MuleFixtures.event(correlationId, source, attributes, variables), exception));
+		actions.add(action);
+
+		return this;
+	}
+
+	private Component flowComponent(String flowName)
+	{
+		return components.computeIfAbsent(flowName, MuleFixtures::flow);
+	}
+
+	private static String processorLocation(String flowName, int index)
+	{
+		return flowName + "/processors/" + index;
+	}
+}
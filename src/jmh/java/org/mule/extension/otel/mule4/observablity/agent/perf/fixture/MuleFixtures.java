@@ -0,0 +1,324 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.xml.namespace.QName;
+
+import org.mule.extension.http.api.HttpRequestAttributes;
+import org.mule.extension.http.api.HttpResponseAttributes;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.TypedComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.el.BindingContext;
+import org.mule.runtime.api.el.ExpressionLanguageSession;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.event.EventContext;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.util.MultiMap;
+import org.mule.runtime.core.api.el.ExpressionManager;
+
+import com.mulesoft.extension.mq.api.attributes.AnypointMQMessageAttributes;
+import com.mulesoft.extension.mq.api.attributes.AnypointMQMessagePublishAttributes;
+
+//------------------------------------------------------------------------------------------------
+//	Fake Mule runtime objects for the benchmarks.
+//
+//	Everything the agent reads from a notification is a Fakes instance (or a real TypedValue), so
+//	the fixture adds a few nanoseconds per call to a measurement.  Compare against
+//	NotificationParserUtilsBenchmark.fixtureBaseline to see how much of it is the fixture.
+//------------------------------------------------------------------------------------------------
+/**
+ * Factory of fake notifications, components and events.
+ */
+public final class MuleFixtures
+{
+	public static final QName COMPONENT_IDENTIFIER_ANNOTATION = QName.valueOf("{config}componentIdentifier");
+	public static final QName COMPONENT_PARAMETERS_ANNOTATION = QName.valueOf("{config}componentParameters");
+	public static final QName ROOT_CONTAINER_NAME_ANNOTATION  = QName.valueOf("{http://www.mulesoft.org/schema/mule/parser-metadata}ROOT_CONTAINER_NAME");
+
+	public static final long TIMESTAMP = 1700000000000L;
+
+	private MuleFixtures()
+	{
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Components
+	// --------------------------------------------------------------------------------------------
+	public static ComponentIdentifier identifier(String namespace, String name)
+	{
+		return Fakes.of(ComponentIdentifier.class)
+		            .returning("getNamespace", namespace)
+		            .returning("getName", name)
+		            .build();
+	}
+
+	public static ComponentLocation location(String location, String rootContainerName, ComponentIdentifier identifier)
+	{
+		TypedComponentIdentifier typedIdentifier = Fakes.of(TypedComponentIdentifier.class)
+		                                                .returning("getIdentifier", identifier)
+		                                                .build();
+
+		return Fakes.of(ComponentLocation.class)
+		            .returning("getLocation", location)
+		            .returning("getRootContainerName", rootContainerName)
+		            .returning("getComponentIdentifier", typedIdentifier)
+		            .build();
+	}
+
+	/**
+	 *
+	 * @param location - unique location, e.g., {@code my-flow/processors/0}
+	 * @param rootContainerName - flow the component belongs to
+	 * @param namespace
+	 * @param name
+	 * @param parameters - the {@code {config}componentParameters} annotation
+	 * @return a fake component
+	 */
+	public static Component component(String location, String rootContainerName, String namespace, String name,
+	                                  Map<String, String> parameters)
+	{
+		return component(location, rootContainerName, null, namespace, name, parameters);
+	}
+
+	/**
+	 * A processor of a sub-flow:  its location is in the sub-flow, its root container annotation
+	 * names the flow which called the sub-flow.
+	 *
+	 * @param location - unique location, e.g., {@code my-sub-flow/processors/0}
+	 * @param subFlowName - sub-flow the component belongs to
+	 * @param flowName - flow calling the sub-flow
+	 * @param namespace
+	 * @param name
+	 * @param parameters - the {@code {config}componentParameters} annotation
+	 * @return a fake component
+	 */
+	public static Component subFlowComponent(String location, String subFlowName, String flowName, String namespace,
+	                                         String name, Map<String, String> parameters)
+	{
+		return component(location, subFlowName, flowName, namespace, name, parameters);
+	}
+
+	public static Component flow(String flowName)
+	{
+		return component(flowName, flowName, "mule", "flow", parameters("name", flowName));
+	}
+
+	/**
+	 * @param keyValues - alternating keys and values
+	 * @return a mutable parameter map
+	 */
+	public static Map<String, String> parameters(String... keyValues)
+	{
+		Map<String, String> parameters = new HashMap<>();
+
+		for (int i = 0; i + 1 < keyValues.length; i += 2)
+			parameters.put(keyValues[i], keyValues[i + 1]);
+
+		return parameters;
+	}
+
+	private static Component component(String location, String rootContainerName, String callingFlowName,
+	                                   String namespace, String name, Map<String, String> parameters)
+	{
+		ComponentIdentifier identifier = identifier(namespace, name);
+		Map<QName, Object> annotations = new HashMap<>();
+
+		annotations.put(COMPONENT_IDENTIFIER_ANNOTATION, identifier);
+		annotations.put(COMPONENT_PARAMETERS_ANNOTATION, parameters);
+
+		if (callingFlowName != null)
+			annotations.put(ROOT_CONTAINER_NAME_ANNOTATION, callingFlowName);
+
+		return Fakes.of(Component.class)
+		            .returning("getLocation", location(location, rootContainerName, identifier))
+		            .returning("getIdentifier", identifier)
+		            .returning("getAnnotations", annotations)
+		            .answering("getAnnotation", (args) -> annotations.get(args[0]))
+		            .build();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Events
+	// --------------------------------------------------------------------------------------------
+	public static <T> TypedValue<T> typedValue(T value)
+	{
+		return new TypedValue<>(value, DataType.OBJECT);
+	}
+
+	/**
+	 *
+	 * @param correlationId - supplies the correlation id (MuleSoft trace id) on every call
+	 * @param source - originating location of the event (flow source), may be null
+	 * @param attributes - message attributes
+	 * @param variables - flow variables
+	 * @return a fake event
+	 */
+	public static Event event(Supplier<String> correlationId, ComponentLocation source, Object attributes,
+	                          Map<String, TypedValue<?>> variables)
+	{
+		EventContext context = Fakes.of(EventContext.class)
+		                            .answering("getCorrelationId", (args) -> correlationId.get())
+		                            .returning("getOriginatingLocation", source)
+		                            .build();
+		Message message = Fakes.of(Message.class)
+		                       .returning("getAttributes", typedValue(attributes))
+		                       .returning("getPayload", typedValue("payload"))
+		                       .build();
+
+		return Fakes.of(Event.class)
+		            .answering("getCorrelationId", (args) -> correlationId.get())
+		            .returning("getContext", context)
+		            .returning("getMessage", message)
+		            .returning("getVariables", variables != null ? variables : Collections.emptyMap())
+		            .returning("asBindingContext", Fakes.of(BindingContext.class).build())
+		            .build();
+	}
+
+	public static Event event(String correlationId, ComponentLocation source, Object attributes,
+	                          Map<String, TypedValue<?>> variables)
+	{
+		return event(() -> correlationId, source, attributes, variables);
+	}
+
+	public static ComponentLocation source(String flowName, String namespace, String name)
+	{
+		return location(flowName + "/source", flowName, identifier(namespace, name));
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Notifications
+	// --------------------------------------------------------------------------------------------
+	/**
+	 *
+	 * @param <T>
+	 * @param type - PipelineMessageNotification or MessageProcessorNotification
+	 * @param action - notification action, e.g., PipelineMessageNotification.PROCESS_START
+	 * @param component
+	 * @param event
+	 * @param exception - may be null
+	 * @return a fake notification
+	 */
+	public static <T extends EnrichedServerNotification> T notification(Class<T> type, int action, Component component,
+	                                                                    Event event, Exception exception)
+	{
+		Notification.Action notificationAction = Fakes.of(Notification.Action.class)
+		                                              .returning("getIdentifier", String.valueOf(action))
+		                                              .build();
+
+		return Fakes.of(type)
+		            .returning("getAction", notificationAction)
+		            .returning("getComponent", component)
+		            .returning("getEvent", event)
+		            .returning("getException", exception)
+		            .returning("getTimestamp", TIMESTAMP)
+		            .returning("getServerId", "perf-server")
+		            .build();
+	}
+
+	/**
+	 * A notification whose timestamp is read from {@code timestamp} on every call, e.g., to replay
+	 * captured timings.
+	 *
+	 * @see #notification(Class, int, Component, Event, Exception)
+	 */
+	public static <T extends EnrichedServerNotification> T notification(Class<T> type, int action, Component component,
+	                                                                    Event event, Exception exception,
+	                                                                    LongSupplier timestamp)
+	{
+		Notification.Action notificationAction = Fakes.of(Notification.Action.class)
+		                                              .returning("getIdentifier", String.valueOf(action))
+		                                              .build();
+
+		return Fakes.of(type)
+		            .returning("getAction", notificationAction)
+		            .returning("getComponent", component)
+		            .returning("getEvent", event)
+		            .returning("getException", exception)
+		            .answering("getTimestamp", (args) -> timestamp.getAsLong())
+		            .returning("getServerId", "perf-server")
+		            .build();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Connector attributes
+	// --------------------------------------------------------------------------------------------
+	public static HttpRequestAttributes httpRequestAttributes(String method, String path)
+	{
+		MultiMap<String, String> headers = new MultiMap<>();
+
+		headers.put("host", "localhost:8081");
+		headers.put("user-agent", "perf");
+		headers.put("content-type", "application/json");
+		headers.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+		return Fakes.of(HttpRequestAttributes.class)
+		            .returning("getHeaders", headers)
+		            .returning("getScheme", "http")
+		            .returning("getMethod", method)
+		            .returning("getRemoteAddress", "/127.0.0.1:50000")
+		            .returning("getRequestPath", path)
+		            .build();
+	}
+
+	public static HttpResponseAttributes httpResponseAttributes(int statusCode)
+	{
+		MultiMap<String, String> headers = new MultiMap<>();
+
+		headers.put("content-type", "application/json");
+		headers.put("content-length", "128");
+
+		return Fakes.of(HttpResponseAttributes.class)
+		            .returning("getHeaders", headers)
+		            .returning("getStatusCode", statusCode)
+		            .returning("getReasonPhrase", "OK")
+		            .build();
+	}
+
+	public static AnypointMQMessageAttributes anypointMQMessageAttributes(String destination)
+	{
+		Map<String, String> properties = new HashMap<>();
+
+		properties.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+		return Fakes.of(AnypointMQMessageAttributes.class)
+		            .returning("getContentType", "application/json")
+		            .returning("getDestination", destination)
+		            .returning("getMessageId", "perf-message-id")
+		            .returning("getProperties", properties)
+		            .build();
+	}
+
+	public static AnypointMQMessagePublishAttributes anypointMQMessagePublishAttributes()
+	{
+		return Fakes.of(AnypointMQMessagePublishAttributes.class)
+		            .returning("getMessageId", "perf-message-id")
+		            .build();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Expression manager:  "#[...]" strings are expressions and evaluate to a fixed value
+	// --------------------------------------------------------------------------------------------
+	public static ExpressionManager expressionManager(String evaluatedValue)
+	{
+		TypedValue<String> value = typedValue(evaluatedValue);
+		ExpressionLanguageSession session = Fakes.of(ExpressionLanguageSession.class)
+		                                         .returning("evaluate", value)
+		                                         .build();
+
+		return Fakes.of(ExpressionManager.class)
+		            .answering("isExpression", (args) -> ((String) args[0]).startsWith("#["))
+		            .returning("evaluate", value)
+		            .returning("openSession", session)
+		            .build();
+	}
+}
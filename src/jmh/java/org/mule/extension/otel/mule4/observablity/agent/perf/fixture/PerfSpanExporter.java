@@ -0,0 +1,65 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+//------------------------------------------------------------------------------------------------
+//	In-memory span exporter used by the benchmarks in place of the OTLP exporter.  Spans are only
+//	counted, so a long benchmark run does not retain them.
+//------------------------------------------------------------------------------------------------
+/**
+ * Span exporter which counts the exported spans.
+ * 
+ * @see PerfSpanExporterProvider
+ */
+public final class PerfSpanExporter implements SpanExporter
+{
+	private static final PerfSpanExporter INSTANCE = new PerfSpanExporter();
+	
+	private final LongAdder exportedSpans = new LongAdder();
+	
+	private PerfSpanExporter()
+	{
+	}
+	
+	public static PerfSpanExporter getInstance()
+	{
+		return INSTANCE;
+	}
+	
+	@Override
+	public CompletableResultCode export(Collection<SpanData> spans)
+	{
+		exportedSpans.add(spans.size());
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode flush()
+	{
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode shutdown()
+	{
+		return CompletableResultCode.ofSuccess();
+	}
+	
+	/**
+	 * @return number of spans exported since the last reset
+	 */
+	public long getExportedSpanCount()
+	{
+		return exportedSpans.sum();
+	}
+	
+	public void reset()
+	{
+		exportedSpans.reset();
+	}
+}
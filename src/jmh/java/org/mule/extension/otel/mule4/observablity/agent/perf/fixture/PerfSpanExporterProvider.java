@@ -0,0 +1,26 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.traces.ConfigurableSpanExporterProvider;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Registers the {@link PerfSpanExporter} with the SDK autoconfiguration as 
+ * {@code otel.traces.exporter=perf}.
+ */
+public class PerfSpanExporterProvider implements ConfigurableSpanExporterProvider
+{
+	public static final String NAME = "perf";
+	
+	@Override
+	public SpanExporter createExporter(ConfigProperties config)
+	{
+		return PerfSpanExporter.getInstance();
+	}
+
+	@Override
+	public String getName()
+	{
+		return NAME;
+	}
+}
@@ -0,0 +1,63 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.fixture;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+//------------------------------------------------------------------------------------------------
+//	Span processor counting the spans started and ended.  The difference is the number of spans
+//	still open, so a span which is never ended (leaked) shows up once its trace is done.
+//------------------------------------------------------------------------------------------------
+/**
+ * Counts started and ended spans.
+ */
+public final class SpanCounter implements SpanProcessor
+{
+	private final LongAdder started = new LongAdder();
+	private final LongAdder ended   = new LongAdder();
+
+	@Override
+	public void onStart(Context parentContext, ReadWriteSpan span)
+	{
+		started.increment();
+	}
+
+	@Override
+	public boolean isStartRequired()
+	{
+		return true;
+	}
+
+	@Override
+	public void onEnd(ReadableSpan span)
+	{
+		ended.increment();
+	}
+
+	@Override
+	public boolean isEndRequired()
+	{
+		return true;
+	}
+
+	public long getStartedCount()
+	{
+		return started.sum();
+	}
+
+	public long getEndedCount()
+	{
+		return ended.sum();
+	}
+
+	/**
+	 * @return spans started and not ended (yet)
+	 */
+	public long getOpenCount()
+	{
+		return started.sum() - ended.sum();
+	}
+}
@@ -0,0 +1,115 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.load;
+
+import java.util.Arrays;
+
+//------------------------------------------------------------------------------------------------
+//	Log-linear histogram of latencies in nanoseconds:  every power of two is split into 32 linear
+//	buckets, so a percentile is accurate to ~3% from 1 ns to the range of a long.  Recording does
+//	not allocate.  Not thread safe:  each load thread owns one and they are merged for the report.
+//------------------------------------------------------------------------------------------------
+/**
+ * Latency histogram with percentile read out.
+ */
+public final class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS         = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long         count;
+	private long         sum;
+	private long         max;
+
+	public void record(long nanos)
+	{
+		long value = Math.max(0, nanos);
+
+		counts[index(value)]++;
+		count++;
+		sum += value;
+
+		if (value > max)
+			max = value;
+	}
+
+	public void add(LatencyHistogram other)
+	{
+		for (int i = 0; i < BUCKETS; i++)
+			counts[i] += other.counts[i];
+
+		count += other.count;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	public void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public long getMax()
+	{
+		return max;
+	}
+
+	public double getMean()
+	{
+		return (count > 0) ? (double) sum / count : 0;
+	}
+
+	/**
+	 * @param percentile - between 0 and 100, e.g., 99.9
+	 * @return lowest value of the bucket holding the percentile, in nanoseconds
+	 */
+	public long getPercentile(double percentile)
+	{
+		if (count == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts[i];
+
+			if (seen >= rank)
+				return Math.min(lowestValue(i), max);
+		}
+
+		return max;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private static int index(long value)
+	{
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long lowestValue(int index)
+	{
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+	}
+}
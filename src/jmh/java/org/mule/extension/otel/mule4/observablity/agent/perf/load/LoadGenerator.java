@@ -0,0 +1,562 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.FlowRateLimit;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleRuntimeSampler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureLog;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
+import org.mule.extension.otel.mule4.observablity.agent.internal.sampler.AdaptiveSampler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.FlowRateLimiter;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.FlowFixture;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.PerfSpanExporter;
+
+//------------------------------------------------------------------------------------------------
+//	End-to-end load test of the agent without a Mule runtime.
+//
+//	Load threads replay synthetic flow executions (see SyntheticFlow) through the notification
+//	dispatcher and handler, as the Mule notification listeners do, with the OpenTelemetry SDK
+//	exporting to memory or to a local mock OTLP/HTTP collector.  After a warmup the run is
+//	measured and reported:
+//
+//	  - sustained notifications and traces per second
+//	  - p50/p99/p99.9/max latency of a handler call
+//	  - bytes allocated per trace, by the load threads and by the whole JVM (exporter included)
+//	  - peak heap during the run and heap retained once the run is over
+//	  - trace store and exporter counters, to spot leaked or lost spans
+//
+//	With --capture the notifications are also recorded by a NotificationCaptureLog, as the
+//	notification listeners do in capture mode, so the capture overhead shows in the handler latency.
+//
+//	mvn -Pjmh test-compile exec:exec@load -Dload.args="--threads 16 --rate 2000 --duration 120"
+//------------------------------------------------------------------------------------------------
+/**
+ * Synthetic notification load generator and throughput harness.
+ *
+ * @see LoadOptions
+ */
+public final class LoadGenerator
+{
+	private static final int WARMUP  = 0;
+	private static final int MEASURE = 1;
+	private static final int STOP    = 2;
+
+	private static final long KB = 1024;
+	private static final long MB = 1024 * KB;
+
+	private final LoadOptions            options;
+	private final NotificationDispatcher notificationDispatcher;
+	private final MuleSoftTraceStore     traceStore;
+	private final MockOtlpCollector      collector;
+	private final NotificationCaptureLog captureLog;
+
+	private final LongAdder notifications = new LongAdder();
+	private final LongAdder traces        = new LongAdder();
+	private final LongAdder failedTraces  = new LongAdder();
+	private final LongAdder errors        = new LongAdder();
+
+	private volatile int phase = WARMUP;
+
+	public static void main(String[] args) throws Exception
+	{
+		LoadOptions options;
+
+		try
+		{
+			options = LoadOptions.parse(args);
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(LoadOptions.usage());
+			System.exit(2);
+			return;
+		}
+
+		LoadGenerator loadGenerator = new LoadGenerator(options);
+
+		try
+		{
+			loadGenerator.run();
+		}
+		finally
+		{
+			loadGenerator.close();
+		}
+
+		System.exit(0);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	public LoadGenerator(LoadOptions options) throws Exception
+	{
+		Map<String, String> exporterProperties = new HashMap<>();
+
+		this.options = options;
+
+		exporterProperties.put("otel.traces.sampler", options.getSampler());
+		exporterProperties.put("otel.traces.sampler.arg", options.getSamplingRatio());
+
+		if ("otlp".equals(options.getExporter()))
+		{
+			collector = new MockOtlpCollector();
+
+			exporterProperties.put("otel.traces.exporter", "otlp");
+			exporterProperties.put("otel.exporter.otlp.traces.protocol", "http/protobuf");
+			exporterProperties.put("otel.exporter.otlp.traces.endpoint", collector.getTracesEndpoint());
+		}
+		else if ("memory".equals(options.getExporter()))
+		{
+			collector = null;
+		}
+		else
+		{
+			throw new IllegalArgumentException("Unknown exporter " + options.getExporter());
+		}
+
+		AdaptiveSamplingConfig adaptiveSamplingConfig = options.getAdaptiveTracesPerSecond().isEmpty()
+		                                                ? null
+		                                                : AgentFixtures.adaptiveSamplingConfig(Double.parseDouble(options.getAdaptiveTracesPerSecond()));
+
+		if (adaptiveSamplingConfig != null)
+			MuleRuntimeSampler.getInstance().start(MuleRuntimeSampler.DEFAULT_INTERVAL_MILLIS);
+
+		OTelMuleNotificationHandler handler = new OTelMuleNotificationHandler(
+			AgentFixtures.sdkInitializer(AgentFixtures.spanGenerationConfig(options.getProcessorSpans(), options.getProcessorDurations()),
+			                             AgentFixtures.customAttributesConfig(false, false, false, null),
+			                             MuleFixtures.expressionManager("value"),
+			                             AgentFixtures.traceExporterConfig(exporterProperties),
+			                             adaptiveSamplingConfig));
+
+		notificationDispatcher = new NotificationDispatcher(handler, null);
+		traceStore = OTelMuleNotificationHandler.getMuleSoftTraceStore();
+
+		if (!options.getTailRatio().isEmpty())
+			traceStore.start(null, AgentFixtures.tailSamplingConfig(Double.parseDouble(options.getTailRatio()),
+			                                                        options.getTailLatencyMillis()));
+
+		traceStore.setMinProcessorSpanDuration(options.getMinSpanDurationMillis());
+
+		if (!options.getRateLimit().isEmpty())
+		{
+			FlowRateLimit flowRateLimit = new FlowRateLimit();
+
+			flowRateLimit.setFlowNamePattern(SyntheticFlow.ROOT_FLOW);
+			flowRateLimit.setTracesPerSecond(Double.parseDouble(options.getRateLimit()));
+
+			OTelMuleNotificationHandler.setFlowRateLimiter(FlowRateLimiter.compile(Collections.singletonList(flowRateLimit)));
+		}
+
+		captureLog = options.getCapture().isEmpty()
+		             ? null
+		             : new NotificationCaptureLog(options.getCapture(), options.getCaptureSizeMBytes() * MB,
+		                                          TimeUnit.SECONDS.toMillis(options.getWarmupSeconds() + options.getDurationSeconds() + 60));
+	}
+
+	public void close()
+	{
+		if (collector != null)
+			collector.close();
+		if (captureLog != null)
+			captureLog.close();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Run
+	// --------------------------------------------------------------------------------------------
+	public void run() throws InterruptedException
+	{
+		SyntheticFlow syntheticFlow = new SyntheticFlow(options);
+		LoadThread[] loadThreads = new LoadThread[options.getThreads()];
+		double ratePerThread = options.getRate() / loadThreads.length;
+
+		for (int i = 0; i < loadThreads.length; i++)
+			loadThreads[i] = new LoadThread(i, syntheticFlow, ratePerThread);
+
+		System.out.println("Agent load test " + options);
+		System.out.println("Notifications per trace: " + loadThreads[0].fixture.size() + " (failing trace: " +
+		                   loadThreads[0].failingFixture.size() + ")");
+
+		long baselineHeap = usedHeapAfterGc();
+
+		for (LoadThread loadThread : loadThreads)
+			loadThread.start();
+
+		progress("warmup", options.getWarmupSeconds());
+
+		//
+		// measured run
+		//
+		Counters start = new Counters();
+
+		resetPeakHeap();
+		phase = MEASURE;
+
+		progress("measure", options.getDurationSeconds());
+
+		Counters end = new Counters();
+		long peakHeap = peakHeap();
+
+		phase = STOP;
+
+		for (LoadThread loadThread : loadThreads)
+			loadThread.join();
+
+		awaitExport();
+
+		report(loadThreads, start, end, peakHeap, usedHeapAfterGc() - baselineHeap);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Load thread:  replays traces with fresh trace ids, timing every handler call
+	// --------------------------------------------------------------------------------------------
+	private final class LoadThread extends Thread
+	{
+		private final String           traceIdPrefix;
+		private final FlowFixture      fixture;
+		private final FlowFixture      failingFixture;
+		private final long             intervalNanos;
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private String traceId;
+		private long   sequence;
+		private double errorBudget;
+
+		LoadThread(int index, SyntheticFlow syntheticFlow, double tracesPerSecond)
+		{
+			super("agent-load-" + index);
+
+			this.traceIdPrefix = "load-" + index + "-";
+			this.fixture = syntheticFlow.build(() -> traceId, false);
+			this.failingFixture = syntheticFlow.build(() -> traceId, true);
+			this.intervalNanos = (tracesPerSecond > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / tracesPerSecond) : 0;
+
+			setDaemon(true);
+		}
+
+		@Override
+		public void run()
+		{
+			int currentPhase = WARMUP;
+			long nextTrace = System.nanoTime();
+
+			while (true)
+			{
+				int newPhase = phase;
+
+				if (newPhase == STOP)
+					return;
+
+				if (newPhase != currentPhase)
+				{
+					// the warmup latencies are dropped
+					latency.reset();
+					currentPhase = newPhase;
+				}
+
+				if (intervalNanos > 0)
+				{
+					long wait = nextTrace - System.nanoTime();
+
+					if (wait > 0)
+						LockSupport.parkNanos(wait);
+
+					nextTrace += intervalNanos;
+				}
+
+				trace();
+			}
+		}
+
+		private void trace()
+		{
+			FlowFixture trace = fixture;
+
+			errorBudget += options.getErrorRate();
+
+			if (errorBudget >= 1)
+			{
+				errorBudget -= 1;
+				trace = failingFixture;
+				failedTraces.increment();
+			}
+
+			traceId = traceIdPrefix + sequence++;
+
+			for (int i = 0; i < trace.size(); i++)
+			{
+				long startNanos = System.nanoTime();
+
+				try
+				{
+					NotificationSnapshot snapshot = new NotificationSnapshot(trace.getNotification(i), trace.getAction(i));
+
+					if (captureLog != null)
+						captureLog.record(snapshot);
+
+					notificationDispatcher.dispatch(snapshot);
+				}
+				catch (RuntimeException e)
+				{
+					errors.increment();
+				}
+
+				latency.record(System.nanoTime() - startNanos);
+			}
+
+			notifications.add(trace.size());
+			traces.increment();
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Counters at the start and the end of the measured run
+	// --------------------------------------------------------------------------------------------
+	private final class Counters
+	{
+		private final long nanos         = System.nanoTime();
+		private final long notifications = LoadGenerator.this.notifications.sum();
+		private final long traces        = LoadGenerator.this.traces.sum();
+		private final long failedTraces  = LoadGenerator.this.failedTraces.sum();
+		private final long exportedSpans = PerfSpanExporter.getInstance().getExportedSpanCount();
+
+		private final Map<Long, Long> allocatedBytes = allocatedBytesPerThread();
+
+		/**
+		 * @param from - counters at the start of the run
+		 * @param loadThreadsOnly
+		 * @return bytes allocated since {@code from} by the threads alive now
+		 */
+		long allocatedBytesSince(Counters from, LoadThread[] loadThreads, boolean loadThreadsOnly)
+		{
+			long bytes = 0;
+
+			for (Map.Entry<Long, Long> thread : allocatedBytes.entrySet())
+			{
+				if (!loadThreadsOnly || isLoadThread(thread.getKey(), loadThreads))
+					bytes += thread.getValue() - from.allocatedBytes.getOrDefault(thread.getKey(), 0L);
+			}
+
+			return bytes;
+		}
+
+		private boolean isLoadThread(long id, LoadThread[] loadThreads)
+		{
+			for (LoadThread loadThread : loadThreads)
+			{
+				if (loadThread.getId() == id)
+					return true;
+			}
+
+			return false;
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Report
+	// --------------------------------------------------------------------------------------------
+	private void report(LoadThread[] loadThreads, Counters start, Counters end, long peakHeap, long retainedHeap)
+	{
+		LatencyHistogram latency = new LatencyHistogram();
+
+		for (LoadThread loadThread : loadThreads)
+			latency.add(loadThread.latency);
+
+		double seconds = (end.nanos - start.nanos) / 1e9;
+		long measuredTraces = Math.max(1, end.traces - start.traces);
+
+		System.out.println();
+		System.out.println("==================================== Agent load test ====================================");
+		System.out.printf("Threads                  : %d%n", loadThreads.length);
+		System.out.printf("Measured                 : %.1f s%n", seconds);
+		System.out.printf("Traces                   : %d (%d failing)%n", end.traces - start.traces, end.failedTraces - start.failedTraces);
+		System.out.printf("Throughput               : %,.0f notifications/s, %,.0f traces/s%n",
+		                  (end.notifications - start.notifications) / seconds, (end.traces - start.traces) / seconds);
+		System.out.printf("Handler latency          : p50 %s, p99 %s, p99.9 %s, max %s, mean %s%n",
+		                  micros(latency.getPercentile(50)), micros(latency.getPercentile(99)),
+		                  micros(latency.getPercentile(99.9)), micros(latency.getMax()), micros((long) latency.getMean()));
+		System.out.printf("Handler errors           : %d%n", errors.sum());
+
+		if (!end.allocatedBytes.isEmpty())
+		{
+			System.out.printf("Allocation per trace     : %,d B on load threads, %,d B in the JVM%n",
+			                  end.allocatedBytesSince(start, loadThreads, true) / measuredTraces,
+			                  end.allocatedBytesSince(start, loadThreads, false) / measuredTraces);
+		}
+
+		System.out.printf("Heap                     : peak %,d MB, retained after the run %,d KB%n", peakHeap / MB, retainedHeap / KB);
+		System.out.printf("Trace store              : %d traces and %d spans in flight, %d traces evicted, %d root span only, %d unsampled%n",
+		                  traceStore.getInFlightTraceCount(), traceStore.getInFlightSpanCount(),
+		                  traceStore.getEvictedTraceCount(), traceStore.getRootSpanOnlyTraceCount(),
+		                  traceStore.getUnsampledTraceCount());
+
+		if (options.getMinSpanDurationMillis() > 0)
+			System.out.printf("Span compaction          : %d processor spans compacted%n", traceStore.getCompactedSpanCount());
+
+		if (!options.getTailRatio().isEmpty())
+			System.out.printf("Tail sampling            : %d traces kept, %d dropped, %d overflowed, %d spans held%n",
+			                  traceStore.getTailSamplingKeptTraceCount(), traceStore.getTailSamplingDroppedTraceCount(),
+			                  traceStore.getTailSamplingOverflowTraceCount(), traceStore.getTailSamplingHeldSpanCount());
+
+		if (!options.getRateLimit().isEmpty())
+			System.out.printf("Trace rate limits        : %s traces dropped%n",
+			                  OTelMuleNotificationHandler.getFlowRateLimiter().getDroppedTraceCounts());
+
+		AdaptiveSampler adaptiveSampler = OtelSdkSnapshot.current().getAdaptiveSampler();
+
+		if (adaptiveSampler != null)
+			System.out.printf("Adaptive sampling        : ratio %.3f, pressure %.2f, processor spans %s%n",
+			                  adaptiveSampler.getRatio(), adaptiveSampler.getPressure(),
+			                  adaptiveSampler.isProcessorSpansSuspended() ? "suspended" : "generated");
+
+		if (collector != null)
+			System.out.printf("Collector                : %d export requests, %,d bytes%n", collector.getRequestCount(), collector.getByteCount());
+		else
+			System.out.printf("Exporter                 : %.1f spans per trace%n",
+			                  (double) (end.exportedSpans - start.exportedSpans) / measuredTraces);
+
+		if (captureLog != null)
+			System.out.printf("Capture                  : %,d notifications to %s%n", captureLog.getRecordCount(), captureLog.getFile());
+
+		System.out.println("==========================================================================================");
+	}
+
+	private static String micros(long nanos)
+	{
+		return String.format("%.1f us", nanos / 1000.0);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private void progress(String name, int seconds) throws InterruptedException
+	{
+		long interval = (options.getReportIntervalSeconds() > 0) ? TimeUnit.SECONDS.toNanos(options.getReportIntervalSeconds())
+		                                                         : Long.MAX_VALUE;
+		long startNanos = System.nanoTime();
+		long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+		long lastNanos = startNanos;
+		long lastNotifications = notifications.sum();
+
+		while (true)
+		{
+			long now = System.nanoTime();
+
+			if (now >= endNanos)
+				return;
+
+			TimeUnit.NANOSECONDS.sleep(Math.min(interval, endNanos - now));
+
+			now = System.nanoTime();
+
+			if (now - lastNanos >= interval)
+			{
+				long count = notifications.sum();
+
+				System.out.printf("[%s %3ds] %,.0f notifications/s, %d traces in flight%n", name,
+				                  TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+				                  (count - lastNotifications) / ((now - lastNanos) / 1e9),
+				                  traceStore.getInFlightTraceCount());
+
+				lastNanos = now;
+				lastNotifications = count;
+			}
+		}
+	}
+
+	/**
+	 * Wait for the batch span processor to hand over the last spans
+	 */
+	private void awaitExport() throws InterruptedException
+	{
+		long last = -1;
+
+		for (int i = 0; i < 50; i++)
+		{
+			long exported = (collector != null) ? collector.getRequestCount() : PerfSpanExporter.getInstance().getExportedSpanCount();
+
+			if (exported == last)
+				return;
+
+			last = exported;
+			TimeUnit.MILLISECONDS.sleep(500);
+		}
+	}
+
+	private static Map<Long, Long> allocatedBytesPerThread()
+	{
+		Map<Long, Long> allocated = new HashMap<>();
+
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+		{
+			com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+			if (threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled())
+			{
+				long[] ids = threadMXBean.getAllThreadIds();
+				long[] bytes = threadMXBean.getThreadAllocatedBytes(ids);
+
+				for (int i = 0; i < ids.length; i++)
+				{
+					if (bytes[i] > 0)
+						allocated.put(ids[i], bytes[i]);
+				}
+			}
+		}
+
+		return allocated;
+	}
+
+	private static long usedHeapAfterGc() throws InterruptedException
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			System.gc();
+			TimeUnit.MILLISECONDS.sleep(200);
+		}
+
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static void resetPeakHeap()
+	{
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+		}
+	}
+
+	/**
+	 * @return sum of the peak usage of the heap pools (an upper bound of the peak heap usage)
+	 */
+	private static long peakHeap()
+	{
+		long peak = 0;
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+				peak += pool.getPeakUsage().getUsed();
+		}
+
+		return peak;
+	}
+}
@@ -0,0 +1,242 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//------------------------------------------------------------------------------------------------
+//	Command line options of the load generator:  "--name value" pairs, every option has a default.
+//------------------------------------------------------------------------------------------------
+/**
+ * Options of a {@link LoadGenerator} run.
+ */
+public final class LoadOptions
+{
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+	private static final Map<String, String> HELP     = new LinkedHashMap<>();
+
+	static
+	{
+		option("threads",             "8",                           "number of threads firing notifications");
+		option("duration",            "60",                          "measured run, in seconds");
+		option("warmup",              "15",                          "warmup before the measured run, in seconds");
+		option("rate",                "0",                           "target traces per second over all threads, 0 for as fast as possible");
+		option("source",              "http",                        "flow source: http or mq");
+		option("processors",          "8",                           "message processors per flow");
+		option("components",          "logger,http,db,mq,transform", "processor components, used in turn: logger, http, db, mq, transform");
+		option("flow-ref-depth",      "1",                           "flows nested through flow-refs below the main flow");
+		option("sub-flow-processors", "2",                           "processors of the sub-flow each flow calls, 0 for no sub-flow");
+		option("error-rate",          "0.01",                        "fraction of the traces failing in the innermost flow");
+		option("processor-spans",     "true",                        "generate message processor spans");
+		option("processor-durations", "false",                       "record processor durations instead of processor spans");
+		option("min-span-duration",   "0",                           "processor spans shorter than this (ms) are compacted into their flow span, 0 for none");
+		option("exporter",            "memory",                      "memory (count spans) or otlp (mock OTLP/HTTP collector)");
+		option("sampler",             "parentbased_always_on",       "head sampler (otel.traces.sampler), e.g. traceidratio");
+		option("sampling-ratio",      "1.0",                         "ratio of the trace id ratio samplers");
+		option("tail-ratio",          "",                            "baseline ratio of the tail sampler, no tail sampling when empty");
+		option("tail-latency",        "0",                           "root flow duration (ms) above which the tail sampler keeps a trace, 0 for none");
+		option("rate-limit",          "",                            "traces per second the root flow may start (trace rate limit), none when empty");
+		option("adaptive-tps",        "",                            "sampled traces per second budget of the adaptive sampler, no adaptive sampling when empty");
+		option("report-interval",     "5",                           "seconds between progress lines, 0 for none");
+		option("capture",             "",                            "file to capture the notifications to (see CaptureReplay), none when empty");
+		option("capture-size",        "256",                         "size of the capture file, in MB");
+	}
+
+	private final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+	private static void option(String name, String defaultValue, String help)
+	{
+		DEFAULTS.put(name, defaultValue);
+		HELP.put(name, help);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Parsing
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @param args - "--name value" pairs
+	 * @return the options
+	 * @throws IllegalArgumentException - unknown option or missing value
+	 */
+	public static LoadOptions parse(String[] args)
+	{
+		LoadOptions options = new LoadOptions();
+		List<String> arguments = Arrays.asList(args);
+
+		for (int i = 0; i < arguments.size(); i += 2)
+		{
+			String name = arguments.get(i);
+
+			if (!name.startsWith("--") || !DEFAULTS.containsKey(name.substring(2)))
+				throw new IllegalArgumentException("Unknown option " + name);
+			if (i + 1 >= arguments.size())
+				throw new IllegalArgumentException("Missing value for " + name);
+
+			options.values.put(name.substring(2), arguments.get(i + 1));
+		}
+
+		return options;
+	}
+
+	public static String usage()
+	{
+		StringBuilder usage = new StringBuilder("Options:\n");
+
+		for (Map.Entry<String, String> option : HELP.entrySet())
+			usage.append(String.format("  --%-20s %s (default %s)%n", option.getKey(), option.getValue(), DEFAULTS.get(option.getKey())));
+
+		return usage.toString();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Getters
+	// --------------------------------------------------------------------------------------------
+	public int getThreads()
+	{
+		return getInt("threads");
+	}
+
+	public int getDurationSeconds()
+	{
+		return getInt("duration");
+	}
+
+	public int getWarmupSeconds()
+	{
+		return getInt("warmup");
+	}
+
+	public double getRate()
+	{
+		return getDouble("rate");
+	}
+
+	public String getSource()
+	{
+		return values.get("source");
+	}
+
+	public int getProcessors()
+	{
+		return getInt("processors");
+	}
+
+	public String[] getComponents()
+	{
+		return values.get("components").split(",");
+	}
+
+	public int getFlowRefDepth()
+	{
+		return getInt("flow-ref-depth");
+	}
+
+	public int getSubFlowProcessors()
+	{
+		return getInt("sub-flow-processors");
+	}
+
+	public double getErrorRate()
+	{
+		return getDouble("error-rate");
+	}
+
+	public boolean getProcessorSpans()
+	{
+		return Boolean.parseBoolean(values.get("processor-spans"));
+	}
+
+	public boolean getProcessorDurations()
+	{
+		return Boolean.parseBoolean(values.get("processor-durations"));
+	}
+
+	public long getMinSpanDurationMillis()
+	{
+		return Long.parseLong(values.get("min-span-duration"));
+	}
+
+	public String getExporter()
+	{
+		return values.get("exporter");
+	}
+
+	public String getSampler()
+	{
+		return values.get("sampler");
+	}
+
+	public String getSamplingRatio()
+	{
+		return values.get("sampling-ratio");
+	}
+
+	public String getTailRatio()
+	{
+		return values.get("tail-ratio");
+	}
+
+	public long getTailLatencyMillis()
+	{
+		return Long.parseLong(values.get("tail-latency"));
+	}
+
+	public String getRateLimit()
+	{
+		return values.get("rate-limit");
+	}
+
+	public String getAdaptiveTracesPerSecond()
+	{
+		return values.get("adaptive-tps");
+	}
+
+	public int getReportIntervalSeconds()
+	{
+		return getInt("report-interval");
+	}
+
+	public String getCapture()
+	{
+		return values.get("capture");
+	}
+
+	public int getCaptureSizeMBytes()
+	{
+		return getInt("capture-size");
+	}
+
+	@Override
+	public String toString()
+	{
+		return values.toString();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private int getInt(String name)
+	{
+		try
+		{
+			return Integer.parseInt(values.get(name));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("--" + name + " must be an integer");
+		}
+	}
+
+	private double getDouble(String name)
+	{
+		try
+		{
+			return Double.parseDouble(values.get(name));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("--" + name + " must be a number");
+		}
+	}
+}
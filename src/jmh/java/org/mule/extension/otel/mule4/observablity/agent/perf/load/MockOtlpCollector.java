@@ -0,0 +1,92 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+//------------------------------------------------------------------------------------------------
+//	Minimal OTLP/HTTP collector on the loopback interface:  accepts every export request on
+//	/v1/traces with an empty (success) protobuf response and only counts requests and bytes, so
+//	the load run pays the real OTLP serialization and transport cost without a collector to
+//	deploy.
+//------------------------------------------------------------------------------------------------
+/**
+ * Local OTLP/HTTP trace endpoint which discards what it receives.
+ */
+public final class MockOtlpCollector implements AutoCloseable
+{
+	public static final String TRACES_PATH = "/v1/traces";
+
+	private final HttpServer      server;
+	private final ExecutorService executor = Executors.newFixedThreadPool(2, (runnable) ->
+	{
+		Thread thread = new Thread(runnable, "mock-otlp-collector");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder bytes    = new LongAdder();
+
+	public MockOtlpCollector() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+		server.createContext(TRACES_PATH, this::export);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * @return URL of the traces endpoint, for {@code otel.exporter.otlp.traces.endpoint}
+	 */
+	public String getTracesEndpoint()
+	{
+		return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + TRACES_PATH;
+	}
+
+	public long getRequestCount()
+	{
+		return requests.sum();
+	}
+
+	public long getByteCount()
+	{
+		return bytes.sum();
+	}
+
+	@Override
+	public void close()
+	{
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private void export(HttpExchange exchange) throws IOException
+	{
+		byte[] buffer = new byte[8192];
+		long received = 0;
+
+		try (InputStream body = exchange.getRequestBody())
+		{
+			for (int n; (n = body.read(buffer)) >= 0;)
+				received += n;
+		}
+
+		requests.increment();
+		bytes.add(received);
+
+		exchange.getResponseHeaders().set("Content-Type", "application/x-protobuf");
+		exchange.sendResponseHeaders(200, -1);
+		exchange.close();
+	}
+}
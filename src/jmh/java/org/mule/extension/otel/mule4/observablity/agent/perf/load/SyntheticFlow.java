@@ -0,0 +1,196 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.load;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.FlowFixture;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.metadata.TypedValue;
+
+//------------------------------------------------------------------------------------------------
+//	Builds the notification stream of a synthetic Mule application from the load options:
+//
+//	  load-flow-0 (http:listener or anypoint-mq:subscriber)
+//	    processors 0 .. n/2-1
+//	    flow-ref -> load-sub-flow-0 (sub-flow processors)
+//	    flow-ref -> load-flow-1 (same layout, down to the flow-ref depth)
+//	    processors n/2 .. n-1
+//
+//	Processors use the configured components in turn.  In a failing execution the innermost flow
+//	runs a failing processor in place of its second half and the error propagates up:  the
+//	remaining processors do not run and every flow-ref and flow ends with the error.
+//------------------------------------------------------------------------------------------------
+/**
+ * Synthetic flow executions for the {@link LoadGenerator}.
+ */
+public final class SyntheticFlow
+{
+	private static final String FLOW     = "load-flow-";
+	private static final String SUB_FLOW = "load-sub-flow-";
+
+	/**
+	 * Name of the flow starting each trace
+	 */
+	static final String ROOT_FLOW = FLOW + 0;
+
+	private final LoadOptions options;
+	private final Exception   failure = new RuntimeException("Synthetic processor failure");
+
+	public SyntheticFlow(LoadOptions options)
+	{
+		this.options = options;
+
+		for (String component : options.getComponents())
+		{
+			if (!component.matches("logger|http|db|mq|transform"))
+				throw new IllegalArgumentException("Unknown component " + component);
+		}
+	}
+
+	/**
+	 * @param correlationId - supplies the MuleSoft trace id of the execution being replayed
+	 * @param failing - the execution ends with an error
+	 * @return the notifications of one execution of the application
+	 */
+	public FlowFixture build(Supplier<String> correlationId, boolean failing)
+	{
+		boolean mq = "mq".equals(options.getSource());
+		ComponentLocation source = mq ? MuleFixtures.source(FLOW + 0, "anypoint-mq", "subscriber")
+		                              : MuleFixtures.source(FLOW + 0, "http", "listener");
+		Object sourceAttributes = mq ? MuleFixtures.anypointMQMessageAttributes("load-queue")
+		                             : MuleFixtures.httpRequestAttributes("POST", "/api/load");
+
+		FlowFixture fixture = new FlowFixture(correlationId, source);
+
+		flow(fixture, 0, sourceAttributes, failing);
+
+		return fixture;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @return true when the flow ended with an error
+	 */
+	private boolean flow(FlowFixture fixture, int depth, Object attributes, boolean failing)
+	{
+		String flowName = FLOW + depth;
+		int processors = options.getProcessors();
+		int half = processors / 2;
+		int index = 0;
+		boolean innermost = (depth == options.getFlowRefDepth());
+		boolean failed = false;
+
+		fixture.flowStart(flowName, attributes);
+
+		for (; index < half; index++)
+			processor(fixture, flowName, flowName, index, null);
+
+		if (options.getSubFlowProcessors() > 0)
+		{
+			String subFlowName = SUB_FLOW + depth;
+
+			flowRefStart(fixture, flowName, index, subFlowName);
+
+			for (int i = 0; i < options.getSubFlowProcessors(); i++)
+				processor(fixture, subFlowName, flowName, i, null);
+
+			fixture.processorEnd(flowName, index++, null, null);
+		}
+
+		if (!innermost)
+		{
+			flowRefStart(fixture, flowName, index, FLOW + (depth + 1));
+
+			failed = flow(fixture, depth + 1, null, failing);
+
+			fixture.processorEnd(flowName, index++, null, null, failed ? failure : null);
+		}
+
+		if (innermost && failing)
+		{
+			processor(fixture, flowName, flowName, index, failure);
+			failed = true;
+		}
+
+		for (int i = half; !failed && i < processors; i++)
+			processor(fixture, flowName, flowName, index++, null);
+
+		fixture.flowEnd(flowName, failed ? failure : null);
+
+		return failed;
+	}
+
+	private void flowRefStart(FlowFixture fixture, String flowName, int index, String target)
+	{
+		fixture.processorStart(flowName, index, "mule", "flow-ref", MuleFixtures.parameters("doc:name", "Flow Reference", "name", target));
+	}
+
+	/**
+	 * @param containerName - flow or sub-flow of the processor
+	 * @param flowName - flow running the processor
+	 * @param exception - error raised by the processor, may be null
+	 */
+	private void processor(FlowFixture fixture, String containerName, String flowName, int index, Exception exception)
+	{
+		String[] components = options.getComponents();
+		String component = components[index % components.length];
+		String namespace;
+		String name;
+		Map<String, String> parameters;
+		Object attributes = null;
+		Map<String, TypedValue<?>> variables = null;
+
+		switch (component)
+		{
+			case "http":
+				namespace = "http";
+				name = "request";
+				parameters = MuleFixtures.parameters("doc:name", "Request " + index, "config-ref", AgentFixtures.HTTP_REQUEST_CONFIG,
+				                                     "method", "GET", "path", "/backend/" + index);
+				attributes = (exception == null) ? MuleFixtures.httpResponseAttributes(200) : null;
+				break;
+
+			case "db":
+				namespace = "db";
+				name = "select";
+				parameters = MuleFixtures.parameters("doc:name", "Select " + index, "config-ref", AgentFixtures.DB_CONFIG,
+				                                     "sql", "SELECT * FROM load WHERE id = :id");
+				break;
+
+			case "mq":
+				namespace = "anypoint-mq";
+				name = "publish";
+				parameters = MuleFixtures.parameters("doc:name", "Publish " + index, "config-ref", AgentFixtures.ANYPOINT_MQ_CONFIG,
+				                                     "destination", "load-queue");
+				attributes = (exception == null) ? MuleFixtures.anypointMQMessagePublishAttributes() : null;
+				break;
+
+			case "transform":
+				namespace = "ee";
+				name = "transform";
+				parameters = MuleFixtures.parameters("doc:name", "Transform " + index);
+				break;
+
+			default:
+				namespace = "mule";
+				name = "logger";
+				parameters = MuleFixtures.parameters("doc:name", "Logger " + index, "level", "INFO");
+				variables = Collections.singletonMap(Constants.LOGGER_OUTPUT_KEY,
+				                                     MuleFixtures.typedValue("processed " + containerName + "/" + index));
+				break;
+		}
+
+		if (containerName.equals(flowName))
+			fixture.processorStart(flowName, index, namespace, name, parameters);
+		else
+			fixture.subFlowProcessorStart(containerName, flowName, index, namespace, name, parameters);
+
+		fixture.processorEnd(containerName, index, attributes, variables, exception);
+	}
+}
@@ -0,0 +1,433 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.replay;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureReader;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureReader.CapturedComponent;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.AgentFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.MuleFixtures;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.PerfSpanExporter;
+import org.mule.extension.otel.mule4.observablity.agent.perf.load.LatencyHistogram;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+
+//------------------------------------------------------------------------------------------------
+//	Replays a notification capture (see NotificationCaptureLog) through the notification
+//	dispatcher and handler, with the OpenTelemetry SDK exporting to memory.
+//
+//	The records are partitioned over the replay threads by trace, so the notifications of a trace
+//	are replayed in their captured order.  At speed 1 every notification is fired at its captured
+//	time, at speed 10 ten times faster and at speed 0 as fast as possible.  Notifications carry
+//	their captured timestamp, so the spans have their captured durations whatever the speed.
+//
+//	A capture holds metadata and timing only:  connector attributes are synthesized from the
+//	component (HTTP request and response, Anypoint MQ) so the parsers run their usual path.
+//
+//	mvn -Pjmh test-compile exec:exec@replay -Dreplay.args="--capture otel-agent-my-app.capture --speed 10"
+//------------------------------------------------------------------------------------------------
+/**
+ * Replay driver for notification captures.
+ */
+public final class CaptureReplay
+{
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+	private static final Map<String, String> HELP     = new LinkedHashMap<>();
+
+	static
+	{
+		option("capture",         "",     "capture file to replay (required)");
+		option("speed",           "1",    "replay speed:  1 for the captured timing, 10 for ten times faster, 0 for as fast as possible");
+		option("threads",         "4",    "replay threads, the traces are partitioned over the threads");
+		option("loops",           "1",    "number of times the capture is replayed, with new trace ids every loop");
+		option("processor-spans", "true", "generate message processor spans");
+	}
+
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final NotificationCaptureReader capture;
+	private final double                    speed;
+	private final int                       loops;
+	private final NotificationDispatcher    notificationDispatcher;
+	private final MuleSoftTraceStore        traceStore;
+
+	private final Map<Integer, Component>                  components    = new ConcurrentHashMap<>();
+	private final Map<Long, EnrichedServerNotification>    notifications = new ConcurrentHashMap<>();
+	private final ThreadLocal<ReplayThread>                current       = new ThreadLocal<>();
+	private final LongAdder                                errors        = new LongAdder();
+
+	public static void main(String[] args) throws Exception
+	{
+		Map<String, String> options;
+
+		try
+		{
+			options = parse(args);
+
+			if (options.get("capture").isEmpty())
+				throw new IllegalArgumentException("Missing --capture");
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(usage());
+			System.exit(2);
+			return;
+		}
+
+		new CaptureReplay(options).run(Integer.parseInt(options.get("threads")));
+
+		System.exit(0);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	public CaptureReplay(Map<String, String> options) throws Exception
+	{
+		this.capture = new NotificationCaptureReader(options.get("capture"));
+		this.speed = Double.parseDouble(options.get("speed"));
+		this.loops = Integer.parseInt(options.get("loops"));
+
+		OTelMuleNotificationHandler handler = new OTelMuleNotificationHandler(
+			AgentFixtures.sdkInitializer(AgentFixtures.spanGenerationConfig(Boolean.parseBoolean(options.get("processor-spans"))),
+			                             AgentFixtures.customAttributesConfig(false, false, false, null),
+			                             MuleFixtures.expressionManager("value")));
+
+		notificationDispatcher = new NotificationDispatcher(handler, null);
+		traceStore = OTelMuleNotificationHandler.getMuleSoftTraceStore();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Run
+	// --------------------------------------------------------------------------------------------
+	public void run(int threads) throws InterruptedException
+	{
+		ReplayThread[] replayThreads = partition(threads);
+		long exportedSpans = PerfSpanExporter.getInstance().getExportedSpanCount();
+
+		System.out.printf("Replaying %,d notifications of %d components (%,d not captured), %d loop(s) at speed %s%n",
+		                  capture.getRecordCount(), capture.getComponents().size(), capture.getDroppedCount(), loops,
+		                  (speed > 0) ? speed + "x" : "max");
+
+		long startNanos = System.nanoTime();
+
+		for (ReplayThread replayThread : replayThreads)
+		{
+			replayThread.startNanos = startNanos;
+			replayThread.start();
+		}
+
+		for (ReplayThread replayThread : replayThreads)
+			replayThread.join();
+
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+		awaitExport();
+		report(replayThreads, seconds, PerfSpanExporter.getInstance().getExportedSpanCount() - exportedSpans);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Replay thread:  fires the notifications of its traces, in order, on schedule
+	// --------------------------------------------------------------------------------------------
+	private final class ReplayThread extends Thread
+	{
+		private final int[]            records;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LatencyHistogram lag     = new LatencyHistogram();
+
+		private long   startNanos;
+		private long   replayed;
+		private String traceId;
+		private long   timestamp;
+
+		ReplayThread(int index, int[] records)
+		{
+			super("capture-replay-" + index);
+
+			this.records = records;
+
+			setDaemon(true);
+		}
+
+		@Override
+		public void run()
+		{
+			current.set(this);
+
+			long firstNanos = (capture.getRecordCount() > 0) ? capture.getNanos(0) : 0;
+			long loopNanos = (capture.getRecordCount() > 0) ? capture.getNanos(capture.getRecordCount() - 1) - firstNanos + 1 : 0;
+
+			for (int loop = 0; loop < loops; loop++)
+			{
+				for (int record : records)
+				{
+					if (speed > 0)
+						await(startNanos + (long) ((loop * loopNanos + capture.getNanos(record) - firstNanos) / speed));
+
+					replay(record, loop);
+				}
+			}
+		}
+
+		private void await(long targetNanos)
+		{
+			long wait;
+
+			while ((wait = targetNanos - System.nanoTime()) > 0)
+			{
+				if (wait > SPIN_NANOS)
+					LockSupport.parkNanos(wait - SPIN_NANOS);
+				else
+					Thread.yield();
+			}
+
+			lag.record(-wait);
+		}
+
+		private void replay(int record, int loop)
+		{
+			String hash = Long.toHexString(capture.getTraceHash(record));
+
+			traceId = (loop == 0) ? hash : hash + "-" + loop;
+			timestamp = capture.getStartEpochMillis() + TimeUnit.NANOSECONDS.toMillis(capture.getNanos(record));
+
+			EnrichedServerNotification notification = notification(record);
+			long start = System.nanoTime();
+
+			try
+			{
+				notificationDispatcher.dispatch(notification, capture.getAction(record));
+			}
+			catch (RuntimeException e)
+			{
+				errors.increment();
+			}
+
+			latency.record(System.nanoTime() - start);
+			replayed++;
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Report
+	// --------------------------------------------------------------------------------------------
+	private void report(ReplayThread[] replayThreads, double seconds, long exportedSpans)
+	{
+		LatencyHistogram latency = new LatencyHistogram();
+		LatencyHistogram lag = new LatencyHistogram();
+		long replayed = 0;
+
+		for (ReplayThread replayThread : replayThreads)
+		{
+			latency.add(replayThread.latency);
+			lag.add(replayThread.lag);
+			replayed += replayThread.replayed;
+		}
+
+		System.out.println();
+		System.out.println("==================================== Capture replay ====================================");
+		System.out.printf("Threads                  : %d%n", replayThreads.length);
+		System.out.printf("Replayed                 : %,d notifications in %.1f s, %,.0f notifications/s%n", replayed, seconds,
+		                  replayed / seconds);
+		System.out.printf("Handler latency          : p50 %s, p99 %s, p99.9 %s, max %s, mean %s%n",
+		                  micros(latency.getPercentile(50)), micros(latency.getPercentile(99)),
+		                  micros(latency.getPercentile(99.9)), micros(latency.getMax()), micros((long) latency.getMean()));
+
+		if (speed > 0)
+			System.out.printf("Behind schedule          : p50 %s, p99 %s, max %s%n", micros(lag.getPercentile(50)),
+			                  micros(lag.getPercentile(99)), micros(lag.getMax()));
+
+		System.out.printf("Handler errors           : %d%n", errors.sum());
+		System.out.printf("Trace store              : %d traces and %d spans in flight, %d traces evicted%n",
+		                  traceStore.getInFlightTraceCount(), traceStore.getInFlightSpanCount(), traceStore.getEvictedTraceCount());
+		System.out.printf("Exporter                 : %,d spans%n", exportedSpans);
+		System.out.println("==========================================================================================");
+	}
+
+	private static String micros(long nanos)
+	{
+		return String.format("%.1f us", nanos / 1000.0);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Notifications:  one fake per component, action, exception type and source, built on first
+	// use.  The correlation id and the timestamp are read from the replay thread.
+	// --------------------------------------------------------------------------------------------
+	private EnrichedServerNotification notification(int record)
+	{
+		int componentIndex = capture.getComponentIndex(record);
+		int action = capture.getAction(record);
+		boolean exception = capture.hasException(record);
+		int detail = capture.getDetail(record);
+		long key = ((long) componentIndex << 40) | ((long) (action & 0xffff) << 24) | ((exception ? 1L : 0L) << 23)
+		           | ((detail + 1) & 0x7fffff);
+
+		EnrichedServerNotification notification = notifications.get(key);
+
+		if (notification == null)
+			notification = notifications.computeIfAbsent(key, (k) -> buildNotification(componentIndex, action, exception, detail));
+
+		return notification;
+	}
+
+	private EnrichedServerNotification buildNotification(int componentIndex, int action, boolean failed, int detail)
+	{
+		CapturedComponent capturedComponent = capture.getComponents().get(componentIndex);
+		Component component = components.computeIfAbsent(componentIndex, (i) -> buildComponent(capturedComponent));
+		String componentId = capturedComponent.getNamespace() + ":" + capturedComponent.getName();
+		Exception exception = failed ? new RuntimeException("Captured " + capture.getString(detail)) : null;
+		ComponentLocation source = null;
+		Object attributes = null;
+		Map<String, TypedValue<?>> variables = null;
+
+		if (action == PipelineMessageNotification.PROCESS_START && !failed && capture.getString(detail) != null)
+		{
+			String[] sourceId = capture.getString(detail).split(":", 2);
+
+			source = MuleFixtures.source(capturedComponent.getRootContainerName(), sourceId[0], sourceId[1]);
+
+			if ("http:listener".equals(capture.getString(detail)))
+				attributes = MuleFixtures.httpRequestAttributes("GET", "/" + capturedComponent.getRootContainerName());
+			else if ("anypoint-mq:subscriber".equals(capture.getString(detail)))
+				attributes = MuleFixtures.anypointMQMessageAttributes("replay-queue");
+		}
+		else if (action == MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE && !failed)
+		{
+			if ("http:request".equals(componentId))
+				attributes = MuleFixtures.httpResponseAttributes(200);
+			else if ("anypoint-mq:publish".equals(componentId))
+				attributes = MuleFixtures.anypointMQMessagePublishAttributes();
+			else if ("mule:logger".equals(componentId))
+				variables = Collections.singletonMap(Constants.LOGGER_OUTPUT_KEY, MuleFixtures.typedValue("replayed " + capturedComponent.getLocation()));
+		}
+
+		Event event = MuleFixtures.event(() -> current.get().traceId, source, attributes, variables);
+		Class<? extends EnrichedServerNotification> type = (action == PipelineMessageNotification.PROCESS_START || action == PipelineMessageNotification.PROCESS_COMPLETE)
+		                                                   ? PipelineMessageNotification.class
+		                                                   : MessageProcessorNotification.class;
+
+		return MuleFixtures.notification(type, action, component, event, exception, () -> current.get().timestamp);
+	}
+
+	private static Component buildComponent(CapturedComponent capturedComponent)
+	{
+		if (capturedComponent.getCallingFlowName() != null)
+		{
+			return MuleFixtures.subFlowComponent(capturedComponent.getLocation(), capturedComponent.getRootContainerName(),
+			                                     capturedComponent.getCallingFlowName(), capturedComponent.getNamespace(),
+			                                     capturedComponent.getName(), capturedComponent.getParameters());
+		}
+
+		return MuleFixtures.component(capturedComponent.getLocation(), capturedComponent.getRootContainerName(),
+		                              capturedComponent.getNamespace(), capturedComponent.getName(),
+		                              capturedComponent.getParameters());
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @return replay threads, each with the records of its traces in captured order
+	 */
+	private ReplayThread[] partition(int threads)
+	{
+		int[] counts = new int[threads];
+		int[] partitions = new int[capture.getRecordCount()];
+
+		for (int record = 0; record < capture.getRecordCount(); record++)
+		{
+			long hash = capture.getTraceHash(record);
+
+			partitions[record] = capture.isWritten(record) ? (int) (((hash ^ (hash >>> 32)) & 0x7fffffff) % threads) : -1;
+
+			if (partitions[record] >= 0)
+				counts[partitions[record]]++;
+		}
+
+		int[][] records = new int[threads][];
+
+		for (int i = 0; i < threads; i++)
+			records[i] = new int[counts[i]];
+
+		int[] next = new int[threads];
+
+		for (int record = 0; record < partitions.length; record++)
+		{
+			if (partitions[record] >= 0)
+				records[partitions[record]][next[partitions[record]]++] = record;
+		}
+
+		ReplayThread[] replayThreads = new ReplayThread[threads];
+
+		for (int i = 0; i < threads; i++)
+			replayThreads[i] = new ReplayThread(i, records[i]);
+
+		return replayThreads;
+	}
+
+	private static void awaitExport() throws InterruptedException
+	{
+		long last = -1;
+
+		for (int i = 0; i < 50; i++)
+		{
+			long exported = PerfSpanExporter.getInstance().getExportedSpanCount();
+
+			if (exported == last)
+				return;
+
+			last = exported;
+			TimeUnit.MILLISECONDS.sleep(500);
+		}
+	}
+
+	private static void option(String name, String defaultValue, String help)
+	{
+		DEFAULTS.put(name, defaultValue);
+		HELP.put(name, help);
+	}
+
+	private static Map<String, String> parse(String[] args)
+	{
+		Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+
+		for (int i = 0; i < args.length; i += 2)
+		{
+			String name = args[i];
+
+			if (!name.startsWith("--") || !DEFAULTS.containsKey(name.substring(2)))
+				throw new IllegalArgumentException("Unknown option " + name);
+			if (i + 1 >= args.length)
+				throw new IllegalArgumentException("Missing value for " + name);
+
+			options.put(name.substring(2), args[i + 1]);
+		}
+
+		return options;
+	}
+
+	private static String usage()
+	{
+		StringBuilder usage = new StringBuilder("Options:\n");
+
+		for (Map.Entry<String, String> option : HELP.entrySet())
+			usage.append(String.format("  --%-16s %s (default %s)%n", option.getKey(), option.getValue(), DEFAULTS.get(option.getKey())));
+
+		return usage.toString();
+	}
+}
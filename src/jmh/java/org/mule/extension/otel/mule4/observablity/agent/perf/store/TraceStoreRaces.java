@@ -0,0 +1,479 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.store;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.SpanHandle;
+import org.mule.extension.otel.mule4.observablity.agent.perf.fixture.SpanCounter;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+//------------------------------------------------------------------------------------------------
+//	Races on the MuleSoftTraceStore, in the style of jcstress:  every round a few actor threads,
+//	spinning on a shared round number so they start together, run one interleaving of trace
+//	operations on a fresh trace; once they are done an arbiter finishes the trace and the round
+//	outcome is checked:
+//
+//	  - no trace and no span left in the store
+//	  - every span started was ended (spans are counted by an SDK span processor)
+//	  - the trace was ended once, or up to as many times as the scenario allows:  flows of the
+//	    same correlation id which do not overlap are traces of their own
+//
+//	The outcomes of all rounds are tallied per scenario; any outcome other than "ok" is a
+//	violation.  The trace operations follow OTelMuleNotificationHandler:  the first flow of a
+//	trace starts it, the flow which closes the last open pipeline ends it.
+//------------------------------------------------------------------------------------------------
+/**
+ * Concurrency stress scenarios for the {@link MuleSoftTraceStore}.
+ */
+public final class TraceStoreRaces
+{
+	private static final String OK = "ok";
+
+	private final SpanCounter spanCounter = new SpanCounter();
+	private final Tracer      tracer;
+
+	public TraceStoreRaces()
+	{
+		tracer = SdkTracerProvider.builder()
+		                          .addSpanProcessor(spanCounter)
+		                          .build()
+		                          .get("trace-store-races");
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Scenarios
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * One interleaving of trace operations on {@link Round#traceId}
+	 */
+	public interface Scenario
+	{
+		String getName();
+
+		String getDescription();
+
+		int getActors();
+
+		/**
+		 * @return most traces the rounds may end, at least 1
+		 */
+		int getMaxTraces();
+
+		/**
+		 * Called before the actors start
+		 */
+		void setup(Round round);
+
+		void actor(int actor, Round round);
+
+		/**
+		 * Called once all actors are done
+		 */
+		void arbiter(Round round);
+	}
+
+	/**
+	 * @return the scenarios of the suite
+	 */
+	public List<Scenario> scenarios()
+	{
+		List<Scenario> scenarios = new ArrayList<>();
+
+		scenarios.add(scenario("parallel-routes",
+		                       "scatter-gather: routes run as pipelines of one trace while the flow adds processors",
+		                       3, 1,
+		                       (round) -> flowStart(round, "_main"),
+		                       (actor, round) ->
+		                       {
+		                           if (actor < 2)
+		                           {
+		                               flowStart(round, "_route-" + actor);
+		                               processor(round, "_route-" + actor, "_route-" + actor + "/processors/0");
+		                               flowEnd(round, "_route-" + actor);
+		                           }
+		                           else
+		                           {
+		                               processor(round, "_main", "_main/processors/0");
+		                               processor(round, "_main", "_main/processors/1");
+		                           }
+		                       },
+		                       (round) -> flowEnd(round, "_main")));
+
+		scenarios.add(scenario("async-scope",
+		                       "the flow ends while processors of its async scope start and end",
+		                       2, 1,
+		                       (round) -> flowStart(round, "_main"),
+		                       (actor, round) ->
+		                       {
+		                           if (actor == 0)
+		                               flowEnd(round, "_main");
+		                           else
+		                               processor(round, "_main", "_main/processors/1/processors/0");
+		                       },
+		                       (round) -> { }));
+
+		scenarios.add(scenario("shared-correlation-id",
+		                       "two flows of the same correlation id start and end concurrently",
+		                       2, 2,
+		                       (round) -> { },
+		                       (actor, round) ->
+		                       {
+		                           flowStart(round, "_flow-" + actor);
+		                           processor(round, "_flow-" + actor, "_flow-" + actor + "/processors/0");
+		                           flowEnd(round, "_flow-" + actor);
+		                       },
+		                       (round) -> { }));
+
+		scenarios.add(scenario("replaced-trace",
+		                       "a second request of the same correlation id starts the same flow while the first is still open",
+		                       2, 2,
+		                       (round) ->
+		                       {
+		                           traceStart(round, "_main");
+		                           round.store.addMessageProcessorSpan(round.traceId, "_main", "_main/processors/0",
+		                                                               tracer.spanBuilder("_main/processors/0"), null);
+		                       },
+		                       (actor, round) ->
+		                       {
+		                           if (actor == 0)
+		                           {
+		                               SpanHandle handle = round.store.removeMessageProcessorSpan(round.traceId, "_main",
+		                                                                                          "_main/processors/0");
+
+		                               round.store.endMessageProcessorSpan(handle, Instant.now());
+		                           }
+		                           else
+		                           {
+		                               traceStart(round, "_main");
+		                               processor(round, "_main", "_main/processors/1");
+		                           }
+		                           flowEnd(round, "_main");
+		                       },
+		                       (round) -> { }));
+
+		scenarios.add(scenario("flow-ref-end",
+		                       "a flow-ref target ends while the calling flow ends",
+		                       2, 1,
+		                       (round) ->
+		                       {
+		                           flowStart(round, "_main");
+		                           flowStart(round, "_child");
+		                       },
+		                       (actor, round) ->
+		                       {
+		                           String flow = (actor == 0) ? "_main" : "_child";
+
+		                           processor(round, flow, flow + "/processors/0");
+		                           flowEnd(round, flow);
+		                       },
+		                       (round) -> { }));
+
+		return scenarios;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Trace operations, as done by OTelMuleNotificationHandler
+	// --------------------------------------------------------------------------------------------
+	private void flowStart(Round round, String pipelineId)
+	{
+		MuleSoftTraceStore store = round.store;
+
+		if (!store.isTracePresent(round.traceId))
+			store.startTrace(round.traceId, pipelineId, tracer.spanBuilder(pipelineId).startSpan());
+		else
+			store.addPipelineSpan(round.traceId, pipelineId, tracer.spanBuilder(pipelineId));
+	}
+
+	private void traceStart(Round round, String pipelineId)
+	{
+		round.store.startTrace(round.traceId, pipelineId, tracer.spanBuilder(pipelineId).startSpan());
+	}
+
+	private void flowEnd(Round round, String pipelineId)
+	{
+		MuleSoftTraceStore store = round.store;
+
+		store.endPipelineSpan(round.traceId, pipelineId, Instant.now(), null);
+
+		if (store.isPipelineSpansEmpty(round.traceId) && store.endTrace(round.traceId) > 0)
+			round.tracesEnded.increment();
+	}
+
+	private void processor(Round round, String pipelineId, String location)
+	{
+		MuleSoftTraceStore store = round.store;
+
+		store.addMessageProcessorSpan(round.traceId, pipelineId, location, tracer.spanBuilder(location), null);
+
+		SpanHandle handle = store.removeMessageProcessorSpan(round.traceId, pipelineId, location);
+
+		store.endMessageProcessorSpan(handle, Instant.now());
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Runner
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * State shared by the actors and the arbiter of one round
+	 */
+	public static final class Round
+	{
+		private final MuleSoftTraceStore store;
+		private final String             traceId;
+		private final LongAdder          tracesEnded = new LongAdder();
+
+		private Round(MuleSoftTraceStore store, String traceId)
+		{
+			this.store = store;
+			this.traceId = traceId;
+		}
+	}
+
+	/**
+	 * @param scenario
+	 * @param rounds
+	 * @return number of rounds per outcome
+	 */
+	public Map<String, Long> run(Scenario scenario, int rounds)
+	{
+		Map<String, Long> outcomes = new TreeMap<>();
+		Actors actors = new Actors(scenario);
+		MuleSoftTraceStore store = new MuleSoftTraceStore();
+
+		try
+		{
+			for (int r = 1; r <= rounds; r++)
+			{
+				long openSpans = spanCounter.getOpenCount();
+				Round round = new Round(store, scenario.getName() + "-" + r);
+
+				scenario.setup(round);
+				actors.run(r, round);
+				scenario.arbiter(round);
+
+				String outcome = outcome(scenario, round, openSpans, actors.takeFailure());
+
+				outcomes.merge(outcome, 1L, Long::sum);
+
+				//
+				// a dirty store would fail the next rounds as well
+				//
+				if (!isOk(outcome))
+					store = new MuleSoftTraceStore();
+			}
+		}
+		finally
+		{
+			actors.stop();
+		}
+
+		return outcomes;
+	}
+
+	private String outcome(Scenario scenario, Round round, long openSpansBefore, Throwable failure)
+	{
+		List<String> violations = new ArrayList<>();
+		long leakedSpans = spanCounter.getOpenCount() - openSpansBefore;
+
+		if (failure != null)
+			violations.add("actor failed: " + failure);
+		if (round.store.getInFlightTraceCount() > 0)
+			violations.add("trace left in store");
+		if (round.store.getInFlightSpanCount() > 0)
+			violations.add(round.store.getInFlightSpanCount() + " span(s) left in store");
+		if (leakedSpans > 0)
+			violations.add(leakedSpans + " span(s) never ended");
+		if (round.tracesEnded.sum() < 1 || round.tracesEnded.sum() > scenario.getMaxTraces())
+			violations.add(round.tracesEnded.sum() + " trace(s) ended");
+
+		if (!violations.isEmpty())
+			return String.join(", ", violations);
+
+		return (scenario.getMaxTraces() > 1) ? OK + ", " + round.tracesEnded.sum() + " trace(s) ended" : OK;
+	}
+
+	private static boolean isOk(String outcome)
+	{
+		return outcome.startsWith(OK);
+	}
+
+	/**
+	 * @param outcomes
+	 * @return number of rounds with a violation
+	 */
+	public static long violations(Map<String, Long> outcomes)
+	{
+		long violations = 0;
+
+		for (Map.Entry<String, Long> outcome : outcomes.entrySet())
+		{
+			if (!isOk(outcome.getKey()))
+				violations += outcome.getValue();
+		}
+
+		return violations;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Actor threads:  spin on the round number so that they start a round together
+	// --------------------------------------------------------------------------------------------
+	private static final class Actors
+	{
+		private static final int SPINS = 1000;
+
+		private final Scenario        scenario;
+		private final Thread[]        threads;
+		private final AtomicInteger   finished = new AtomicInteger();
+		private volatile int          roundNumber;
+		private volatile Round        round;
+		private volatile Throwable    failure;
+
+		Actors(Scenario scenario)
+		{
+			this.scenario = scenario;
+			this.threads = new Thread[scenario.getActors()];
+
+			for (int i = 0; i < threads.length; i++)
+			{
+				int actor = i;
+
+				threads[i] = new Thread(() -> loop(actor), "trace-store-actor-" + i);
+				threads[i].setDaemon(true);
+				threads[i].start();
+			}
+		}
+
+		void run(int number, Round next)
+		{
+			finished.set(0);
+			round = next;
+			roundNumber = number;
+
+			for (int spins = 0; finished.get() < threads.length; spins++)
+				idle(spins);
+		}
+
+		Throwable takeFailure()
+		{
+			Throwable taken = failure;
+
+			failure = null;
+
+			return taken;
+		}
+
+		void stop()
+		{
+			roundNumber = -1;
+		}
+
+		private void loop(int actor)
+		{
+			int seen = 0;
+
+			while (true)
+			{
+				int number;
+
+				for (int spins = 0; (number = roundNumber) == seen; spins++)
+					idle(spins);
+
+				if (number < 0)
+					return;
+
+				seen = number;
+
+				try
+				{
+					scenario.actor(actor, round);
+				}
+				catch (Throwable t)
+				{
+					failure = t;
+				}
+				finally
+				{
+					finished.incrementAndGet();
+				}
+			}
+		}
+
+		private static void idle(int spins)
+		{
+			if (spins > SPINS)
+				Thread.yield();
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	@FunctionalInterface
+	private interface RoundStep
+	{
+		void run(Round round);
+	}
+
+	@FunctionalInterface
+	private interface ActorStep
+	{
+		void run(int actor, Round round);
+	}
+
+	private static Scenario scenario(String name, String description, int actors, int maxTraces, RoundStep setup,
+	                                 ActorStep actor, RoundStep arbiter)
+	{
+		return new Scenario()
+		{
+			@Override
+			public String getName()
+			{
+				return name;
+			}
+
+			@Override
+			public String getDescription()
+			{
+				return description;
+			}
+
+			@Override
+			public int getActors()
+			{
+				return actors;
+			}
+
+			@Override
+			public int getMaxTraces()
+			{
+				return maxTraces;
+			}
+
+			@Override
+			public void setup(Round round)
+			{
+				setup.run(round);
+			}
+
+			@Override
+			public void actor(int i, Round round)
+			{
+				actor.run(i, round);
+			}
+
+			@Override
+			public void arbiter(Round round)
+			{
+				arbiter.run(round);
+			}
+		};
+	}
+}
@@ -0,0 +1,270 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.store;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.SpanHandle;
+
+import io.opentelemetry.api.trace.Tracer;
+
+//------------------------------------------------------------------------------------------------
+//	Throughput of the MuleSoftTraceStore over a thread count sweep.  Every thread runs trace
+//	operations in a tight loop, one operation being a flow with a flow-ref target and a few
+//	processors:
+//
+//	  - independent:  every operation is a trace of its own (many concurrent requests)
+//	  - shared:       every operation adds and ends pipelines of one long running trace (parallel
+//	                  routes and async scopes of the same correlation id)
+//
+//	The spans are built by the tracer passed in, a provider without span processors by default, so
+//	the numbers are the cost of the store itself.  The tracer must record spans:  the store only
+//	keeps the root span of an unsampled trace.  Trace, pipeline and processor ids are built up front and reused
+//	so the loop does not allocate besides the store.
+//------------------------------------------------------------------------------------------------
+/**
+ * Thread count sweep over the {@link MuleSoftTraceStore}.
+ */
+public final class TraceStoreScaling
+{
+	public static final String INDEPENDENT = "independent";
+	public static final String SHARED      = "shared";
+
+	private static final int IDS        = 1024;
+	private static final int PROCESSORS = 4;
+
+	private static final int WARMUP  = 0;
+	private static final int MEASURE = 1;
+	private static final int STOP    = 2;
+
+	private final Tracer tracer;
+
+	public TraceStoreScaling(Tracer tracer)
+	{
+		this.tracer = tracer;
+	}
+
+	/**
+	 * Result of one step of the sweep
+	 */
+	public static final class Step
+	{
+		private final int    threads;
+		private final long   operations;
+		private final double seconds;
+
+		private Step(int threads, long operations, double seconds)
+		{
+			this.threads = threads;
+			this.operations = operations;
+			this.seconds = seconds;
+		}
+
+		public int getThreads()
+		{
+			return threads;
+		}
+
+		public double getThroughput()
+		{
+			return operations / seconds;
+		}
+	}
+
+	/**
+	 * @param workload - {@link #INDEPENDENT} or {@link #SHARED}
+	 * @param threadCounts - thread counts of the sweep
+	 * @param warmupMillis - warmup of every step
+	 * @param measureMillis - measured run of every step
+	 * @return one step per thread count
+	 */
+	public List<Step> sweep(String workload, int[] threadCounts, long warmupMillis, long measureMillis)
+		throws InterruptedException
+	{
+		List<Step> steps = new ArrayList<>();
+
+		for (int threads : threadCounts)
+			steps.add(step(workload, threads, warmupMillis, measureMillis));
+
+		return steps;
+	}
+
+	/**
+	 * @param steps - as returned by {@link #sweep(String, int[], long, long)}
+	 * @param cores - available processors
+	 * @return report lines:  throughput, speedup over one thread and efficiency, with a bar
+	 */
+	public static List<String> report(List<Step> steps, int cores)
+	{
+		List<String> lines = new ArrayList<>();
+		double base = steps.get(0).getThroughput() / steps.get(0).getThreads();
+		double best = 0;
+
+		for (Step step : steps)
+			best = Math.max(best, step.getThroughput());
+
+		lines.add(String.format("%7s %14s %14s %8s %10s", "threads", "ops/s", "ops/s/thread", "speedup", "efficiency"));
+
+		for (Step step : steps)
+		{
+			double speedup = step.getThroughput() / base;
+			double efficiency = speedup / Math.min(step.getThreads(), cores);
+			int bar = (int) Math.round(40 * step.getThroughput() / best);
+			StringBuilder line = new StringBuilder(String.format("%7d %,14.0f %,14.0f %8.2f %9.0f%% ", step.getThreads(),
+			                                                      step.getThroughput(),
+			                                                      step.getThroughput() / step.getThreads(), speedup,
+			                                                      100 * efficiency));
+
+			for (int i = 0; i < bar; i++)
+				line.append('#');
+
+			if (step.getThreads() > cores)
+				line.append(" (oversubscribed)");
+
+			lines.add(line.toString());
+		}
+
+		return lines;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private Step step(String workload, int threads, long warmupMillis, long measureMillis) throws InterruptedException
+	{
+		MuleSoftTraceStore store = new MuleSoftTraceStore();
+		Worker[] workers = new Worker[threads];
+		CountDownLatch started = new CountDownLatch(threads);
+		Phase phase = new Phase();
+		String sharedTraceId = "shared-trace";
+
+		if (SHARED.equals(workload))
+			store.startTrace(sharedTraceId, "_main", tracer.spanBuilder("_main").startSpan());
+		else if (!INDEPENDENT.equals(workload))
+			throw new IllegalArgumentException("Unknown workload " + workload);
+
+		for (int i = 0; i < threads; i++)
+		{
+			workers[i] = new Worker(store, i, SHARED.equals(workload) ? sharedTraceId : null, phase, started);
+			workers[i].start();
+		}
+
+		started.await();
+		Thread.sleep(warmupMillis);
+
+		long start = System.nanoTime();
+
+		phase.value = MEASURE;
+		Thread.sleep(measureMillis);
+		phase.value = STOP;
+
+		long end = System.nanoTime();
+		long operations = 0;
+
+		for (Worker worker : workers)
+		{
+			worker.join();
+			operations += worker.measured;
+		}
+
+		store.endTrace(sharedTraceId);
+
+		return new Step(threads, operations, (end - start) / 1e9);
+	}
+
+	private static final class Phase
+	{
+		volatile int value = WARMUP;
+	}
+
+	private final class Worker extends Thread
+	{
+		private final MuleSoftTraceStore store;
+		private final String             sharedTraceId;
+		private final Phase              phase;
+		private final CountDownLatch     started;
+		private final String[]           traceIds   = new String[IDS];
+		private final String             pipelineId;
+		private final String             childPipelineId;
+		private final String[]           processors = new String[PROCESSORS];
+		private long                     measured;
+
+		Worker(MuleSoftTraceStore store, int index, String sharedTraceId, Phase phase, CountDownLatch started)
+		{
+			super("trace-store-scaling-" + index);
+
+			this.store = store;
+			this.sharedTraceId = sharedTraceId;
+			this.phase = phase;
+			this.started = started;
+			this.pipelineId = "_flow-" + index;
+			this.childPipelineId = "_child-flow-" + index;
+
+			for (int i = 0; i < IDS; i++)
+				traceIds[i] = index + "-" + i;
+			for (int i = 0; i < PROCESSORS; i++)
+				processors[i] = pipelineId + "/processors/" + i;
+
+			setDaemon(true);
+		}
+
+		@Override
+		public void run()
+		{
+			started.countDown();
+
+			for (int i = 0;; i++)
+			{
+				int current = phase.value;
+
+				if (current == STOP)
+					return;
+
+				operation(i);
+
+				if (current == MEASURE)
+					measured++;
+			}
+		}
+
+		private void operation(int i)
+		{
+			String traceId;
+
+			if (sharedTraceId == null)
+			{
+				traceId = traceIds[i & (IDS - 1)];
+				store.startTrace(traceId, pipelineId, tracer.spanBuilder(pipelineId).startSpan());
+			}
+			else
+			{
+				traceId = sharedTraceId;
+				store.addPipelineSpan(traceId, pipelineId, tracer.spanBuilder(pipelineId));
+			}
+
+			for (int p = 0; p < PROCESSORS; p++)
+			{
+				String processor = processors[p];
+
+				store.addMessageProcessorSpan(traceId, pipelineId, processor, tracer.spanBuilder(processor), null);
+
+				if (p == PROCESSORS / 2)
+				{
+					store.addPipelineSpan(traceId, childPipelineId, tracer.spanBuilder(childPipelineId));
+					store.endPipelineSpan(traceId, childPipelineId, Instant.now(), null);
+				}
+
+				SpanHandle handle = store.removeMessageProcessorSpan(traceId, pipelineId, processor);
+
+				store.endMessageProcessorSpan(handle, Instant.now());
+			}
+
+			store.endPipelineSpan(traceId, pipelineId, Instant.now(), null);
+
+			if (sharedTraceId == null && store.isPipelineSpansEmpty(traceId))
+				store.endTrace(traceId);
+		}
+	}
+}
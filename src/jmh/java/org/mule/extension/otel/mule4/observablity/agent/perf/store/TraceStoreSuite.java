@@ -0,0 +1,189 @@
+package org.mule.extension.otel.mule4.observablity.agent.perf.store;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mule.extension.otel.mule4.observablity.agent.perf.store.TraceStoreRaces.Scenario;
+import org.mule.extension.otel.mule4.observablity.agent.perf.store.TraceStoreScaling.Step;
+
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+//------------------------------------------------------------------------------------------------
+//	Runs the MuleSoftTraceStore races and the thread count sweep.  Options are "--name value"
+//	pairs, see usage().  Exits with 1 when a race scenario had a violation, so the suite can gate
+//	a build.
+//------------------------------------------------------------------------------------------------
+/**
+ * Concurrency stress and scaling suite for the trace store.
+ */
+public final class TraceStoreSuite
+{
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+	private static final Map<String, String> HELP     = new LinkedHashMap<>();
+
+	static
+	{
+		option("mode",        "all",                "races, scaling or all");
+		option("rounds",      "20000",              "rounds per race scenario");
+		option("max-threads", "64",                 "largest thread count of the sweep, thread counts double from 1");
+		option("workloads",   "independent,shared", "scaling workloads: independent (a trace per operation), shared (one trace)");
+		option("warmup",      "2",                  "warmup per sweep step, in seconds");
+		option("seconds",     "5",                  "measured run per sweep step, in seconds");
+		option("csv",         "",                   "file to write the sweep to (workload,threads,ops/s), none when empty");
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		Map<String, String> options;
+
+		try
+		{
+			options = parse(args);
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(usage());
+			System.exit(2);
+			return;
+		}
+
+		String mode = options.get("mode");
+		long violations = 0;
+
+		if ("races".equals(mode) || "all".equals(mode))
+			violations = races(Integer.parseInt(options.get("rounds")));
+
+		if ("scaling".equals(mode) || "all".equals(mode))
+			scaling(options);
+
+		System.exit((violations > 0) ? 1 : 0);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Races
+	// --------------------------------------------------------------------------------------------
+	private static long races(int rounds)
+	{
+		TraceStoreRaces races = new TraceStoreRaces();
+		long violations = 0;
+
+		System.out.printf("Trace store races, %d rounds per scenario%n", rounds);
+
+		for (Scenario scenario : races.scenarios())
+		{
+			Map<String, Long> outcomes = races.run(scenario, rounds);
+			long scenarioViolations = TraceStoreRaces.violations(outcomes);
+
+			System.out.printf("%n%-24s %s%n", scenario.getName(), (scenarioViolations > 0) ? "FAILED" : "passed");
+			System.out.printf("  %s%n", scenario.getDescription());
+
+			for (Map.Entry<String, Long> outcome : outcomes.entrySet())
+				System.out.printf("  %10d  %s%n", outcome.getValue(), outcome.getKey());
+
+			violations += scenarioViolations;
+		}
+
+		return violations;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Scaling
+	// --------------------------------------------------------------------------------------------
+	private static void scaling(Map<String, String> options) throws InterruptedException, IOException
+	{
+		//
+		// a provider without span processors:  spans are recorded, so the store keeps the pipeline and
+		// processor spans of every trace (noop spans are unsampled), but are not exported
+		//
+		TraceStoreScaling scaling = new TraceStoreScaling(SdkTracerProvider.builder().build().get("trace-store-scaling"));
+		int cores = Runtime.getRuntime().availableProcessors();
+		int[] threadCounts = threadCounts(Integer.parseInt(options.get("max-threads")));
+		long warmupMillis = 1000L * Integer.parseInt(options.get("warmup"));
+		long measureMillis = 1000L * Integer.parseInt(options.get("seconds"));
+		List<String> csv = new ArrayList<>();
+
+		csv.add("workload,threads,ops_per_second");
+
+		for (String workload : options.get("workloads").split(","))
+		{
+			System.out.printf("%nTrace store scaling, %s workload, %d cores, threads %s%n", workload, cores,
+			                  Arrays.toString(threadCounts));
+
+			List<Step> steps = scaling.sweep(workload, threadCounts, warmupMillis, measureMillis);
+
+			for (String line : TraceStoreScaling.report(steps, cores))
+				System.out.println(line);
+
+			for (Step step : steps)
+				csv.add(String.format("%s,%d,%.0f", workload, step.getThreads(), step.getThroughput()));
+		}
+
+		if (!options.get("csv").isEmpty())
+		{
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(options.get("csv")),
+			                                                                   StandardCharsets.UTF_8)))
+			{
+				csv.forEach(writer::println);
+			}
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private static int[] threadCounts(int maxThreads)
+	{
+		List<Integer> counts = new ArrayList<>();
+
+		for (int threads = 1; threads < maxThreads; threads *= 2)
+			counts.add(threads);
+
+		counts.add(maxThreads);
+
+		return counts.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static void option(String name, String defaultValue, String help)
+	{
+		DEFAULTS.put(name, defaultValue);
+		HELP.put(name, help);
+	}
+
+	private static Map<String, String> parse(String[] args)
+	{
+		Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+
+		for (int i = 0; i < args.length; i += 2)
+		{
+			String name = args[i];
+
+			if (!name.startsWith("--") || !DEFAULTS.containsKey(name.substring(2)))
+				throw new IllegalArgumentException("Unknown option " + name);
+			if (i + 1 >= args.length)
+				throw new IllegalArgumentException("Missing value for " + name);
+
+			options.put(name.substring(2), args[i + 1]);
+		}
+
+		return options;
+	}
+
+	private static String usage()
+	{
+		StringBuilder usage = new StringBuilder("Options:\n");
+
+		for (Map.Entry<String, String> option : HELP.entrySet())
+			usage.append(String.format("  --%-12s %s (default %s)%n", option.getKey(), option.getValue(), DEFAULTS.get(option.getKey())));
+
+		return usage.toString();
+	}
+}
@@ -1,17 +1,38 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.config;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.HeaderCaptureConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.LoggerCaptureConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.NotificationCaptureConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.NotificationDispatchConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SdkInitializationConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TailSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TraceRateLimitConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TraceStoreConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.metric.OtlpMetricExporterConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.trace.OtlpTraceExporterConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.resource.OTelResourceConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OTelMule4ObservablityAgentConnectionProvider;
 import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkConnection;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkInitializer;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleRuntimeSampler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureLog;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.listener.MuleMessageProcessorNotificationListener;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.listener.MulePipelineNotificationListener;
 import org.mule.extension.otel.mule4.observablity.agent.internal.operations.OTelMule4ObservablityAgentOperations;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.ComponentSkipSet;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.FlowRateLimiter;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.HeaderAllowlist;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.LoggerCapture;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
 import org.mule.runtime.extension.api.annotation.Operations;
 import org.mule.runtime.extension.api.annotation.connectivity.ConnectionProviders;
 import org.mule.runtime.extension.api.annotation.param.Optional;
@@ -24,10 +45,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.api.notification.NotificationListenerRegistry;
 import org.mule.runtime.core.api.config.MuleConfiguration;
 import org.mule.runtime.core.api.el.ExpressionManager;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import javax.inject.Inject;
 
@@ -48,7 +73,7 @@ import javax.inject.Inject;
  */
 @Operations(OTelMule4ObservablityAgentOperations.class)
 @ConnectionProviders(OTelMule4ObservablityAgentConnectionProvider.class)
-public class OTelMule4ObservablityAgentConfiguration implements Startable
+public class OTelMule4ObservablityAgentConfiguration implements Startable, Stoppable
 {
 
 	private static Logger logger = LoggerFactory.getLogger(OTelMule4ObservablityAgentConfiguration.class);
@@ -126,6 +151,46 @@ public class OTelMule4ObservablityAgentConfiguration implements Startable
 	@Summary(" Key-Value pairs of custom (application specific) attributes.")
 	private CustomAttributesConfig customAttributesConfig;
 	
+	@ParameterGroup(name = "HTTP Header Capture")
+	@Summary("Select which HTTP headers are added to the HTTP Listener and HTTP Requester spans.")
+	private HeaderCaptureConfig headerCaptureConfig;
+	
+	@ParameterGroup(name = "Logger Capture")
+	@Summary("Select which Logger outputs are added to the Logger spans, and how much of them.")
+	private LoggerCaptureConfig loggerCaptureConfig;
+	
+	@ParameterGroup(name = "Notification Processing")
+	@Summary("Select how Mule notifications are handed over to the agent.")
+	private NotificationDispatchConfig notificationDispatchConfig;
+	
+	@ParameterGroup(name = "SDK Initialization")
+	@Summary("Select when the OpenTelemetry SDK is initialized.")
+	private SdkInitializationConfig sdkInitializationConfig;
+	
+	@ParameterGroup(name = "Trace Store")
+	@Summary("Select how long in-flight traces are kept and how many are traced at the same time.")
+	private TraceStoreConfig traceStoreConfig;
+	
+	@ParameterGroup(name = "Tail Sampling")
+	@Summary("Select which completed traces are exported when the spans of a trace are held until it completes.")
+	private TailSamplingConfig tailSamplingConfig;
+	
+	@ParameterGroup(name = "Trace Rate Limits")
+	@Summary("Select the maximum number of traces started per second by each flow.")
+	private TraceRateLimitConfig traceRateLimitConfig;
+	
+	@ParameterGroup(name = "Adaptive Sampling")
+	@Summary("Select the workload, heap, export queue and throughput budget tracing backs off above.")
+	private AdaptiveSamplingConfig adaptiveSamplingConfig;
+	
+	@ParameterGroup(name = "Notification Capture")
+	@Summary("Capture the Mule notification stream to a file, for replay against the agent.")
+	private NotificationCaptureConfig notificationCaptureConfig;
+	
+	private NotificationDispatcher notificationDispatcher;
+	private OtelSdkInitializer     otelSdkInitializer;
+	private NotificationCaptureLog notificationCaptureLog;
+	
     //------------------------------------------------------------------------------
     //  Helper Methods
     //------------------------------------------------------------------------------	
@@ -148,6 +213,51 @@ public class OTelMule4ObservablityAgentConfiguration implements Startable
     {
         return customAttributesConfig;
     }
+    
+    public  HeaderCaptureConfig getHeaderCaptureConfig() 
+    {
+        return headerCaptureConfig;
+    }
+    
+    public  LoggerCaptureConfig getLoggerCaptureConfig() 
+    {
+        return loggerCaptureConfig;
+    }
+    
+    public  NotificationDispatchConfig getNotificationDispatchConfig() 
+    {
+        return notificationDispatchConfig;
+    }
+    
+    public  SdkInitializationConfig getSdkInitializationConfig() 
+    {
+        return sdkInitializationConfig;
+    }
+    
+    public  TraceStoreConfig getTraceStoreConfig() 
+    {
+        return traceStoreConfig;
+    }
+    
+    public  TailSamplingConfig getTailSamplingConfig() 
+    {
+        return tailSamplingConfig;
+    }
+    
+    public  TraceRateLimitConfig getTraceRateLimitConfig() 
+    {
+        return traceRateLimitConfig;
+    }
+    
+    public  AdaptiveSamplingConfig getAdaptiveSamplingConfig() 
+    {
+        return adaptiveSamplingConfig;
+    }
+    
+    public  NotificationCaptureConfig getNotificationCaptureConfig() 
+    {
+        return notificationCaptureConfig;
+    }
     	
 	@Inject
 	NotificationListenerRegistry notificationListenerRegistry;
@@ -179,14 +289,62 @@ public class OTelMule4ObservablityAgentConfiguration implements Startable
 	        logger.info("Signal processing is ENABLED");
 		}
 		
+		AgentSelfTelemetry.getInstance().setEnabled(!getMetricExporter().getDisableMetrics() && 
+		                                            getMetricExporter().getAgentOverheadMetrics());
+		
+		//------------------------------------------------------------------------------
+		// 	Compile the components to bypass once, so the per notification check is a 
+		//	lookup of the cached component descriptor
+		//------------------------------------------------------------------------------
+		ComponentSkipSet componentSkipSet = ComponentSkipSet.compile(getSpanGenerationConfig().getBypassComponents());
+		
+		NotificationParserUtils.setComponentSkipSet(componentSkipSet);
+		logger.debug("Message processor spans bypassed for: " + componentSkipSet);
+		
+		FlowRateLimiter flowRateLimiter = FlowRateLimiter.compile(getTraceRateLimitConfig().getFlowRateLimits());
+		
+		OTelMuleNotificationHandler.setFlowRateLimiter(flowRateLimiter);
+		logger.debug("Trace rate limits: " + flowRateLimiter);
+		
+		HeaderAllowlist headerAllowlist = HeaderAllowlist.compile(getHeaderCaptureConfig().getCapturedHeaders(), 
+		                                                          getHeaderCaptureConfig().getMaxHeaderValueLength());
+		
+		NotificationParserUtils.setHeaderAllowlist(headerAllowlist);
+		logger.debug("HTTP headers captured: " + headerAllowlist);
+		
+		LoggerCapture loggerCapture = LoggerCapture.compile(getLoggerCaptureConfig());
+		
+		NotificationParserUtils.setLoggerCapture(loggerCapture);
+		logger.debug("Logger outputs captured: " + loggerCapture);
+		
+		getCustomAttributesConfig().compile(expressionManager);
+		
+		NotificationSnapshot.setBindingContextCaptured(getCustomAttributesConfig().hasExpressions());
+		
+		//------------------------------------------------------------------------------
+		// 	Load the connector configurations in the background, so the first request 
+		//	does not wait for all of the configuration files to be parsed
+		//------------------------------------------------------------------------------
+		MuleConnectorConfigStore.initialize(muleConfiguration, expressionManager);
+		
+		MuleRuntimeSampler.getInstance().start(getSpanGenerationConfig().getRuntimeSamplingInterval());
+		
+		//------------------------------------------------------------------------------
+		// 	Evict traces whose flow end notification never arrives
+		//------------------------------------------------------------------------------
+		OTelMuleNotificationHandler.getMuleSoftTraceStore().start(getTraceStoreConfig(), getTailSamplingConfig());
+		OTelMuleNotificationHandler.getMuleSoftTraceStore().setMinProcessorSpanDuration(getSpanGenerationConfig().getMinProcessorSpanDuration());
+		
 		//------------------------------------------------------------------------------
 		// 	Based on observations from our partner, this phase is too early to initiate
 		//	the configuration and initialization of the OpenTelemetry SDK. It fails with 
 		// 	unresolved Otel dependencies.
 		//
 		// 	The SDK initialization needs to be deferred to a later stage when all 
-		//	dependencies have been resolved.  For now, SDK init will be done when the
-		//	OpenTelemetry Mule Notification Handler receives its first event/notification.
+		//	dependencies have been resolved.  By default (LAZY), SDK init will be done when 
+		//	the OpenTelemetry Mule Notification Handler receives its first notification.  
+		//	In EAGER mode it is done on a background thread which retries until the 
+		//	dependencies can be resolved (see SdkInitializationConfig).
 		//------------------------------------------------------------------------------
 		Supplier<OtelSdkConnection> otelSdkConnection = () -> OtelSdkConnection.getInstance(new OTelSdkConfig(getResource(), 
 				 						                                                                      getTraceExporter(),
@@ -194,9 +352,24 @@ public class OTelMule4ObservablityAgentConfiguration implements Startable
 				 						                                                                      muleConfiguration,
 				                                                                                              getSpanGenerationConfig(),
 				                                                                                              expressionManager,
-				                                                                                              getCustomAttributesConfig()));
+				                                                                                              getCustomAttributesConfig(),
+				                                                                                              getAdaptiveSamplingConfig(),
+				                                                                                              notificationDispatcher));
+		
+		otelSdkInitializer = new OtelSdkInitializer(otelSdkConnection, getSdkInitializationConfig());
+		
+		OTelMuleNotificationHandler otelMuleNotificationHandler = new OTelMuleNotificationHandler(otelSdkInitializer);
+		
+		//------------------------------------------------------------------------------
+		// 	Notifications are either handled inline on the Mule thread or queued and
+		//	handled by agent threads (see NotificationDispatchConfig).  The dispatcher
+		//	is created before the SDK initialization starts, so the SDK connection 
+		//	can report on its queues.
+		//------------------------------------------------------------------------------
+		notificationDispatcher = new NotificationDispatcher(otelMuleNotificationHandler, getNotificationDispatchConfig());
+		notificationDispatcher.start();
 		
-		OTelMuleNotificationHandler otelMuleNotificationHandler = new OTelMuleNotificationHandler(otelSdkConnection);
+		otelSdkInitializer.start();
 		
 		//FirstProcessorInterceptorFactory firstProcessorInterceptorFactory = new FirstProcessorInterceptorFactory();
 		
@@ -207,7 +380,65 @@ public class OTelMule4ObservablityAgentConfiguration implements Startable
 		 * 	Note:  Pipeline notifications are for the flow; while, Message Processor notifications 
 		 * 	are for the individual steps/processors in the flow.
 		 */
-		notificationListenerRegistry.registerListener(new MuleMessageProcessorNotificationListener(otelMuleNotificationHandler));
-		notificationListenerRegistry.registerListener(new MulePipelineNotificationListener(otelMuleNotificationHandler));
+		notificationCaptureLog = startNotificationCapture(getNotificationCaptureConfig());
+		
+		notificationListenerRegistry.registerListener(new MuleMessageProcessorNotificationListener(notificationDispatcher, notificationCaptureLog));
+		notificationListenerRegistry.registerListener(new MulePipelineNotificationListener(notificationDispatcher, notificationCaptureLog));
+	}
+	
+	//------------------------------------------------------------------------------
+	// 	The capture is optional:  when the file cannot be created the agent runs 
+	//	without it
+	//------------------------------------------------------------------------------
+	private NotificationCaptureLog startNotificationCapture(NotificationCaptureConfig notificationCaptureConfig)
+	{
+		if (notificationCaptureConfig == null || !notificationCaptureConfig.getEnableNotificationCapture())
+			return null;
+		
+		String file = notificationCaptureConfig.getNotificationCaptureFile();
+		
+		if (file == null || file.trim().isEmpty())
+			file = new File(muleConfiguration.getWorkingDirectory(), "otel-agent-" + muleConfiguration.getId() + ".capture").getPath();
+		
+		try
+		{
+			NotificationCaptureLog captureLog = new NotificationCaptureLog(file, 
+			                                                               notificationCaptureConfig.getNotificationCaptureSize() * 1024L * 1024L, 
+			                                                               TimeUnit.SECONDS.toMillis(notificationCaptureConfig.getNotificationCaptureDuration()));
+			
+			logger.info("Notification capture ENABLED, writing to " + file);
+			
+			return captureLog;
+		}
+		catch (IOException e)
+		{
+			logger.warn("Unable to start the notification capture to " + file + ": " + e.getMessage());
+			return null;
+		}
+	}
+	
+	@Override
+	public void stop() throws MuleException
+	{
+		logger.info("OTelMule4ObservablityAgentConfiguration stopping");
+		
+		if (notificationDispatcher != null)
+		{
+			notificationDispatcher.stop();
+		}
+		
+		if (otelSdkInitializer != null)
+		{
+			otelSdkInitializer.stop();
+		}
+		
+		if (notificationCaptureLog != null)
+		{
+			notificationCaptureLog.close();
+			notificationCaptureLog = null;
+		}
+		
+		MuleRuntimeSampler.getInstance().stop();
+		OTelMuleNotificationHandler.getMuleSoftTraceStore().stop();
 	}
 }
@@ -1,9 +1,11 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.config;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.OtlpExporterConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.resource.OTelResourceConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
 import org.mule.runtime.core.api.config.MuleConfiguration;
 import org.mule.runtime.core.api.el.ExpressionManager;
 
@@ -25,10 +27,19 @@ public class OTelSdkConfig
 	private final SpanGenerationConfig     spanGenerationConfig;
 	private final ExpressionManager        expressionManager;
 	private final CustomAttributesConfig   customAttributesConfig;
+	private final AdaptiveSamplingConfig   adaptiveSamplingConfig;
+	private final NotificationDispatcher   notificationDispatcher;
 
 	public OTelSdkConfig(OTelResourceConfig r, OtlpExporterConfig t, OtlpExporterConfig mt, 
 	                     MuleConfiguration m, SpanGenerationConfig s, ExpressionManager e,
-	                     CustomAttributesConfig cac)
+	                     CustomAttributesConfig cac, AdaptiveSamplingConfig asc)
+	{
+		this(r, t, mt, m, s, e, cac, asc, null);
+	}
+
+	public OTelSdkConfig(OTelResourceConfig r, OtlpExporterConfig t, OtlpExporterConfig mt, 
+	                     MuleConfiguration m, SpanGenerationConfig s, ExpressionManager e,
+	                     CustomAttributesConfig cac, AdaptiveSamplingConfig asc, NotificationDispatcher nd)
 	{
 		this.resourceConfig = r;
 		this.traceExporterConfig = t;
@@ -37,6 +48,8 @@ public class OTelSdkConfig
 		this.spanGenerationConfig = s;
 		this.expressionManager = e;
 		this.customAttributesConfig = cac;
+		this.adaptiveSamplingConfig = asc;
+		this.notificationDispatcher = nd;
 	}
 
     //------------------------------------------------------------------------------
@@ -76,4 +89,17 @@ public class OTelSdkConfig
 	{
 	    return customAttributesConfig;
 	}
-}
\ No newline at end of file
+	
+	public AdaptiveSamplingConfig getAdaptiveSamplingConfig()
+	{
+	    return adaptiveSamplingConfig;
+	}
+	
+	/**
+	 * @return dispatcher of the Mule notifications to report on, null if there is none
+	 */
+	public NotificationDispatcher getNotificationDispatcher()
+	{
+	    return notificationDispatcher;
+	}
+}
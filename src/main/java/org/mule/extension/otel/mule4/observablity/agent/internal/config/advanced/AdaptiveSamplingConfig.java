@@ -0,0 +1,111 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores the budget the adaptive sampler keeps tracing within:  when
+//	the system workload, the heap usage, the export queue or the rate of sampled
+//	traces goes above its limit, the sampling ratio of new traces is lowered until
+//	it is back under
+//----------------------------------------------------------------------------------
+public class AdaptiveSamplingConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "Enable Adaptive Sampling")
+    @Summary("Lower the sampling ratio of new traces while the runtime is above the budget below, on top of the " +
+             "configured trace sampler.")
+    @Optional (defaultValue = "false")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean enableAdaptiveSampling;
+
+    @Parameter()
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName(value = "Maximum System Workload (%)")
+    @Summary("System load average over the available processors above which tracing backs off.  0 means no limit.")
+    @Optional (defaultValue = "80")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double maxWorkload;
+
+    @Parameter()
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName(value = "Maximum Heap Usage (%)")
+    @Summary("Old generation heap used after the last garbage collection, over its maximum, above which tracing backs off.  0 means no limit.")
+    @Optional (defaultValue = "85")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double maxHeapUsage;
+
+    @Parameter()
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName(value = "Maximum Export Queue Fill (%)")
+    @Summary("Spans waiting to be exported over the export queue size (otel.bsp.max.queue.size) above which " +
+             "tracing backs off.  0 means no limit.")
+    @Optional (defaultValue = "75")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double maxExportQueueFill;
+
+    @Parameter()
+    @Placement(order = 50, tab = "Advanced")
+    @DisplayName(value = "Maximum Sampled Traces Per Second")
+    @Summary("Traces sampled per second above which tracing backs off.  0 means no limit.")
+    @Optional (defaultValue = "0")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double maxSampledTracesPerSecond;
+
+    @Parameter()
+    @Placement(order = 60, tab = "Advanced")
+    @DisplayName(value = "Minimum Sampling Ratio")
+    @Summary("Lowest sampling ratio of new traces when backing off, between 0 and 1.")
+    @Optional (defaultValue = "0.01")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double minSamplingRatio;
+
+    @Parameter()
+    @Placement(order = 70, tab = "Advanced")
+    @DisplayName(value = "Suspend Processor Spans")
+    @Summary("Do not generate message processor spans while the sampling ratio is lowered.")
+    @Optional (defaultValue = "true")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean suspendProcessorSpans;
+
+    public boolean getEnableAdaptiveSampling()
+    {
+        return this.enableAdaptiveSampling;
+    }
+
+    public double getMaxWorkload()
+    {
+        return this.maxWorkload;
+    }
+
+    public double getMaxHeapUsage()
+    {
+        return this.maxHeapUsage;
+    }
+
+    public double getMaxExportQueueFill()
+    {
+        return this.maxExportQueueFill;
+    }
+
+    public double getMaxSampledTracesPerSecond()
+    {
+        return this.maxSampledTracesPerSecond;
+    }
+
+    public double getMinSamplingRatio()
+    {
+        return this.minSamplingRatio;
+    }
+
+    public boolean getSuspendProcessorSpans()
+    {
+        return this.suspendProcessorSpans;
+    }
+}
@@ -3,9 +3,8 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.config.advance
 import java.util.List;
 
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.resource.Attribute;
-import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.runtime.api.meta.ExpressionSupport;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.mule.runtime.core.api.el.ExpressionManager;
 import org.mule.runtime.extension.api.annotation.Expression;
 import org.mule.runtime.extension.api.annotation.param.NullSafe;
@@ -17,6 +16,7 @@ import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.SpanBuilder;
 
 //----------------------------------------------------------------------------------
@@ -40,6 +40,14 @@ public class CustomAttributesConfig
     @Expression(ExpressionSupport.NOT_SUPPORTED)
     private boolean sendCustomAttributesPerProcessor;
     
+    @Parameter()
+    @Placement(order = 45, tab = "OTLP Trace Exporter")
+    @DisplayName(value = "Reuse Flow Custom Attributes for Message Processor Spans")
+    @Summary("Evaluate the custom attributes once per trace and reuse the values for its message processor spans")
+    @Optional (defaultValue = "false")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean reuseCustomAttributesPerTrace;
+    
     @Parameter
     @Placement(order = 50, tab = "OTLP Trace Exporter")
     @DisplayName("User Defined Custom Attributes")
@@ -50,6 +58,8 @@ public class CustomAttributesConfig
     private List<Attribute> customAttributes;
     
     private static Logger logger = LoggerFactory.getLogger(CustomAttributesConfig.class);
+    
+    private volatile CustomAttributesEvaluator customAttributesEvaluator;
 
     public boolean getSendCustomAttributesPerFlow()
     {
@@ -61,20 +71,113 @@ public class CustomAttributesConfig
         return this.sendCustomAttributesPerProcessor;
     }
     
+    public boolean getReuseCustomAttributesPerTrace()
+    {
+        return this.reuseCustomAttributesPerTrace;
+    }
+    
     public List<Attribute> getCustomAttributes()
     {
         return this.customAttributes;
     }
     
-    public void setAttributes(SpanBuilder spanBuilder, ExpressionManager em, EnrichedServerNotification n) 
+    /**
+     * Classify and pre-resolve the custom attributes.  Called once at startup.
+     * 
+     * @param em - reference to the ExpressionManager instance
+     */
+    public void compile(ExpressionManager em)
+    {
+        customAttributesEvaluator = CustomAttributesEvaluator.compile(customAttributes, em);
+    }
+    
+    /**
+     * @return <b>true</b> if custom attributes are sent and some of them are expressions evaluated
+     *         against the event of the notification
+     */
+    public boolean hasExpressions()
+    {
+        CustomAttributesEvaluator evaluator = customAttributesEvaluator;
+        
+        return (sendCustomAttributesPerFlow || sendCustomAttributesPerProcessor) && 
+               evaluator != null && evaluator.hasDynamicAttributes();
+    }
+    
+    private CustomAttributesEvaluator getCustomAttributesEvaluator(ExpressionManager em)
+    {
+        if (customAttributesEvaluator == null)
+            compile(em);
+        
+        return customAttributesEvaluator;
+    }
+    
+    public void setAttributes(SpanBuilder spanBuilder, ExpressionManager em, NotificationSnapshot n) 
+    {
+        spanBuilder.setAllAttributes(getAttributes(em, n));
+    }    
+    
+    /**
+     * Add the custom attributes to the span.  When the attributes are reused per trace, the 
+     * expressions are only evaluated for the first notification of the trace.
+     * 
+     * @param spanBuilder
+     * @param em - reference to the ExpressionManager instance
+     * @param n - notification providing the event to evaluate the expressions against
+     * @param traceId - MuleSoft trace id
+     */
+    public void setAttributes(SpanBuilder spanBuilder, ExpressionManager em, NotificationSnapshot n, String traceId) 
+    {
+        spanBuilder.setAllAttributes(getAttributes(em, n, traceId));
+    }
+    
+    public Attributes getAttributes(ExpressionManager em, NotificationSnapshot n) 
     {
         try
         {
-            customAttributes.forEach((a) -> spanBuilder.setAttribute(Constants.CUSTOM_ATTRIBUTE + a.getKey(em, n), a.getValue(em, n)));  
+            return getCustomAttributesEvaluator(em).getAttributes(em, n);
         }
         catch (Exception e)
         {
             logger.debug(e.getMessage());
+            return Attributes.empty();
         }
     }    
+    
+    /**
+     * Get the custom attributes of a span, for spans already started.  When the attributes are 
+     * reused per trace, the expressions are only evaluated for the first notification of the trace.
+     * 
+     * @param em - reference to the ExpressionManager instance
+     * @param n - notification providing the event to evaluate the expressions against
+     * @param traceId - MuleSoft trace id
+     * @return the custom attributes, empty if they cannot be evaluated
+     */
+    public Attributes getAttributes(ExpressionManager em, NotificationSnapshot n, String traceId) 
+    {
+        if (!reuseCustomAttributesPerTrace)
+            return getAttributes(em, n);
+        
+        try
+        {
+            return getCustomAttributesEvaluator(em).getTraceAttributes(em, n, traceId);
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+            return Attributes.empty();
+        }
+    }
+    
+    /**
+     * Release anything kept for this trace
+     * 
+     * @param traceId - MuleSoft trace id
+     */
+    public void endTrace(String traceId)
+    {
+        CustomAttributesEvaluator evaluator = customAttributesEvaluator;
+        
+        if (evaluator != null)
+            evaluator.endTrace(traceId);
+    }
 }
\ No newline at end of file
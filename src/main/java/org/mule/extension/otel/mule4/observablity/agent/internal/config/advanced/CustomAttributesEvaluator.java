@@ -0,0 +1,259 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.KeyValuePair;
+import org.mule.runtime.api.el.ExpressionLanguageSession;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.core.api.el.ExpressionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+
+//----------------------------------------------------------------------------------
+//	Custom attributes compiled once from the CustomAttributesConfig.
+//
+//	Every key and value is classified at startup:
+//	 - plain strings and ${} property placeholders are resolved once and the 
+//	   attributes which only consist of those are pre-built as static Attributes
+//	 - "#[...]" expressions (and any other string the ExpressionManager recognizes
+//	   as an expression) are kept with their syntax already stripped and are 
+//	   evaluated together, in a single ExpressionLanguageSession per event
+//----------------------------------------------------------------------------------
+/**
+ * 	Evaluates the user defined custom attributes for a span.
+ * 
+ * 	@see CustomAttributesConfig#compile(ExpressionManager)
+ */
+public class CustomAttributesEvaluator
+{
+    private static Logger logger = LoggerFactory.getLogger(CustomAttributesEvaluator.class);
+    
+    private static final String UNRESOLVED_ATTRIBUTE = "unable to reslove attribute";
+    
+    private final Attributes             staticAttributes;
+    private final List<DynamicAttribute> dynamicAttributes;
+    
+    // ------------------------------------------------------------------------------
+    //  Dynamic attributes evaluated once per trace, reused for its processor spans
+    // ------------------------------------------------------------------------------
+    private final Map<String, Attributes> traceAttributes = new ConcurrentHashMap<>();
+    
+    private CustomAttributesEvaluator(Attributes staticAttributes, List<DynamicAttribute> dynamicAttributes)
+    {
+        this.staticAttributes = staticAttributes;
+        this.dynamicAttributes = Collections.unmodifiableList(dynamicAttributes);
+    }
+    
+    //------------------------------------------------------------------------------
+    //  Classify and pre-resolve the custom attributes
+    //------------------------------------------------------------------------------
+    /**
+     * 
+     * @param attributes - user defined custom attributes, may be null
+     * @param em - reference to the ExpressionManager instance
+     * @return the compiled custom attributes
+     */
+    static CustomAttributesEvaluator compile(List<? extends KeyValuePair> attributes, ExpressionManager em)
+    {
+        AttributesBuilder staticAttributes = Attributes.builder();
+        List<DynamicAttribute> dynamicAttributes = new ArrayList<>();
+        
+        if (attributes != null)
+        {
+            for (KeyValuePair kvp : attributes)
+            {
+                Operand key = Operand.of(kvp.getKey(), em);
+                Operand value = Operand.of(kvp.getValue(), em);
+                
+                if (key.expression == null && value.expression == null)
+                    staticAttributes.put(Constants.CUSTOM_ATTRIBUTE + key.constant, value.constant);
+                else
+                    dynamicAttributes.add(new DynamicAttribute(key, value));
+            }
+        }
+        
+        CustomAttributesEvaluator evaluator = new CustomAttributesEvaluator(staticAttributes.build(), dynamicAttributes);
+        
+        logger.debug("Custom attributes compiled: " + evaluator.staticAttributes.size() + " static, " 
+                     + evaluator.dynamicAttributes.size() + " dynamic");
+        
+        return evaluator;
+    }
+    
+    //------------------------------------------------------------------------------
+    //  Custom attributes of a span
+    //------------------------------------------------------------------------------
+    /**
+     * Evaluate the custom attributes for this notification
+     * 
+     * @param em - reference to the ExpressionManager instance
+     * @param n - notification providing the event to evaluate the expressions against
+     * @return the static and evaluated custom attributes
+     */
+    public Attributes getAttributes(ExpressionManager em, NotificationSnapshot n)
+    {
+        return dynamicAttributes.isEmpty() ? staticAttributes : evaluate(em, n);
+    }
+    
+    /**
+     * Get the custom attributes of the trace, evaluating the dynamic ones only for the first 
+     * notification of the trace.
+     * 
+     * @param em - reference to the ExpressionManager instance
+     * @param n - notification providing the event to evaluate the expressions against
+     * @param traceId - MuleSoft trace id
+     * @return the static and evaluated custom attributes
+     */
+    public Attributes getTraceAttributes(ExpressionManager em, NotificationSnapshot n, String traceId)
+    {
+        if (dynamicAttributes.isEmpty())
+            return staticAttributes;
+        
+        Attributes attributes = traceAttributes.get(traceId);
+        
+        if (attributes == null)
+        {
+            attributes = evaluate(em, n);
+            traceAttributes.putIfAbsent(traceId, attributes);
+        }
+        return attributes;
+    }
+    
+    /**
+     * @return <b>true</b> if some attributes are expressions evaluated against the event
+     */
+    boolean hasDynamicAttributes()
+    {
+        return !dynamicAttributes.isEmpty();
+    }
+    
+    /**
+     * Discard the attributes kept for this trace
+     * 
+     * @param traceId - MuleSoft trace id
+     */
+    public void endTrace(String traceId)
+    {
+        traceAttributes.remove(traceId);
+    }
+    
+    //------------------------------------------------------------------------------
+    //  Helper methods
+    //------------------------------------------------------------------------------
+    private Attributes evaluate(ExpressionManager em, NotificationSnapshot n)
+    {
+        AttributesBuilder attributes = staticAttributes.toBuilder();
+        ExpressionLanguageSession els = null;
+        
+        try
+        {
+            els = em.openSession(n.getBindingContext());
+            
+            for (DynamicAttribute da : dynamicAttributes)
+            {
+                if (da.key.expression == null)
+                    attributes.put(da.attributeKey, da.value.evaluate(els));
+                else
+                    attributes.put(Constants.CUSTOM_ATTRIBUTE + da.key.evaluate(els), da.value.evaluate(els));
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+        finally
+        {
+            if (els != null)
+                els.close();
+        }
+        return attributes.build();
+    }
+    
+    //------------------------------------------------------------------------------
+    //  A key or value of a custom attribute, either a constant or an expression
+    //------------------------------------------------------------------------------
+    private static final class Operand
+    {
+        private final String constant;
+        private final String expression;
+        
+        private Operand(String constant, String expression)
+        {
+            this.constant = constant;
+            this.expression = expression;
+        }
+        
+        static Operand of(String property, ExpressionManager em)
+        {
+            if (property == null)
+                return new Operand("", null);
+            
+            //
+            //  Property placeholder, resolved once.  If it can not be resolved yet it is 
+            //  evaluated with the event instead.
+            //
+            if (property.startsWith("${") && property.endsWith("}"))
+            {
+                String exp = "#[p(\"" + property.substring(2, property.length() - 1) + "\")]";
+                
+                try
+                {
+                    return new Operand((String) em.evaluate(exp).getValue(), null);
+                }
+                catch (Exception e)
+                {
+                    logger.debug(e.getMessage());
+                    return new Operand(null, exp);
+                }
+            }
+            
+            //
+            //  Quoted DW expression, strip off beginning and ending of extra quotes
+            //
+            if (property.startsWith("\"#[") && property.endsWith("]\""))
+                return new Operand(null, property.substring(1, property.length() - 1));
+            
+            if (em.isExpression(property))
+                return new Operand(null, property);
+            
+            return new Operand(property, null);
+        }
+        
+        String evaluate(ExpressionLanguageSession els)
+        {
+            try
+            {
+                return (String) els.evaluate(expression, DataType.STRING).getValue();
+            }
+            catch (Exception e)
+            {
+                logger.debug(e.getMessage());
+                return UNRESOLVED_ATTRIBUTE;
+            }
+        }
+    }
+    
+    private static final class DynamicAttribute
+    {
+        private final Operand              key;
+        private final Operand              value;
+        private final AttributeKey<String> attributeKey;
+        
+        private DynamicAttribute(Operand key, Operand value)
+        {
+            this.key = key;
+            this.value = value;
+            this.attributeKey = (key.expression == null) ? AttributeKey.stringKey(Constants.CUSTOM_ATTRIBUTE + key.constant) : null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+//----------------------------------------------------------------------------------
+//  This class stores all of the policies supported when the asynchronous
+//  notification queue is full
+//----------------------------------------------------------------------------------
+public enum DispatchOverflowPolicy
+{
+    /**
+     * Discard the notification and count it as dropped.
+     */
+    DROP,
+    
+    /**
+     * Wait on the Mule thread until there is room in the queue.
+     */
+    BLOCK,
+    
+    /**
+     * Keep the trace structure intact by waiting for room for flow notifications 
+     * and message processor ends while discarding message processor starts, so no 
+     * span is left open.
+     */
+    DEGRADE
+}
@@ -0,0 +1,69 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.Objects;
+
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class FlowLatencyThreshold
+{
+	@Parameter
+	@Summary("Name of the flow starting the trace")
+	@Example("order-fulfilment-flow")
+	private String flowName;
+	
+	@Parameter
+	@Summary("Duration, in milliseconds, above which the traces started by this flow are kept")
+	@Example("5000")
+	private long latencyThreshold;
+	
+	public String getFlowName()
+	{
+		return this.flowName;
+	}
+	
+	public void setFlowName(String flowName)
+	{
+		this.flowName = flowName;
+	}
+	
+	public long getLatencyThreshold()
+	{
+		return this.latencyThreshold;
+	}
+	
+	public void setLatencyThreshold(long latencyThreshold)
+	{
+		this.latencyThreshold = latencyThreshold;
+	}
+	
+	//------------------------------------------------------------------------------
+	//	Override Object behavior
+	//------------------------------------------------------------------------------
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+			return true;
+	
+		if (o == null || !(o instanceof FlowLatencyThreshold))
+			return false;
+		
+		FlowLatencyThreshold that = (FlowLatencyThreshold) o;
+		
+		return Objects.equals(flowName, that.flowName) && latencyThreshold == that.latencyThreshold;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(flowName, latencyThreshold);
+	}
+
+	@Override
+	public String toString()
+	{
+		return flowName + ">" + latencyThreshold + "ms";
+	}
+}
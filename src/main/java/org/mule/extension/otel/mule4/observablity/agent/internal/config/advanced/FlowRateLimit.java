@@ -0,0 +1,87 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.Objects;
+
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class FlowRateLimit
+{
+	@Parameter
+	@Summary("Name of the flow starting the traces, * matches any characters (e.g., health-*)")
+	@Example("poll-*-scheduler")
+	private String flowNamePattern;
+	
+	@Parameter
+	@Summary("Traces per second each matching flow may start")
+	@Example("10")
+	private double tracesPerSecond;
+	
+	@Parameter
+	@Optional(defaultValue = "0")
+	@Summary("Traces a flow may start at once after being idle, 0 for one second of traces")
+	@Example("20")
+	private int burst;
+	
+	public String getFlowNamePattern()
+	{
+		return this.flowNamePattern;
+	}
+	
+	public void setFlowNamePattern(String flowNamePattern)
+	{
+		this.flowNamePattern = flowNamePattern;
+	}
+	
+	public double getTracesPerSecond()
+	{
+		return this.tracesPerSecond;
+	}
+	
+	public void setTracesPerSecond(double tracesPerSecond)
+	{
+		this.tracesPerSecond = tracesPerSecond;
+	}
+	
+	public int getBurst()
+	{
+		return this.burst;
+	}
+	
+	public void setBurst(int burst)
+	{
+		this.burst = burst;
+	}
+	
+	//------------------------------------------------------------------------------
+	//	Override Object behavior
+	//------------------------------------------------------------------------------
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+			return true;
+	
+		if (o == null || !(o instanceof FlowRateLimit))
+			return false;
+		
+		FlowRateLimit that = (FlowRateLimit) o;
+		
+		return Objects.equals(flowNamePattern, that.flowNamePattern) && tracesPerSecond == that.tracesPerSecond 
+		       && burst == that.burst;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(flowNamePattern, tracesPerSecond, burst);
+	}
+
+	@Override
+	public String toString()
+	{
+		return flowNamePattern + "=" + tracesPerSecond + "/s";
+	}
+}
@@ -0,0 +1,69 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.Objects;
+
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class FlowTimeToLive
+{
+	@Parameter
+	@Summary("Name of the flow (or sub-flow)")
+	@Example("order-fulfilment-flow")
+	private String flowName;
+	
+	@Parameter
+	@Summary("Time, in milliseconds, after which the spans of this flow are considered orphaned and evicted")
+	@Example("600000")
+	private long timeToLive;
+	
+	public String getFlowName()
+	{
+		return this.flowName;
+	}
+	
+	public void setFlowName(String flowName)
+	{
+		this.flowName = flowName;
+	}
+	
+	public long getTimeToLive()
+	{
+		return this.timeToLive;
+	}
+	
+	public void setTimeToLive(long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+	
+	//------------------------------------------------------------------------------
+	//	Override Object behavior
+	//------------------------------------------------------------------------------
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+			return true;
+	
+		if (o == null || !(o instanceof FlowTimeToLive))
+			return false;
+		
+		FlowTimeToLive that = (FlowTimeToLive) o;
+		
+		return Objects.equals(flowName, that.flowName) && timeToLive == that.timeToLive;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(flowName, timeToLive);
+	}
+
+	@Override
+	public String toString()
+	{
+		return flowName + "=" + timeToLive + "ms";
+	}
+}
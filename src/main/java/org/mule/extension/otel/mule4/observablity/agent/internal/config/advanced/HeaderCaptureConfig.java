@@ -0,0 +1,43 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores which HTTP headers are added to the HTTP Listener and HTTP
+//  Requester spans, and how long their values may be.
+//----------------------------------------------------------------------------------
+public class HeaderCaptureConfig
+{
+    @Parameter
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName("Captured HTTP Headers")
+    @Optional(defaultValue = "content-type,content-length,user-agent,host")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Comma separated, case insensitive names of the HTTP request (Listener) and response (Requester) headers " +
+             "added to the spans.  Use * to capture every header, or none to capture no header.")
+    private String capturedHeaders;
+
+    @Parameter
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName("Max Header Value Length")
+    @Optional(defaultValue = "256")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Captured header values longer than this are truncated.  0 captures the whole value.")
+    private int maxHeaderValueLength;
+
+    public String getCapturedHeaders()
+    {
+        return this.capturedHeaders;
+    }
+
+    public int getMaxHeaderValueLength()
+    {
+        return this.maxHeaderValueLength;
+    }
+}
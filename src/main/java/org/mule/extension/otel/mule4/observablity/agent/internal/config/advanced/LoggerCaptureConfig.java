@@ -0,0 +1,70 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores which Logger messages are added to the Logger spans as
+//  events, and how much of them.
+//----------------------------------------------------------------------------------
+public class LoggerCaptureConfig
+{
+    @Parameter
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName("Capture Logger Output")
+    @Optional(defaultValue = "true")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Add the message of the Logger processors as an event of their span.  Messages are only resolved " +
+             "for Loggers which get a span, so never for the traces which are not sampled.  Loggers with a " +
+             "captured message keep their span when shorter than the minimum message processor span duration.")
+    private boolean captureLoggerOutput;
+
+    @Parameter
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName("Captured Logger Levels")
+    @Optional(defaultValue = "*")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Comma separated levels of the Loggers whose message is captured (e.g., WARN,ERROR).  Use * for every level.")
+    private String capturedLoggerLevels;
+
+    @Parameter
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName("Max Logger Output Length")
+    @Optional(defaultValue = "4096")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Captured Logger messages longer than this are truncated.  0 captures the whole message.")
+    private int maxLoggerOutputLength;
+
+    @Parameter
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName("Max Logger Outputs per Trace")
+    @Optional(defaultValue = "100")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Logger messages captured per trace; the following Loggers of the trace get no event.  0 for no limit.")
+    private int maxLoggerOutputsPerTrace;
+
+    public boolean getCaptureLoggerOutput()
+    {
+        return this.captureLoggerOutput;
+    }
+
+    public String getCapturedLoggerLevels()
+    {
+        return this.capturedLoggerLevels;
+    }
+
+    public int getMaxLoggerOutputLength()
+    {
+        return this.maxLoggerOutputLength;
+    }
+
+    public int getMaxLoggerOutputsPerTrace()
+    {
+        return this.maxLoggerOutputsPerTrace;
+    }
+}
@@ -0,0 +1,74 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores details on capturing the Mule notification stream to a
+//	binary log, so it can be replayed later against the agent (e.g., to benchmark
+//	changes with production traffic shapes).  Only notification metadata and
+//	timing are captured, never payloads or attributes.
+//----------------------------------------------------------------------------------
+public class NotificationCaptureConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "Capture Notifications")
+    @Summary("Write the metadata and timing of every flow and message processor notification to a binary " +
+             "capture file, for replay against the agent.  The capture stops when the file is full or the " +
+             "capture duration has elapsed.")
+    @Optional (defaultValue = "false")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean enableNotificationCapture;
+
+    @Parameter()
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName(value = "Capture File")
+    @Summary("File the notifications are captured to; its string dictionary is written next to it with a " +
+             "'.dict' suffix.  Defaults to 'otel-agent-<application>.capture' in the Mule working directory.")
+    @Optional
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private String notificationCaptureFile;
+
+    @Parameter()
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName(value = "Capture File Size (MB)")
+    @Summary("Size of the capture file.  Every notification takes 32 bytes, so 64 MB hold about two million " +
+             "notifications.")
+    @Optional (defaultValue = "64")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int notificationCaptureSize;
+
+    @Parameter()
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName(value = "Capture Duration (s)")
+    @Summary("Time after which the capture stops.")
+    @Optional (defaultValue = "300")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int notificationCaptureDuration;
+
+    public boolean getEnableNotificationCapture()
+    {
+        return this.enableNotificationCapture;
+    }
+
+    public String getNotificationCaptureFile()
+    {
+        return this.notificationCaptureFile;
+    }
+
+    public int getNotificationCaptureSize()
+    {
+        return this.notificationCaptureSize;
+    }
+
+    public int getNotificationCaptureDuration()
+    {
+        return this.notificationCaptureDuration;
+    }
+}
@@ -0,0 +1,74 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores details on how Mule notifications are handed over to the 
+//  agent.  By default, notifications are processed on the Mule thread that fired 
+//  them.  In asynchronous mode they are queued and processed by agent threads.
+//----------------------------------------------------------------------------------
+public class NotificationDispatchConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "Asynchronous Notification Processing")
+    @Summary("Queue Mule notifications and build spans on dedicated agent threads instead of the Mule " +
+             "threads executing the flow.  The flow start of a new trace is still processed on the Mule " +
+             "thread, so the trace context is available to the first processor of the flow.")
+    @Optional (defaultValue = "false")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean asyncNotificationProcessing;
+    
+    @Parameter()
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName(value = "Notification Queue Capacity")
+    @Summary("Maximum number of notifications waiting to be processed per agent thread.  Rounded up to " +
+             "the next power of two.")
+    @Optional (defaultValue = "8192")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int notificationQueueCapacity;
+    
+    @Parameter()
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName(value = "Notification Processing Threads")
+    @Summary("Number of agent threads processing queued notifications.  Notifications belonging to the same " +
+             "trace are always processed by the same thread.")
+    @Optional (defaultValue = "1")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int notificationProcessingThreads;
+    
+    @Parameter()
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName(value = "Notification Queue Overflow Policy")
+    @Summary("What to do with a notification when the queue is full: DROP it, BLOCK the Mule thread until " +
+             "there is room, or DEGRADE by dropping message processor start notifications only.")
+    @Optional (defaultValue = "DROP")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private DispatchOverflowPolicy notificationQueueOverflowPolicy;
+    
+    public boolean getAsyncNotificationProcessing()
+    {
+        return this.asyncNotificationProcessing;
+    }
+    
+    public int getNotificationQueueCapacity()
+    {
+        return this.notificationQueueCapacity;
+    }
+    
+    public int getNotificationProcessingThreads()
+    {
+        return this.notificationProcessingThreads;
+    }
+    
+    public DispatchOverflowPolicy getNotificationQueueOverflowPolicy()
+    {
+        return this.notificationQueueOverflowPolicy;
+    }
+}
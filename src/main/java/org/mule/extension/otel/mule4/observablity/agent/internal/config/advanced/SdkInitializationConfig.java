@@ -0,0 +1,46 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores details on when the OpenTelemetry SDK is initialized
+//----------------------------------------------------------------------------------
+public class SdkInitializationConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "SDK Initialization Mode")
+    @Summary("LAZY initializes the OpenTelemetry SDK when the first notification is received.  EAGER " +
+             "initializes it in the background as soon as the agent starts, so the first request does " +
+             "not pay for it.")
+    @Optional (defaultValue = "LAZY")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private SdkInitializationMode sdkInitializationMode;
+    
+    @Parameter()
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName(value = "SDK Initialization Timeout (ms)")
+    @Summary("EAGER mode only: how long notifications received before the SDK is ready wait for the " +
+             "background initialization before initializing it themselves.  0 does not wait.  Notifications " +
+             "received while an initialization is running are not traced.  A failed initialization is retried after " +
+             "an interval doubling from 500 ms up to 60 s.")
+    @Optional (defaultValue = "10000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private long sdkInitializationTimeout;
+    
+    public SdkInitializationMode getSdkInitializationMode()
+    {
+        return this.sdkInitializationMode;
+    }
+    
+    public long getSdkInitializationTimeout()
+    {
+        return this.sdkInitializationTimeout;
+    }
+}
@@ -0,0 +1,18 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+//----------------------------------------------------------------------------------
+//  When the OpenTelemetry SDK is initialized
+//----------------------------------------------------------------------------------
+public enum SdkInitializationMode
+{
+    /**
+     * Initialize the SDK when the first notification is received
+     */
+    LAZY,
+    
+    /**
+     * Initialize the SDK on a background thread as soon as the agent starts, retrying until 
+     * all of its dependencies can be resolved
+     */
+    EAGER
+}
@@ -32,9 +32,35 @@ public class SpanGenerationConfig
 	@Optional
 	@NullSafe
     @Expression(ExpressionSupport.NOT_SUPPORTED)
-	@Summary("List of Message Processors to bypass when generating Message Processor spans.")
+	@Summary("List of Message Processors to bypass when generating Message Processor spans. Use * as the name to bypass every component of a namespace (e.g., ee:*).")
 	private List<MuleComponent> bypassComponents;
 	
+	@Parameter
+    @Placement(order = 30, tab = "OTLP Trace Exporter")
+	@DisplayName("Runtime Sampling Interval (ms)")
+	@Optional (defaultValue = "1000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+	@Summary("Interval at which the system workload and heap usage added to the flow spans are sampled.")
+	private long runtimeSamplingInterval;
+	
+	@Parameter()
+    @Placement(order = 40, tab = "OTLP Trace Exporter")
+	@DisplayName(value = "Record Message Processor Durations")
+	@Summary("Record the duration of each message processor in the mule.processor.duration histogram (per flow, " +
+	         "component and doc name) instead of generating Message Processor spans")
+	@Optional (defaultValue = "false")
+	@Expression(ExpressionSupport.NOT_SUPPORTED)
+	private boolean processorDurationMetrics;
+	
+	@Parameter
+    @Placement(order = 50, tab = "OTLP Trace Exporter")
+	@DisplayName("Min Message Processor Span Duration (ms)")
+	@Optional (defaultValue = "0")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+	@Summary("Message Processor spans shorter than this are not exported; they are counted and timed per component " +
+	         "in a mule.compacted_spans event of their flow span instead. Failed message processors always get their " +
+	         "span. 0 exports every span.")
+	private long minProcessorSpanDuration;
 	
 	public boolean getGenerateMessageProcessorsSpans()
 	{
@@ -45,4 +71,19 @@ public class SpanGenerationConfig
 	{
 		return this.bypassComponents;
 	}
+	
+	public long getRuntimeSamplingInterval()
+	{
+		return this.runtimeSamplingInterval;
+	}
+	
+	public boolean getProcessorDurationMetrics()
+	{
+		return this.processorDurationMetrics;
+	}
+	
+	public long getMinProcessorSpanDuration()
+	{
+		return this.minProcessorSpanDuration;
+	}
 }
\ No newline at end of file
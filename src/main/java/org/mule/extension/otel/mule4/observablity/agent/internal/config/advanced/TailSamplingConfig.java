@@ -0,0 +1,160 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.NullSafe;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores the policies deciding, once a trace has completed, whether 
+//	its spans are exported.  The spans of a trace are held by the agent until then.
+//----------------------------------------------------------------------------------
+public class TailSamplingConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "Enable Tail Sampling")
+    @Summary("Hold the spans of every sampled trace until the trace completes and only export the traces " +
+             "matching one of the tail sampling policies.  Traces are kept or dropped as a whole.")
+    @Optional (defaultValue = "false")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean enableTailSampling;
+    
+    @Parameter()
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName(value = "Keep Failed Traces")
+    @Summary("Keep every trace with a failed flow or message processor, or evicted before it completed.")
+    @Optional (defaultValue = "true")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private boolean keepFailedTraces;
+    
+    @Parameter()
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName(value = "Latency Threshold (ms)")
+    @Summary("Keep the traces whose root flow took longer than this.  0 disables the latency policy.")
+    @Optional (defaultValue = "2000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private long latencyThreshold;
+    
+    @Parameter
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName("Flow Latency Threshold Overrides")
+    @Optional
+    @NullSafe
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Latency threshold of the traces started by specific flows.")
+    private List<FlowLatencyThreshold> flowLatencyThresholds;
+    
+    @Parameter
+    @Placement(order = 50, tab = "Advanced")
+    @DisplayName("Always Kept Flows")
+    @Optional
+    @NullSafe
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Names of the flows whose traces are always kept.")
+    private List<String> keptFlows;
+    
+    @Parameter()
+    @Placement(order = 60, tab = "Advanced")
+    @DisplayName(value = "Baseline Ratio")
+    @Summary("Ratio of the remaining traces kept, between 0.0 and 1.0.  The decision is made on the trace " +
+             "id, so nodes configured with the same ratio keep the same traces.")
+    @Optional (defaultValue = "0.1")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private double baselineRatio;
+    
+    @Parameter()
+    @Placement(order = 70, tab = "Advanced")
+    @DisplayName(value = "Maximum Spans per Trace")
+    @Summary("Traces with more spans than this are exported without waiting for their completion, whatever the policies decide.")
+    @Optional (defaultValue = "1000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int maxSpansPerTrace;
+    
+    @Parameter()
+    @Placement(order = 80, tab = "Advanced")
+    @DisplayName(value = "Maximum Held Spans")
+    @Summary("Maximum number of spans held for all traces.  A trace whose span does not fit is exported without waiting for its completion.")
+    @Optional (defaultValue = "100000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int maxHeldSpans;
+    
+    public boolean getEnableTailSampling()
+    {
+        return this.enableTailSampling;
+    }
+    
+    public boolean getKeepFailedTraces()
+    {
+        return this.keepFailedTraces;
+    }
+    
+    public long getLatencyThreshold()
+    {
+        return this.latencyThreshold;
+    }
+    
+    public List<FlowLatencyThreshold> getFlowLatencyThresholds()
+    {
+        return this.flowLatencyThresholds;
+    }
+    
+    public List<String> getKeptFlows()
+    {
+        return this.keptFlows;
+    }
+    
+    public double getBaselineRatio()
+    {
+        return this.baselineRatio;
+    }
+    
+    public int getMaxSpansPerTrace()
+    {
+        return this.maxSpansPerTrace;
+    }
+    
+    public int getMaxHeldSpans()
+    {
+        return this.maxHeldSpans;
+    }
+    
+    /**
+     * @return flow name to latency threshold (ms) of the flows overriding the latency threshold
+     */
+    public Map<String, Long> getFlowLatencyThresholdMap()
+    {
+        Map<String, Long> flowLatencyThresholdMap = new HashMap<>();
+        
+        if (flowLatencyThresholds != null)
+        {
+            for (FlowLatencyThreshold flowLatencyThreshold : flowLatencyThresholds)
+            {
+                if (flowLatencyThreshold.getFlowName() != null && flowLatencyThreshold.getLatencyThreshold() > 0)
+                    flowLatencyThresholdMap.put(flowLatencyThreshold.getFlowName(), flowLatencyThreshold.getLatencyThreshold());
+            }
+        }
+        
+        return Collections.unmodifiableMap(flowLatencyThresholdMap);
+    }
+    
+    /**
+     * @return names of the flows whose traces are always kept
+     */
+    public Set<String> getKeptFlowSet()
+    {
+        return (keptFlows != null) ? Collections.unmodifiableSet(new HashSet<>(keptFlows)) 
+                                   : Collections.emptySet();
+    }
+}
@@ -0,0 +1,35 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.List;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.NullSafe;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores the number of traces per second specific flows may start.
+//	Traces above the rate of their flow are not recorded.
+//----------------------------------------------------------------------------------
+public class TraceRateLimitConfig
+{
+    @Parameter
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName("Flow Rate Limits")
+    @Optional
+    @NullSafe
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Traces per second started by the flows matching a name pattern (e.g., polling schedulers or " +
+             "health endpoints).  Every matching flow gets its own budget; the first matching pattern applies " +
+             "and flows matching none are not limited.")
+    private List<FlowRateLimit> flowRateLimits;
+    
+    public List<FlowRateLimit> getFlowRateLimits()
+    {
+        return this.flowRateLimits;
+    }
+}
@@ -0,0 +1,96 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.NullSafe;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+//----------------------------------------------------------------------------------
+//  This class stores details on how long in-flight traces are kept by the agent 
+//	and how many of them are fully traced at the same time
+//----------------------------------------------------------------------------------
+public class TraceStoreConfig
+{
+    @Parameter()
+    @Placement(order = 10, tab = "Advanced")
+    @DisplayName(value = "Trace Time To Live (ms)")
+    @Summary("Traces and flow spans still open after this time (e.g., because the flow end notification was " +
+             "never received) are evicted and ended with an evicted status.")
+    @Optional (defaultValue = "300000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private long traceTimeToLive;
+    
+    @Parameter
+    @Placement(order = 20, tab = "Advanced")
+    @DisplayName("Flow Time To Live Overrides")
+    @Optional
+    @NullSafe
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    @Summary("Time to live of specific flows, e.g., long running batch or scheduler flows.")
+    private List<FlowTimeToLive> flowTimeToLives;
+    
+    @Parameter()
+    @Placement(order = 30, tab = "Advanced")
+    @DisplayName(value = "Maximum In-Flight Traces")
+    @Summary("Maximum number of traces fully traced at the same time.  Traces started above this limit only " +
+             "get their root flow span.  0 means no limit.")
+    @Optional (defaultValue = "10000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private int maxInFlightTraces;
+    
+    @Parameter()
+    @Placement(order = 40, tab = "Advanced")
+    @DisplayName(value = "Eviction Check Interval (ms)")
+    @Summary("Resolution of the trace eviction timer.")
+    @Optional (defaultValue = "1000")
+    @Expression(ExpressionSupport.NOT_SUPPORTED)
+    private long evictionCheckInterval;
+    
+    public long getTraceTimeToLive()
+    {
+        return this.traceTimeToLive;
+    }
+    
+    public List<FlowTimeToLive> getFlowTimeToLives()
+    {
+        return this.flowTimeToLives;
+    }
+    
+    public int getMaxInFlightTraces()
+    {
+        return this.maxInFlightTraces;
+    }
+    
+    public long getEvictionCheckInterval()
+    {
+        return this.evictionCheckInterval;
+    }
+    
+    /**
+     * @return flow name to time to live (ms) of the flows overriding the trace time to live
+     */
+    public Map<String, Long> getFlowTimeToLiveMap()
+    {
+        Map<String, Long> flowTimeToLiveMap = new HashMap<>();
+        
+        if (flowTimeToLives != null)
+        {
+            for (FlowTimeToLive flowTimeToLive : flowTimeToLives)
+            {
+                if (flowTimeToLive.getFlowName() != null && flowTimeToLive.getTimeToLive() > 0)
+                    flowTimeToLiveMap.put(flowTimeToLive.getFlowName(), flowTimeToLive.getTimeToLive());
+            }
+        }
+        
+        return Collections.unmodifiableMap(flowTimeToLiveMap);
+    }
+}
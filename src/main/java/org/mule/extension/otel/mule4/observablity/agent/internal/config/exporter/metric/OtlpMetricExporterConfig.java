@@ -88,6 +88,22 @@ public class OtlpMetricExporterConfig implements OtlpExporterConfig
     @Optional(defaultValue = "60000")
     private String metricExportInterval;
     
+    @Parameter
+    @DisplayName("Export Agent Overhead Metrics")
+    @Placement(order = 70, tab = "OTLP Metric Exporter")
+    @Summary(value = "Export metrics on the agent itself: time spent handling notifications per parser, notifications " +
+                     "received/skipped/failed, spans per trace, connector configuration load and SDK initialization time.")
+    @Optional(defaultValue = "false")
+    private boolean agentOverheadMetrics;
+    
+    @Parameter
+    @DisplayName("Export Flow Metrics")
+    @Placement(order = 80, tab = "OTLP Metric Exporter")
+    @Summary(value = "Export the rate, errors and duration of every flow execution (per flow, source and, for HTTP " +
+                     "listener flows, method and status class), whether or not its trace is sampled.")
+    @Optional(defaultValue = "true")
+    private boolean flowMetrics;
+    
     //------------------------------------------------------------------------------
     //  Helper Methods
     //------------------------------------------------------------------------------
@@ -126,6 +142,16 @@ public class OtlpMetricExporterConfig implements OtlpExporterConfig
         return metricExportInterval;
     }
     
+    public boolean getAgentOverheadMetrics()
+    {
+        return agentOverheadMetrics;
+    }
+    
+    public boolean getFlowMetrics()
+    {
+        return flowMetrics;
+    }
+    
     public Map<String, String> getProperties()
     {
         Map<String, String> config = new HashMap<>();
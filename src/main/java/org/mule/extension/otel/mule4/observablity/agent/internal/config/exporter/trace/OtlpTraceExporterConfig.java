@@ -105,6 +105,23 @@ public class OtlpTraceExporterConfig implements OtlpExporterConfig
 	@Summary("Maximum time (milliseconds) the OTLP exporter will wait for a batch to export before cancelling the export.")
 	private String exportTimeout;
 
+	@Parameter
+    @DisplayName("Sampler")
+    @Placement(order = 90, tab = "OTLP Trace Exporter")
+	@Optional(defaultValue = "PARENT_BASED_ALWAYS_ON")
+	@Summary("Head sampler deciding at the start of a trace whether it is recorded.  Parent based samplers follow " +
+	         "the decision of an incoming W3C trace context; trace id ratio samplers decide on the trace id, so " +
+	         "nodes configured with the same ratio make the same decision.  Unsampled traces are not processed " +
+	         "by the agent past their first flow notification.")
+	private OtlpTraceSamplerType traceSampler;
+
+	@Parameter
+    @DisplayName("Sampling Ratio")
+    @Placement(order = 100, tab = "OTLP Trace Exporter")
+	@Optional(defaultValue = "1.0")
+	@Summary("Ratio of traces sampled, between 0.0 and 1.0, used by the trace id ratio samplers.")
+	private String traceSamplerRatio;
+
 	//------------------------------------------------------------------------------
 	//	Helper Methods
 	//------------------------------------------------------------------------------
@@ -158,6 +175,16 @@ public class OtlpTraceExporterConfig implements OtlpExporterConfig
 	    return exportTimeout;
 	}	
 
+	public OtlpTraceSamplerType getSampler()
+	{
+		return traceSampler;
+	}
+
+	public String getSamplerRatio()
+	{
+		return traceSamplerRatio;
+	}
+
 	public Map<String, String> getProperties()
 	{
 		Map<String, String> config = new HashMap<>();
@@ -173,6 +200,12 @@ public class OtlpTraceExporterConfig implements OtlpExporterConfig
     		config.put("otel.bsp.max.export.batch.size", getMaxBatchExportSize());
     		config.put("otel.bsp.export.timeout", getExportTimeout());
     		config.put("otel.exporter.otlp.traces.headers", KeyValuePair.commaSeparatedList(getHeaders()));
+    		config.put("otel.traces.sampler", getSampler().getSamplerType());
+    		
+    		if (getSampler().isRatioBased())
+    		{
+    		    config.put("otel.traces.sampler.arg", getSamplerRatio());
+    		}
     		
             logger.debug("get certificate :" + getCertificatePath() + " is empty:" + getCertificatePath().isEmpty());
             if(!(getCertificatePath().isEmpty())) 
@@ -0,0 +1,45 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.trace;
+
+//----------------------------------------------------------------------------------
+//	This class stores all of the head samplers supported by the OpenTelemetry SDK
+//	autoconfiguration (otel.traces.sampler).  The trace id ratio samplers decide on
+//	the trace id alone, so every node of a distributed trace configured with the
+//	same ratio makes the same decision.
+//----------------------------------------------------------------------------------
+public enum OtlpTraceSamplerType
+{
+	ALWAYS_ON 					("always_on"),
+	ALWAYS_OFF 					("always_off"),
+	TRACE_ID_RATIO 				("traceidratio"),
+	PARENT_BASED_ALWAYS_ON 		("parentbased_always_on"),
+	PARENT_BASED_ALWAYS_OFF 	("parentbased_always_off"),
+	PARENT_BASED_TRACE_ID_RATIO ("parentbased_traceidratio");
+
+	private final String sampler;
+
+	//------------------------------------------------------------------------------
+	//	Default Constructor
+	//------------------------------------------------------------------------------
+	OtlpTraceSamplerType(String value)
+	{
+		this.sampler = value;
+	}
+
+	/**
+	 * 
+	 * @return the sampler name
+	 */
+	public String getSamplerType()
+	{
+		return sampler;
+	}
+
+	/**
+	 * 
+	 * @return <b>true</b> if the sampler takes the sampling ratio argument
+	 */
+	public boolean isRatioBased()
+	{
+		return (this == TRACE_ID_RATIO) || (this == PARENT_BASED_TRACE_ID_RATIO);
+	}
+}
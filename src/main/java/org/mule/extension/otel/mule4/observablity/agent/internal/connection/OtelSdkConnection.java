@@ -17,10 +17,22 @@ import java.util.Set;
 import java.util.function.Supplier;
 
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.OTelSdkConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.exporter.metric.OtlpMetricExporterConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricAdaptiveSampling;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricAgentOverhead;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricFlow;
 import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricMemoryUsage;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricNotificationDispatch;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricProcessorDuration;
 import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricSystemWorkload;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.sampler.AdaptiveSampler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.sampler.ExportQueueMonitor;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
 import org.mule.runtime.core.api.config.DefaultMuleConfiguration;
 import org.mule.runtime.core.api.config.MuleConfiguration;
@@ -53,6 +65,7 @@ public final class OtelSdkConnection
 	
 	private final ExpressionManager        expressionManager;
 	private final CustomAttributesConfig   customAttributesConfig;
+	private final AdaptiveSampler          adaptiveSampler;
 	
 	//------------------------------------------------------------------------------------------------
 	//	Singleton 
@@ -117,6 +130,11 @@ public final class OtelSdkConnection
 			builder.addPropertiesSupplier(propertiesSupplier);
 		}
 		
+		adaptiveSampler = configureAdaptiveSampling(builder, (otelSdkConfig != null) ? otelSdkConfig.getAdaptiveSamplingConfig() : null);
+		
+		if (AgentSelfTelemetry.getInstance().isEnabled())
+			builder.addMeterProviderCustomizer((meterProviderBuilder, properties) -> MuleMetricAgentOverhead.registerViews(meterProviderBuilder));
+		
 		openTelemetry     = builder.build().getOpenTelemetrySdk();
 		tracer            = openTelemetry.getTracer(name, version);
 		textMapPropagator = openTelemetry.getPropagators().getTextMapPropagator();
@@ -129,6 +147,62 @@ public final class OtelSdkConnection
 		
 		MuleMetricMemoryUsage.setInstance(openTelemetry);
 		MuleMetricSystemWorkload.setInstance(openTelemetry);
+		MuleMetricTraceStore.setInstance(openTelemetry, OTelMuleNotificationHandler.getMuleSoftTraceStore());
+		
+		if (otelSdkConfig.getNotificationDispatcher() != null && otelSdkConfig.getNotificationDispatcher().isAsync())
+			MuleMetricNotificationDispatch.setInstance(openTelemetry, otelSdkConfig.getNotificationDispatcher());
+		
+		if (AgentSelfTelemetry.getInstance().isEnabled())
+			MuleMetricAgentOverhead.setInstance(openTelemetry);
+		
+		if (spanGenerationConfig != null && spanGenerationConfig.getProcessorDurationMetrics())
+			MuleMetricProcessorDuration.setInstance(openTelemetry);
+		
+		if (isFlowMetricsEnabled(otelSdkConfig))
+			MuleMetricFlow.setInstance(openTelemetry);
+		
+		if (adaptiveSampler != null)
+		{
+			adaptiveSampler.start();
+			MuleMetricAdaptiveSampling.setInstance(openTelemetry, adaptiveSampler);
+		}
+	}
+	
+	private static boolean isFlowMetricsEnabled(OTelSdkConfig otelSdkConfig)
+	{
+		if (otelSdkConfig == null || !(otelSdkConfig.getMetricExporterConfig() instanceof OtlpMetricExporterConfig))
+			return false;
+		
+		OtlpMetricExporterConfig metricExporterConfig = (OtlpMetricExporterConfig) otelSdkConfig.getMetricExporterConfig();
+		
+		return !metricExporterConfig.getDisableMetrics() && metricExporterConfig.getFlowMetrics();
+	}
+	
+	//------------------------------------------------------------------------------------------------
+	//	The adaptive sampler wraps the sampler configured by the properties (otel.traces.sampler).  
+	//	The fill of the batch span processor's queue is mirrored by a span processor registered next 
+	//	to it and by its exporter, wrapped to count the exported spans.
+	//------------------------------------------------------------------------------------------------
+	private static AdaptiveSampler configureAdaptiveSampling(AutoConfiguredOpenTelemetrySdkBuilder builder, 
+	                                                         AdaptiveSamplingConfig adaptiveSamplingConfig)
+	{
+		if (adaptiveSamplingConfig == null || !adaptiveSamplingConfig.getEnableAdaptiveSampling())
+			return null;
+		
+		ExportQueueMonitor exportQueueMonitor = new ExportQueueMonitor();
+		AdaptiveSampler adaptiveSampler = new AdaptiveSampler(adaptiveSamplingConfig, exportQueueMonitor);
+		
+		builder.addSamplerCustomizer((sampler, properties) -> adaptiveSampler.wrap(sampler));
+		builder.addSpanExporterCustomizer((spanExporter, properties) -> exportQueueMonitor.wrap(spanExporter));
+		builder.addTracerProviderCustomizer((tracerProviderBuilder, properties) -> 
+		{
+			exportQueueMonitor.setMaxQueueSize(properties.getInt("otel.bsp.max.queue.size", ExportQueueMonitor.DEFAULT_MAX_QUEUE_SIZE));
+			return tracerProviderBuilder.addSpanProcessor(exportQueueMonitor);
+		});
+		
+		logger.info("Adaptive sampling is ENABLED");
+		
+		return adaptiveSampler;
 	}
 
 	public void invalidate()
@@ -260,7 +334,7 @@ public final class OtelSdkConnection
 	 * 	Context
 	 * </a>  
 	 */
-	public synchronized Optional<Tracer> getTracer()
+	public Optional<Tracer> getTracer()
 	{
 		return Optional.ofNullable(tracer);
 	}
@@ -285,7 +359,7 @@ public final class OtelSdkConnection
 	 * 	Context
 	 * </a>  
 	 */
-	public synchronized Optional<TextMapPropagator> getTextMapPropagator()
+	public Optional<TextMapPropagator> getTextMapPropagator()
 	{
 		return Optional.ofNullable(textMapPropagator);
 	}
@@ -313,4 +387,9 @@ public final class OtelSdkConnection
 	{
 	    return Optional.ofNullable(customAttributesConfig);
 	}
+	
+	public Optional<AdaptiveSampler> getAdaptiveSampler()
+	{
+	    return Optional.ofNullable(adaptiveSampler);
+	}
 }
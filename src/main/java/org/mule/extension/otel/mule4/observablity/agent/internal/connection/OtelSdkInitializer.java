@@ -0,0 +1,213 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.connection;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SdkInitializationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SdkInitializationMode;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.NotificationParserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+//------------------------------------------------------------------------------------------------
+//	Initializes the OpenTelemetry SDK connection and publishes an immutable snapshot of it.
+//
+//	LAZY:	the SDK is initialized by the first notification (historical behavior).
+//	EAGER:	the SDK is initialized on a background thread when the agent starts.  Its dependencies
+//			may not be resolvable that early, so the initialization is retried until it succeeds.  
+//			Notifications arriving before then wait, up to the configured timeout (0 does not 
+//			wait), and once the timeout has passed initialize the SDK themselves.
+//
+//	A single thread attempts the initialization at a time;  notifications arriving meanwhile are
+//	not traced rather than blocked.  A failed attempt is retried after an interval doubling up to
+//	MAX_RETRY_INTERVAL_MILLIS, and until then notifications return without attempting it.
+//------------------------------------------------------------------------------------------------
+/**
+ * Provides the {@link OtelSdkSnapshot} used by the notification handling.
+ * 
+ * @see SdkInitializationConfig
+ */
+public class OtelSdkInitializer
+{
+	private static final Logger logger = LoggerFactory.getLogger(OtelSdkInitializer.class);
+	
+	private static final long RETRY_INTERVAL_MILLIS = 500;
+	private static final long MAX_RETRY_INTERVAL_MILLIS = 60000;
+	private static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+	
+	private final Supplier<OtelSdkConnection> sdkConnectionSupplier;
+	private final SdkInitializationMode       mode;
+	private final long                        timeoutMillis;
+	private final CountDownLatch              initialized = new CountDownLatch(1);
+	private final ReentrantLock               initializing = new ReentrantLock();
+	
+	private volatile OtelSdkSnapshot snapshot;
+	private volatile long            deadline;
+	private volatile long            nextAttemptMillis;
+	private long                     retryIntervalMillis = RETRY_INTERVAL_MILLIS;
+	private Thread                   initializer;
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	public OtelSdkInitializer(Supplier<OtelSdkConnection> sdkConnectionSupplier, SdkInitializationConfig sdkInitializationConfig)
+	{
+		this.sdkConnectionSupplier = sdkConnectionSupplier;
+		
+		if (sdkInitializationConfig != null && sdkInitializationConfig.getSdkInitializationMode() != null)
+		{
+			this.mode = sdkInitializationConfig.getSdkInitializationMode();
+			this.timeoutMillis = (sdkInitializationConfig.getSdkInitializationTimeout() >= 0) 
+			                     ? sdkInitializationConfig.getSdkInitializationTimeout()
+			                     : DEFAULT_TIMEOUT_MILLIS;
+		}
+		else
+		{
+			this.mode = SdkInitializationMode.LAZY;
+			this.timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+		}
+	}
+	
+	/**
+	 * Start the background initialization (EAGER mode only)
+	 */
+	public synchronized void start()
+	{
+		deadline = System.currentTimeMillis() + timeoutMillis;
+		
+		if (mode != SdkInitializationMode.EAGER || snapshot != null || initializer != null)
+			return;
+		
+		initializer = new Thread(this::initializeInBackground, "otel-agent-sdk-initializer");
+		initializer.setDaemon(true);
+		initializer.start();
+	}
+	
+	public synchronized void stop()
+	{
+		if (initializer != null)
+		{
+			initializer.interrupt();
+			initializer = null;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Entry point for the notification handler
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * 
+	 * @return the SDK snapshot, initializing the SDK if needed; null if the SDK is not initialized 
+	 *         (yet)
+	 */
+	public OtelSdkSnapshot get()
+	{
+		OtelSdkSnapshot s = snapshot;
+		
+		if (s != null)
+			return s;
+		
+		if (mode == SdkInitializationMode.EAGER)
+		{
+			long wait = deadline - System.currentTimeMillis();
+			
+			try
+			{
+				if (wait > 0 && initialized.await(wait, TimeUnit.MILLISECONDS))
+					return snapshot;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		return tryInitialize();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Attempt the initialization unless another thread is attempting it or the last attempt failed
+	 * less than the retry interval ago
+	 * 
+	 * @return the SDK snapshot, null if it is not initialized
+	 */
+	private OtelSdkSnapshot tryInitialize()
+	{
+		if (System.currentTimeMillis() < nextAttemptMillis || !initializing.tryLock())
+			return snapshot;
+		
+		try
+		{
+			if (snapshot == null && System.currentTimeMillis() >= nextAttemptMillis)
+				initialize();
+		}
+		catch (Exception | LinkageError e)
+		{
+			failed(e);
+		}
+		finally
+		{
+			initializing.unlock();
+		}
+		return snapshot;
+	}
+	
+	//	called with the initializing lock held
+	private void initialize()
+	{
+		long startTime = System.currentTimeMillis();
+		
+		OtelSdkSnapshot s = new OtelSdkSnapshot(sdkConnectionSupplier.get(), NotificationParserService.getInstance());
+		
+		AgentSelfTelemetry.getInstance().setSdkInitializationMillis(System.currentTimeMillis() - startTime);
+		
+		OtelSdkSnapshot.publish(s);
+		snapshot = s;
+		initialized.countDown();
+		
+		logger.info("OpenTelemetry SDK initialized in {} ms", System.currentTimeMillis() - startTime);
+	}
+	
+	//	called with the initializing lock held
+	private void failed(Throwable e)
+	{
+		long now = System.currentTimeMillis();
+		
+		nextAttemptMillis = now + retryIntervalMillis;
+		
+		//----------------------------------------------------------------
+		//	Early failures of the background initialization are expected,
+		//	its dependencies may not be resolvable yet
+		//----------------------------------------------------------------
+		if (mode == SdkInitializationMode.EAGER && now < deadline)
+			logger.debug("OpenTelemetry SDK not initialized yet, retrying in {} ms: {}", retryIntervalMillis, e.getMessage());
+		else
+			logger.warn("Unable to initialize the OpenTelemetry SDK, retrying in {} ms: {}", retryIntervalMillis, e.getMessage());
+		
+		retryIntervalMillis = Math.min(retryIntervalMillis * 2, MAX_RETRY_INTERVAL_MILLIS);
+	}
+	
+	private void initializeInBackground()
+	{
+		while (snapshot == null && !Thread.currentThread().isInterrupted())
+		{
+			if (tryInitialize() != null)
+				return;
+			
+			try
+			{
+				Thread.sleep(Math.max(nextAttemptMillis - System.currentTimeMillis(), RETRY_INTERVAL_MILLIS));
+			}
+			catch (InterruptedException ie)
+			{
+				return;
+			}
+		}
+	}
+}
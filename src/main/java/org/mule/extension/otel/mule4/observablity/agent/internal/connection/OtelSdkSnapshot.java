@@ -0,0 +1,110 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.connection;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.NotificationParserService;
+import org.mule.extension.otel.mule4.observablity.agent.internal.sampler.AdaptiveSampler;
+import org.mule.runtime.core.api.config.MuleConfiguration;
+import org.mule.runtime.core.api.el.ExpressionManager;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+//------------------------------------------------------------------------------------------------
+//	Immutable view of everything the notification handling needs from an initialized SDK 
+//	connection.  It is published once, after the SDK has been built, and read without locks.
+//------------------------------------------------------------------------------------------------
+/**
+ * Snapshot of an initialized {@link OtelSdkConnection}.
+ * 
+ * @see OtelSdkInitializer#get()
+ * @see #current()
+ */
+public final class OtelSdkSnapshot
+{
+	private static volatile OtelSdkSnapshot current;
+	
+	private final OtelSdkConnection         otelSdkConnection;
+	private final Tracer                    tracer;
+	private final TextMapPropagator         textMapPropagator;
+	private final MuleConfiguration         muleConfiguration;
+	private final SpanGenerationConfig      spanGenerationConfig;
+	private final ExpressionManager         expressionManager;
+	private final CustomAttributesConfig    customAttributesConfig;
+	private final NotificationParserService notificationParserService;
+	private final AdaptiveSampler           adaptiveSampler;
+	
+	OtelSdkSnapshot(OtelSdkConnection otelSdkConnection, NotificationParserService notificationParserService)
+	{
+		this.otelSdkConnection         = otelSdkConnection;
+		this.tracer                    = otelSdkConnection.getTracer().orElse(null);
+		this.textMapPropagator         = otelSdkConnection.getTextMapPropagator().orElse(null);
+		this.muleConfiguration         = otelSdkConnection.getMuleConfiguration().orElse(null);
+		this.spanGenerationConfig      = otelSdkConnection.getSpanGenerationConfig().orElse(null);
+		this.expressionManager         = otelSdkConnection.getExpressionManager().orElse(null);
+		this.customAttributesConfig    = otelSdkConnection.getCustomAttributesConfig().orElse(null);
+		this.notificationParserService = notificationParserService;
+		this.adaptiveSampler           = otelSdkConnection.getAdaptiveSampler().orElse(null);
+	}
+	
+	/**
+	 * @return the last published snapshot, null if the SDK is not initialized yet
+	 */
+	public static OtelSdkSnapshot current()
+	{
+		return current;
+	}
+	
+	static void publish(OtelSdkSnapshot snapshot)
+	{
+		current = snapshot;
+	}
+	
+	public OtelSdkConnection getOtelSdkConnection()
+	{
+		return otelSdkConnection;
+	}
+	
+	public Tracer getTracer()
+	{
+		return tracer;
+	}
+	
+	public TextMapPropagator getTextMapPropagator()
+	{
+		return textMapPropagator;
+	}
+	
+	public MuleConfiguration getMuleConfiguration()
+	{
+		return muleConfiguration;
+	}
+	
+	public SpanGenerationConfig getSpanGenerationConfig()
+	{
+		return spanGenerationConfig;
+	}
+	
+	public ExpressionManager getExpressionManager()
+	{
+		return expressionManager;
+	}
+	
+	public CustomAttributesConfig getCustomAttributesConfig()
+	{
+		return customAttributesConfig;
+	}
+	
+	public NotificationParserService getNotificationParserService()
+	{
+		return notificationParserService;
+	}
+	
+	/**
+	 * @return the adaptive sampler, null if adaptive sampling is disabled
+	 */
+	public AdaptiveSampler getAdaptiveSampler()
+	{
+		return adaptiveSampler;
+	}
+}
@@ -3,9 +3,8 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.context.propag
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Supplier;
 
-import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkConnection;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
 
@@ -29,11 +28,12 @@ public class OTelContextPropagator
 {	
 	private static TextMapPropagator getTextMapPropagator() throws ConnectionException
 	{
-		Supplier<ConnectionException> s = () -> new ConnectionException("Unable to get the TextMapPropagator. OTel SDK is not initialized. ");
+		OtelSdkSnapshot sdk = OtelSdkSnapshot.current();
 		
-		OtelSdkConnection osc = OtelSdkConnection.get().orElseThrow(s);
+		if (sdk == null)
+			throw new ConnectionException("Unable to get the TextMapPropagator. OTel SDK is not initialized. ");
 		
-		return osc.getTextMapPropagator().get();
+		return sdk.getTextMapPropagator();
 	}
 
 	/**
@@ -1,8 +1,14 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.interceptor;
 
 import org.mule.extension.http.api.request.builder.HttpRequesterRequestBuilder;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.context.propagation.OTelContextPropagator;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricProcessorDuration;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.LoggerCapture;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
 import org.mule.runtime.api.component.location.ComponentLocation;
 import org.mule.runtime.api.interception.InterceptionAction;
 import org.mule.runtime.api.interception.InterceptionEvent;
@@ -79,31 +85,43 @@ public class TracingProcessorInterceptor implements ProcessorInterceptor
 	{
 		if (isLoggerProcessor(location))
 		{			
-			ProcessorParameterValue processorParameterValue = parameters.get("message");
+			LoggerCapture loggerCapture = NotificationParserUtils.getLoggerCapture();
 			
-			try
+			if (isLoggerOutputCaptured(location, parameters, event, loggerCapture))
 			{
-				// ------------------------------------------------------------------------------------
-				//	Extract and resolve the Logger output.  Insert the resolved output into the Event 
-				//	Message.  This message will be picked up by the End Processor Notification handler, 
-				//	extracted and then added as a Span Event.
-				// ------------------------------------------------------------------------------------
-				String message = (String) processorParameterValue.resolveValue().toString();
-				event.addVariable(Constants.LOGGER_OUTPUT_KEY, message, DataType.JSON_STRING);
+				ProcessorParameterValue processorParameterValue = parameters.get("message");
 				
-				/*
-				TypedValue<String> tv = new TypedValue<>(message, DataType.JSON_STRING);
-				Message eventMessage = Message.builder().payload(tv).build();
-				event.message(eventMessage);
-				*/
-				
-				logger.debug("around::Intercepted a logger message resolved: " + message);
+				try
+				{
+					// --------------------------------------------------------------------------------
+					//	Extract and resolve the Logger output.  Insert the resolved output into the 
+					//	Event Message.  This message will be picked up by the End Processor Notification
+					//	handler, extracted and then added as a Span Event.
+					// --------------------------------------------------------------------------------
+					String message = loggerCapture.truncate(processorParameterValue.resolveValue().toString());
+					event.addVariable(Constants.LOGGER_OUTPUT_KEY, message, DataType.JSON_STRING);
+					
+					/*
+					TypedValue<String> tv = new TypedValue<>(message, DataType.JSON_STRING);
+					Message eventMessage = Message.builder().payload(tv).build();
+					event.message(eventMessage);
+					*/
+					
+					logger.debug("around::Intercepted a logger message resolved: " + message);
+				}
+				catch (Exception e)
+				{
+					// do nothing for now
+					logger.debug("around::Intercepted logger processor resolved with error: " + e.getMessage());
+				}
 			}
-			catch (Exception e)
+			else if (event.getVariables().containsKey(Constants.LOGGER_OUTPUT_KEY))
 			{
-				// do nothing for now
-				logger.debug("around::Intercepted logger processor resolved with error: " + e.getMessage());
-			}			
+				// ------------------------------------------------------------------------------------
+				//	Do not let the output of a previous Logger be reported for this one
+				// ------------------------------------------------------------------------------------
+				event.removeVariable(Constants.LOGGER_OUTPUT_KEY);
+			}
 			logger.debug("around::Intercepted a logger processor");
 		}
 		
@@ -147,6 +165,44 @@ public class TracingProcessorInterceptor implements ProcessorInterceptor
 		}
 	}
 
+	// --------------------------------------------------------------------------------------------
+	//	The Logger message is only resolved when its output is kept: the Logger gets a span (the 
+	//	trace is sampled and processor spans are generated) and the level and per-trace limit of the
+	//	logger capture allow it.  The per-trace limit is checked last since it reserves an output.
+	// --------------------------------------------------------------------------------------------
+	private boolean isLoggerOutputCaptured(ComponentLocation location, 
+	                                       Map<String, ProcessorParameterValue> parameters,
+	                                       InterceptionEvent event,
+	                                       LoggerCapture loggerCapture)
+	{
+		if (!loggerCapture.isEnabled())
+			return false;
+		
+		ProcessorParameterValue level = parameters.get("level");
+		
+		if (!loggerCapture.isLevelCaptured((level != null) ? level.providedValue() : null))
+			return false;
+		
+		OtelSdkSnapshot sdk = OtelSdkSnapshot.current();
+		
+		if (sdk == null || MuleMetricProcessorDuration.getInstance() != null)
+			return false;
+		
+		SpanGenerationConfig spanGenerationConfig = sdk.getSpanGenerationConfig();
+		
+		if (spanGenerationConfig != null && !spanGenerationConfig.getGenerateMessageProcessorsSpans())
+			return false;
+		
+		if (sdk.getAdaptiveSampler() != null && sdk.getAdaptiveSampler().isProcessorSpansSuspended())
+			return false;
+		
+		if (NotificationParserUtils.isBypassed(location.getComponentIdentifier().getIdentifier()))
+			return false;
+		
+		return OTelMuleNotificationHandler.getMuleSoftTraceStore().tryAddLoggerOutput(event.getCorrelationId(), 
+		                                                                        loggerCapture.getMaxPerTrace());
+	}
+	
 	private boolean isHttpRequestProcessor(ComponentLocation location)
 	{
 		return TracingProcessorInterceptorFactory.isProcessorType(location, Constants.HTTP_REQUESTER);
@@ -0,0 +1,217 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongHistogram;
+
+//------------------------------------------------------------------------------------------------
+//  Overhead of the agent itself: time spent handling each kind of notification (per parser), 
+//  notifications received/skipped/failed, spans per trace, and the one-off connector config
+//  store build and SDK initialization times.
+//
+//  Counts are LongAdders exported by MuleMetricAgentOverhead; durations and spans per trace are
+//  recorded in the histograms it installs, with the attributes of each handler and parser built
+//  once.  Recording does nothing but a volatile read when disabled.
+//------------------------------------------------------------------------------------------------
+public class AgentSelfTelemetry
+{
+    public static final int FLOW_START      = 0;
+    public static final int FLOW_END        = 1;
+    public static final int PROCESSOR_START = 2;
+    public static final int PROCESSOR_END   = 3;
+    
+    static final String[] HANDLER_NAMES = { "flow.start", "flow.end", "processor.start", "processor.end" };
+    static final String   NO_PARSER     = "none";
+    
+    private static final AgentSelfTelemetry agentSelfTelemetry = new AgentSelfTelemetry();
+    
+    private volatile boolean enabled;
+    
+    private final LongAdder[] received = newAdders();
+    private final LongAdder[] skipped  = newAdders();
+    private final LongAdder[] failed   = newAdders();
+    
+    private final Map<Class<?>, Attributes[]> parserAttributes   = new ConcurrentHashMap<>();
+    private final Attributes[]                noParserAttributes = handlerAttributes(NO_PARSER);
+    
+    private volatile LongHistogram handlerDurations;
+    private volatile LongHistogram spansPerTrace;
+    
+    private volatile long configStoreBuildMillis  = -1;
+    private volatile long sdkInitializationMillis = -1;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton 
+    //------------------------------------------------------------------------------------------------
+    private AgentSelfTelemetry()
+    {
+    }
+    
+    public static AgentSelfTelemetry getInstance()
+    {
+        return agentSelfTelemetry;
+    }
+    
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Notification handling
+    //------------------------------------------------------------------------------------------------
+    /**
+     * Count a notification received by {@code handler}
+     * 
+     * @return start time to pass to {@link #handled} or {@link #failed}
+     */
+    public long received(int handler)
+    {
+        if (!enabled)
+            return 0;
+        
+        received[handler].increment();
+        return System.nanoTime();
+    }
+    
+    /**
+     * Count a notification the handler did not create or update a span for
+     */
+    public void skipped(int handler)
+    {
+        if (enabled)
+            skipped[handler].increment();
+    }
+    
+    /**
+     * Record the time spent handling a notification 
+     * 
+     * @param handler - handler id
+     * @param parserType - class of the parser which handled the notification, <b>null</b> if none
+     * @param startNanos - value returned by {@link #received}
+     */
+    public void handled(int handler, Class<?> parserType, long startNanos)
+    {
+        LongHistogram histogram = handlerDurations;
+        
+        if (!enabled || histogram == null)
+            return;
+        
+        long elapsedMicros = (System.nanoTime() - startNanos) / 1000;
+        
+        histogram.record(elapsedMicros, attributesFor(parserType)[handler]);
+    }
+    
+    /**
+     * Count a notification whose handling failed with an exception
+     */
+    public void failed(int handler)
+    {
+        if (enabled)
+            failed[handler].increment();
+    }
+    
+    public void recordSpansPerTrace(int spans)
+    {
+        LongHistogram histogram = spansPerTrace;
+        
+        if (enabled && spans > 0 && histogram != null)
+            histogram.record(spans);
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  One-off durations, recorded whether enabled or not
+    //------------------------------------------------------------------------------------------------
+    public void setConfigStoreBuildMillis(long millis)
+    {
+        this.configStoreBuildMillis = millis;
+    }
+    
+    public void setSdkInitializationMillis(long millis)
+    {
+        this.sdkInitializationMillis = millis;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Instruments and accessors for MuleMetricAgentOverhead
+    //------------------------------------------------------------------------------------------------
+    void setHistograms(LongHistogram handlerDurations, LongHistogram spansPerTrace)
+    {
+        this.handlerDurations = handlerDurations;
+        this.spansPerTrace = spansPerTrace;
+    }
+    
+    long getReceived(int handler)
+    {
+        return received[handler].sum();
+    }
+    
+    long getSkipped(int handler)
+    {
+        return skipped[handler].sum();
+    }
+    
+    long getFailed(int handler)
+    {
+        return failed[handler].sum();
+    }
+    
+    long getConfigStoreBuildMillis()
+    {
+        return configStoreBuildMillis;
+    }
+    
+    long getSdkInitializationMillis()
+    {
+        return sdkInitializationMillis;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Helper methods
+    //------------------------------------------------------------------------------------------------
+    private Attributes[] attributesFor(Class<?> parserType)
+    {
+        if (parserType == null)
+            return noParserAttributes;
+        
+        Attributes[] attributes = parserAttributes.get(parserType);
+        
+        return (attributes != null) ? attributes 
+                                    : parserAttributes.computeIfAbsent(parserType, (type) -> handlerAttributes(type.getSimpleName()));
+    }
+    
+    //
+    //  attributes of each handler for one parser
+    //
+    private static Attributes[] handlerAttributes(String parserName)
+    {
+        Attributes[] attributes = new Attributes[HANDLER_NAMES.length];
+        
+        for (int handler = 0; handler < attributes.length; handler++)
+        {
+            attributes[handler] = Attributes.of(MuleAttributeKeys.OTEL_HANDLER, HANDLER_NAMES[handler], MuleAttributeKeys.OTEL_PARSER, parserName);
+        }
+        return attributes;
+    }
+    
+    private static LongAdder[] newAdders()
+    {
+        LongAdder[] adders = new LongAdder[HANDLER_NAMES.length];
+        
+        for (int i = 0; i < adders.length; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
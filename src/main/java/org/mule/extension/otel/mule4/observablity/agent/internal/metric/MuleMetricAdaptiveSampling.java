@@ -0,0 +1,59 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.sampler.AdaptiveSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+
+//------------------------------------------------------------------------------------------------
+//  Sampling ratio and pressure of the agent's AdaptiveSampler
+//------------------------------------------------------------------------------------------------
+public class MuleMetricAdaptiveSampling
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricAdaptiveSampling.class);
+
+    private static MuleMetricAdaptiveSampling muleMetricAdaptiveSampling;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry
+     * @param adaptiveSampler - sampler to report on
+     */
+    private MuleMetricAdaptiveSampling(OpenTelemetry openTelemetry, AdaptiveSampler adaptiveSampler)
+    {
+        logger.info("Initializing the Adaptive Sampling Metrics");
+
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+
+        meter.gaugeBuilder("mule.otel.sampling.ratio")
+             .setDescription("Reports the sampling ratio the adaptive sampler applies to new traces.")
+             .setUnit("1")
+             .buildWithCallback((measure) -> measure.record(adaptiveSampler.getRatio()));
+
+        meter.gaugeBuilder("mule.otel.sampling.pressure")
+             .setDescription("Reports the highest of the workload, heap, export queue and throughput readings over their limit, above 1 when over budget.")
+             .setUnit("1")
+             .buildWithCallback((measure) -> measure.record(adaptiveSampler.getPressure()));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry instance
+     * @param adaptiveSampler - sampler to report on
+     */
+    public static void setInstance(OpenTelemetry ot, AdaptiveSampler adaptiveSampler)
+    {
+        if (muleMetricAdaptiveSampling == null)
+        {
+            muleMetricAdaptiveSampling = new MuleMetricAdaptiveSampling(ot, adaptiveSampler);
+        }
+    }
+}
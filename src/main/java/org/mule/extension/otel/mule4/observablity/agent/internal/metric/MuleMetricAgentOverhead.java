@@ -0,0 +1,133 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.View;
+
+//------------------------------------------------------------------------------------------------
+//  Exports the agent's own overhead recorded by AgentSelfTelemetry.
+//
+//  Handler durations and spans per trace are histograms recorded by AgentSelfTelemetry.  Their
+//  bucket boundaries are set by views registered on the meter provider (see registerViews), as
+//  the bucket boundary advice of the histogram builder is not part of the stable API of the SDK
+//  version used.
+//------------------------------------------------------------------------------------------------
+public class MuleMetricAgentOverhead
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricAgentOverhead.class);
+    
+    private static final String HANDLER_DURATION = "mule.otel.agent.handler.duration";
+    private static final String SPANS_PER_TRACE  = "mule.otel.agent.trace.spans";
+    
+    private static final List<Double> HANDLER_DURATION_BOUNDS_MICROS = Arrays.asList(1.0, 2.0, 5.0, 10.0, 20.0, 50.0, 100.0, 200.0, 500.0, 
+                                                                                     1000.0, 2000.0, 5000.0, 10000.0);
+    private static final List<Double> SPANS_PER_TRACE_BOUNDS         = Arrays.asList(1.0, 2.0, 5.0, 10.0, 20.0, 50.0, 100.0, 200.0, 500.0, 1000.0);
+    
+    private static MuleMetricAgentOverhead muleMetricAgentOverhead;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton 
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry 
+     */
+    private MuleMetricAgentOverhead(OpenTelemetry openTelemetry)
+    {
+        logger.info("Initializing the Agent Overhead Metrics"); 
+        
+        AgentSelfTelemetry telemetry = AgentSelfTelemetry.getInstance();
+        
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+        
+        meter.counterBuilder("mule.otel.agent.notifications")
+             .setDescription("Reports the number of notifications received, skipped and failed by the agent.")
+             .setUnit("{notification}")
+             .buildWithCallback((measure) -> 
+             {
+                 for (int handler = 0; handler < AgentSelfTelemetry.HANDLER_NAMES.length; handler++)
+                 {
+                     measure.record(telemetry.getReceived(handler), outcome(handler, "received"));
+                     measure.record(telemetry.getSkipped(handler), outcome(handler, "skipped"));
+                     measure.record(telemetry.getFailed(handler), outcome(handler, "failed"));
+                 }
+             });
+        
+        telemetry.setHistograms(meter.histogramBuilder(HANDLER_DURATION)
+                                     .setDescription("Reports the time spent handling notifications, per handler and parser.")
+                                     .setUnit("us")
+                                     .ofLongs()
+                                     .build(),
+                                meter.histogramBuilder(SPANS_PER_TRACE)
+                                     .setDescription("Reports the number of spans created per completed trace.")
+                                     .setUnit("{span}")
+                                     .ofLongs()
+                                     .build());
+        
+        meter.gaugeBuilder("mule.otel.agent.config_store.build.duration")
+             .setDescription("Reports the time taken to load the connector configurations.")
+             .setUnit("ms")
+             .ofLongs()
+             .buildWithCallback((measure) -> recordIfSet(measure, telemetry.getConfigStoreBuildMillis()));
+        
+        meter.gaugeBuilder("mule.otel.agent.sdk.init.duration")
+             .setDescription("Reports the time taken to initialize the OpenTelemetry SDK.")
+             .setUnit("ms")
+             .ofLongs()
+             .buildWithCallback((measure) -> recordIfSet(measure, telemetry.getSdkInitializationMillis()));
+    }
+    
+    private static Attributes outcome(int handler, String outcome)
+    {
+        return Attributes.of(MuleAttributeKeys.OTEL_HANDLER, AgentSelfTelemetry.HANDLER_NAMES[handler], MuleAttributeKeys.OTEL_OUTCOME, outcome);
+    }
+    
+    private static void recordIfSet(ObservableLongMeasurement measure, long value)
+    {
+        if (value >= 0)
+            measure.record(value);
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Bucket boundaries of the histograms, registered before the meter provider is built
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param meterProviderBuilder - builder of the meter provider of the SDK
+     * @return the builder
+     */
+    public static SdkMeterProviderBuilder registerViews(SdkMeterProviderBuilder meterProviderBuilder)
+    {
+        return meterProviderBuilder.registerView(InstrumentSelector.builder().setName(HANDLER_DURATION).build(),
+                                                 View.builder().setAggregation(Aggregation.explicitBucketHistogram(HANDLER_DURATION_BOUNDS_MICROS)).build())
+                                   .registerView(InstrumentSelector.builder().setName(SPANS_PER_TRACE).build(),
+                                                 View.builder().setAggregation(Aggregation.explicitBucketHistogram(SPANS_PER_TRACE_BOUNDS)).build());
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry instance
+     */
+    public static void setInstance(OpenTelemetry ot)
+    {
+        if (muleMetricAgentOverhead == null)
+        {
+            muleMetricAgentOverhead = new MuleMetricAgentOverhead(ot);
+        }
+    }      
+}
@@ -0,0 +1,307 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.http.api.HttpRequestAttributes;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.PendingExecutions.Execution;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.ComponentDescriptor;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+//------------------------------------------------------------------------------------------------
+//  Rate, errors and duration (RED) of every flow execution, recorded from the flow notifications
+//  before any sampling decision, so they are complete whether traces are sampled, rate limited
+//  or not generated at all.
+//
+//  The attributes are the flow name and the source component of the event; flows started by an
+//  HTTP listener also get the request method and the response status class.  The status comes
+//  from the httpStatus variable when the flow sets it (e.g., APIkit), else 200 or 500 depending
+//  on the outcome of the flow.  Every combination of attributes is built once and cached per
+//  flow, so recording does not allocate attributes.
+//
+//  Requests are counted when the flow starts, so executions which never end (or end after their
+//  pending start expired) are still counted;  errors and durations are recorded when it ends,
+//  with the status class of HTTP listener flows.
+//------------------------------------------------------------------------------------------------
+public class MuleMetricFlow
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricFlow.class);
+
+    private static final int  MAX_PENDING_EXECUTIONS         = 100000;
+    private static final long PENDING_EXECUTION_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+    //
+    //  index 0 of the HTTP attributes has no status class, 1 to 5 are 1xx to 5xx
+    //
+    private static final int      STATUS_CLASSES     = 6;
+    private static final String[] STATUS_CLASS_NAMES = { null, "1xx", "2xx", "3xx", "4xx", "5xx" };
+
+    //
+    //  other methods are reported as _OTHER, so a client cannot grow the number of series
+    //
+    private static final Set<String> HTTP_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT",
+                                                                                "OPTIONS", "TRACE", "PATCH"));
+    private static final String      OTHER_METHOD = "_OTHER";
+
+    private static volatile MuleMetricFlow muleMetricFlow;
+
+    private final LongCounter                     requests;
+    private final LongCounter                     errors;
+    private final LongHistogram                   durations;
+    private final PendingExecutions<Attributes[]> pendingExecutions = new PendingExecutions<>(MAX_PENDING_EXECUTIONS, PENDING_EXECUTION_TIME_TO_LIVE);
+    private final Map<String, FlowAttributes>     flowAttributes    = new ConcurrentHashMap<>();
+
+    //------------------------------------------------------------------------------------------------
+    //  Attributes of one flow, per source component and per HTTP method
+    //------------------------------------------------------------------------------------------------
+    private static final class FlowAttributes
+    {
+        private final String                                 flowName;
+        private final Attributes[]                           noSource;
+        private final Map<ComponentIdentifier, Attributes[]> bySource     = new ConcurrentHashMap<>();
+        private final Map<String, Attributes[]>              byHttpMethod = new ConcurrentHashMap<>();
+
+        private FlowAttributes(String flowName)
+        {
+            this.flowName = flowName;
+            this.noSource = new Attributes[] { Attributes.of(MuleAttributeKeys.FLOW_NAME, flowName) };
+        }
+
+        private Attributes[] forSource(ComponentIdentifier source)
+        {
+            return new Attributes[] { Attributes.of(MuleAttributeKeys.FLOW_NAME, flowName, MuleAttributeKeys.SOURCE_COMPONENT, componentId(source)) };
+        }
+
+        private Attributes[] forHttpMethod(String method)
+        {
+            Attributes[] attributes = new Attributes[STATUS_CLASSES];
+
+            attributes[0] = Attributes.of(MuleAttributeKeys.FLOW_NAME, flowName, 
+                                          MuleAttributeKeys.SOURCE_COMPONENT, Constants.HTTP_LISTENER, 
+                                          MuleAttributeKeys.HTTP_METHOD, method);
+
+            for (int i = 1; i < STATUS_CLASSES; i++)
+                attributes[i] = attributes[0].toBuilder().put(MuleAttributeKeys.HTTP_STATUS_CLASS, STATUS_CLASS_NAMES[i]).build();
+
+            return attributes;
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry
+     */
+    private MuleMetricFlow(OpenTelemetry openTelemetry)
+    {
+        logger.info("Initializing the Flow Metrics");
+
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+
+        requests = meter.counterBuilder("mule.flow.requests")
+                        .setDescription("Reports the number of flow executions, sampled or not.")
+                        .setUnit("{request}")
+                        .build();
+
+        errors = meter.counterBuilder("mule.flow.errors")
+                      .setDescription("Reports the number of flow executions which ended with an error.")
+                      .setUnit("{request}")
+                      .build();
+
+        durations = meter.histogramBuilder("mule.flow.duration")
+                         .setDescription("Reports the duration of the flow executions.")
+                         .setUnit("ms")
+                         .ofLongs()
+                         .build();
+
+        meter.counterBuilder("mule.flow.untimed")
+             .setDescription("Reports the number of flow executions whose duration was not recorded because too many were pending or their end never arrived.")
+             .setUnit("{request}")
+             .buildWithCallback((measure) -> measure.record(pendingExecutions.getUntimedCount()));
+    }
+
+    /**
+     * @return the recorder, null if flow metrics are not recorded
+     */
+    public static MuleMetricFlow getInstance()
+    {
+        return muleMetricFlow;
+    }
+
+    /**
+     *
+     * @param notification - flow start notification
+     * @param traceId - MuleSoft trace id of the execution
+     * @param componentDescriptor - the flow
+     */
+    public void flowStarted(NotificationSnapshot notification, String traceId, ComponentDescriptor componentDescriptor)
+    {
+        FlowAttributes attributes = flowAttributes.get(componentDescriptor.getFlowId());
+
+        if (attributes == null)
+            attributes = flowAttributes.computeIfAbsent(componentDescriptor.getFlowId(),
+                                                        (flowId) -> new FlowAttributes(componentDescriptor.getDocName()));
+
+        Attributes[] started = getAttributes(notification, attributes);
+
+        requests.add(1, started[0]);
+
+        pendingExecutions.start(traceId, NotificationParserUtils.getExecutionId(notification), componentDescriptor.getFlowId(),
+                                notification.getTimestamp(), started);
+    }
+
+    /**
+     *
+     * @param notification - flow end notification
+     * @param traceId - MuleSoft trace id of the execution
+     * @param componentDescriptor - the flow
+     */
+    public void flowEnded(NotificationSnapshot notification, String traceId, ComponentDescriptor componentDescriptor)
+    {
+        Execution<Attributes[]> execution = pendingExecutions.end(traceId, NotificationParserUtils.getExecutionId(notification),
+                                                                  componentDescriptor.getFlowId());
+
+        if (execution == null)
+            return;
+
+        boolean failed = notification.getException() != null;
+        Attributes[] attributes = execution.getValue();
+        Attributes recorded = (attributes.length == STATUS_CLASSES) ? attributes[getStatusClass(notification, failed)]
+                                                                    : attributes[0];
+
+        if (failed)
+            errors.add(1, recorded);
+
+        durations.record(Math.max(notification.getTimestamp() - execution.getStartMillis(), 0), recorded);
+    }
+
+    /**
+     * Drop the flow executions of a trace still pending, when the trace store evicts the trace
+     *
+     * @param traceId - MuleSoft trace id
+     */
+    public void traceEnded(String traceId)
+    {
+        pendingExecutions.endTrace(traceId);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Helper methods
+    //------------------------------------------------------------------------------------------------
+    private static Attributes[] getAttributes(NotificationSnapshot notification, FlowAttributes flowAttributes)
+    {
+        ComponentIdentifier source = NotificationParserUtils.getSourceIdentifier(notification);
+
+        if (source == null)
+            return flowAttributes.noSource;
+
+        if (isHttpListenerFlow(notification, source, flowAttributes.flowName))
+        {
+            String method = getHttpMethod(notification);
+            Attributes[] attributes = flowAttributes.byHttpMethod.get(method);
+
+            return (attributes != null) ? attributes : flowAttributes.byHttpMethod.computeIfAbsent(method, flowAttributes::forHttpMethod);
+        }
+
+        Attributes[] attributes = flowAttributes.bySource.get(source);
+
+        return (attributes != null) ? attributes : flowAttributes.bySource.computeIfAbsent(source, flowAttributes::forSource);
+    }
+
+    //
+    //  the flow of the HTTP listener, not a flow it references
+    //
+    private static boolean isHttpListenerFlow(NotificationSnapshot notification, ComponentIdentifier source, String flowName)
+    {
+        if (!"http".equals(source.getNamespace()) || !"listener".equals(source.getName()))
+            return false;
+
+        ComponentLocation originatingLocation = notification.getOriginatingLocation();
+
+        return flowName != null && flowName.equals(originatingLocation.getRootContainerName());
+    }
+
+    private static String getHttpMethod(NotificationSnapshot notification)
+    {
+        try
+        {
+            Object attributes = notification.getMessageAttributes();
+
+            if (attributes instanceof HttpRequestAttributes)
+            {
+                String method = ((HttpRequestAttributes) attributes).getMethod();
+
+                if (HTTP_METHODS.contains(method))
+                    return method;
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+
+        return OTHER_METHOD;
+    }
+
+    private static int getStatusClass(NotificationSnapshot notification, boolean failed)
+    {
+        try
+        {
+            Object httpStatus = notification.getVariable(Constants.HTTP_STATUS_VARIABLE);
+
+            if (httpStatus != null)
+            {
+                int status = (httpStatus instanceof Number) ? ((Number) httpStatus).intValue()
+                                                            : Integer.parseInt(httpStatus.toString().trim());
+                int statusClass = status / 100;
+
+                return (statusClass > 0 && statusClass < STATUS_CLASSES) ? statusClass : 0;
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+
+        return failed ? 5 : 2;
+    }
+
+    private static String componentId(ComponentIdentifier componentIdentifier)
+    {
+        return componentIdentifier.getNamespace() + ":" + componentIdentifier.getName();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry instance
+     */
+    public static void setInstance(OpenTelemetry ot)
+    {
+        if (muleMetricFlow == null)
+        {
+            muleMetricFlow = new MuleMetricFlow(ot);
+        }
+    }
+}
@@ -2,11 +2,11 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
 
 import java.util.function.Consumer;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.opentelemetry.api.OpenTelemetry;
-import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
@@ -45,7 +45,7 @@ public class MuleMetricMemoryUsage
     
     public static void record(ObservableDoubleMeasurement mesaure)
     {
-        Attributes attribute = Attributes.of(AttributeKey.stringKey("mule.memory.usage"), "heap");;
+        Attributes attribute = Attributes.of(MuleAttributeKeys.MEMORY_USAGE, "heap");;
         
         mesaure.record(getHeapMemoryUsage(), attribute);
     }
@@ -0,0 +1,88 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+
+//------------------------------------------------------------------------------------------------
+//  Queued and dropped Mule notifications of the asynchronous NotificationDispatcher, per 
+//  notification action (named as the agent overhead handlers), and the depth of its queues
+//------------------------------------------------------------------------------------------------
+public class MuleMetricNotificationDispatch
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricNotificationDispatch.class);
+    
+    private static MuleMetricNotificationDispatch muleMetricNotificationDispatch;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton 
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry 
+     * @param notificationDispatcher - dispatcher to report on
+     */
+    private MuleMetricNotificationDispatch(OpenTelemetry openTelemetry, NotificationDispatcher notificationDispatcher)
+    {
+        logger.info("Initializing the Notification Dispatch Metrics"); 
+        
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+        Attributes[] handlers = new Attributes[AgentSelfTelemetry.HANDLER_NAMES.length];
+        
+        for (int handler = 0; handler < handlers.length; handler++)
+        {
+            handlers[handler] = Attributes.of(MuleAttributeKeys.OTEL_HANDLER, AgentSelfTelemetry.HANDLER_NAMES[handler]);
+        }
+        
+        meter.counterBuilder("mule.otel.notifications.enqueued")
+             .setDescription("Reports the number of Mule notifications queued for the agent threads.")
+             .setUnit("{notification}")
+             .buildWithCallback((measure) -> 
+             {
+                 for (int handler = 0; handler < handlers.length; handler++)
+                     measure.record(notificationDispatcher.getEnqueuedCount(handler), handlers[handler]);
+             });
+        
+        meter.counterBuilder("mule.otel.notifications.dropped")
+             .setDescription("Reports the number of Mule notifications dropped because the queue was full; a dropped flow end leaves its trace open until it is evicted.")
+             .setUnit("{notification}")
+             .buildWithCallback((measure) -> 
+             {
+                 for (int handler = 0; handler < handlers.length; handler++)
+                     measure.record(notificationDispatcher.getDroppedCount(handler), handlers[handler]);
+             });
+        
+        meter.gaugeBuilder("mule.otel.notifications.queued")
+             .setDescription("Reports the number of Mule notifications waiting in the queues of the agent threads.")
+             .setUnit("{notification}")
+             .ofLongs()
+             .buildWithCallback((measure) -> measure.record(notificationDispatcher.getQueuedCount()));
+        
+        meter.gaugeBuilder("mule.otel.notifications.queue_capacity")
+             .setDescription("Reports the number of Mule notifications the queues of the agent threads can hold.")
+             .setUnit("{notification}")
+             .ofLongs()
+             .buildWithCallback((measure) -> measure.record(notificationDispatcher.getQueueCapacity()));
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry instance
+     * @param notificationDispatcher - dispatcher to report on
+     */
+    public static void setInstance(OpenTelemetry ot, NotificationDispatcher notificationDispatcher)
+    {
+        if (muleMetricNotificationDispatch == null)
+        {
+            muleMetricNotificationDispatch = new MuleMetricNotificationDispatch(ot, notificationDispatcher);
+        }
+    }      
+}
@@ -0,0 +1,120 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.PendingExecutions.Execution;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.ComponentDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+//------------------------------------------------------------------------------------------------
+//  Duration of each message processor execution, recorded instead of a message processor span.
+//  The start notification only leaves its timestamp (the same millisecond resolution as the
+//  spans) keyed by trace, execution (event context id) and location, so concurrent iterations
+//  of a processor are timed separately; the end notification records the difference in the
+//  histogram with the attributes pre-built by the component descriptor.  Executions are
+//  recorded whether or not their trace is sampled.  Starts whose end never arrives expire, or
+//  are dropped with their trace when the trace store evicts it.
+//------------------------------------------------------------------------------------------------
+public class MuleMetricProcessorDuration
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricProcessorDuration.class);
+
+    private static final int  MAX_PENDING_EXECUTIONS         = 100000;
+    private static final long PENDING_EXECUTION_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile MuleMetricProcessorDuration muleMetricProcessorDuration;
+
+    private final LongHistogram           durations;
+    private final PendingExecutions<Void> pendingExecutions = new PendingExecutions<>(MAX_PENDING_EXECUTIONS, PENDING_EXECUTION_TIME_TO_LIVE);
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry
+     */
+    private MuleMetricProcessorDuration(OpenTelemetry openTelemetry)
+    {
+        logger.info("Initializing the Message Processor Duration Metrics");
+
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+
+        durations = meter.histogramBuilder("mule.processor.duration")
+                         .setDescription("Reports the duration of the message processor executions, per flow and component.")
+                         .setUnit("ms")
+                         .ofLongs()
+                         .build();
+
+        meter.counterBuilder("mule.processor.untimed")
+             .setDescription("Reports the number of message processor executions not timed because too many were pending or their end never arrived.")
+             .setUnit("{execution}")
+             .buildWithCallback((measure) -> measure.record(pendingExecutions.getUntimedCount()));
+    }
+
+    /**
+     * @return the recorder, null if message processor durations are not recorded
+     */
+    public static MuleMetricProcessorDuration getInstance()
+    {
+        return muleMetricProcessorDuration;
+    }
+
+    /**
+     *
+     * @param traceId - MuleSoft trace id of the execution
+     * @param executionId - event context id of the execution
+     * @param componentDescriptor - the message processor
+     * @param startMillis - timestamp of the start notification
+     */
+    public void processorStarted(String traceId, String executionId, ComponentDescriptor componentDescriptor, long startMillis)
+    {
+        pendingExecutions.start(traceId, executionId, componentDescriptor.getLocation(), startMillis, null);
+    }
+
+    /**
+     *
+     * @param traceId - MuleSoft trace id of the execution
+     * @param executionId - event context id of the execution
+     * @param componentDescriptor - the message processor
+     * @param endMillis - timestamp of the end notification
+     */
+    public void processorEnded(String traceId, String executionId, ComponentDescriptor componentDescriptor, long endMillis)
+    {
+        Execution<Void> execution = pendingExecutions.end(traceId, executionId, componentDescriptor.getLocation());
+
+        if (execution != null)
+            durations.record(Math.max(endMillis - execution.getStartMillis(), 0), componentDescriptor.getProcessorAttributes());
+    }
+
+    /**
+     * Drop the message processor executions of a trace still pending, when the trace store evicts
+     * the trace
+     *
+     * @param traceId - MuleSoft trace id
+     */
+    public void traceEnded(String traceId)
+    {
+        pendingExecutions.endTrace(traceId);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     *
+     * @param openTelemetry instance
+     */
+    public static void setInstance(OpenTelemetry ot)
+    {
+        if (muleMetricProcessorDuration == null)
+        {
+            muleMetricProcessorDuration = new MuleMetricProcessorDuration(ot);
+        }
+    }
+}
@@ -4,11 +4,11 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
 import java.util.function.Consumer;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.opentelemetry.api.OpenTelemetry;
-import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
@@ -44,7 +44,7 @@ public class MuleMetricSystemWorkload
     
     public static void record(ObservableDoubleMeasurement mesaure)
     {
-        Attributes attribute = Attributes.of(AttributeKey.stringKey("mule.fullDomain"), "fullDomain");
+        Attributes attribute = Attributes.of(MuleAttributeKeys.FULL_DOMAIN, "fullDomain");
         
         if (osMxBean != null)
         {    
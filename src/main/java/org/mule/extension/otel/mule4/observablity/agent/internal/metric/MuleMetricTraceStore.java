@@ -0,0 +1,126 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+
+//------------------------------------------------------------------------------------------------
+//  In-flight traces/spans and evictions of the agent's MuleSoftTraceStore
+//------------------------------------------------------------------------------------------------
+public class MuleMetricTraceStore
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleMetricTraceStore.class);
+    
+    private static final Attributes TRACE_SCOPE    = Attributes.of(MuleAttributeKeys.EVICTION_SCOPE, "trace");
+    private static final Attributes PIPELINE_SCOPE = Attributes.of(MuleAttributeKeys.EVICTION_SCOPE, "pipeline");
+    
+    private static final Attributes KEPT_DECISION     = Attributes.of(MuleAttributeKeys.TAIL_SAMPLING_DECISION, "kept");
+    private static final Attributes DROPPED_DECISION  = Attributes.of(MuleAttributeKeys.TAIL_SAMPLING_DECISION, "dropped");
+    private static final Attributes OVERFLOW_DECISION = Attributes.of(MuleAttributeKeys.TAIL_SAMPLING_DECISION, "overflow");
+    
+    private static MuleMetricTraceStore muleMetricTraceStore;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton 
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry 
+     * @param traceStore - store to report on
+     */
+    private MuleMetricTraceStore(OpenTelemetry openTelemetry, MuleSoftTraceStore traceStore)
+    {
+        logger.info("Initializing the Trace Store Metrics"); 
+        
+        Meter meter = openTelemetry.getMeter("org.mulesoft.extension.otel.mule4.observability.agent.metrics");
+        
+        meter.gaugeBuilder("mule.otel.store.traces.inflight")
+             .setDescription("Reports the number of traces held by the agent.")
+             .setUnit("{trace}")
+             .ofLongs()
+             .buildWithCallback((measure) -> measure.record(traceStore.getInFlightTraceCount()));
+        
+        meter.gaugeBuilder("mule.otel.store.spans.inflight")
+             .setDescription("Reports the number of open flow and message processor spans held by the agent.")
+             .setUnit("{span}")
+             .ofLongs()
+             .buildWithCallback((measure) -> measure.record(traceStore.getInFlightSpanCount()));
+        
+        meter.counterBuilder("mule.otel.store.evictions")
+             .setDescription("Reports the number of traces and flows evicted after their time to live expired.")
+             .setUnit("{eviction}")
+             .buildWithCallback((measure) -> 
+             {
+                 measure.record(traceStore.getEvictedTraceCount(), TRACE_SCOPE);
+                 measure.record(traceStore.getEvictedPipelineCount(), PIPELINE_SCOPE);
+             });
+        
+        meter.counterBuilder("mule.otel.store.traces.root_span_only")
+             .setDescription("Reports the number of traces started above the in-flight trace limit.")
+             .setUnit("{trace}")
+             .buildWithCallback((measure) -> measure.record(traceStore.getRootSpanOnlyTraceCount()));
+        
+        meter.counterBuilder("mule.otel.store.traces.unsampled")
+             .setDescription("Reports the number of traces not recorded, decided by the head sampler or above the rate limit of their flow.")
+             .setUnit("{trace}")
+             .buildWithCallback((measure) -> measure.record(traceStore.getUnsampledTraceCount()));
+        
+        meter.counterBuilder("mule.otel.traces.rate_limited")
+             .setDescription("Reports the number of traces not recorded because their flow was above its trace rate limit.")
+             .setUnit("{trace}")
+             .buildWithCallback((measure) -> 
+             {
+                 OTelMuleNotificationHandler.getFlowRateLimiter()
+                                            .getDroppedTraceCounts()
+                                            .forEach((flowName, dropped) -> measure.record(dropped, Attributes.of(MuleAttributeKeys.METRIC_FLOW_NAME, flowName)));
+             });
+        
+        meter.counterBuilder("mule.otel.store.traces.tail_sampled")
+             .setDescription("Reports the number of traces kept or dropped by the tail sampler, or exported undecided because their spans did not fit (overflow).")
+             .setUnit("{trace}")
+             .buildWithCallback((measure) -> 
+             {
+                 measure.record(traceStore.getTailSamplingKeptTraceCount(), KEPT_DECISION);
+                 measure.record(traceStore.getTailSamplingDroppedTraceCount(), DROPPED_DECISION);
+                 measure.record(traceStore.getTailSamplingOverflowTraceCount(), OVERFLOW_DECISION);
+             });
+        
+        meter.counterBuilder("mule.otel.store.spans.compacted")
+             .setDescription("Reports the number of message processor spans compacted into their flow span because they were shorter than the minimum duration.")
+             .setUnit("{span}")
+             .buildWithCallback((measure) -> measure.record(traceStore.getCompactedSpanCount()));
+        
+        meter.counterBuilder("mule.otel.store.logger_outputs.dropped")
+             .setDescription("Reports the number of Logger outputs not captured because their trace reached the per-trace limit.")
+             .setUnit("{event}")
+             .buildWithCallback((measure) -> measure.record(traceStore.getDroppedLoggerOutputCount()));
+        
+        meter.gaugeBuilder("mule.otel.store.spans.held")
+             .setDescription("Reports the number of ended spans held by the tail sampler until their trace completes.")
+             .setUnit("{span}")
+             .ofLongs()
+             .buildWithCallback((measure) -> measure.record(traceStore.getTailSamplingHeldSpanCount()));
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Create the singleton if it doesn't already exist.
+    //------------------------------------------------------------------------------------------------
+    /**
+     * 
+     * @param openTelemetry instance
+     * @param traceStore - store to report on
+     */
+    public static void setInstance(OpenTelemetry ot, MuleSoftTraceStore traceStore)
+    {
+        if (muleMetricTraceStore == null)
+        {
+            muleMetricTraceStore = new MuleMetricTraceStore(ot, traceStore);
+        }
+    }      
+}
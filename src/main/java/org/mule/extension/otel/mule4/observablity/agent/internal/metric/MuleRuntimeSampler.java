@@ -0,0 +1,228 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+//------------------------------------------------------------------------------------------------
+//	Periodically samples the JVM/OS readings that are added to every flow span.  Reading the 
+//	MXBeans on each flow start is comparatively expensive (system load average, walk of all the 
+//	memory pools), so a background thread refreshes the values at a fixed interval and the flow 
+//	start handler only reads the last sample.
+//
+//	The heap usage in percent is a pressure reading, so it is taken from the old generation pool 
+//	after its last collection:  the heap used right now includes the garbage not collected yet,
+//	and reads close to the maximum on a healthy heap just before each collection.  Collectors with
+//	a single heap pool (ZGC, Shenandoah) use that pool.
+//------------------------------------------------------------------------------------------------
+/**
+ * Background sampler of the system workload and the JVM heap usage.
+ * 
+ * @see MuleMetricSystemWorkload
+ * @see MuleMetricMemoryUsage
+ */
+public class MuleRuntimeSampler
+{
+    private static final Logger logger = LoggerFactory.getLogger(MuleRuntimeSampler.class);
+    
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    
+    private static final MuleRuntimeSampler muleRuntimeSampler = new MuleRuntimeSampler();
+    
+    private final OperatingSystemMXBean osMxBean     = ManagementFactory.getOperatingSystemMXBean();
+    private final MemoryMXBean          memoryMxBean = ManagementFactory.getMemoryMXBean();
+    private final MemoryPoolMXBean      oldGenPool   = findOldGenPool();
+    
+    private ScheduledExecutorService scheduler;
+    
+    private volatile double workloadPercent = -1;
+    private volatile long   heapUsageBytes;
+    private volatile double heapUsageMBytes;
+    private volatile double heapUsagePercent = -1;
+    
+    private volatile Runnable sampleListener;
+
+    //------------------------------------------------------------------------------------------------
+    //  Singleton 
+    //------------------------------------------------------------------------------------------------
+    private MuleRuntimeSampler()
+    {
+        sample();
+    }
+    
+    public static MuleRuntimeSampler getInstance()
+    {
+        return muleRuntimeSampler;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Lifecycle
+    //------------------------------------------------------------------------------------------------
+    /**
+     * Start sampling at the specified interval.  Restarts the sampler if it is already running.
+     * 
+     * @param intervalMillis - sampling interval, defaults to {@link #DEFAULT_INTERVAL_MILLIS} if not positive
+     */
+    public synchronized void start(long intervalMillis)
+    {
+        stop();
+        
+        long interval = (intervalMillis > 0) ? intervalMillis : DEFAULT_INTERVAL_MILLIS;
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor((r) -> 
+        {
+            Thread thread = new Thread(r, "otel-agent-runtime-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+        
+        logger.info("Sampling system workload and heap usage every {} ms", interval);
+    }
+    
+    public synchronized void stop()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Run the listener on the sampler thread after each sample, e.g., to adapt to the new readings.
+     * 
+     * @param listener - replaces the current listener, null for none
+     */
+    public void setSampleListener(Runnable listener)
+    {
+        sampleListener = listener;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Last sampled values
+    //------------------------------------------------------------------------------------------------
+    /**
+     * @return the system workload in percent, negative if not available on this platform
+     * @see MuleMetricSystemWorkload#getWorkloadPercent()
+     */
+    public double getWorkloadPercent()
+    {
+        return workloadPercent;
+    }
+    
+    /**
+     * @return the used heap in bytes
+     */
+    public long getHeapUsageBytes()
+    {
+        return heapUsageBytes;
+    }
+    
+    /**
+     * @return the used heap in MB (10^6 bytes)
+     */
+    public double getHeapUsageMBytes()
+    {
+        return heapUsageMBytes;
+    }
+    
+    /**
+     * @return the old generation heap used after the last collection, in percent of its maximum, 
+     *         negative if not available
+     */
+    public double getHeapUsagePercent()
+    {
+        return heapUsagePercent;
+    }
+    
+    //------------------------------------------------------------------------------------------------
+    //  Helper methods
+    //------------------------------------------------------------------------------------------------
+    private void sample()
+    {
+        try
+        {
+            double loadAverage = osMxBean.getSystemLoadAverage();
+            
+            workloadPercent = (loadAverage >= 0) ? (loadAverage / osMxBean.getAvailableProcessors()) * 100 : -1;
+            
+            MemoryUsage heapMemoryUsage = memoryMxBean.getHeapMemoryUsage();
+            long heapUsage = heapMemoryUsage.getUsed();
+            
+            heapUsageBytes = heapUsage;
+            heapUsageMBytes = heapUsage / 1000000.0;
+            heapUsagePercent = getCollectedHeapUsagePercent(heapMemoryUsage);
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+        
+        Runnable listener = sampleListener;
+        
+        if (listener != null)
+        {
+            try
+            {
+                listener.run();
+            }
+            catch (Exception e)
+            {
+                logger.debug(e.getMessage());
+            }
+        }
+    }
+    
+    private double getCollectedHeapUsagePercent(MemoryUsage heapMemoryUsage)
+    {
+        MemoryUsage collectionUsage = (oldGenPool != null) ? oldGenPool.getCollectionUsage() : null;
+        
+        if (collectionUsage == null)
+            return -1;
+        
+        long max = (collectionUsage.getMax() > 0) ? collectionUsage.getMax() : heapMemoryUsage.getMax();
+        
+        return (max > 0) ? (collectionUsage.getUsed() * 100.0) / max : -1;
+    }
+    
+    //
+    //  the tenured pool of generational collectors, else the largest heap pool with collection usage
+    //
+    private static MemoryPoolMXBean findOldGenPool()
+    {
+        MemoryPoolMXBean largestPool = null;
+        
+        try
+        {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            {
+                if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported())
+                    continue;
+                
+                String name = pool.getName();
+                
+                if (name.contains("Old") || name.contains("Tenured"))
+                    return pool;
+                
+                if (largestPool == null || pool.getUsage().getMax() > largestPool.getUsage().getMax())
+                    largestPool = pool;
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+        
+        return largestPool;
+    }
+}
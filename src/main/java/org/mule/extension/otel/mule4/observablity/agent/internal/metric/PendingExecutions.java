@@ -0,0 +1,220 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.metric;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//------------------------------------------------------------------------------------------------
+//  Start time (and a value, e.g., the attributes to record with) of the flow or processor
+//  executions whose end notification has not arrived yet, grouped by trace and keyed by execution
+//  (event context id) and component, so the concurrent executions of a flow or processor in one
+//  trace (flow-ref recursion, parallel-foreach, scatter-gather) are timed separately.  An entry is
+//  both key and value, so a start allocates one object and an end only the lookup key.  The
+//  executions of a trace are only touched under the lock of their trace, so a trace whose last
+//  execution ends is removed without racing a new start.
+//
+//  Executions whose end notification never arrives are bounded:  they are dropped with their
+//  trace when the trace store evicts it, and expire after their time to live.  Above the maximum,
+//  new executions are not timed;  both are counted.
+//------------------------------------------------------------------------------------------------
+/**
+ * Pending executions timed by the metrics recorded from notifications.
+ *
+ * @param <T> value carried from the start to the end of an execution
+ */
+final class PendingExecutions<T>
+{
+    private static final long MIN_EXPIRY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+    private final int                                          maxPending;
+    private final long                                         timeToLive;
+    private final Map<String, Map<Execution<T>, Execution<T>>> executions = new ConcurrentHashMap<>();
+    private final AtomicInteger                                pending    = new AtomicInteger();
+    private final LongAdder                                    untimed    = new LongAdder();
+
+    private volatile long nextExpiryMillis;
+
+    static final class Execution<T>
+    {
+        private final String executionId;
+        private final String componentId;
+        private final int    hash;
+        private final long   startMillis;
+        private final T      value;
+
+        private Execution(String executionId, String componentId, long startMillis, T value)
+        {
+            this.executionId = executionId;
+            this.componentId = componentId;
+            this.hash = 31 * ((executionId != null) ? executionId.hashCode() : 0) + ((componentId != null) ? componentId.hashCode() : 0);
+            this.startMillis = startMillis;
+            this.value = value;
+        }
+
+        long getStartMillis()
+        {
+            return startMillis;
+        }
+
+        T getValue()
+        {
+            return value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+                return true;
+            if (!(o instanceof Execution))
+                return false;
+
+            Execution<?> other = (Execution<?>) o;
+
+            return hash == other.hash && equals(executionId, other.executionId) && equals(componentId, other.componentId);
+        }
+
+        private static boolean equals(String a, String b)
+        {
+            return (a == null) ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * @param maxPending - maximum number of executions timed at the same time
+     * @param timeToLive - in ms, time after which an execution whose end never arrived is dropped
+     */
+    PendingExecutions(int maxPending, long timeToLive)
+    {
+        this.maxPending = maxPending;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     *
+     * @param traceId - MuleSoft trace id of the execution
+     * @param executionId - event context id of the execution
+     * @param componentId - flow id or processor location
+     * @param startMillis - timestamp of the start notification
+     * @param value - carried to the end of the execution
+     */
+    void start(String traceId, String executionId, String componentId, long startMillis, T value)
+    {
+        if (startMillis >= nextExpiryMillis || pending.get() >= maxPending)
+            expire(startMillis);
+
+        if (pending.get() >= maxPending)
+        {
+            untimed.increment();
+            return;
+        }
+
+        Execution<T> execution = new Execution<>(executionId, componentId, startMillis, value);
+
+        executions.compute(traceId, (id, traceExecutions) ->
+        {
+            if (traceExecutions == null)
+                traceExecutions = new HashMap<>(4);
+
+            if (traceExecutions.put(execution, execution) == null)
+                pending.incrementAndGet();
+
+            return traceExecutions;
+        });
+    }
+
+    /**
+     *
+     * @param traceId - MuleSoft trace id of the execution
+     * @param executionId - event context id of the execution
+     * @param componentId - flow id or processor location
+     * @return the started execution, <b>null</b> if it was not timed
+     */
+    @SuppressWarnings("unchecked")
+    Execution<T> end(String traceId, String executionId, String componentId)
+    {
+        Execution<T> key = new Execution<>(executionId, componentId, 0, null);
+        Object[] ended = new Object[1];
+
+        executions.computeIfPresent(traceId, (id, traceExecutions) ->
+        {
+            ended[0] = traceExecutions.remove(key);
+
+            return traceExecutions.isEmpty() ? null : traceExecutions;
+        });
+
+        if (ended[0] != null)
+            pending.decrementAndGet();
+
+        return (Execution<T>) ended[0];
+    }
+
+    /**
+     * Drop the executions of a trace still pending, e.g., when the trace store evicts the trace
+     *
+     * @param traceId - MuleSoft trace id
+     */
+    void endTrace(String traceId)
+    {
+        Map<Execution<T>, Execution<T>> traceExecutions = executions.remove(traceId);
+
+        //  removed under the lock of the trace, so no start or end is still updating it
+        if (traceExecutions != null)
+        {
+            pending.addAndGet(-traceExecutions.size());
+            untimed.add(traceExecutions.size());
+        }
+    }
+
+    /**
+     * @return number of executions not timed because too many were pending or because their
+     *         end never arrived
+     */
+    long getUntimedCount()
+    {
+        return untimed.sum();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    //  Drop the executions started more than the time to live ago.  Runs at most once per interval,
+    //  on the thread of the start notification which finds it due.
+    //------------------------------------------------------------------------------------------------
+    private synchronized void expire(long nowMillis)
+    {
+        if (nowMillis < nextExpiryMillis)
+            return;
+
+        nextExpiryMillis = nowMillis + Math.max(MIN_EXPIRY_INTERVAL, (pending.get() >= maxPending) ? 0 : timeToLive / 4);
+
+        long expiredBefore = nowMillis - timeToLive;
+
+        for (String traceId : executions.keySet())
+        {
+            executions.computeIfPresent(traceId, (id, traceExecutions) ->
+            {
+                Iterator<Execution<T>> iterator = traceExecutions.keySet().iterator();
+
+                while (iterator.hasNext())
+                {
+                    if (iterator.next().startMillis < expiredBefore)
+                    {
+                        iterator.remove();
+                        pending.decrementAndGet();
+                        untimed.increment();
+                    }
+                }
+                return traceExecutions.isEmpty() ? null : traceExecutions;
+            });
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.notification;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.el.BindingContext;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+
+//------------------------------------------------------------------------------------------------
+//	Copy of what the agent reads from a Mule notification and its event, taken on the Mule thread
+//	which fired the notification.  The spans, metrics and parsers only read the snapshot, so a
+//	notification handled later on an agent thread (see NotificationDispatcher) sees the event as
+//	it was when the notification fired, and the event (and its payload) is not kept alive while
+//	the notification is queued.
+//
+//	Only the variables the agent reads are copied.  The binding context the custom attribute
+//	expressions are evaluated against is only captured when there are such expressions.
+//------------------------------------------------------------------------------------------------
+/**
+ * 	Immutable capture of a Mule pipeline or message processor notification.
+ */
+public final class NotificationSnapshot
+{
+	private static final String[] CAPTURED_VARIABLES = { Constants.LOGGER_OUTPUT_KEY, Constants.HTTP_STATUS_VARIABLE };
+
+	private static volatile boolean bindingContextCaptured;
+
+	private final int                 action;
+	private final boolean             pipeline;
+	private final long                timestamp;
+	private final String              serverId;
+	private final Component           component;
+	private final Exception           exception;
+	private final String              correlationId;
+	private final String              executionId;
+	private final ComponentLocation   originatingLocation;
+	private final Object              messageAttributes;
+	private final Map<String, Object> variables;
+	private final BindingContext      bindingContext;
+
+	/**
+	 *
+	 * @param notification - pipeline or message processor notification, only read by the constructor
+	 * @param action - the notification action
+	 */
+	public NotificationSnapshot(EnrichedServerNotification notification, int action)
+	{
+		this.action = action;
+		this.pipeline = (notification instanceof PipelineMessageNotification);
+		this.timestamp = notification.getTimestamp();
+		this.serverId = notification.getServerId();
+		this.component = notification.getComponent();
+		this.exception = notification.getException();
+
+		Event event = notification.getEvent();
+
+		if (event != null)
+		{
+			this.correlationId = event.getCorrelationId();
+			this.executionId = event.getContext().getId();
+			this.originatingLocation = event.getContext().getOriginatingLocation();
+			this.messageAttributes = (event.getMessage() != null) ? event.getMessage().getAttributes().getValue() : null;
+			this.variables = copyVariables(event.getVariables());
+			this.bindingContext = bindingContextCaptured ? event.asBindingContext() : null;
+		}
+		else
+		{
+			this.correlationId = null;
+			this.executionId = null;
+			this.originatingLocation = null;
+			this.messageAttributes = null;
+			this.variables = Collections.emptyMap();
+			this.bindingContext = null;
+		}
+	}
+
+	/**
+	 * Capture the binding context of the events, for the custom attribute expressions.  Set once
+	 * at startup.
+	 *
+	 * @param captured - <b>true</b> if custom attribute expressions are evaluated
+	 */
+	public static void setBindingContextCaptured(boolean captured)
+	{
+		bindingContextCaptured = captured;
+	}
+
+	private static Map<String, Object> copyVariables(Map<String, TypedValue<?>> eventVariables)
+	{
+		if (eventVariables == null || eventVariables.isEmpty())
+			return Collections.emptyMap();
+
+		Map<String, Object> variables = null;
+
+		for (String name : CAPTURED_VARIABLES)
+		{
+			Object value = TypedValue.unwrap(eventVariables.get(name));
+
+			if (value != null)
+			{
+				if (variables == null)
+					variables = new HashMap<>(4);
+
+				variables.put(name, value);
+			}
+		}
+		return (variables != null) ? variables : Collections.emptyMap();
+	}
+
+	/**
+	 * @return the Mule notification action (e.g., {@code PipelineMessageNotification.PROCESS_START})
+	 */
+	public int getAction()
+	{
+		return action;
+	}
+
+	/**
+	 * @return <b>true</b> for a pipeline (flow) notification, <b>false</b> for a message processor
+	 *         notification
+	 */
+	public boolean isPipelineNotification()
+	{
+		return pipeline;
+	}
+
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+	public String getServerId()
+	{
+		return serverId;
+	}
+
+	/**
+	 * @return the flow or message processor which fired the notification
+	 */
+	public Component getComponent()
+	{
+		return component;
+	}
+
+	public Exception getException()
+	{
+		return exception;
+	}
+
+	/**
+	 * @return the correlation id of the event, the MuleSoft trace id
+	 */
+	public String getCorrelationId()
+	{
+		return correlationId;
+	}
+
+	/**
+	 * @return the id of the event context
+	 */
+	public String getExecutionId()
+	{
+		return executionId;
+	}
+
+	/**
+	 * @return the location of the source (trigger) of the flow the event was created by
+	 */
+	public ComponentLocation getOriginatingLocation()
+	{
+		return originatingLocation;
+	}
+
+	/**
+	 * @return the attributes of the message (e.g., HttpRequestAttributes), may be null
+	 */
+	public Object getMessageAttributes()
+	{
+		return messageAttributes;
+	}
+
+	/**
+	 *
+	 * @param name - one of the variables read by the agent (e.g., {@link Constants#LOGGER_OUTPUT_KEY})
+	 * @return the value of the variable, null if the event does not have it
+	 */
+	public Object getVariable(String name)
+	{
+		return variables.get(name);
+	}
+
+	/**
+	 * @return the binding context of the event, null if custom attribute expressions are not
+	 *         evaluated
+	 */
+	public BindingContext getBindingContext()
+	{
+		return bindingContext;
+	}
+}
@@ -1,29 +1,36 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification;
 
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
-import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.trace.IdGenerator;
 
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.mule.runtime.api.notification.MessageProcessorNotification;
 import org.mule.runtime.api.notification.PipelineMessageNotification;
-import org.mule.runtime.core.api.config.MuleConfiguration;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.CustomAttributesConfig;
-import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
-import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkConnection;
-import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricMemoryUsage;
-import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricSystemWorkload;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkInitializer;
+import org.mule.extension.otel.mule4.observablity.agent.internal.connection.OtelSdkSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricFlow;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleMetricProcessorDuration;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleRuntimeSampler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.ComponentDescriptor;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.FlowRateLimiter;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.NotificationParserService;
-import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.BaseNotificationParser;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.SpanHandle;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
-import java.util.function.Supplier;
 
 public class OTelMuleNotificationHandler
 {
@@ -31,16 +38,23 @@ public class OTelMuleNotificationHandler
 
 	private static MuleSoftTraceStore traceStore = new MuleSoftTraceStore();
 	
-	private OtelSdkConnection otelSdkConnection;
+	private static volatile FlowRateLimiter flowRateLimiter = FlowRateLimiter.unlimited();
+	
+	private static final long CONFIG_STORE_READY_TIMEOUT_MILLIS = 5000;
+	
     private MuleConnectorConfigStore muleConnectorConfigStore;
-	private final Supplier<OtelSdkConnection> sdkConnectionSupplier;
+    private volatile boolean muleConnectorConfigStoreAwaited;
+	private final OtelSdkInitializer otelSdkInitializer;
+	private final AgentSelfTelemetry telemetry = AgentSelfTelemetry.getInstance();
 
 	// --------------------------------------------------------------------------------------------
 	// Constructor
 	// --------------------------------------------------------------------------------------------
-	public OTelMuleNotificationHandler(Supplier<OtelSdkConnection> s)
+	public OTelMuleNotificationHandler(OtelSdkInitializer otelSdkInitializer)
 	{
-		sdkConnectionSupplier = s;
+		this.otelSdkInitializer = otelSdkInitializer;
+		
+		traceStore.setTraceEvictionListener(OTelMuleNotificationHandler::traceEvicted);
 	}
 
 	/**
@@ -53,60 +67,85 @@ public class OTelMuleNotificationHandler
 	}
 	
 	// --------------------------------------------------------------------------------------------
-	// Helper methods to retrieve various singletons.
-	// --------------------------------------------------------------------------------------------	
-	private Tracer getTracer()
+	// Release the per-trace state the flow end notification of an evicted trace never released
+	// --------------------------------------------------------------------------------------------
+	private static void traceEvicted(String mulesoftTraceId)
 	{
-		if (otelSdkConnection == null)
-		{
-			otelSdkConnection = sdkConnectionSupplier.get();
-		}
-		return otelSdkConnection.getTracer().get();
+		OtelSdkSnapshot sdk = OtelSdkSnapshot.current();
+		
+		if (sdk != null)
+			sdk.getCustomAttributesConfig().endTrace(mulesoftTraceId);
+		
+		MuleMetricFlow flowMetrics = MuleMetricFlow.getInstance();
+		
+		if (flowMetrics != null)
+			flowMetrics.traceEnded(mulesoftTraceId);
+		
+		MuleMetricProcessorDuration processorDuration = MuleMetricProcessorDuration.getInstance();
+		
+		if (processorDuration != null)
+			processorDuration.traceEnded(mulesoftTraceId);
 	}
-
-	private MuleConfiguration getMuleConfiguration()
+	
+	/**
+	 * 
+	 * @param rateLimiter - per-flow limits on the traces started, replaces the current limits
+	 */
+	public static void setFlowRateLimiter(FlowRateLimiter rateLimiter)
 	{
-		if (otelSdkConnection == null)
-		{
-			otelSdkConnection = sdkConnectionSupplier.get();
-		}
-		return otelSdkConnection.getMuleConfiguration().get();
+		flowRateLimiter = (rateLimiter != null) ? rateLimiter : FlowRateLimiter.unlimited();
 	}
 	
-	private SpanGenerationConfig getSpanGenerationConfig()
+	/**
+	 * 
+	 * @return flowRateLimiter - the per-flow limits on the traces started
+	 */
+	public static FlowRateLimiter getFlowRateLimiter()
 	{
-		if (otelSdkConnection == null)
-		{
-			otelSdkConnection = sdkConnectionSupplier.get();
-		}
-		return otelSdkConnection.getSpanGenerationConfig().get();
+		return flowRateLimiter;
 	}
 	
-	private MuleConnectorConfigStore getMuleConnectorConfigStore()
+	// --------------------------------------------------------------------------------------------
+	// Helper methods to retrieve various singletons.
+	// --------------------------------------------------------------------------------------------	
+	private MuleConnectorConfigStore getMuleConnectorConfigStore(OtelSdkSnapshot sdk)
 	{
 	    if (muleConnectorConfigStore == null)
 	    {
-	        if (otelSdkConnection == null)
-	        {
-	            otelSdkConnection = sdkConnectionSupplier.get();
-	        }
-
-	        muleConnectorConfigStore = MuleConnectorConfigStore.getInstance(getMuleConfiguration(), 
-	                                                                        otelSdkConnection.getExpressionManager().get());
+	        muleConnectorConfigStore = MuleConnectorConfigStore.getInstance(sdk.getMuleConfiguration(), 
+	                                                                        sdk.getExpressionManager());
+	    }
+	    
+	    //
+	    // The store is normally built in the background at startup; give it a bounded amount of 
+	    // time to finish for the first notifications
+	    //
+	    if (!muleConnectorConfigStoreAwaited)
+	    {
+	        if (!muleConnectorConfigStore.awaitReady(CONFIG_STORE_READY_TIMEOUT_MILLIS))
+	            logger.warn("Connector configurations are not loaded yet, spans may miss connector attributes");
+	        
+	        muleConnectorConfigStoreAwaited = true;
 	    }
 
 	    return muleConnectorConfigStore;
 	}
 	
-	private void setCustomAttributes(SpanBuilder sb, EnrichedServerNotification n, int action)
+	private NotificationParser skipped(int handler)
 	{
-	    if (otelSdkConnection == null)
-	    {
-	        otelSdkConnection = sdkConnectionSupplier.get();
-	    }
-	    
-	    CustomAttributesConfig cac =  otelSdkConnection.getCustomAttributesConfig().get();
-	    Boolean setAttributes = true;
+		telemetry.skipped(handler);
+		return null;
+	}
+	
+	private static Class<?> parserType(NotificationParser notificationParser)
+	{
+		return (notificationParser != null) ? notificationParser.getClass() : null;
+	}
+	
+	private Attributes getCustomAttributes(OtelSdkSnapshot sdk, NotificationSnapshot n, String mulesoftTraceId, int action)
+	{
+	    CustomAttributesConfig cac =  sdk.getCustomAttributesConfig();
+	    boolean setAttributes = true;
 	    
 	    switch (action)
 	    {
@@ -118,8 +157,58 @@ public class OTelMuleNotificationHandler
 	            break;
 	    }
 	    
-	    if (setAttributes)
-	        cac.setAttributes(sb, otelSdkConnection.getExpressionManager().get(), n);
+	    return setAttributes ? cac.getAttributes(sdk.getExpressionManager(), n, mulesoftTraceId) 
+	                         : Attributes.empty();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// Root span of a trace not recorded:  not recording, in the context propagated by the caller 
+	// with the sampled flag cleared, so the calls made by the flow carry the caller's trace 
+	// context and tell the next services the trace is not sampled.  Without a propagated context
+	// the trace gets new ids.
+	// --------------------------------------------------------------------------------------------
+	private static Span getUnsampledRootSpan(NotificationParser notificationParser, NotificationSnapshot notification)
+	{
+		SpanContext parentSpanContext = SpanContext.getInvalid();
+		
+		try
+		{
+			parentSpanContext = Span.fromContext(notificationParser.extractPipelineContext(notification)).getSpanContext();
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+		
+		if (parentSpanContext.isValid())
+			return Span.wrap(SpanContext.create(parentSpanContext.getTraceId(), 
+			                                    parentSpanContext.getSpanId(), 
+			                                    TraceFlags.getDefault(), 
+			                                    parentSpanContext.getTraceState()));
+		
+		IdGenerator idGenerator = IdGenerator.random();
+		
+		return Span.wrap(SpanContext.create(idGenerator.generateTraceId(), 
+		                                    idGenerator.generateSpanId(), 
+		                                    TraceFlags.getDefault(), 
+		                                    TraceState.getDefault()));
+	}
+
+	private static boolean hasCapturedLoggerOutput(SpanHandle spanHandle, NotificationSnapshot notification)
+	{
+		return Constants.LOGGER.equals(spanHandle.getComponentId()) &&
+		       notification.getVariable(Constants.LOGGER_OUTPUT_KEY) != null;
+	}
+	
+	private static Attributes getStartAttributes(Instant startInstant)
+	{
+	    AttributesBuilder attributes = Attributes.builder().put(MuleAttributeKeys.START_DATETIME, startInstant.toString());
+	    MuleRuntimeSampler muleRuntimeSampler = MuleRuntimeSampler.getInstance();
+	    
+	    if (muleRuntimeSampler.getWorkloadPercent() >= 0)
+	    	attributes.put(MuleAttributeKeys.START_WORKLOAD, muleRuntimeSampler.getWorkloadPercent());
+		
+	    return attributes.put(MuleAttributeKeys.START_HEAP_USAGE, muleRuntimeSampler.getHeapUsageMBytes()).build();
 	}
 	
 	// ============================================================================================
@@ -129,91 +218,177 @@ public class OTelMuleNotificationHandler
 	// --------------------------------------------------------------------------------------------
 	// Flow START Notification Handler
 	// --------------------------------------------------------------------------------------------	
-	public void handleFlowStartEvent(PipelineMessageNotification notification)
+	public void handleFlowStartEvent(NotificationSnapshot notification)
+	{
+		long startNanos = telemetry.received(AgentSelfTelemetry.FLOW_START);
+		
+		try
+		{
+			NotificationParser notificationParser = flowStart(notification);
+			
+			telemetry.handled(AgentSelfTelemetry.FLOW_START, parserType(notificationParser), startNanos);
+		}
+		catch (RuntimeException e)
+		{
+			telemetry.failed(AgentSelfTelemetry.FLOW_START);
+			throw e;
+		}
+	}
+	
+	private NotificationParser flowStart(NotificationSnapshot notification)
 	{
 		logger.debug("Handling flow start event");
 
+		OtelSdkSnapshot sdk = otelSdkInitializer.get();
+		
+		if (sdk == null)
+			return skipped(AgentSelfTelemetry.FLOW_START);
+
 		Instant startInstant = NotificationParserUtils.getInstantFrom(notification);
+		ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+		String mulesoftTraceId = NotificationParserUtils.getMuleSoftTraceId(notification);
 		
-		SpanBuilder spanBuilder = getTracer().spanBuilder(NotificationParserUtils.getSpanName(notification))
-				                                                                 .setStartTimestamp(startInstant);
+		//
+		// flow metrics are recorded for every flow execution, before any sampling decision
+		//
+		MuleMetricFlow flowMetrics = MuleMetricFlow.getInstance();
 		
-		spanBuilder.setAttribute(Constants.START_DATETIME_ATTRIBUTE, startInstant.toString());
-	    
-		String workload = (MuleMetricSystemWorkload.getWorkloadPercent() >= 0) 
-		                  ? String.format("%.2f %%", MuleMetricSystemWorkload.getWorkloadPercent())
-		                  : "Data not available";
-	    /*    
-		spanBuilder.setAttribute(Constants.START_WORKLOAD_ATTRIBUTE, 
-		                         String.format("%.2f %%", MuleMetricSystemWorkload.getWorkloadPercent()));
-		*/
-		
-	    spanBuilder.setAttribute(Constants.START_WORKLOAD_ATTRIBUTE, workload);
-		
-	    spanBuilder.setAttribute(Constants.START_HEAP_USAGE_ATTRIBUTE, 
-                                 String.format("%.2f MB", MuleMetricMemoryUsage.getHeapMemoryUsage()/1000000.0));
-	    
-	    //
-	    // add custom attributes to the trace
-	    //
-	    setCustomAttributes(spanBuilder, notification, Constants.PIPELINE_EVENT_ACTION_ID);
-	    
-	      
-		NotificationParser notificationParser = NotificationParserService.getInstance().getParserFor(notification)
-				                                                                       .orElse(new BaseNotificationParser());
+		if (flowMetrics != null)
+			flowMetrics.flowStarted(notification, mulesoftTraceId, componentDescriptor);
+		
+		//
+		// unsampled traces and traces started above the in-flight trace limit only get their root span
+		//
+		if (traceStore.isRootSpanOnly(mulesoftTraceId))
+			return skipped(AgentSelfTelemetry.FLOW_START);
+		
+		boolean newTrace = !traceStore.isTracePresent(mulesoftTraceId);
+		
+		//
+		// a trace started above the rate limit of its flow (the doc name of a flow is its name) is 
+		// recorded as unsampled before any span work, so the rest of the trace is skipped the same way
+		//
+		NotificationParser notificationParser = sdk.getNotificationParserService()
+				                                                         .getParserFor(notification, PipelineMessageNotification.PROCESS_START);
+		
+		if (newTrace && !flowRateLimiter.tryAcquire(componentDescriptor.getDocName()))
+		{
+			traceStore.startTrace(mulesoftTraceId, 
+			                      componentDescriptor.getFlowId(), 
+			                      getUnsampledRootSpan(notificationParser, notification), 
+			                      startInstant);
+			
+			return skipped(AgentSelfTelemetry.FLOW_START);
+		}
+		
+		SpanBuilder spanBuilder = sdk.getTracer().spanBuilder(componentDescriptor.getSpanName())
+				                             .setStartTimestamp(startInstant);
 		
-		if (!traceStore.isTracePresent(NotificationParserUtils.getMuleSoftTraceId(notification)))
+		if (newTrace)
 		{
 			try
 			{
-				spanBuilder.setAttribute(Constants.FLOW_NAME_ATTRIBUTE, NotificationParserUtils.getDocName(notification));
-				spanBuilder.setAttribute(Constants.SERVER_ID_ATTRIBUTE, NotificationParserUtils.getServerId(notification));
+				spanBuilder.setAllAttributes(componentDescriptor.getFlowNameAttributes());
+				spanBuilder.setAttribute(MuleAttributeKeys.SERVER_ID, NotificationParserUtils.getServerId(notification));
 				
-				notificationParser.startPipelineNotification(notification, getMuleConnectorConfigStore(), spanBuilder);
+				notificationParser.startPipelineNotification(notification, getMuleConnectorConfigStore(sdk), spanBuilder);
 			} 
 			catch (Exception e)
 			{
 				logger.debug(e.getMessage());
 			}
 			
-			traceStore.startTrace(NotificationParserUtils.getMuleSoftTraceId(notification), 
-					              NotificationParserUtils.getFlowId(notification), 
-					              spanBuilder.startSpan());
+			//
+			// the head sampler decides when the root span starts, on the parent context set by 
+			// the parser;  the start and custom attributes are only evaluated for sampled traces
+			//
+			Span rootSpan = spanBuilder.startSpan();
+			
+			if (rootSpan.isRecording())
+			{
+				rootSpan.setAllAttributes(getStartAttributes(startInstant));
+				rootSpan.setAllAttributes(getCustomAttributes(sdk, notification, mulesoftTraceId, Constants.PIPELINE_EVENT_ACTION_ID));
+			}
+			
+			traceStore.startTrace(mulesoftTraceId, 
+					              componentDescriptor.getFlowId(), 
+					              rootSpan,
+					              startInstant);
 		} 
 		else
 		{
+			spanBuilder.setAllAttributes(getStartAttributes(startInstant));
+			
+		    //
+		    // add custom attributes to the trace
+		    //
+			spanBuilder.setAllAttributes(getCustomAttributes(sdk, notification, mulesoftTraceId, Constants.PIPELINE_EVENT_ACTION_ID));
+			
 			try
 			{
-				spanBuilder.setAttribute(Constants.DOC_NAME_ATTRIBUTE, NotificationParserUtils.getDocName(notification));
+				spanBuilder.setAllAttributes(componentDescriptor.getDocNameAttributes());
 			} 
 			catch (Exception e)
 			{
 				logger.debug(e.getMessage());
 			}
 			
-			traceStore.addPipelineSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-					                   NotificationParserUtils.getFlowId(notification), 
+			traceStore.addPipelineSpan(mulesoftTraceId, 
+					                   componentDescriptor.getFlowId(), 
 					                   spanBuilder);
 		}
+		
+		return notificationParser;
 	}
 
 	// --------------------------------------------------------------------------------------------
 	// Flow END Notification Handler
 	// --------------------------------------------------------------------------------------------
-	public void handleFlowEndEvent(PipelineMessageNotification notification)
+	public void handleFlowEndEvent(NotificationSnapshot notification)
+	{
+		long startNanos = telemetry.received(AgentSelfTelemetry.FLOW_END);
+		
+		try
+		{
+			flowEnd(notification);
+			
+			telemetry.handled(AgentSelfTelemetry.FLOW_END, null, startNanos);
+		}
+		catch (RuntimeException e)
+		{
+			telemetry.failed(AgentSelfTelemetry.FLOW_END);
+			throw e;
+		}
+	}
+	
+	private void flowEnd(NotificationSnapshot notification)
 	{
 		logger.debug("Handling flow end event");
+
+		OtelSdkSnapshot sdk = otelSdkInitializer.get();
+		
+		if (sdk == null)
+		{
+			skipped(AgentSelfTelemetry.FLOW_END);
+			return;
+		}
 		
 		String mulesoftTraceId = NotificationParserUtils.getMuleSoftTraceId(notification);
+		ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+		MuleMetricFlow flowMetrics = MuleMetricFlow.getInstance();
+		
+		if (flowMetrics != null)
+			flowMetrics.flowEnded(notification, mulesoftTraceId, componentDescriptor);
 	
 		traceStore.endPipelineSpan(mulesoftTraceId, 
-				                   NotificationParserUtils.getFlowId(notification),
+				                   componentDescriptor.getFlowId(),
 				                   NotificationParserUtils.getInstantFrom(notification),
 				                   notification.getException());
 		
 		if (traceStore.isPipelineSpansEmpty(mulesoftTraceId))
 		{
-			traceStore.endTrace(mulesoftTraceId);
+			telemetry.recordSpansPerTrace(traceStore.endTrace(mulesoftTraceId));
+			sdk.getCustomAttributesConfig().endTrace(mulesoftTraceId);
 		}
 	}
 
@@ -224,51 +399,170 @@ public class OTelMuleNotificationHandler
 	// --------------------------------------------------------------------------------------------
 	// Processor START Notification Handler
 	// --------------------------------------------------------------------------------------------
-	public void handleProcessorStartEvent(MessageProcessorNotification notification)
+	public void handleProcessorStartEvent(NotificationSnapshot notification)
+	{
+		long startNanos = telemetry.received(AgentSelfTelemetry.PROCESSOR_START);
+		
+		try
+		{
+			NotificationParser notificationParser = processorStart(notification);
+			
+			telemetry.handled(AgentSelfTelemetry.PROCESSOR_START, parserType(notificationParser), startNanos);
+		}
+		catch (RuntimeException e)
+		{
+			telemetry.failed(AgentSelfTelemetry.PROCESSOR_START);
+			throw e;
+		}
+	}
+	
+	private NotificationParser processorStart(NotificationSnapshot notification)
 	{
 		logger.debug("Handling processor start event");
+
+		OtelSdkSnapshot sdk = otelSdkInitializer.get();
 		
-		if (NotificationParserUtils.skipParsing(notification, getSpanGenerationConfig()))
-			return;
+		if (sdk == null)
+			return skipped(AgentSelfTelemetry.PROCESSOR_START);
 		
-		NotificationParser notificationParser = NotificationParserService.getInstance()
-				                                                         .getParserFor(notification)
-                                                                         .orElse(new BaseNotificationParser());
-
-		SpanBuilder spanBuilder = getTracer().spanBuilder(NotificationParserUtils.getSpanName(notification));
+		//
+		// processor durations are recorded instead of processor spans, for sampled and unsampled 
+		// traces alike
+		//
+		MuleMetricProcessorDuration processorDuration = MuleMetricProcessorDuration.getInstance();
+		
+		if (processorDuration != null)
+		{
+			ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+			
+			if (componentDescriptor.isSkipped())
+				return skipped(AgentSelfTelemetry.PROCESSOR_START);
+			
+			processorDuration.processorStarted(NotificationParserUtils.getMuleSoftTraceId(notification), 
+			                                   NotificationParserUtils.getExecutionId(notification), 
+			                                   componentDescriptor, 
+			                                   notification.getTimestamp());
+			return null;
+		}
+		
+		if (NotificationParserUtils.skipParsing(notification, sdk.getSpanGenerationConfig()))
+			return skipped(AgentSelfTelemetry.PROCESSOR_START);
+		
+		//
+		// processor spans are suspended while the adaptive sampler is backing off
+		//
+		if (sdk.getAdaptiveSampler() != null && sdk.getAdaptiveSampler().isProcessorSpansSuspended())
+			return skipped(AgentSelfTelemetry.PROCESSOR_START);
+		
+		ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+		String mulesoftTraceId = NotificationParserUtils.getMuleSoftTraceId(notification);
+		
+		//
+		// nothing is parsed or evaluated for the processors of unsampled traces
+		//
+		if (traceStore.isRootSpanOnly(mulesoftTraceId))
+			return skipped(AgentSelfTelemetry.PROCESSOR_START);
+		
+		NotificationParser notificationParser = sdk.getNotificationParserService()
+				                                                         .getParserFor(notification, MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE);
+		
+		SpanBuilder spanBuilder = sdk.getTracer().spanBuilder(componentDescriptor.getSpanName());
 		
 	    //
         // add custom attributes to the span
         //
-        setCustomAttributes(spanBuilder, notification, Constants.PROCESSOR_EVENT_ACTION_ID);
+        spanBuilder.setAllAttributes(getCustomAttributes(sdk, notification, mulesoftTraceId, Constants.PROCESSOR_EVENT_ACTION_ID));
+		
+		notificationParser.startProcessorNotification(notification, getMuleConnectorConfigStore(sdk), spanBuilder);
 		
-		notificationParser.startProcessorNotification(notification, getMuleConnectorConfigStore(), spanBuilder);
+		traceStore.addMessageProcessorSpan(mulesoftTraceId, 
+		                                   componentDescriptor.getFlowId(), 
+		                                   componentDescriptor.getLocation(), 
+		                                   NotificationParserUtils.getExecutionId(notification),
+				                           spanBuilder,
+				                           notificationParser,
+				                           componentDescriptor.getComponentId(),
+				                           notification.getTimestamp());
 		
-		traceStore.addMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-		                                   NotificationParserUtils.getFlowId(notification), 
-		                                   NotificationParserUtils.getSpanId(notification), 
-				                           spanBuilder);
+		return notificationParser;
 	}
 
 	// --------------------------------------------------------------------------------------------
 	// Processor END Notification Handler
 	// --------------------------------------------------------------------------------------------
-	public void handleProcessorEndEvent(MessageProcessorNotification notification)
+	public void handleProcessorEndEvent(NotificationSnapshot notification)
+	{
+		long startNanos = telemetry.received(AgentSelfTelemetry.PROCESSOR_END);
+		
+		try
+		{
+			NotificationParser notificationParser = processorEnd(notification);
+			
+			telemetry.handled(AgentSelfTelemetry.PROCESSOR_END, parserType(notificationParser), startNanos);
+		}
+		catch (RuntimeException e)
+		{
+			telemetry.failed(AgentSelfTelemetry.PROCESSOR_END);
+			throw e;
+		}
+	}
+	
+	private NotificationParser processorEnd(NotificationSnapshot notification)
 	{
 		logger.debug("Handling end event");
+
+		OtelSdkSnapshot sdk = otelSdkInitializer.get();
 		
-		if (NotificationParserUtils.skipParsing(notification, getSpanGenerationConfig()))
-			return;
+		if (sdk == null)
+			return skipped(AgentSelfTelemetry.PROCESSOR_END);
 		
-		NotificationParser notificationParser = NotificationParserService.getInstance()
-				                                                         .getParserFor(notification)
-                                                                         .orElse(new BaseNotificationParser());
+		MuleMetricProcessorDuration processorDuration = MuleMetricProcessorDuration.getInstance();
+		
+		if (processorDuration != null)
+		{
+			ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+			
+			if (componentDescriptor.isSkipped())
+				return skipped(AgentSelfTelemetry.PROCESSOR_END);
+			
+			processorDuration.processorEnded(NotificationParserUtils.getMuleSoftTraceId(notification), 
+			                                 NotificationParserUtils.getExecutionId(notification), 
+			                                 componentDescriptor, 
+			                                 notification.getTimestamp());
+			return null;
+		}
+		
+		if (NotificationParserUtils.skipParsing(notification, sdk.getSpanGenerationConfig()))
+			return skipped(AgentSelfTelemetry.PROCESSOR_END);
+		
+		ComponentDescriptor componentDescriptor = NotificationParserUtils.getComponentDescriptor(notification);
+		
+		//
+		// The handle carries the span and the parser picked at start time
+		//
+		SpanHandle spanHandle = traceStore.removeMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
+		                                                              componentDescriptor.getFlowId(), 
+		                                                              componentDescriptor.getLocation(),
+		                                                              NotificationParserUtils.getExecutionId(notification));
+		
+		if (spanHandle == null)
+			return skipped(AgentSelfTelemetry.PROCESSOR_END);
+		
+		//
+		// short message processors which did not fail are folded into their pipeline span, 
+		// before any parsing of the end notification;  Loggers whose output was captured keep 
+		// their span, since the output is only reported as an event of it
+		//
+		if (notification.getException() == null && 
+		    !hasCapturedLoggerOutput(spanHandle, notification) &&
+		    traceStore.compactMessageProcessorSpan(spanHandle, notification.getTimestamp()))
+			return spanHandle.getParser();
 
-		notificationParser.endProcessorNotification(notification, getMuleSoftTraceStore());
+		spanHandle.getParser().endProcessorNotification(notification, spanHandle.getSpan());
+		
+		traceStore.endMessageProcessorSpan(spanHandle, NotificationParserUtils.getInstantFrom(notification), 
+		                                   notification.getException());
 		
-		traceStore.endMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-                                           NotificationParserUtils.getFlowId(notification), 
-                                           NotificationParserUtils.getSpanId(notification),
-                                           NotificationParserUtils.getInstantFrom(notification));
+		return spanHandle.getParser();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,425 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+//------------------------------------------------------------------------------------------------
+//	Append-only capture of the Mule notification stream.
+//
+//	The capture file is memory-mapped and holds a 64 byte header followed by fixed size records
+//	of 32 bytes, one per notification:
+//
+//	  offset  size
+//	       0     8  nanoseconds since the capture started
+//	       8     8  64-bit hash of the correlation id (the MuleSoft trace id)
+//	      16     4  component index in the dictionary
+//	      20     2  notification action, 0 for a slot claimed but never written
+//	      22     2  flags (FLAG_EXCEPTION)
+//	      24     4  detail string index:  the source of the event for a flow start, the exception
+//	                type for a notification with an exception, -1 otherwise
+//	      28     4  id of the thread which fired the notification
+//
+//	Strings and components (location, identifier, doc name and parameters) are static for the
+//	application, so they are written once to the dictionary file next to the capture and records
+//	only carry their index.  Only the component parameters the parsers read and which hold no
+//	statement or literal value (e.g., config-ref, method, path) are written:  the SQL of a
+//	Database operation or the message of a Logger never reach the dictionary.
+//
+//	Recording a notification claims a slot with a single atomic increment,
+//	does a few map lookups and writes 32 bytes into the mapped file:  it does not allocate, lock or
+//	do I/O on the Mule thread, except the first time a component or string is seen.
+//------------------------------------------------------------------------------------------------
+/**
+ * Records the metadata and timing of Mule notifications to a memory-mapped binary log.
+ *
+ * @see NotificationCaptureReader
+ */
+public final class NotificationCaptureLog implements AutoCloseable
+{
+	private static Logger logger = LoggerFactory.getLogger(NotificationCaptureLog.class);
+
+	public static final long   MAGIC             = 0x4f544d4341503031L;		// "OTMCAP01"
+	public static final int    VERSION           = 1;
+	public static final int    HEADER_SIZE       = 64;
+	public static final int    RECORD_SIZE       = 32;
+	public static final String DICTIONARY_SUFFIX = ".dict";
+
+	public static final int FLAG_EXCEPTION = 1;
+	public static final int NO_DETAIL      = -1;
+
+	// --------------------------------------------------------------------------------------------
+	// Header and record layout
+	// --------------------------------------------------------------------------------------------
+	static final int HEADER_MAGIC        = 0;
+	static final int HEADER_VERSION      = 8;
+	static final int HEADER_RECORD_SIZE  = 12;
+	static final int HEADER_START_MILLIS = 16;
+	static final int HEADER_RECORD_COUNT = 24;
+	static final int HEADER_DROPPED      = 32;
+
+	static final int RECORD_NANOS     = 0;
+	static final int RECORD_TRACE     = 8;
+	static final int RECORD_COMPONENT = 16;
+	static final int RECORD_ACTION    = 20;
+	static final int RECORD_FLAGS     = 22;
+	static final int RECORD_DETAIL    = 24;
+	static final int RECORD_THREAD    = 28;
+
+	// --------------------------------------------------------------------------------------------
+	// Dictionary entries
+	// --------------------------------------------------------------------------------------------
+	static final byte DICTIONARY_STRING    = 1;
+	static final byte DICTIONARY_COMPONENT = 2;
+
+	private static final int MAX_STRING_LENGTH = 8192;
+
+	private static final Set<String> CAPTURED_PARAMETERS = new HashSet<>(Arrays.asList("name", "doc:name", "config-ref", 
+	                                                                                   "method", "path", "destination"));
+
+	private final String           file;
+	private final DataOutputStream dictionary;
+	private final long             maxRecords;
+	private final long             startNanos;
+	private final long             maxNanos;
+	private final AtomicLong       nextRecord = new AtomicLong();
+	private final AtomicLong       dropped    = new AtomicLong();
+
+	private final Map<String, Integer>              components  = new ConcurrentHashMap<>();
+	private final Map<String, Integer>              strings     = new ConcurrentHashMap<>();
+	private final Map<ComponentIdentifier, Integer> identifiers = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Integer>            errorTypes  = new ConcurrentHashMap<>();
+
+	private volatile boolean capturing = true;
+
+	//--------------------------------------------------------------------------------------------
+	//	Cleared when the capture finishes:  a mapping cannot be unmapped, its memory is released 
+	//	once the buffer is garbage collected
+	//--------------------------------------------------------------------------------------------
+	private volatile MappedByteBuffer records;
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Create (or truncate) the capture file and its dictionary and start capturing.
+	 *
+	 * @param file - path of the capture file
+	 * @param maxBytes - size of the capture file, at most 2 GB
+	 * @param durationMillis - time after which the capture stops
+	 * @throws IOException
+	 */
+	public NotificationCaptureLog(String file, long maxBytes, long durationMillis) throws IOException
+	{
+		long size = Math.min(Math.max(maxBytes, HEADER_SIZE + RECORD_SIZE), Integer.MAX_VALUE);
+
+		this.file = file;
+		this.maxRecords = (size - HEADER_SIZE) / RECORD_SIZE;
+
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+		{
+			randomAccessFile.setLength(0);
+			randomAccessFile.setLength(HEADER_SIZE + maxRecords * RECORD_SIZE);
+
+			records = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+		}
+
+		dictionary = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file + DICTIONARY_SUFFIX)));
+
+		records.putLong(HEADER_MAGIC, MAGIC);
+		records.putInt(HEADER_VERSION, VERSION);
+		records.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+		records.putLong(HEADER_START_MILLIS, System.currentTimeMillis());
+
+		this.startNanos = System.nanoTime();
+		this.maxNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+	}
+
+	public String getFile()
+	{
+		return file;
+	}
+
+	public boolean isCapturing()
+	{
+		return capturing;
+	}
+
+	/**
+	 * @return number of notifications captured
+	 */
+	public long getRecordCount()
+	{
+		return Math.min(nextRecord.get(), maxRecords);
+	}
+
+	/**
+	 * @return number of notifications not captured because the capture file was full
+	 */
+	public long getDroppedCount()
+	{
+		return dropped.get();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Entry point for the notification listeners
+	// --------------------------------------------------------------------------------------------
+	/**
+	 *
+	 * @param notification - snapshot of a pipeline or message processor notification
+	 */
+	public void record(NotificationSnapshot notification)
+	{
+		MappedByteBuffer records = this.records;
+
+		if (!capturing || records == null)
+			return;
+
+		long nanos = System.nanoTime() - startNanos;
+
+		if (nanos > maxNanos)
+		{
+			finish("capture duration elapsed");
+			return;
+		}
+
+		long slot = nextRecord.getAndIncrement();
+
+		if (slot >= maxRecords)
+		{
+			dropped.incrementAndGet();
+			finish("capture file is full");
+			return;
+		}
+
+		try
+		{
+			Exception exception = notification.getException();
+			int offset = (int) (HEADER_SIZE + slot * RECORD_SIZE);
+			int detail = NO_DETAIL;
+
+			if (exception != null)
+				detail = errorTypeIndex(exception);
+			else if (notification.getAction() == PipelineMessageNotification.PROCESS_START)
+				detail = sourceIndex(notification);
+
+			records.putLong(offset + RECORD_NANOS, nanos);
+			records.putLong(offset + RECORD_TRACE, hash(notification.getCorrelationId()));
+			records.putInt(offset + RECORD_COMPONENT, componentIndex(notification.getComponent(), notification));
+			records.putShort(offset + RECORD_FLAGS, (short) ((exception != null) ? FLAG_EXCEPTION : 0));
+			records.putInt(offset + RECORD_DETAIL, detail);
+			records.putInt(offset + RECORD_THREAD, (int) Thread.currentThread().getId());
+
+			//
+			// the action is written last: a slot with action 0 was claimed but not (fully) written
+			//
+			records.putShort(offset + RECORD_ACTION, (short) notification.getAction());
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+	}
+
+	/**
+	 * Stop capturing, write the record count to the header and drop the reference to the capture
+	 * file mapping, which is released when it is garbage collected.
+	 */
+	@Override
+	public void close()
+	{
+		finish("capture closed");
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private synchronized void finish(String reason)
+	{
+		if (!capturing)
+			return;
+
+		capturing = false;
+
+		records.putLong(HEADER_RECORD_COUNT, getRecordCount());
+		records.putLong(HEADER_DROPPED, dropped.get());
+		records.force();
+		records = null;
+
+		try
+		{
+			dictionary.close();
+		}
+		catch (IOException e)
+		{
+			logger.debug(e.getMessage());
+		}
+
+		logger.info("Notification capture to {} stopped ({}): {} notifications captured", file, reason, getRecordCount());
+	}
+
+	/**
+	 * FNV-1a hash of the correlation id.  Collisions merge two traces on replay, which is
+	 * negligible for 64 bits and the number of traces of a capture.
+	 */
+	static long hash(String correlationId)
+	{
+		long hash = 0xcbf29ce484222325L;
+
+		if (correlationId == null)
+			return hash;
+
+		for (int i = 0; i < correlationId.length(); i++)
+		{
+			hash ^= correlationId.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		return hash;
+	}
+
+	private int componentIndex(Component component, NotificationSnapshot notification) throws IOException
+	{
+		Integer index = components.get(component.getLocation().getLocation());
+
+		return (index != null) ? index : addComponent(component, notification);
+	}
+
+	private int sourceIndex(NotificationSnapshot notification) throws IOException
+	{
+		ComponentIdentifier source = NotificationParserUtils.getSourceIdentifier(notification);
+
+		if (source == null)
+			return NO_DETAIL;
+
+		Integer index = identifiers.get(source);
+
+		if (index == null)
+		{
+			index = stringIndex(source.getNamespace() + ":" + source.getName());
+			identifiers.put(source, index);
+		}
+
+		return index;
+	}
+
+	private int errorTypeIndex(Exception exception) throws IOException
+	{
+		Integer index = errorTypes.get(exception.getClass());
+
+		if (index == null)
+		{
+			index = stringIndex(exception.getClass().getName());
+			errorTypes.put(exception.getClass(), index);
+		}
+
+		return index;
+	}
+
+	private synchronized int stringIndex(String string) throws IOException
+	{
+		Integer index = strings.get(string);
+
+		if (index != null)
+			return index;
+
+		index = strings.size();
+
+		if (capturing)
+		{
+			dictionary.writeByte(DICTIONARY_STRING);
+			dictionary.writeInt(index);
+			writeString(string);
+			dictionary.flush();
+		}
+
+		strings.put(string, index);
+
+		return index;
+	}
+
+	private synchronized int addComponent(Component component, NotificationSnapshot notification) throws IOException
+	{
+		ComponentLocation location = component.getLocation();
+		Integer index = components.get(location.getLocation());
+
+		if (index != null)
+			return index;
+
+		ComponentIdentifier identifier = component.getIdentifier();
+		Map<String, String> parameters = capturedParameters(NotificationParserUtils.getComponentAnnotation("{config}componentParameters", notification));
+		String callingFlow = NotificationParserUtils.getComponentAnnotation("{http://www.mulesoft.org/schema/mule/parser-metadata}ROOT_CONTAINER_NAME", notification);
+
+		index = components.size();
+
+		if (capturing)
+		{
+			dictionary.writeByte(DICTIONARY_COMPONENT);
+			dictionary.writeInt(index);
+			writeString(location.getLocation());
+			writeString(location.getRootContainerName());
+			writeString(callingFlow);
+			writeString((identifier != null) ? identifier.getNamespace() : null);
+			writeString((identifier != null) ? identifier.getName() : null);
+			dictionary.writeInt(parameters.size());
+
+			for (Map.Entry<String, String> parameter : parameters.entrySet())
+			{
+				writeString(parameter.getKey());
+				writeString(parameter.getValue());
+			}
+
+			dictionary.flush();
+		}
+
+		components.put(location.getLocation(), index);
+
+		return index;
+	}
+
+	private static Map<String, String> capturedParameters(Map<String, String> parameters)
+	{
+		if (parameters == null || parameters.isEmpty())
+			return Collections.emptyMap();
+
+		Map<String, String> captured = new LinkedHashMap<>();
+
+		for (Map.Entry<String, String> parameter : parameters.entrySet())
+		{
+			if (CAPTURED_PARAMETERS.contains(parameter.getKey()))
+				captured.put(parameter.getKey(), parameter.getValue());
+		}
+
+		return captured;
+	}
+
+	private void writeString(String string) throws IOException
+	{
+		dictionary.writeBoolean(string != null);
+
+		if (string != null)
+			dictionary.writeUTF((string.length() > MAX_STRING_LENGTH) ? string.substring(0, MAX_STRING_LENGTH) : string);
+	}
+}
@@ -0,0 +1,299 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture;
+
+import static org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureLog.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//------------------------------------------------------------------------------------------------
+//	Read side of the NotificationCaptureLog format.  The capture file is mapped read-only and
+//	records are read in place by index; the dictionary is loaded in memory.  A capture which was
+//	not closed (e.g., the runtime was killed) is read up to the last written record.
+//------------------------------------------------------------------------------------------------
+/**
+ * Reads a notification capture written by {@link NotificationCaptureLog}.
+ */
+public final class NotificationCaptureReader
+{
+	private final MappedByteBuffer        records;
+	private final long                    startEpochMillis;
+	private final int                     recordCount;
+	private final long                    droppedCount;
+	private final List<String>            strings    = new ArrayList<>();
+	private final List<CapturedComponent> components = new ArrayList<>();
+
+	/**
+	 * A component (flow or message processor) of the captured application
+	 */
+	public static final class CapturedComponent
+	{
+		private final String              location;
+		private final String              rootContainerName;
+		private final String              callingFlowName;
+		private final String              namespace;
+		private final String              name;
+		private final Map<String, String> parameters;
+
+		private CapturedComponent(String location, String rootContainerName, String callingFlowName, String namespace,
+		                          String name, Map<String, String> parameters)
+		{
+			this.location = location;
+			this.rootContainerName = rootContainerName;
+			this.callingFlowName = callingFlowName;
+			this.namespace = namespace;
+			this.name = name;
+			this.parameters = Collections.unmodifiableMap(parameters);
+		}
+
+		public String getLocation()
+		{
+			return location;
+		}
+
+		public String getRootContainerName()
+		{
+			return rootContainerName;
+		}
+
+		/**
+		 * @return the flow calling the sub-flow of this processor, <b>null</b> when the component is
+		 *         not in a sub-flow
+		 */
+		public String getCallingFlowName()
+		{
+			return callingFlowName;
+		}
+
+		public String getNamespace()
+		{
+			return namespace;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * @return the parameters of the {@code {config}componentParameters} annotation of the component
+		 *         kept by the capture (read-only)
+		 */
+		public Map<String, String> getParameters()
+		{
+			return parameters;
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @param file - path of the capture file, the dictionary is read from the same path with the
+	 *        {@link NotificationCaptureLog#DICTIONARY_SUFFIX} suffix
+	 * @throws IOException - the file cannot be read or is not a notification capture
+	 */
+	public NotificationCaptureReader(String file) throws IOException
+	{
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"))
+		{
+			records = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+		}
+
+		if (records.capacity() < HEADER_SIZE || records.getLong(HEADER_MAGIC) != MAGIC)
+			throw new IOException(file + " is not a notification capture");
+		if (records.getInt(HEADER_VERSION) != VERSION || records.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE)
+			throw new IOException(file + " has an unsupported capture version " + records.getInt(HEADER_VERSION));
+
+		startEpochMillis = records.getLong(HEADER_START_MILLIS);
+		droppedCount = records.getLong(HEADER_DROPPED);
+
+		long count = records.getLong(HEADER_RECORD_COUNT);
+
+		if (count == 0)
+		{
+			//
+			// not closed:  count the records up to the first slot never written
+			//
+			long slots = (records.capacity() - HEADER_SIZE) / RECORD_SIZE;
+
+			while (count < slots && records.getShort(offset((int) count) + RECORD_ACTION) != 0)
+				count++;
+		}
+
+		recordCount = (int) count;
+
+		readDictionary(file + DICTIONARY_SUFFIX);
+	}
+
+	public long getStartEpochMillis()
+	{
+		return startEpochMillis;
+	}
+
+	public int getRecordCount()
+	{
+		return recordCount;
+	}
+
+	/**
+	 * @return number of notifications not captured because the capture file was full
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount;
+	}
+
+	public List<CapturedComponent> getComponents()
+	{
+		return Collections.unmodifiableList(components);
+	}
+
+	public String getString(int index)
+	{
+		return (index >= 0 && index < strings.size()) ? strings.get(index) : null;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Records
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * @param record
+	 * @return <b>false</b> if the record slot was claimed but never written
+	 */
+	public boolean isWritten(int record)
+	{
+		return getAction(record) != 0;
+	}
+
+	/**
+	 * @param record
+	 * @return nanoseconds between the start of the capture and the notification
+	 */
+	public long getNanos(int record)
+	{
+		return records.getLong(offset(record) + RECORD_NANOS);
+	}
+
+	/**
+	 * @param record
+	 * @return hash of the correlation id;  the records of a trace share the same hash
+	 */
+	public long getTraceHash(int record)
+	{
+		return records.getLong(offset(record) + RECORD_TRACE);
+	}
+
+	public CapturedComponent getComponent(int record)
+	{
+		return components.get(records.getInt(offset(record) + RECORD_COMPONENT));
+	}
+
+	public int getComponentIndex(int record)
+	{
+		return records.getInt(offset(record) + RECORD_COMPONENT);
+	}
+
+	public int getAction(int record)
+	{
+		return records.getShort(offset(record) + RECORD_ACTION);
+	}
+
+	public boolean hasException(int record)
+	{
+		return (records.getShort(offset(record) + RECORD_FLAGS) & FLAG_EXCEPTION) != 0;
+	}
+
+	/**
+	 * @param record
+	 * @return string index of the exception type (notification with an exception) or of the event
+	 *         source (flow start), else {@link NotificationCaptureLog#NO_DETAIL}
+	 */
+	public int getDetail(int record)
+	{
+		return records.getInt(offset(record) + RECORD_DETAIL);
+	}
+
+	public int getThread(int record)
+	{
+		return records.getInt(offset(record) + RECORD_THREAD);
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private static int offset(int record)
+	{
+		return HEADER_SIZE + record * RECORD_SIZE;
+	}
+
+	private void readDictionary(String file) throws IOException
+	{
+		try (DataInputStream dictionary = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			while (true)
+			{
+				byte kind;
+
+				try
+				{
+					kind = dictionary.readByte();
+				}
+				catch (EOFException e)
+				{
+					return;
+				}
+
+				int index = dictionary.readInt();
+
+				switch (kind)
+				{
+					case DICTIONARY_STRING:
+						set(strings, index, readString(dictionary));
+						break;
+
+					case DICTIONARY_COMPONENT:
+						String location = readString(dictionary);
+						String rootContainerName = readString(dictionary);
+						String callingFlowName = readString(dictionary);
+						String namespace = readString(dictionary);
+						String name = readString(dictionary);
+						Map<String, String> parameters = new HashMap<>();
+
+						for (int i = dictionary.readInt(); i > 0; i--)
+							parameters.put(readString(dictionary), readString(dictionary));
+
+						set(components, index, new CapturedComponent(location, rootContainerName, callingFlowName,
+						                                             namespace, name, parameters));
+						break;
+
+					default:
+						throw new IOException(file + " has an unknown dictionary entry " + kind);
+				}
+			}
+		}
+	}
+
+	private static String readString(DataInputStream dictionary) throws IOException
+	{
+		return dictionary.readBoolean() ? dictionary.readUTF() : null;
+	}
+
+	private static <T> void set(List<T> list, int index, T value)
+	{
+		while (list.size() <= index)
+			list.add(null);
+
+		list.set(index, value);
+	}
+}
@@ -0,0 +1,398 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.DispatchOverflowPolicy;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.NotificationDispatchConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+//------------------------------------------------------------------------------------------------
+//	Hands Mule notifications over to the OTelMuleNotificationHandler.
+//
+//	The handler works on a snapshot of the notification, taken on the Mule thread that fired it.
+//	In synchronous mode (default) the handler is called directly on that thread.  In asynchronous
+//	mode the snapshot is put on a bounded ring buffer and the span work is done by dedicated agent
+//	threads.  Notifications are partitioned by
+//	correlation id, so every notification of a trace is processed, in order, by the same thread.
+//	An agent thread with nothing to process parks until a notification is queued for it.
+//
+//	The flow start of a new trace is always handled on the Mule thread:  the first processor of
+//	the flow reads the trace context (see TracingProcessorInterceptor), so the trace and its root
+//	span must exist before it runs.  The rest of the trace is queued after it.
+//------------------------------------------------------------------------------------------------
+/**
+ * Dispatches Mule notifications to the {@link OTelMuleNotificationHandler} either inline or 
+ * through bounded queues drained by agent threads.
+ * 
+ * @see NotificationDispatchConfig
+ */
+public class NotificationDispatcher
+{
+	private static Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+	
+	private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+	
+	private final OTelMuleNotificationHandler otelMuleNotificationHandler;
+	private final boolean                     async;
+	private final DispatchOverflowPolicy      overflowPolicy;
+	private final NotificationRingBuffer[]    ringBuffers;
+	private final Thread[]                    workers;
+	private final AtomicIntegerArray          parked;
+	
+	//----------------------------------------------------------------------------------------
+	//	Per notification action, indexed as the AgentSelfTelemetry handlers
+	//----------------------------------------------------------------------------------------
+	private final LongAdder[] enqueued = newCounters();
+	private final LongAdder[] dropped  = newCounters();
+	
+	private volatile boolean running;
+
+	// --------------------------------------------------------------------------------------------
+	// Constructor
+	// --------------------------------------------------------------------------------------------
+	public NotificationDispatcher(OTelMuleNotificationHandler otelMuleNotificationHandler, 
+	                              NotificationDispatchConfig notificationDispatchConfig)
+	{
+		this.otelMuleNotificationHandler = otelMuleNotificationHandler;
+		this.async = (notificationDispatchConfig != null && notificationDispatchConfig.getAsyncNotificationProcessing());
+		
+		if (async)
+		{
+			int threads = Math.max(1, notificationDispatchConfig.getNotificationProcessingThreads());
+			
+			overflowPolicy = (notificationDispatchConfig.getNotificationQueueOverflowPolicy() != null) 
+			                 ? notificationDispatchConfig.getNotificationQueueOverflowPolicy()
+			                 : DispatchOverflowPolicy.DROP;
+			ringBuffers = new NotificationRingBuffer[threads];
+			workers = new Thread[threads];
+			parked = new AtomicIntegerArray(threads);
+			
+			for (int i = 0; i < threads; i++)
+			{
+				int partition = i;
+				
+				ringBuffers[i] = new NotificationRingBuffer(notificationDispatchConfig.getNotificationQueueCapacity());
+				workers[i] = new Thread(() -> drain(partition), "otel-agent-notification-worker-" + i);
+				workers[i].setDaemon(true);
+			}
+		}
+		else
+		{
+			overflowPolicy = null;
+			ringBuffers = new NotificationRingBuffer[0];
+			workers = new Thread[0];
+			parked = new AtomicIntegerArray(0);
+		}
+	}
+	
+	public boolean isAsync()
+	{
+		return async;
+	}
+	
+	/**
+	 * Start the agent threads (asynchronous mode only)
+	 */
+	public void start()
+	{
+		if (!async)
+			return;
+		
+		running = true;
+		
+		for (Thread worker : workers)
+		{
+			worker.start();
+		}
+		
+		logger.info("Asynchronous notification processing ENABLED with {} thread(s), queue capacity {} and overflow policy {}", 
+		            workers.length, ringBuffers[0].capacity(), overflowPolicy);
+	}
+	
+	/**
+	 * Stop the agent threads once the notifications already queued have been processed.
+	 */
+	public void stop()
+	{
+		if (!async || !running)
+			return;
+		
+		running = false;
+		
+		for (Thread worker : workers)
+		{
+			LockSupport.unpark(worker);
+			
+			try
+			{
+				worker.join(TimeUnit.SECONDS.toMillis(5));
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Entry point for the notification listeners
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * 
+	 * @param notification - pipeline or message processor notification
+	 * @param action - the notification action
+	 */
+	public void dispatch(EnrichedServerNotification notification, int action)
+	{
+		dispatch(new NotificationSnapshot(notification, action));
+	}
+	
+	/**
+	 * 
+	 * @param snapshot - snapshot of a pipeline or message processor notification
+	 */
+	public void dispatch(NotificationSnapshot snapshot)
+	{
+		if (!async || startsTrace(snapshot))
+		{
+			process(snapshot);
+			return;
+		}
+		
+		int partition = partition(snapshot.getCorrelationId());
+		NotificationRingBuffer ringBuffer = ringBuffers[partition];
+		
+		int handler = handlerFor(snapshot.getAction());
+		
+		if (ringBuffer.offer(snapshot))
+		{
+			enqueued[handler].increment();
+			wake(partition);
+			return;
+		}
+		
+		boolean block = (overflowPolicy == DispatchOverflowPolicy.BLOCK)
+		                || (overflowPolicy == DispatchOverflowPolicy.DEGRADE && !isProcessorStart(snapshot));
+		
+		while (block && running)
+		{
+			LockSupport.parkNanos(BLOCK_PARK_NANOS);
+			
+			if (ringBuffer.offer(snapshot))
+			{
+				enqueued[handler].increment();
+				wake(partition);
+				return;
+			}
+		}
+		
+		if (getDroppedCount() == 0)
+		{
+			logger.warn("Notification queue is full, notifications are being dropped. Consider increasing the " +
+			            "queue capacity or the number of notification processing threads.");
+		}
+		dropped[handler].increment();
+	}
+	
+	/**
+	 * @return number of notifications accepted into the queues
+	 */
+	public long getEnqueuedCount()
+	{
+		return sum(enqueued);
+	}
+	
+	/**
+	 * @param handler - handler of the notification action (e.g., {@link AgentSelfTelemetry#FLOW_END})
+	 * @return number of notifications of the action accepted into the queues
+	 */
+	public long getEnqueuedCount(int handler)
+	{
+		return enqueued[handler].sum();
+	}
+	
+	/**
+	 * @return number of notifications discarded because a queue was full
+	 */
+	public long getDroppedCount()
+	{
+		return sum(dropped);
+	}
+	
+	/**
+	 * @param handler - handler of the notification action (e.g., {@link AgentSelfTelemetry#FLOW_END})
+	 * @return number of notifications of the action discarded because a queue was full
+	 */
+	public long getDroppedCount(int handler)
+	{
+		return dropped[handler].sum();
+	}
+	
+	/**
+	 * @return number of notifications waiting in the queues
+	 */
+	public long getQueuedCount()
+	{
+		long queued = 0;
+		
+		for (NotificationRingBuffer ringBuffer : ringBuffers)
+		{
+			queued += ringBuffer.size();
+		}
+		return queued;
+	}
+	
+	/**
+	 * @return total capacity of the queues, 0 in synchronous mode
+	 */
+	public long getQueueCapacity()
+	{
+		return (ringBuffers.length > 0) ? (long) ringBuffers.length * ringBuffers[0].capacity() : 0;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	//----------------------------------------------------------------------------------------
+	//	A dropped end leaves its span open until the trace expires, while the end of a dropped
+	//	message processor start is simply skipped
+	//----------------------------------------------------------------------------------------
+	private static LongAdder[] newCounters()
+	{
+		LongAdder[] counters = new LongAdder[AgentSelfTelemetry.PROCESSOR_END + 1];
+		
+		for (int i = 0; i < counters.length; i++)
+		{
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}
+	
+	private static long sum(LongAdder[] counters)
+	{
+		long sum = 0;
+		
+		for (LongAdder counter : counters)
+		{
+			sum += counter.sum();
+		}
+		return sum;
+	}
+	
+	private static int handlerFor(int action)
+	{
+		switch (action)
+		{
+			case PipelineMessageNotification.PROCESS_START:
+				return AgentSelfTelemetry.FLOW_START;
+				
+			case PipelineMessageNotification.PROCESS_COMPLETE:
+				return AgentSelfTelemetry.FLOW_END;
+				
+			case MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE:
+				return AgentSelfTelemetry.PROCESSOR_START;
+				
+			default:
+				return AgentSelfTelemetry.PROCESSOR_END;
+		}
+	}
+	
+	private static boolean isProcessorStart(NotificationSnapshot snapshot)
+	{
+		return snapshot.getAction() == MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE;
+	}
+	
+	private static boolean startsTrace(NotificationSnapshot snapshot)
+	{
+		return snapshot.getAction() == PipelineMessageNotification.PROCESS_START
+		       && snapshot.getCorrelationId() != null
+		       && !OTelMuleNotificationHandler.getMuleSoftTraceStore().isTracePresent(snapshot.getCorrelationId());
+	}
+	
+	private int partition(String correlationId)
+	{
+		if (ringBuffers.length == 1 || correlationId == null)
+			return 0;
+		
+		int hash = correlationId.hashCode();
+		
+		return ((hash ^ (hash >>> 16)) & 0x7fffffff) % ringBuffers.length;
+	}
+	
+	//----------------------------------------------------------------------------------------
+	//	The producer publishes a notification before it reads the parked flag, and the agent
+	//	thread sets the flag before it looks at its queue again, so one of them always sees the
+	//	other and a queued notification never waits on a parked thread.
+	//----------------------------------------------------------------------------------------
+	private void wake(int partition)
+	{
+		if (parked.get(partition) != 0 && parked.compareAndSet(partition, 1, 0))
+			LockSupport.unpark(workers[partition]);
+	}
+	
+	private void drain(int partition)
+	{
+		NotificationRingBuffer ringBuffer = ringBuffers[partition];
+		
+		while (true)
+		{
+			NotificationSnapshot snapshot = ringBuffer.poll();
+			
+			if (snapshot == null)
+			{
+				if (!running)
+					return;
+				
+				parked.set(partition, 1);
+				
+				if (running && ringBuffer.isEmpty())
+					LockSupport.park(this);
+				
+				parked.set(partition, 0);
+				continue;
+			}
+			
+			try
+			{
+				process(snapshot);
+			}
+			catch (Exception e)
+			{
+				logger.debug("Unable to process notification: " + e.getMessage());
+			}
+		}
+	}
+	
+	private void process(NotificationSnapshot snapshot)
+	{
+		switch (snapshot.getAction())
+		{
+			case PipelineMessageNotification.PROCESS_START:
+				otelMuleNotificationHandler.handleFlowStartEvent(snapshot);
+				break;
+				
+			case PipelineMessageNotification.PROCESS_COMPLETE:
+				otelMuleNotificationHandler.handleFlowEndEvent(snapshot);
+				break;
+				
+			case MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE:
+				otelMuleNotificationHandler.handleProcessorStartEvent(snapshot);
+				break;
+				
+			case MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE:
+				otelMuleNotificationHandler.handleProcessorEndEvent(snapshot);
+				break;
+		}
+	}
+}
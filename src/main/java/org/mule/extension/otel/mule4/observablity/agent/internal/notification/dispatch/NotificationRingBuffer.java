@@ -0,0 +1,131 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+
+//------------------------------------------------------------------------------------------------
+//	Bounded, lock-free, multi-producer/single-consumer ring buffer.  
+//
+//	Each slot carries a sequence number. A producer claims a slot by CAS'ing the tail and publishes
+//	the element by advancing the slot's sequence; the single consumer only reads slots whose
+//	sequence shows they have been published.  A full buffer is reported to the producer instead of
+//	blocking it.  The sequence is published with a volatile write, so a consumer which announced
+//	it is parking either sees the element or is seen by the producer.
+//------------------------------------------------------------------------------------------------
+/**
+ * Bounded multi-producer/single-consumer queue of {@link NotificationSnapshot}s.
+ */
+final class NotificationRingBuffer
+{
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<NotificationSnapshot> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	
+	// only ever written by the consumer thread, read by size()
+	private final AtomicLong head = new AtomicLong();
+	
+	NotificationRingBuffer(int requestedCapacity)
+	{
+		capacity  = roundUpToPowerOfTwo(Math.max(2, requestedCapacity));
+		mask      = capacity - 1;
+		slots     = new AtomicReferenceArray<>(capacity);
+		sequences = new AtomicLongArray(capacity);
+		
+		for (int i = 0; i < capacity; i++)
+		{
+			sequences.set(i, i);
+		}
+	}
+	
+	/**
+	 * @param snapshot
+	 * @return <b>false</b> if the buffer is full; else true
+	 */
+	boolean offer(NotificationSnapshot snapshot)
+	{
+		while (true)
+		{
+			long position = tail.get();
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			
+			if (difference == 0)
+			{
+				if (tail.compareAndSet(position, position + 1))
+				{
+					slots.lazySet(index, snapshot);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			}
+			else if (difference < 0)
+			{
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Must only be called from the single consumer thread.
+	 * 
+	 * @return the oldest published snapshot or <b>null</b> if there is none
+	 */
+	NotificationSnapshot poll()
+	{
+		long position = head.get();
+		int index = (int) (position & mask);
+		
+		if (sequences.get(index) != position + 1)
+			return null;
+		
+		NotificationSnapshot snapshot = slots.get(index);
+		slots.lazySet(index, null);
+		sequences.lazySet(index, position + capacity);
+		head.lazySet(position + 1);
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Must only be called from the single consumer thread.
+	 * 
+	 * @return <b>true</b> if there is no published snapshot to poll
+	 */
+	boolean isEmpty()
+	{
+		long position = head.get();
+		
+		return sequences.get((int) (position & mask)) != position + 1;
+	}
+	
+	/**
+	 * @return number of snapshots claimed by producers and not polled yet, approximate while
+	 *         producers and the consumer are running
+	 */
+	int size()
+	{
+		long size = tail.get() - head.get();
+		
+		return (int) Math.min(Math.max(size, 0), capacity);
+	}
+	
+	int capacity()
+	{
+		return capacity;
+	}
+	
+	private static int roundUpToPowerOfTwo(int value)
+	{
+		int highestBit = Integer.highestOneBit(value);
+		
+		if (highestBit == value)
+			return value;
+		
+		return (highestBit >= (1 << 30)) ? (1 << 30) : highestBit << 1;
+	}
+}
@@ -1,6 +1,8 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.listener;
 
-import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureLog;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
 import org.mule.runtime.api.notification.MessageProcessorNotification;
 import org.mule.runtime.api.notification.MessageProcessorNotificationListener;
 import org.slf4j.Logger;
@@ -11,11 +13,22 @@ public class MuleMessageProcessorNotificationListener implements MessageProcesso
 
 	private Logger logger = LoggerFactory.getLogger(MuleMessageProcessorNotificationListener.class);
 
-	private OTelMuleNotificationHandler	otelMuleNotificationHandler;
+	private NotificationDispatcher	notificationDispatcher;
+	private NotificationCaptureLog	notificationCaptureLog;
 
-	public MuleMessageProcessorNotificationListener(OTelMuleNotificationHandler otelMuleNotificationHandler)
+	public MuleMessageProcessorNotificationListener(NotificationDispatcher notificationDispatcher)
 	{
-		this.otelMuleNotificationHandler = otelMuleNotificationHandler;
+		this(notificationDispatcher, null);
+	}
+	
+	/**
+	 * @param notificationDispatcher
+	 * @param notificationCaptureLog - capture of the notifications, may be null
+	 */
+	public MuleMessageProcessorNotificationListener(NotificationDispatcher notificationDispatcher, NotificationCaptureLog notificationCaptureLog)
+	{
+		this.notificationDispatcher = notificationDispatcher;
+		this.notificationCaptureLog = notificationCaptureLog;
 	}
 	
 	@Override
@@ -24,15 +37,22 @@ public class MuleMessageProcessorNotificationListener implements MessageProcesso
 		logger.debug("===> Received " + notification.getClass().getName() + ":" + notification.getActionName());
 
 		// Event listener
-		switch (Integer.parseInt(notification.getAction().getIdentifier()))
+		int action = Integer.parseInt(notification.getAction().getIdentifier());
+		
+		switch (action)
 		{
 			case MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE:
-				otelMuleNotificationHandler.handleProcessorStartEvent(notification);
-				break;
-
 			case MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE:
-				otelMuleNotificationHandler.handleProcessorEndEvent(notification);
+				dispatch(new NotificationSnapshot(notification, action));
 				break;
 		}
 	}
+
+	private void dispatch(NotificationSnapshot snapshot)
+	{
+		if (notificationCaptureLog != null)
+			notificationCaptureLog.record(snapshot);
+		
+		notificationDispatcher.dispatch(snapshot);
+	}
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.listener;
 
-import org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.capture.NotificationCaptureLog;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.dispatch.NotificationDispatcher;
 import org.mule.runtime.api.notification.PipelineMessageNotification;
 import org.mule.runtime.api.notification.PipelineMessageNotificationListener;
 import org.slf4j.Logger;
@@ -13,11 +15,22 @@ public class MulePipelineNotificationListener implements PipelineMessageNotifica
 {
 
 	private Logger logger = LoggerFactory.getLogger(MulePipelineNotificationListener.class);
-	private OTelMuleNotificationHandler	otelMuleNotificationHandler;
+	private NotificationDispatcher	notificationDispatcher;
+	private NotificationCaptureLog	notificationCaptureLog;
 
-	public MulePipelineNotificationListener(OTelMuleNotificationHandler otelMuleNotificationHandler)
+	public MulePipelineNotificationListener(NotificationDispatcher notificationDispatcher)
 	{
-		this.otelMuleNotificationHandler = otelMuleNotificationHandler;
+		this(notificationDispatcher, null);
+	}
+	
+	/**
+	 * @param notificationDispatcher
+	 * @param notificationCaptureLog - capture of the notifications, may be null
+	 */
+	public MulePipelineNotificationListener(NotificationDispatcher notificationDispatcher, NotificationCaptureLog notificationCaptureLog)
+	{
+		this.notificationDispatcher = notificationDispatcher;
+		this.notificationCaptureLog = notificationCaptureLog;
 	}
 	
 	@Override
@@ -26,10 +39,12 @@ public class MulePipelineNotificationListener implements PipelineMessageNotifica
 		logger.debug("===> Received " + notification.getClass().getName() + ":" + notification.getActionName());
 
 		// Event listener
-		switch (Integer.parseInt(notification.getAction().getIdentifier()))
+		int action = Integer.parseInt(notification.getAction().getIdentifier());
+		
+		switch (action)
 		{
 			case PipelineMessageNotification.PROCESS_START:
-				otelMuleNotificationHandler.handleFlowStartEvent(notification);
+				dispatch(new NotificationSnapshot(notification, action));
 				break;
 
 			// On exception this event doesn't fire, only on successful flow completion.
@@ -37,9 +52,16 @@ public class MulePipelineNotificationListener implements PipelineMessageNotifica
 				break;
 
 			case PipelineMessageNotification.PROCESS_COMPLETE:
-				otelMuleNotificationHandler.handleFlowEndEvent(notification);
+				dispatch(new NotificationSnapshot(notification, action));
 				break;
 		}
 	}
 
+	private void dispatch(NotificationSnapshot snapshot)
+	{
+		if (notificationCaptureLog != null)
+			notificationCaptureLog.record(snapshot);
+		
+		notificationDispatcher.dispatch(snapshot);
+	}
 }
@@ -2,12 +2,23 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.notification.p
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.BaseNotificationParser;
 import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 // ------------------------------------------------------------------------------------------------
 // Singleton service for NotificationParser providers
@@ -16,14 +27,41 @@ import org.mule.runtime.api.notification.EnrichedServerNotification;
  * 
  * Singleton to load all NotificationParser services available and provide a reference to the right
  * one based on if the parser is capable of parsing the specified notification.
+ * <p>
+ * Parsers declare the component ids (or namespace wildcards) and actions they support. These are
+ * compiled once into a dispatch table and the parser resolved for a component location is memoized,
+ * so finding a parser is a single map lookup.  For pipeline notifications the component id matched
+ * is the source (trigger) of the flow.  Parsers which do not declare anything are still consulted 
+ * through {@link NotificationParser#canParse(NotificationSnapshot)}.
  *
  *@see #getInstance()
  */
 public class NotificationParserService
 {
+	private static Logger logger = LoggerFactory.getLogger(NotificationParserService.class);
+	
+	private static final String WILDCARD = "*";
+	
 	private static NotificationParserService service;
 	private final List<NotificationParser> notificationParsers;
 	
+	// --------------------------------------------------------------------------------------------
+	// Dispatch tables keyed by "<action>|<namespace:name>" and "<action>|<namespace>"
+	// --------------------------------------------------------------------------------------------
+	private final Map<String, NotificationParser> componentDispatchTable = new HashMap<>();
+	private final Map<String, NotificationParser> namespaceDispatchTable = new HashMap<>();
+	private final List<NotificationParser>        undeclaredParsers      = new ArrayList<>();
+	
+	private final NotificationParser baseNotificationParser = new BaseNotificationParser();
+	
+	// --------------------------------------------------------------------------------------------
+	// Parsers resolved per location, one map per supported action
+	// --------------------------------------------------------------------------------------------
+	private final Map<String, NotificationParser> pipelineStartParsers  = new ConcurrentHashMap<>();
+	private final Map<String, NotificationParser> pipelineEndParsers    = new ConcurrentHashMap<>();
+	private final Map<String, NotificationParser> processorStartParsers = new ConcurrentHashMap<>();
+	private final Map<String, NotificationParser> processorEndParsers   = new ConcurrentHashMap<>();
+	
 	// --------------------------------------------------------------------------------------------
 	// Constructor - Singleton:  Load in all NotificationParser providers and store them in a cache
 	// --------------------------------------------------------------------------------------------
@@ -39,6 +77,34 @@ public class NotificationParserService
 		loader.iterator().forEachRemaining(list::add);
 		
 		notificationParsers = Collections.unmodifiableList(list);
+		
+		// ----------------------------------------------------------------------------------------
+		// Compile the dispatch tables.  When two parsers claim the same key the one loaded first 
+		// wins, which is the same precedence the providers had when they were searched in order.
+		// ----------------------------------------------------------------------------------------
+		for (NotificationParser np : notificationParsers)
+		{
+			if (np.getSupportedComponentIds().isEmpty() || np.getSupportedActions().isEmpty())
+			{
+				undeclaredParsers.add(np);
+				continue;
+			}
+			
+			for (Integer action : np.getSupportedActions())
+			{
+				for (String componentId : np.getSupportedComponentIds())
+				{
+					String id = componentId.toLowerCase(Locale.ROOT);
+					
+					if (id.endsWith(":" + WILDCARD))
+						namespaceDispatchTable.putIfAbsent(action + "|" + id.substring(0, id.length() - 2), np);
+					else
+						componentDispatchTable.putIfAbsent(action + "|" + id, np);
+				}
+			}
+		}
+		
+		logger.debug("Notification parser dispatch table: " + componentDispatchTable + " " + namespaceDispatchTable);
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -52,14 +118,113 @@ public class NotificationParserService
 		}
 		return service;
 	}
+	
+	/**
+	 * @return the shared {@link BaseNotificationParser} used when no other parser applies
+	 */
+	public NotificationParser getBaseParser()
+	{
+		return baseNotificationParser;
+	}
 
 	// --------------------------------------------------------------------------------------------
 	// Find a parser that can support this notification event
 	// --------------------------------------------------------------------------------------------
-	public Optional<NotificationParser> getParserFor(EnrichedServerNotification notification)
+	/**
+	 * 
+	 * @param notification
+	 * @return the parser for this notification; the base parser if no specific parser applies
+	 */
+	public NotificationParser getParserFor(NotificationSnapshot notification)
+	{
+		return getParserFor(notification, notification.getAction());
+	}
+	
+	/**
+	 * 
+	 * @param notification
+	 * @param action - the notification action, already known by the caller
+	 * @return the parser for this notification; the base parser if no specific parser applies
+	 */
+	public NotificationParser getParserFor(NotificationSnapshot notification, int action)
 	{
-		//NotificationParser parserParser = null;
+		Map<String, NotificationParser> resolvedParsers = getResolvedParsers(action);
+		String location = getDispatchLocation(notification);
+		
+		if (resolvedParsers == null || location == null)
+			return resolve(notification, action);
+		
+		NotificationParser np = resolvedParsers.get(location);
+		
+		if (np == null)
+		{
+			np = resolve(notification, action);
+			
+			// parsers only known through canParse() can not be memoized
+			if (undeclaredParsers.isEmpty())
+				resolvedParsers.put(location, np);
+		}
+		return np;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Helper methods
+	// --------------------------------------------------------------------------------------------
+	private Map<String, NotificationParser> getResolvedParsers(int action)
+	{
+		switch (action)
+		{
+			case PipelineMessageNotification.PROCESS_START:
+				return pipelineStartParsers;
+			case PipelineMessageNotification.PROCESS_COMPLETE:
+				return pipelineEndParsers;
+			case MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE:
+				return processorStartParsers;
+			case MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE:
+				return processorEndParsers;
+			default:
+				return null;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// The location which determines the parser:  the source of the flow for pipeline notifications
+	// and the component itself for message processor notifications.
+	// --------------------------------------------------------------------------------------------
+	private String getDispatchLocation(NotificationSnapshot notification)
+	{
+		if (notification.isPipelineNotification())
+		{
+			ComponentLocation originatingLocation = notification.getOriginatingLocation();
+			
+			return (originatingLocation != null) ? originatingLocation.getLocation() : null;
+		}
+		return NotificationParserUtils.getComponentDescriptor(notification).getLocation();
+	}
+	
+	private NotificationParser resolve(NotificationSnapshot notification, int action)
+	{
+		ComponentIdentifier componentIdentifier = notification.isPipelineNotification() 
+		                                          ? NotificationParserUtils.getSourceIdentifier(notification)
+		                                          : NotificationParserUtils.getComponentIdentifier(notification);
+		NotificationParser np = null;
+		
+		if (componentIdentifier != null)
+		{
+			String namespace = componentIdentifier.getNamespace().toLowerCase(Locale.ROOT);
+			
+			np = componentDispatchTable.get(action + "|" + namespace + ":" + componentIdentifier.getName().toLowerCase(Locale.ROOT));
+			
+			if (np == null)
+				np = namespaceDispatchTable.get(action + "|" + namespace);
+		}
+		
+		for (int i = 0; np == null && i < undeclaredParsers.size(); i++)
+		{
+			if (undeclaredParsers.get(i).canParse(notification))
+				np = undeclaredParsers.get(i);
+		}
 		
-		return notificationParsers.stream().filter(np -> np.canParse(notification)).findFirst();
+		return (np != null) ? np : baseNotificationParser;
 	}
-}
\ No newline at end of file
+}
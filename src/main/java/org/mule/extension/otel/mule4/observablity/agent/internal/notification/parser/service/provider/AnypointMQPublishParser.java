@@ -1,12 +1,17 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
-import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,23 +26,40 @@ public class AnypointMQPublishParser extends BaseNotificationParser
 {
     private static Logger logger = LoggerFactory.getLogger(AnypointMQPublishParser.class);
 
+    private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.ANYPOINT_MQ_PUBLISH);
+    private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE,
+        MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE)));
+
     // --------------------------------------------------------------------------------------------
     // Verify if this Parser can handle this notification
     // -------------------------------------------------------------------------------------------- 
     @Override
-    public boolean canParse(EnrichedServerNotification notification)
+    public boolean canParse(NotificationSnapshot notification)
     {
         if (NotificationParserUtils.getComponentId(notification).equalsIgnoreCase(Constants.ANYPOINT_MQ_PUBLISH))
             return true;
         else
             return false;
     }
+
+    @Override
+    public Set<String> getSupportedComponentIds()
+    {
+        return SUPPORTED_COMPONENT_IDS;
+    }
+
+    @Override
+    public Set<Integer> getSupportedActions()
+    {
+        return SUPPORTED_ACTIONS;
+    }
     
     // --------------------------------------------------------------------------------------------
     // Message Processor Start Notification Parsing Handler
     // -------------------------------------------------------------------------------------------- 
     @Override
-    public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+    public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
                                                   MuleConnectorConfigStore muleConnectorConfigStore, 
                                                   SpanBuilder spanBuilder)
     {
@@ -51,24 +73,27 @@ public class AnypointMQPublishParser extends BaseNotificationParser
     // --------------------------------------------------------------------------------------------
     // Annotate the span with various MQ Publish attributes
     // --------------------------------------------------------------------------------------------
-    private SpanBuilder addMQPublishAttributesToSpan(EnrichedServerNotification notification,
+    private SpanBuilder addMQPublishAttributesToSpan(NotificationSnapshot notification,
                                                      MuleConnectorConfigStore muleConnectorConfigStore,
                                                      SpanBuilder spanBuilder)
     {
-        Map<String, String> anypointMQAttributes = NotificationParserUtils.getComponentAnnotation("{config}componentParameters", notification);
+        Map<String, String> anypointMQAttributes = NotificationParserUtils.getComponentParameters(notification);
         String configRef = anypointMQAttributes.get("config-ref");
     
         MuleConnectorConfigStore.AnypointMQConfig anypointMQConfig = muleConnectorConfigStore.getConfig(configRef);
 
         try 
         {
-            spanBuilder.setAttribute("publish.scheme", anypointMQConfig.getProtocol());
-            spanBuilder.setAttribute("publish.host", anypointMQConfig.getHost());
-            spanBuilder.setAttribute("publish.port", anypointMQConfig.getPort());
-            spanBuilder.setAttribute("publish.path", anypointMQConfig.getPath());            
-            spanBuilder.setAttribute("publish.clientId", anypointMQConfig.getClientId());            
+            spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_SCHEME, anypointMQConfig.getProtocol());
+            spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_HOST, anypointMQConfig.getHost());
+            
+            if (anypointMQConfig.getPortNumber() >= 0)
+                spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_PORT, (long) anypointMQConfig.getPortNumber());
+            
+            spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_PATH, anypointMQConfig.getPath());            
+            spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_CLIENT_ID, anypointMQConfig.getClientId());            
           
-            spanBuilder.setAttribute("publish.destination", anypointMQAttributes.get("destination"));
+            spanBuilder.setAttribute(MuleAttributeKeys.PUBLISH_DESTINATION, anypointMQAttributes.get("destination"));
         }
         catch (Exception e)
         {
@@ -83,10 +108,10 @@ public class AnypointMQPublishParser extends BaseNotificationParser
     // Message Processor End Notification Parsing Handler
     // -------------------------------------------------------------------------------------------- 
     @Override
-    public void endProcessorNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+    public void endProcessorNotification(NotificationSnapshot notification, Span span)
     {
-        super.endProcessorNotification(notification, traceStore);
-        addMQPublishResponseAttributesToSpan(notification, traceStore);
+        super.endProcessorNotification(notification, span);
+        addMQPublishResponseAttributesToSpan(notification, span);
 
     }
     
@@ -94,16 +119,13 @@ public class AnypointMQPublishParser extends BaseNotificationParser
     // Annotate the span with various MQ Publish Response attributes
     // --------------------------------------------------------------------------------------------
 
-    private void addMQPublishResponseAttributesToSpan(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+    private void addMQPublishResponseAttributesToSpan(NotificationSnapshot notification, Span span)
     {
         AnypointMQMessagePublishAttributes mqPublishAttributes = NotificationParserUtils.getMessageAttributes(notification);
         
-        Span span = traceStore.getMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-                                                       NotificationParserUtils.getFlowId(notification), 
-                                                       NotificationParserUtils.getSpanId(notification));
         try
         {    
-            span.setAttribute("publish.response.messageId", mqPublishAttributes.getMessageId());
+            span.setAttribute(MuleAttributeKeys.PUBLISH_MESSAGE_ID, mqPublishAttributes.getMessageId());
         }
         catch (Exception e)
         {
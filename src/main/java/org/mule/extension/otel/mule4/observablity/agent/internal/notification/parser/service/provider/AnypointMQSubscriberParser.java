@@ -1,14 +1,17 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import org.mule.extension.otel.mule4.observablity.agent.internal.context.propagation.AnypointMQMessageAttributesGetter;
 import org.mule.extension.otel.mule4.observablity.agent.internal.context.propagation.OTelContextPropagator;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
 import org.mule.runtime.api.component.ComponentIdentifier;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.mule.runtime.api.notification.PipelineMessageNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,15 +26,18 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
 {
     private static Logger logger = LoggerFactory.getLogger(AnypointMQSubscriberParser.class);
 
+    private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.ANYPOINT_MQ_SUBSCRIBER);
+    private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.singleton(PipelineMessageNotification.PROCESS_START);
+
     // --------------------------------------------------------------------------------------------
     // Verify if this Parser can handle this notification
     // -------------------------------------------------------------------------------------------- 
     @Override
-    public boolean canParse(EnrichedServerNotification notification)
+    public boolean canParse(NotificationSnapshot notification)
     {
         ComponentIdentifier sourceIdentifier = NotificationParserUtils.getSourceIdentifier(notification);
         String sourceComponent = sourceIdentifier.getNamespace() + ":" + sourceIdentifier.getName();
-        int action = Integer.parseInt(notification.getAction().getIdentifier());
+        int action = notification.getAction();
         
         // ----------------------------------------------------------------------------------------
         // Only parse MQ Listener notifications which are a source/trigger to the start of a flow
@@ -46,12 +52,24 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
             return false;
         }
     }
+
+    @Override
+    public Set<String> getSupportedComponentIds()
+    {
+        return SUPPORTED_COMPONENT_IDS;
+    }
+
+    @Override
+    public Set<Integer> getSupportedActions()
+    {
+        return SUPPORTED_ACTIONS;
+    }
     
     // --------------------------------------------------------------------------------------------
     // Pipeline Start Notification Parsing Handler
     // --------------------------------------------------------------------------------------------
     @Override
-    public SpanBuilder startPipelineNotification(EnrichedServerNotification notification,
+    public SpanBuilder startPipelineNotification(NotificationSnapshot notification,
                                                  MuleConnectorConfigStore muleConnectorConfigStore, 
                                                  SpanBuilder spanBuilder)
     {
@@ -62,21 +80,35 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
             spanBuilder.setSpanKind(SpanKind.SERVER);
             spanBuilder = addMQSubscriberAttributesToSpan(notification, muleConnectorConfigStore, spanBuilder);
 
+            spanBuilder.setParent(extractPipelineContext(notification)); 
+        }
+        catch (Exception e)
+        {
+            logger.debug(e.getMessage());
+        }
+        
+        return spanBuilder;
+    }
+    
+    // --------------------------------------------------------------------------------------------
+    //  Copy over any WC3 Trace Headers from the incoming MQ message into the current trace 
+    //  context
+    // --------------------------------------------------------------------------------------------
+    @Override
+    public Context extractPipelineContext(NotificationSnapshot notification)
+    {
+        try
+        {
             AnypointMQMessageAttributes anypointMQMessageAttributes = NotificationParserUtils.getMessageAttributes(notification);
 
-            // ------------------------------------------------------------------------------------
-            //  Copy over any WC3 Trace Headers from the incoming MQ message into the current
-            //  trace context
-            // ------------------------------------------------------------------------------------
-            Context context = OTelContextPropagator.extract(anypointMQMessageAttributes, new AnypointMQMessageAttributesGetter());
-            spanBuilder.setParent(context); 
+            return OTelContextPropagator.extract(anypointMQMessageAttributes, new AnypointMQMessageAttributesGetter());
         }
         catch (Exception e)
         {
             logger.debug(e.getMessage());
         }
         
-        return spanBuilder;
+        return Context.current();
     }
 
     // --------------------------------------------------------------------------------------------
@@ -84,7 +116,7 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
     // -------------------------------------------------------------------------------------------- 
     
     @Override
-    public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+    public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
                                                   MuleConnectorConfigStore muleConnectorConfigStore, 
                                                   SpanBuilder spanBuilder)
     {
@@ -97,7 +129,7 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
     // --------------------------------------------------------------------------------------------
     // Annotate the span with various MQ Subscriber attributes
     // --------------------------------------------------------------------------------------------
-    private SpanBuilder addMQSubscriberAttributesToSpan(EnrichedServerNotification notification,
+    private SpanBuilder addMQSubscriberAttributesToSpan(NotificationSnapshot notification,
                                                         MuleConnectorConfigStore muleConnectorConfigStore,
                                                         SpanBuilder spanBuilder)
     {
@@ -105,9 +137,9 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
 
         try 
         {
-            spanBuilder.setAttribute("subscriber.message.contentType", anypointMQMessageAttributes.getContentType());            
-            spanBuilder.setAttribute("subscriber.destination", anypointMQMessageAttributes.getDestination());
-            spanBuilder.setAttribute("subscriber.messageId", anypointMQMessageAttributes.getMessageId());            
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_CONTENT_TYPE, anypointMQMessageAttributes.getContentType());            
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_DESTINATION, anypointMQMessageAttributes.getDestination());
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_MESSAGE_ID, anypointMQMessageAttributes.getMessageId());            
         }
         catch (Exception e)
         {
@@ -121,23 +153,26 @@ public class AnypointMQSubscriberParser extends BaseNotificationParser
     // Annotate the span with various MQ Subscriber configuration attributes
     // --------------------------------------------------------------------------------------------
     
-    private SpanBuilder addMQSubscriberConfigAttributesToSpan(EnrichedServerNotification notification,
+    private SpanBuilder addMQSubscriberConfigAttributesToSpan(NotificationSnapshot notification,
                                                               MuleConnectorConfigStore muleConnectorConfigStore,
                                                               SpanBuilder spanBuilder)
     {
-        Map<String, String> anypointMQAttributes = NotificationParserUtils.getComponentAnnotation("{config}componentParameters", notification);
+        Map<String, String> anypointMQAttributes = NotificationParserUtils.getComponentParameters(notification);
         String configRef = anypointMQAttributes.get("config-ref");
     
         MuleConnectorConfigStore.AnypointMQConfig anypointMQConfig = muleConnectorConfigStore.getConfig(configRef);
         
         try 
         {
-            spanBuilder.setAttribute("subscriber.scheme", anypointMQConfig.getProtocol());
-            spanBuilder.setAttribute("subscriber.host", anypointMQConfig.getHost());
-            spanBuilder.setAttribute("subscriber.port", anypointMQConfig.getPort());
-            spanBuilder.setAttribute("subscriber.path", anypointMQConfig.getPath());     
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_SCHEME, anypointMQConfig.getProtocol());
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_HOST, anypointMQConfig.getHost());
+            
+            if (anypointMQConfig.getPortNumber() >= 0)
+                spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_PORT, (long) anypointMQConfig.getPortNumber());
+            
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_PATH, anypointMQConfig.getPath());     
 
-            spanBuilder.setAttribute("subscriber.clientId", anypointMQConfig.getClientId());                    
+            spanBuilder.setAttribute(MuleAttributeKeys.SUBSCRIBER_CLIENT_ID, anypointMQConfig.getClientId());                    
         }
         catch (Exception e)
         {
@@ -1,11 +1,12 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.time.Instant;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
-import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +29,7 @@ public class BaseNotificationParser implements NotificationParser
 	// Verify if this Parser can handle this notification
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public boolean canParse(EnrichedServerNotification notification)
+	public boolean canParse(NotificationSnapshot notification)
 	{
 		return true;
 	}
@@ -37,13 +38,13 @@ public class BaseNotificationParser implements NotificationParser
 	// Pipeline Start Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public SpanBuilder startPipelineNotification(EnrichedServerNotification notification,
+	public SpanBuilder startPipelineNotification(NotificationSnapshot notification,
 			                                     MuleConnectorConfigStore muleConnectorConfigStore, 
 			                                     SpanBuilder spanBuilder)
 	{
 		try
 		{			
-			spanBuilder.setAttribute(Constants.MULE_TRACE_ID_ATTRIBUTE, 
+			spanBuilder.setAttribute(MuleAttributeKeys.MULE_TRACE_ID, 
 	                                 NotificationParserUtils.getMuleSoftTraceId(notification));
 		} 
 		catch (Exception e)
@@ -59,7 +60,7 @@ public class BaseNotificationParser implements NotificationParser
 	// Pipeline End Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public void endPipelineNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	public void endPipelineNotification(NotificationSnapshot notification, MuleSoftTraceStore traceStore)
 	{
 		// do nothing for now
 	}
@@ -68,21 +69,22 @@ public class BaseNotificationParser implements NotificationParser
 	// Message Processor Start Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------		
 	@Override
-	public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+	public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
 			                                      MuleConnectorConfigStore muleConnectorConfigStore, 
 			                                      SpanBuilder spanBuilder)
 	{
 		try
 		{			
-			spanBuilder.setStartTimestamp(NotificationParserUtils.getInstantFrom(notification));
+			Instant startInstant = NotificationParserUtils.getInstantFrom(notification);
 			
-			spanBuilder.setAttribute(Constants.START_DATETIME_ATTRIBUTE, 
-					                 NotificationParserUtils.getInstantFrom(notification).toString());
+			spanBuilder.setStartTimestamp(startInstant);
 			
-			spanBuilder.setAttribute(Constants.DOC_NAME_ATTRIBUTE, 
-					                 NotificationParserUtils.getDocName(notification));
+			spanBuilder.setAttribute(MuleAttributeKeys.START_DATETIME, startInstant.toString());
 			
-			spanBuilder.setAttribute(Constants.MULE_TRACE_ID_ATTRIBUTE, 
+			spanBuilder.setAllAttributes(NotificationParserUtils.getComponentDescriptor(notification)
+			                                                    .getDocNameAttributes());
+			
+			spanBuilder.setAttribute(MuleAttributeKeys.MULE_TRACE_ID, 
 	                                 NotificationParserUtils.getMuleSoftTraceId(notification));
 		} 
 		catch (Exception e)
@@ -97,17 +99,13 @@ public class BaseNotificationParser implements NotificationParser
 	// Message Processor End Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public void endProcessorNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	public void endProcessorNotification(NotificationSnapshot notification, Span span)
 	{		
-		Span span = traceStore.getMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-                                                       NotificationParserUtils.getFlowId(notification), 
-                                                       NotificationParserUtils.getSpanId(notification));
-		
 		Exception e = notification.getException();
 		
 		try
 		{
-			span.setAttribute(Constants.END_DATETIME_ATTRIBUTE, 
+			span.setAttribute(MuleAttributeKeys.END_DATETIME, 
 					          NotificationParserUtils.getInstantFrom(notification).toString());
 			
 			if (e != null)
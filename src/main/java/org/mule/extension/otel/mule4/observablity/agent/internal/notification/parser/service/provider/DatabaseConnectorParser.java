@@ -1,10 +1,16 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,24 +19,41 @@ import io.opentelemetry.api.trace.SpanBuilder;
 public class DatabaseConnectorParser extends BaseNotificationParser
 {
 	private static Logger logger = LoggerFactory.getLogger(DatabaseConnectorParser.class);
+
+	private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.DB_NAMESPACE);
+	private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+		MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE,
+		MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE)));
 	
 	// --------------------------------------------------------------------------------------------
 	// Verify if this Parser can handle this notification
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public boolean canParse(EnrichedServerNotification notification)
+	public boolean canParse(NotificationSnapshot notification)
 	{
 		if (NotificationParserUtils.getComponentId(notification).matches(Constants.DB_MATCHER))
 			return true;
 		else
 			return false;
 	}
+
+	@Override
+	public Set<String> getSupportedComponentIds()
+	{
+		return SUPPORTED_COMPONENT_IDS;
+	}
+
+	@Override
+	public Set<Integer> getSupportedActions()
+	{
+		return SUPPORTED_ACTIONS;
+	}
 	
 	// --------------------------------------------------------------------------------------------
 	// Message Processor Start Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+	public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
 			                                      MuleConnectorConfigStore muleConnectorConfigStore, 
 			                                      SpanBuilder spanBuilder)
 	{
@@ -42,11 +65,11 @@ public class DatabaseConnectorParser extends BaseNotificationParser
 	// --------------------------------------------------------------------------------------------
 	// Annotate the span with various Database attributes
 	// --------------------------------------------------------------------------------------------
-	private SpanBuilder addDatabaseAttributesToSpan(EnrichedServerNotification notification,
+	private SpanBuilder addDatabaseAttributesToSpan(NotificationSnapshot notification,
 			                                        MuleConnectorConfigStore muleConnectorConfigStore,
 			                                        SpanBuilder spanBuilder)
 	{		
-		Map<String, String> componentParameters = NotificationParserUtils.getComponentAnnotation("{config}componentParameters", notification);
+		Map<String, String> componentParameters = NotificationParserUtils.getComponentParameters(notification);
 		
 		String sql = componentParameters.get("sql");
 		String configRef = componentParameters.get("config-ref");
@@ -55,12 +78,15 @@ public class DatabaseConnectorParser extends BaseNotificationParser
 		
 		try
 		{
-			spanBuilder.setAttribute("sql.statement", sql);
-			spanBuilder.setAttribute("db.host", dbConfig.getHost());
-			spanBuilder.setAttribute("db.port", dbConfig.getPort());
-			spanBuilder.setAttribute("db.user", dbConfig.getUser());
-			spanBuilder.setAttribute("db.name", dbConfig.getDbName());
-			spanBuilder.setAttribute("db.connection.type", dbConfig.getConnectionType());
+			spanBuilder.setAttribute(MuleAttributeKeys.SQL_STATEMENT, sql);
+			spanBuilder.setAttribute(MuleAttributeKeys.DB_HOST, dbConfig.getHost());
+			
+			if (dbConfig.getPortNumber() >= 0)
+				spanBuilder.setAttribute(MuleAttributeKeys.DB_PORT, (long) dbConfig.getPortNumber());
+			
+			spanBuilder.setAttribute(MuleAttributeKeys.DB_USER, dbConfig.getUser());
+			spanBuilder.setAttribute(MuleAttributeKeys.DB_NAME, dbConfig.getDbName());
+			spanBuilder.setAttribute(MuleAttributeKeys.DB_CONNECTION_TYPE, dbConfig.getConnectionType());
 		}
 		catch (Exception e)
 		{
@@ -1,13 +1,17 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.mule.extension.http.api.HttpRequestAttributes;
 import org.mule.extension.otel.mule4.observablity.agent.internal.context.propagation.HttpRequestAttributesGetter;
 import org.mule.extension.otel.mule4.observablity.agent.internal.context.propagation.OTelContextPropagator;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
 import org.mule.runtime.api.component.ComponentIdentifier;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.mule.runtime.api.notification.PipelineMessageNotification;
 import org.mule.runtime.api.util.MultiMap;
 import org.slf4j.Logger;
@@ -21,15 +25,18 @@ public class HttpListenerParser extends BaseNotificationParser
 {
 	private static Logger logger = LoggerFactory.getLogger(HttpListenerParser.class);
 
+	private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.HTTP_LISTENER);
+	private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.singleton(PipelineMessageNotification.PROCESS_START);
+
 	// --------------------------------------------------------------------------------------------
 	// Verify if this Parser can handle this notification
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public boolean canParse(EnrichedServerNotification notification)
+	public boolean canParse(NotificationSnapshot notification)
 	{
 		ComponentIdentifier sourceIdentifier = NotificationParserUtils.getSourceIdentifier(notification);
 		String sourceComponent = sourceIdentifier.getNamespace() + ":" + sourceIdentifier.getName();
-		int action = Integer.parseInt(notification.getAction().getIdentifier());
+		int action = notification.getAction();
 		
 		// ----------------------------------------------------------------------------------------
 		// Only parse HTTP Listener notifications which are a source/trigger to the start of a flow
@@ -44,12 +51,24 @@ public class HttpListenerParser extends BaseNotificationParser
 			return false;
 		}
 	}
+
+	@Override
+	public Set<String> getSupportedComponentIds()
+	{
+		return SUPPORTED_COMPONENT_IDS;
+	}
+
+	@Override
+	public Set<Integer> getSupportedActions()
+	{
+		return SUPPORTED_ACTIONS;
+	}
 	
 	// --------------------------------------------------------------------------------------------
 	// Pipeline Start Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------
 	@Override
-	public SpanBuilder startPipelineNotification(EnrichedServerNotification notification,
+	public SpanBuilder startPipelineNotification(NotificationSnapshot notification,
 			                                     MuleConnectorConfigStore muleConnectorConfigStore, 
 			                                     SpanBuilder spanBuilder)
 	{
@@ -60,27 +79,41 @@ public class HttpListenerParser extends BaseNotificationParser
 			spanBuilder.setSpanKind(SpanKind.SERVER);
 			spanBuilder = addHttpListenerAttributesToSpan(notification, spanBuilder);
 			
+			spanBuilder.setParent(extractPipelineContext(notification));	
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+		
+		return spanBuilder;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	// 	Copy over any WC3 Trace Headers from the incoming Http request into the current trace 
+	//	context
+	// --------------------------------------------------------------------------------------------
+	@Override
+	public Context extractPipelineContext(NotificationSnapshot notification)
+	{
+		try
+		{
 			HttpRequestAttributes httpRequestAttributes = NotificationParserUtils.getMessageAttributes(notification);
 			
-			// ------------------------------------------------------------------------------------
-			// 	Copy over any WC3 Trace Headers from the incoming Http request into the current
-			//	trace context
-			// ------------------------------------------------------------------------------------
-			Context context = OTelContextPropagator.extract(httpRequestAttributes, new HttpRequestAttributesGetter());
-			spanBuilder.setParent(context);	
+			return OTelContextPropagator.extract(httpRequestAttributes, new HttpRequestAttributesGetter());
 		}
 		catch (Exception e)
 		{
 			logger.debug(e.getMessage());
 		}
 		
-		return spanBuilder;
+		return Context.current();
 	}
 
 	// --------------------------------------------------------------------------------------------
 	// Annotate the span with various HTTP Listener attributes
 	// --------------------------------------------------------------------------------------------
-	private SpanBuilder addHttpListenerAttributesToSpan(EnrichedServerNotification notification,
+	private SpanBuilder addHttpListenerAttributesToSpan(NotificationSnapshot notification,
 			                                            SpanBuilder spanBuilder)
 	{
 		HttpRequestAttributes httpRequestAttributes = NotificationParserUtils.getMessageAttributes(notification);
@@ -89,13 +122,12 @@ public class HttpListenerParser extends BaseNotificationParser
 		{
 	        MultiMap<String, String> requestHeaders = httpRequestAttributes.getHeaders();
 
-			spanBuilder.setAttribute("scheme", httpRequestAttributes.getScheme());
-			spanBuilder.setAttribute("method", httpRequestAttributes.getMethod());
-			spanBuilder.setAttribute("remote.address", httpRequestAttributes.getRemoteAddress());
-			spanBuilder.setAttribute("request.path", httpRequestAttributes.getRequestPath());
+			spanBuilder.setAttribute(MuleAttributeKeys.SCHEME, httpRequestAttributes.getScheme());
+			spanBuilder.setAttribute(MuleAttributeKeys.METHOD, httpRequestAttributes.getMethod());
+			spanBuilder.setAttribute(MuleAttributeKeys.REMOTE_ADDRESS, httpRequestAttributes.getRemoteAddress());
+			spanBuilder.setAttribute(MuleAttributeKeys.REQUEST_PATH, httpRequestAttributes.getRequestPath());
 			
-			requestHeaders.forEach((key, collection) -> {spanBuilder.setAttribute("headers." + key, collection);});
-      
+			NotificationParserUtils.getHeaderAllowlist().addRequestHeaders(requestHeaders, spanBuilder);
 		}
 		catch (Exception e)
 		{
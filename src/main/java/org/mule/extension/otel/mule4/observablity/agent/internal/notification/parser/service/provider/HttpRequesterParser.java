@@ -1,13 +1,18 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.mule.extension.http.api.HttpResponseAttributes;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
-import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
 import org.mule.runtime.api.util.MultiMap;
 
 import org.slf4j.Logger;
@@ -21,23 +26,40 @@ public class HttpRequesterParser extends BaseNotificationParser
 {
 	private static Logger logger = LoggerFactory.getLogger(HttpRequesterParser.class);
 
+	private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.HTTP_REQUESTER);
+	private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+		MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE,
+		MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE)));
+
 	// --------------------------------------------------------------------------------------------
 	// Verify if this Parser can handle this notification
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public boolean canParse(EnrichedServerNotification notification)
+	public boolean canParse(NotificationSnapshot notification)
 	{
 		if (NotificationParserUtils.getComponentId(notification).equalsIgnoreCase(Constants.HTTP_REQUESTER))
 			return true;
 		else
 			return false;
 	}
+
+	@Override
+	public Set<String> getSupportedComponentIds()
+	{
+		return SUPPORTED_COMPONENT_IDS;
+	}
+
+	@Override
+	public Set<Integer> getSupportedActions()
+	{
+		return SUPPORTED_ACTIONS;
+	}
 	
 	// --------------------------------------------------------------------------------------------
 	// Message Processor Start Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+	public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
 			                                      MuleConnectorConfigStore muleConnectorConfigStore, 
 			                                      SpanBuilder spanBuilder)
 	{
@@ -52,31 +74,33 @@ public class HttpRequesterParser extends BaseNotificationParser
 	// Message Processor End Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public void endProcessorNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	public void endProcessorNotification(NotificationSnapshot notification, Span span)
 	{
-		super.endProcessorNotification(notification, traceStore);
-		addHttpResponseAttributesToSpan(notification, traceStore);
+		super.endProcessorNotification(notification, span);
+		addHttpResponseAttributesToSpan(notification, span);
 	}
 
 	// --------------------------------------------------------------------------------------------
 	// Annotate the span with various HTTP Requester attributes
 	// --------------------------------------------------------------------------------------------
-	private SpanBuilder addHttpRequesterAttributesToSpan(EnrichedServerNotification notification,
+	private SpanBuilder addHttpRequesterAttributesToSpan(NotificationSnapshot notification,
                                                          MuleConnectorConfigStore muleConnectorConfigStore,
 			                                             SpanBuilder spanBuilder)
 	{
-		Map<String, String> requesterAttributes = NotificationParserUtils.getComponentAnnotation("{config}componentParameters", notification);
+		Map<String, String> requesterAttributes = NotificationParserUtils.getComponentParameters(notification);
 		String configRef = requesterAttributes.get("config-ref");
 	
 		MuleConnectorConfigStore.HttpRequesterConfig httpRequesterConfig = muleConnectorConfigStore.getConfig(configRef);
 
 		try 
 		{
-			spanBuilder.setAttribute("scheme", httpRequesterConfig.getProtocol());
-			spanBuilder.setAttribute("method", requesterAttributes.get("method"));
-			spanBuilder.setAttribute("request.path", requesterAttributes.get("path"));
-			spanBuilder.setAttribute("requester.host", httpRequesterConfig.getHost());
-			spanBuilder.setAttribute("requester.port", httpRequesterConfig.getPort());			
+			spanBuilder.setAttribute(MuleAttributeKeys.SCHEME, httpRequesterConfig.getProtocol());
+			spanBuilder.setAttribute(MuleAttributeKeys.METHOD, requesterAttributes.get("method"));
+			spanBuilder.setAttribute(MuleAttributeKeys.REQUEST_PATH, requesterAttributes.get("path"));
+			spanBuilder.setAttribute(MuleAttributeKeys.REQUESTER_HOST, httpRequesterConfig.getHost());
+			
+			if (httpRequesterConfig.getPortNumber() >= 0)
+				spanBuilder.setAttribute(MuleAttributeKeys.REQUESTER_PORT, (long) httpRequesterConfig.getPortNumber());
 		}
 		catch (Exception e)
 		{
@@ -90,22 +114,18 @@ public class HttpRequesterParser extends BaseNotificationParser
 	// Annotate the span with various HTTP Response attributes
 	// --------------------------------------------------------------------------------------------
 
-	private void addHttpResponseAttributesToSpan(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	private void addHttpResponseAttributesToSpan(NotificationSnapshot notification, Span span)
 	{
 		HttpResponseAttributes responseAttributes = NotificationParserUtils.getMessageAttributes(notification);
 		
-		Span span = traceStore.getMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-				                                       NotificationParserUtils.getFlowId(notification), 
-				                                       NotificationParserUtils.getSpanId(notification));
 		try
 		{
 			MultiMap<String, String> responseHeaders = responseAttributes.getHeaders();
 	
-			span.setAttribute("response.status.code", responseAttributes.getStatusCode());
-			span.setAttribute("response.reason.phrase", responseAttributes.getReasonPhrase());
+			span.setAttribute(MuleAttributeKeys.RESPONSE_STATUS_CODE, (long) responseAttributes.getStatusCode());
+			span.setAttribute(MuleAttributeKeys.RESPONSE_REASON_PHRASE, responseAttributes.getReasonPhrase());
 			
-			responseHeaders.forEach((key, collection) -> {span.setAttribute("response.headers." + key, collection);});
-
+			NotificationParserUtils.getHeaderAllowlist().addResponseHeaders(responseHeaders, span);
 		}
 		catch (Exception e)
 		{
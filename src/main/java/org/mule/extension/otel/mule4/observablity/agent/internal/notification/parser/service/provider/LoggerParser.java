@@ -1,15 +1,19 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
-import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.NotificationParserUtils;
-import org.mule.runtime.api.metadata.TypedValue;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
 
@@ -18,11 +22,16 @@ public class LoggerParser extends BaseNotificationParser
 	@SuppressWarnings("unused")
 	private static Logger logger = LoggerFactory.getLogger(LoggerParser.class);
 
+	private static final Set<String>  SUPPORTED_COMPONENT_IDS = Collections.singleton(Constants.LOGGER);
+	private static final Set<Integer> SUPPORTED_ACTIONS       = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+		MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE,
+		MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE)));
+
 	// --------------------------------------------------------------------------------------------
 	// Verify if this Parser can handle this notification
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public boolean canParse(EnrichedServerNotification notification)
+	public boolean canParse(NotificationSnapshot notification)
 	{
 		if (NotificationParserUtils.getComponentId(notification).equalsIgnoreCase(Constants.LOGGER))
 			return true;
@@ -30,34 +39,41 @@ public class LoggerParser extends BaseNotificationParser
 			return false;
 	}
 
+	@Override
+	public Set<String> getSupportedComponentIds()
+	{
+		return SUPPORTED_COMPONENT_IDS;
+	}
+
+	@Override
+	public Set<Integer> getSupportedActions()
+	{
+		return SUPPORTED_ACTIONS;
+	}
+
 	// --------------------------------------------------------------------------------------------
 	// Message Processor End Notification Parsing Handler
 	// --------------------------------------------------------------------------------------------	
 	@Override
-	public void endProcessorNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	public void endProcessorNotification(NotificationSnapshot notification, Span span)
 	{
-		super.endProcessorNotification(notification, traceStore);
-		addLoggerEventsToSpan(notification, traceStore);
+		super.endProcessorNotification(notification, span);
+		addLoggerEventsToSpan(notification, span);
 	}
 
 	// --------------------------------------------------------------------------------------------
 	// Annotate the span with Logger event
 	// --------------------------------------------------------------------------------------------
-	private void addLoggerEventsToSpan(EnrichedServerNotification notification, MuleSoftTraceStore traceStore)
+	private void addLoggerEventsToSpan(NotificationSnapshot notification, Span span)
 	{
-		//String loggerOutput  = NotificationParserUtils.getMessage(notification);
-		String loggerOutput  = TypedValue.unwrap(notification.getEvent().getVariables().get(Constants.LOGGER_OUTPUT_KEY));
-		
-		Span span = traceStore.getMessageProcessorSpan(NotificationParserUtils.getMuleSoftTraceId(notification), 
-				                                       NotificationParserUtils.getFlowId(notification), 
-				                                       NotificationParserUtils.getSpanId(notification));
+		String loggerOutput  = (String) notification.getVariable(Constants.LOGGER_OUTPUT_KEY);
 		
 		// ----------------------------------------------------------------------------------------
 		// Copy the output of the logger to an event in the span
 		// ----------------------------------------------------------------------------------------
 		if (loggerOutput != null && notification.getException() == null)
 		{
-			Attributes eventAttributes = Attributes.of(AttributeKey.stringKey("logger.output"), loggerOutput);
+			Attributes eventAttributes = Attributes.of(MuleAttributeKeys.LOGGER_OUTPUT, loggerOutput);
 			span.addEvent("logger.output.event", eventAttributes);
 		}
 	}
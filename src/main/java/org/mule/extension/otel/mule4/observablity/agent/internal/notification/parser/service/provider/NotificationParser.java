@@ -1,10 +1,15 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider;
 
+import java.util.Collections;
+import java.util.Set;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.config.MuleConnectorConfigStore;
 import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.MuleSoftTraceStore;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.context.Context;
 
 /**
  * 
@@ -14,11 +19,14 @@ import io.opentelemetry.api.trace.SpanBuilder;
  * 	trace/span.
  * 
  * 	<ul> Following APIs are supported:
- * 		<li> {@link #canParse(EnrichedServerNotification)}) </li>
- * 		<li> {@link #startPipelineNotification(EnrichedServerNotification, MuleConnectorConfigStore, SpanBuilder)} </li>
- * 		<li> {@link #endPipelineNotification(EnrichedServerNotification, MuleSoftTraceStore)} </li>
- * 		<li> {@link #startProcessorNotification(EnrichedServerNotification, MuleConnectorConfigStore, SpanBuilder)} </li>
- * 		<li> {@link #endProcessorNotification(EnrichedServerNotification, MuleSoftTraceStore)} </li>	
+ * 		<li> {@link #canParse(NotificationSnapshot)}) </li>
+ * 		<li> {@link #getSupportedComponentIds()} </li>
+ * 		<li> {@link #getSupportedActions()} </li>
+ * 		<li> {@link #startPipelineNotification(NotificationSnapshot, MuleConnectorConfigStore, SpanBuilder)} </li>
+ * 		<li> {@link #extractPipelineContext(NotificationSnapshot)} </li>
+ * 		<li> {@link #endPipelineNotification(NotificationSnapshot, MuleSoftTraceStore)} </li>
+ * 		<li> {@link #startProcessorNotification(NotificationSnapshot, MuleConnectorConfigStore, SpanBuilder)} </li>
+ * 		<li> {@link #endProcessorNotification(NotificationSnapshot, Span)} </li>	
  * </u>
  * 
  */
@@ -32,7 +40,36 @@ public interface NotificationParser
 	 * @param notification
 	 * @return true if it can, else false
 	 */
-	public boolean canParse(EnrichedServerNotification notification);
+	public boolean canParse(NotificationSnapshot notification);
+
+	// --------------------------------------------------------------------------------------------
+	// APIs to declare which notification events this Parser handles
+	// --------------------------------------------------------------------------------------------
+	/**
+	 * Component ids handled by this parser, either exact (e.g., <code>http:request</code>) or a 
+	 * namespace wildcard (e.g., <code>db:*</code>).  For pipeline notifications the id is matched 
+	 * against the source (trigger) of the flow.
+	 * <p>
+	 * Parsers which declare their component ids and actions are selected through a dispatch table
+	 * instead of {@link #canParse(NotificationSnapshot)}.
+	 * 
+	 * @return set of component ids, empty if the parser relies on canParse() only
+	 */
+	public default Set<String> getSupportedComponentIds()
+	{
+		return Collections.emptySet();
+	}
+	
+	/**
+	 * Notification actions handled by this parser, e.g., 
+	 * {@link org.mule.runtime.api.notification.PipelineMessageNotification#PROCESS_START}.
+	 * 
+	 * @return set of actions, empty if the parser relies on canParse() only
+	 */
+	public default Set<Integer> getSupportedActions()
+	{
+		return Collections.emptySet();
+	}
 
 	// --------------------------------------------------------------------------------------------
 	// API for Pipeline Start Notification Event
@@ -45,10 +82,23 @@ public interface NotificationParser
 	 * @param spanBuilder - reference to the current SpanBuilder
 	 * @return - SpanBuilder reference
 	 */
-	public SpanBuilder startPipelineNotification(EnrichedServerNotification notification,
+	public SpanBuilder startPipelineNotification(NotificationSnapshot notification,
                                                  MuleConnectorConfigStore muleConnectorConfigStore,
                                                  SpanBuilder spanBuilder);
 
+	/**
+	 * Context propagated to the flow by its caller (e.g., the W3C trace context headers of an HTTP 
+	 * request), the parent of the flow span.  Also used without starting a span, e.g., for the
+	 * traces above the rate limit of their flow, so the trace context still flows downstream.
+	 * 
+	 * @param notification - Pipeline start notification
+	 * @return the extracted context, the current context if the source propagates none
+	 */
+	public default Context extractPipelineContext(NotificationSnapshot notification)
+	{
+		return Context.current();
+	}
+
 	// --------------------------------------------------------------------------------------------
 	// API for Pipeline End Notification Event
 	// --------------------------------------------------------------------------------------------
@@ -58,7 +108,7 @@ public interface NotificationParser
 	 * @param notification - Pipeline end notification
 	 * @param traceStore -  Store where trace/span data is for this notification
 	 */
-	public void endPipelineNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore);
+	public void endPipelineNotification(NotificationSnapshot notification, MuleSoftTraceStore traceStore);
 
 	
 	// --------------------------------------------------------------------------------------------
@@ -71,7 +121,7 @@ public interface NotificationParser
 	 * @param spanBuilder - Reference to the current SpanBuilder
 	 * @return - SpanBuilder reference
 	 */
-	public SpanBuilder startProcessorNotification(EnrichedServerNotification notification,
+	public SpanBuilder startProcessorNotification(NotificationSnapshot notification,
                                                   MuleConnectorConfigStore muleConnectorConfigStore,
                                                   SpanBuilder spanBuilder);
 	
@@ -81,8 +131,8 @@ public interface NotificationParser
 	/**
 	 * 
 	 * @param notification - Message Processor end notification
-	 * @param traceStore -  Store where trace/span data is for this notification
+	 * @param span - The span started for this message processor; it is ended by the caller
 	 */
-	public void endProcessorNotification(EnrichedServerNotification notification, MuleSoftTraceStore traceStore);
+	public void endProcessorNotification(NotificationSnapshot notification, Span span);
 	
 }
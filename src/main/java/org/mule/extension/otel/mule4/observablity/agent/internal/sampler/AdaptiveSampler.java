@@ -0,0 +1,220 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.sampler;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.AdaptiveSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.MuleRuntimeSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+//------------------------------------------------------------------------------------------------
+//	Adaptive sampling keeps tracing within a budget of system workload, heap usage, export queue
+//	fill and sampled traces per second.  After each sample of the MuleRuntimeSampler, the highest
+//	reading over its limit (the pressure) drives the ratio applied to new traces:
+//
+//		pressure above 1		ratio divided by the pressure, down to the minimum ratio
+//		pressure below 0.8		ratio raised by a quarter, up to 1
+//
+//	The ratio is applied on top of the configured sampler to the spans starting a trace in this
+//	runtime (no parent, or an unsampled remote parent), by trace id as the SDK trace id ratio 
+//	sampler does.  Spans with a local parent follow their parent, so a trace is either fully 
+//	sampled or not, and spans with a sampled remote parent are kept, so the traces sampled 
+//	upstream are not broken in this runtime.
+//------------------------------------------------------------------------------------------------
+/**
+ * Load-adaptive sampling ratio, applied by the {@link Sampler} returned by {@link #wrap(Sampler)}.
+ *
+ * @see AdaptiveSamplingConfig
+ */
+public final class AdaptiveSampler
+{
+	private static final Logger logger = LoggerFactory.getLogger(AdaptiveSampler.class);
+
+	private static final double LOW_PRESSURE      = 0.8;
+	private static final double RECOVERY_FACTOR   = 1.25;
+
+	private final AdaptiveSamplingConfig adaptiveSamplingConfig;
+	private final ExportQueueMonitor     exportQueueMonitor;
+	private final double                 minRatio;
+	private final LongAdder              sampledTraces = new LongAdder();
+
+	private volatile double  ratio           = 1.0;
+	private volatile long    ratioUpperBound = Long.MAX_VALUE;
+	private volatile double  pressure;
+	private volatile boolean processorSpansSuspended;
+
+	private long lastAdjustNanos = System.nanoTime();
+
+	/**
+	 *
+	 * @param adaptiveSamplingConfig - budget to keep tracing within
+	 * @param exportQueueMonitor - fill of the export queue
+	 */
+	public AdaptiveSampler(AdaptiveSamplingConfig adaptiveSamplingConfig, ExportQueueMonitor exportQueueMonitor)
+	{
+		this.adaptiveSamplingConfig = adaptiveSamplingConfig;
+		this.exportQueueMonitor = exportQueueMonitor;
+		this.minRatio = Math.min(Math.max(adaptiveSamplingConfig.getMinSamplingRatio(), 0.0), 1.0);
+	}
+
+	/**
+	 * Adjust the ratio after each sample of the runtime readings
+	 */
+	public void start()
+	{
+		MuleRuntimeSampler.getInstance().setSampleListener(this::adjust);
+	}
+
+	/**
+	 *
+	 * @param sampler - sampler configured for the SDK ({@code otel.traces.sampler})
+	 * @return the sampler applying the adaptive ratio on top of it
+	 */
+	public Sampler wrap(Sampler sampler)
+	{
+		return new AdaptiveRatioSampler(sampler);
+	}
+
+	/**
+	 * @return current sampling ratio of new traces
+	 */
+	public double getRatio()
+	{
+		return ratio;
+	}
+
+	/**
+	 * @return highest reading over its limit at the last adjustment, above 1 when over budget
+	 */
+	public double getPressure()
+	{
+		return pressure;
+	}
+
+	/**
+	 * @return <b>true</b> if message processor spans are not generated while the ratio is lowered
+	 */
+	public boolean isProcessorSpansSuspended()
+	{
+		return processorSpansSuspended;
+	}
+
+	//------------------------------------------------------------------------
+	//	Adjustment, on the runtime sampler thread
+	//------------------------------------------------------------------------
+	void adjust()
+	{
+		MuleRuntimeSampler muleRuntimeSampler = MuleRuntimeSampler.getInstance();
+		long nowNanos = System.nanoTime();
+		double seconds = (nowNanos - lastAdjustNanos) / 1e9;
+
+		lastAdjustNanos = nowNanos;
+
+		double tracesPerSecond = (seconds > 0) ? sampledTraces.sumThenReset() / seconds : 0;
+
+		double currentPressure = Math.max(Math.max(pressure(muleRuntimeSampler.getWorkloadPercent(), adaptiveSamplingConfig.getMaxWorkload()),
+		                                           pressure(muleRuntimeSampler.getHeapUsagePercent(), adaptiveSamplingConfig.getMaxHeapUsage())),
+		                                  Math.max(pressure(exportQueueMonitor.getFillPercent(), adaptiveSamplingConfig.getMaxExportQueueFill()),
+		                                           pressure(tracesPerSecond, adaptiveSamplingConfig.getMaxSampledTracesPerSecond())));
+		double newRatio = ratio;
+
+		if (currentPressure > 1)
+			newRatio = Math.max(minRatio, ratio / currentPressure);
+		else if (currentPressure < LOW_PRESSURE)
+			newRatio = Math.min(1.0, ratio * RECOVERY_FACTOR);
+
+		pressure = currentPressure;
+
+		if (newRatio != ratio)
+		{
+			setRatio(newRatio);
+			logger.debug("Adaptive sampling ratio " + newRatio + " (pressure " + currentPressure + ")");
+		}
+	}
+
+	private void setRatio(double newRatio)
+	{
+		ratioUpperBound = (newRatio >= 1.0) ? Long.MAX_VALUE : (long) (newRatio * Long.MAX_VALUE);
+		ratio = newRatio;
+		processorSpansSuspended = adaptiveSamplingConfig.getSuspendProcessorSpans() && newRatio < 1.0;
+	}
+
+	private static double pressure(double reading, double limit)
+	{
+		return (limit > 0 && reading >= 0) ? reading / limit : 0;
+	}
+
+	//------------------------------------------------------------------------
+	//	Sampler
+	//------------------------------------------------------------------------
+	private final class AdaptiveRatioSampler implements Sampler
+	{
+		private final Sampler sampler;
+
+		private AdaptiveRatioSampler(Sampler sampler)
+		{
+			this.sampler = sampler;
+		}
+
+		@Override
+		public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+		                                   Attributes attributes, List<LinkData> parentLinks)
+		{
+			SamplingResult samplingResult = sampler.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+			SpanContext parentSpanContext = Span.fromContext(parentContext).getSpanContext();
+
+			if (samplingResult.getDecision() != SamplingDecision.RECORD_AND_SAMPLE ||
+			    (parentSpanContext.isValid() && !parentSpanContext.isRemote()))
+				return samplingResult;
+
+			if (parentSpanContext.isValid() && parentSpanContext.isSampled())
+			{
+				sampledTraces.increment();
+				return samplingResult;
+			}
+
+			long upperBound = ratioUpperBound;
+
+			if (upperBound != Long.MAX_VALUE && Math.abs(randomPart(traceId)) >= upperBound)
+				return SamplingResult.drop();
+
+			sampledTraces.increment();
+			return samplingResult;
+		}
+
+		@Override
+		public String getDescription()
+		{
+			return "AdaptiveSampler{" + sampler.getDescription() + "}";
+		}
+
+		@Override
+		public String toString()
+		{
+			return getDescription();
+		}
+	}
+
+	private static long randomPart(String traceId)
+	{
+		try
+		{
+			return Long.parseUnsignedLong(traceId.substring(16), 16);
+		}
+		catch (RuntimeException e)
+		{
+			return Long.MAX_VALUE;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.sampler;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+//------------------------------------------------------------------------------------------------
+//	The batch span processor of the SDK does not expose its queue.  Its fill is mirrored instead:
+//	this span processor is registered next to it and counts the sampled spans ended (up to the
+//	queue size, as the batch span processor drops the spans it cannot queue), and the exporter it
+//	wraps subtracts the spans handed over for export.
+//------------------------------------------------------------------------------------------------
+/**
+ * Estimate of the number of spans waiting in the export queue of the SDK.
+ */
+public final class ExportQueueMonitor implements SpanProcessor
+{
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
+
+	private final AtomicLong queuedSpans = new AtomicLong();
+
+	private volatile int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+	/**
+	 * @param maxQueueSize - size of the export queue ({@code otel.bsp.max.queue.size})
+	 */
+	public void setMaxQueueSize(int maxQueueSize)
+	{
+		this.maxQueueSize = (maxQueueSize > 0) ? maxQueueSize : DEFAULT_MAX_QUEUE_SIZE;
+	}
+
+	/**
+	 * @param spanExporter - exporter of the batch span processor
+	 * @return the exporter, counting the spans it exports
+	 */
+	public SpanExporter wrap(SpanExporter spanExporter)
+	{
+		return new CountingSpanExporter(spanExporter);
+	}
+
+	/**
+	 * @return spans waiting to be exported in percent of the export queue size
+	 */
+	public double getFillPercent()
+	{
+		return (Math.max(queuedSpans.get(), 0) * 100.0) / maxQueueSize;
+	}
+
+	//------------------------------------------------------------------------
+	//	SpanProcessor
+	//------------------------------------------------------------------------
+	@Override
+	public void onStart(Context parentContext, ReadWriteSpan span)
+	{
+	}
+
+	@Override
+	public boolean isStartRequired()
+	{
+		return false;
+	}
+
+	@Override
+	public void onEnd(ReadableSpan span)
+	{
+		if (!span.getSpanContext().isSampled())
+			return;
+
+		long queued = queuedSpans.get();
+
+		//
+		// the export can run before this processor sees the span, so the
+		// count may briefly go negative
+		//
+		while (queued < maxQueueSize && !queuedSpans.compareAndSet(queued, queued + 1))
+			queued = queuedSpans.get();
+	}
+
+	@Override
+	public boolean isEndRequired()
+	{
+		return true;
+	}
+
+	//------------------------------------------------------------------------
+	//	Exporter counting the spans leaving the queue
+	//------------------------------------------------------------------------
+	private final class CountingSpanExporter implements SpanExporter
+	{
+		private final SpanExporter spanExporter;
+
+		private CountingSpanExporter(SpanExporter spanExporter)
+		{
+			this.spanExporter = spanExporter;
+		}
+
+		@Override
+		public CompletableResultCode export(Collection<SpanData> spans)
+		{
+			queuedSpans.addAndGet(-spans.size());
+
+			return spanExporter.export(spans);
+		}
+
+		@Override
+		public CompletableResultCode flush()
+		{
+			return spanExporter.flush();
+		}
+
+		@Override
+		public CompletableResultCode shutdown()
+		{
+			return spanExporter.shutdown();
+		}
+
+		@Override
+		public String toString()
+		{
+			return spanExporter.toString();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.config;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+
+//------------------------------------------------------------------------------------------------
+//	Serialized index of the connector configurations found per Mule configuration file, keyed by 
+//	the checksum of the file.  Files which did not change since the index was written do not need 
+//	to be parsed again.
+//------------------------------------------------------------------------------------------------
+class ConnectorConfigIndex
+{
+	private static Logger logger = LoggerFactory.getLogger(ConnectorConfigIndex.class);
+	
+	static final String INDEX_FILE_NAME = "otel-agent-connector-config-index.json";
+	
+	private static final int VERSION = 1;
+	
+	private int version = VERSION;
+	private Map<String, Entry> files = new HashMap<>();
+	
+	//------------------------------------------------------------------------------------------------
+	//	Index entry of a single configuration file
+	//------------------------------------------------------------------------------------------------
+	static class Entry
+	{
+		private long checksum;
+		private List<ConnectorConfigRecord> configs;
+		
+		Entry()
+		{
+			// for deserialization
+		}
+		
+		Entry(long checksum, List<ConnectorConfigRecord> configs)
+		{
+			this.checksum = checksum;
+			this.configs = configs;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param path - path of the configuration file
+	 * @param checksum - current checksum of the configuration file
+	 * @return the cached configurations or null if the file is unknown or changed
+	 */
+	synchronized List<ConnectorConfigRecord> get(String path, long checksum)
+	{
+		Entry entry = files.get(path);
+		
+		return (entry != null && entry.checksum == checksum && entry.configs != null) ? entry.configs : null;
+	}
+	
+	synchronized void put(String path, long checksum, List<ConnectorConfigRecord> configs)
+	{
+		files.put(path, new Entry(checksum, configs));
+	}
+	
+	/**
+	 * Drop the entries of files which no longer exist
+	 * 
+	 * @param paths - the current configuration files
+	 */
+	synchronized void retain(Set<String> paths)
+	{
+		files.keySet().retainAll(paths);
+	}
+	
+	//------------------------------------------------------------------------------------------------
+	//	Load and store the index
+	//------------------------------------------------------------------------------------------------
+	static ConnectorConfigIndex load(File indexFile)
+	{
+		if (indexFile != null && indexFile.isFile())
+		{
+			try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8))
+			{
+				ConnectorConfigIndex index = new Gson().fromJson(reader, ConnectorConfigIndex.class);
+				
+				if (index != null && index.version == VERSION && index.files != null)
+					return index;
+			}
+			catch (Exception e)
+			{
+				logger.debug("Unable to read the connector configuration index: " + e.getMessage());
+			}
+		}
+		return new ConnectorConfigIndex();
+	}
+	
+	synchronized void store(File indexFile)
+	{
+		if (indexFile == null)
+			return;
+		
+		try
+		{
+			File tmpFile = new File(indexFile.getPath() + ".tmp");
+			
+			indexFile.getParentFile().mkdirs();
+			
+			try (Writer writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8))
+			{
+				new Gson().toJson(this, writer);
+			}
+			Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (Exception e)
+		{
+			logger.debug("Unable to write the connector configuration index: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @return CRC32 checksum of the file content
+	 * @throws Exception if the file can not be read
+	 */
+	static long checksum(File file) throws Exception
+	{
+		CRC32 crc32 = new CRC32();
+		
+		crc32.update(Files.readAllBytes(file.toPath()));
+		
+		return crc32.getValue();
+	}
+}
@@ -0,0 +1,58 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//------------------------------------------------------------------------------------------------
+//	Raw (unresolved) attributes of a connector configuration as found in a Mule configuration 
+//	file.  Property placeholders are resolved when the record is turned into a configuration of 
+//	the MuleConnectorConfigStore, so records can be cached across deployments.
+//------------------------------------------------------------------------------------------------
+class ConnectorConfigRecord
+{
+	static final String HTTP_REQUESTER = "http-requester";
+	static final String DATABASE       = "db";
+	static final String ANYPOINT_MQ    = "anypoint-mq";
+	
+	private String type;
+	private String name;
+	private Map<String, String> attributes = new LinkedHashMap<>();
+	
+	ConnectorConfigRecord()
+	{
+		// for deserialization
+	}
+	
+	ConnectorConfigRecord(String type, String name)
+	{
+		this.type = type;
+		this.name = name;
+	}
+	
+	String getType()
+	{
+		return type;
+	}
+	
+	String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * @param key
+	 * @return the attribute value, empty string if the attribute is not set
+	 */
+	String getAttribute(String key)
+	{
+		String value = attributes.get(key);
+		
+		return (value != null) ? value : "";
+	}
+	
+	void setAttribute(String key, String value)
+	{
+		if (value != null)
+			attributes.put(key, value);
+	}
+}
@@ -0,0 +1,168 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+
+//------------------------------------------------------------------------------------------------
+//	Extracts the HTTP Requester, Database and Anypoint MQ configurations of a Mule configuration 
+//	file in a single streaming (StAX) pass.
+//
+//	For each configuration element the attributes of its first connection element are kept:
+//	  <http:request-config name="..."> <http:request-connection host port protocol/>
+//	  <db:config name="...">           <db:*-connection host port user database/>
+//	  <anypoint-mq:config name="...">  <anypoint-mq:connection url clientId/>
+//------------------------------------------------------------------------------------------------
+class MuleConfigFileParser
+{
+	private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+	
+	private static XMLInputFactory createXmlInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		
+		return factory;
+	}
+	
+	/**
+	 * 
+	 * @param file - Mule configuration XML file
+	 * @return the connector configurations found in this file
+	 * @throws Exception if the file can not be read or parsed
+	 */
+	static List<ConnectorConfigRecord> parse(File file) throws Exception
+	{
+		List<ConnectorConfigRecord> records = new ArrayList<>();
+		
+		try (InputStream is = new FileInputStream(file))
+		{
+			XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(is);
+			
+			try
+			{
+				ConnectorConfigRecord current = null;
+				String currentNS = null;
+				int depth = 0;
+				int configDepth = -1;
+				boolean connectionFound = false;
+				
+				while (reader.hasNext())
+				{
+					int event = reader.next();
+					
+					if (event == XMLStreamConstants.START_ELEMENT)
+					{
+						depth++;
+						
+						String ns = reader.getNamespaceURI();
+						String localName = reader.getLocalName();
+						
+						if (current == null)
+						{
+							current = startConfig(reader, ns, localName);
+							
+							if (current != null)
+							{
+								currentNS = ns;
+								configDepth = depth;
+								connectionFound = false;
+							}
+						}
+						else if (!connectionFound && currentNS.equals(ns))
+						{
+							connectionFound = addConnection(reader, current, localName);
+						}
+					}
+					else if (event == XMLStreamConstants.END_ELEMENT)
+					{
+						if (current != null && depth == configDepth)
+						{
+							if (connectionFound)
+								records.add(current);
+							
+							current = null;
+							currentNS = null;
+							configDepth = -1;
+						}
+						depth--;
+					}
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		return records;
+	}
+	
+	//------------------------------------------------------------------------------------------------
+	//	Helper methods
+	//------------------------------------------------------------------------------------------------
+	private static ConnectorConfigRecord startConfig(XMLStreamReader reader, String ns, String localName)
+	{
+		String type = null;
+		
+		if (Constants.HTTP_REQUESTER_URI_NS.equals(ns) && "request-config".equals(localName))
+			type = ConnectorConfigRecord.HTTP_REQUESTER;
+		else if (Constants.DB_URI_NS.equals(ns) && "config".equals(localName))
+			type = ConnectorConfigRecord.DATABASE;
+		else if (Constants.ANYPOINT_MQ_URI_NS.equals(ns) && "config".equals(localName))
+			type = ConnectorConfigRecord.ANYPOINT_MQ;
+		
+		return (type != null) ? new ConnectorConfigRecord(type, attribute(reader, "name")) : null;
+	}
+	
+	private static boolean addConnection(XMLStreamReader reader, ConnectorConfigRecord record, String localName)
+	{
+		switch (record.getType())
+		{
+			case ConnectorConfigRecord.HTTP_REQUESTER:
+				if (!"request-connection".equals(localName))
+					return false;
+				
+				record.setAttribute("host", attribute(reader, "host"));
+				record.setAttribute("port", attribute(reader, "port"));
+				record.setAttribute("protocol", attribute(reader, "protocol"));
+				return true;
+				
+			case ConnectorConfigRecord.DATABASE:
+				record.setAttribute("type", localName);
+				record.setAttribute("host", attribute(reader, "host"));
+				record.setAttribute("port", attribute(reader, "port"));
+				record.setAttribute("user", attribute(reader, "user"));
+				record.setAttribute("database", attribute(reader, "database"));
+				return true;
+				
+			case ConnectorConfigRecord.ANYPOINT_MQ:
+				if (!"connection".equals(localName))
+					return false;
+				
+				record.setAttribute("url", attribute(reader, "url"));
+				record.setAttribute("clientId", attribute(reader, "clientId"));
+				return true;
+				
+			default:
+				return false;
+		}
+	}
+	
+	private static String attribute(XMLStreamReader reader, String name)
+	{
+		String value = reader.getAttributeValue(null, name);
+		
+		return (value != null) ? value : "";
+	}
+}
@@ -3,23 +3,26 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.store.config;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.metric.AgentSelfTelemetry;
 import org.mule.runtime.core.api.config.DefaultMuleConfiguration;
 import org.mule.runtime.core.api.config.MuleConfiguration;
 import org.mule.runtime.core.api.el.ExpressionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.SuffixFileFilter;
@@ -38,7 +41,8 @@ import org.apache.commons.io.filefilter.SuffixFileFilter;
  *      <li> {@code Anypoint MQ Connector} </li>
  *  </ul>
  *  
- *  @see #getInstance(MuleConfiguration)
+ *  @see #initialize(MuleConfiguration, ExpressionManager)
+ *  @see #getInstance(MuleConfiguration, ExpressionManager)
  */
 
 
@@ -56,140 +60,203 @@ public class MuleConnectorConfigStore
 	//--------------------------------------------------------------------------------------------
 	private Map<String, Object> configurations = new ConcurrentHashMap<>();
 	
+	//--------------------------------------------------------------------------------------------
+	//	Readiness of the store, the configuration files are processed on a background thread
+	//--------------------------------------------------------------------------------------------
+	private final CountDownLatch ready = new CountDownLatch(1);
+	
+	private final File appDirectory;
+	private final File indexFile;
+	
 	//--------------------------------------------------------------------------------------------
 	//	Singleton constructor  
-	//
-	//  Process all Mule configuration files and within each configuration file, process all 
-	//  message processor configurations for the following processor types:  HTTP, MQ and DB. Store
-	//  these configurations for later use.
 	//--------------------------------------------------------------------------------------------
 	private MuleConnectorConfigStore(MuleConfiguration muleConfiguration, ExpressionManager em)
 	{
-	    DefaultMuleConfiguration defaultMuleConfiguration = (DefaultMuleConfiguration)muleConfiguration;
-		
 	    expressionManager = em;
 	    
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-	    dbf.setNamespaceAware(true);
-	    
-	    String httpNS = Constants.HTTP_REQUESTER_URI_NS;
-	    String dbNS   = Constants.DB_URI_NS;
-	    String anypointMQNS = Constants.ANYPOINT_MQ_URI_NS;
-
 		if (muleConfiguration != null)
-		{			
-			String dirPath = defaultMuleConfiguration.getMuleHomeDirectory() + "/apps/" + 
-                             defaultMuleConfiguration.getDataFolderName();
+		{
+		    DefaultMuleConfiguration defaultMuleConfiguration = (DefaultMuleConfiguration)muleConfiguration;
+		    
+			appDirectory = new File(defaultMuleConfiguration.getMuleHomeDirectory() + "/apps/" + 
+                                    defaultMuleConfiguration.getDataFolderName());
+			indexFile = (muleConfiguration.getWorkingDirectory() != null) 
+			            ? new File(muleConfiguration.getWorkingDirectory(), ConnectorConfigIndex.INDEX_FILE_NAME)
+			            : null;
+		}
+		else
+		{
+			appDirectory = null;
+			indexFile = null;
+		}
+	}
 	
-			Iterator<File> itFiles = FileUtils.iterateFiles(new File(dirPath), new SuffixFileFilter(".xml"), null);
+	//--------------------------------------------------------------------------------------------
+	//  Process all Mule configuration files and within each configuration file, process all 
+	//  message processor configurations for the following processor types:  HTTP, MQ and DB. Store
+	//  these configurations for later use.
+	//
+	//	Files are parsed in parallel with a single streaming pass each.  Files whose checksum 
+	//	matches the cached index are not parsed at all.
+	//--------------------------------------------------------------------------------------------
+	private void build()
+	{
+		long startTime = System.currentTimeMillis();
+		
+		try
+		{
+			if (appDirectory == null || !appDirectory.isDirectory())
+				return;
+			
+			logger.debug("Application source files folder: " + appDirectory);
+			
+			List<File> files = new ArrayList<>(FileUtils.listFiles(appDirectory, new SuffixFileFilter(".xml"), null));
+			
+			files.sort(Comparator.comparing(File::getPath));
 			
-			//------------------------------------------------------------------------------------
-			//	Process all XML files in the data folder
-			//------------------------------------------------------------------------------------			
-			while (itFiles.hasNext())
+			ConnectorConfigIndex index = ConnectorConfigIndex.load(indexFile);
+			AtomicInteger parsedFiles = new AtomicInteger();
+			
+			int threads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+			AtomicInteger threadCount = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(threads, (r) -> 
 			{
-				logger.debug("Application source files folder: " + dirPath);
+				Thread thread = new Thread(r, "otel-agent-config-parser-" + threadCount.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
 			
-			    try 
-			    {
-			    	//----------------------------------------------------------------------------
-			    	//	Create a DOM Document Builder and parse in the Mule Configuration XML file
-			    	//----------------------------------------------------------------------------
-					DocumentBuilder db = dbf.newDocumentBuilder();
-		
-					Document doc = db.parse(itFiles.next());
-					doc.getDocumentElement().normalize();
-	
-			    	//----------------------------------------------------------------------------
-			    	//	Process all of the HTTP Requester Configurations in the XML file
-			    	//----------------------------------------------------------------------------
-					NodeList httpRequesterConfigNodesList = doc.getElementsByTagNameNS(httpNS, "request-config");
-					int httpRequesterConfigNodes = httpRequesterConfigNodesList.getLength();
-					
-					for (int i = 0; i < httpRequesterConfigNodes; i++)
+			try
+			{
+				List<Future<List<ConnectorConfigRecord>>> results = new ArrayList<>();
+				
+				//------------------------------------------------------------------------------------
+				//	Process all XML files in the data folder
+				//------------------------------------------------------------------------------------
+				for (File file : files)
+				{
+					results.add(executor.submit(() -> 
 					{
-						Node node = httpRequesterConfigNodesList.item(i);
+						long checksum = ConnectorConfigIndex.checksum(file);
+						List<ConnectorConfigRecord> records = index.get(file.getPath(), checksum);
 						
-						if (node.getNodeType() == Node.ELEMENT_NODE)
+						if (records == null)
 						{
-							Element e = (Element) node;
-							String configName = e.getAttribute("name");
-							
-							Element e2 = (Element)e.getElementsByTagNameNS(httpNS, "request-connection").item(0);
-							String host = e2.getAttribute("host");
-							String port = e2.getAttribute("port");
-							String protocol = e2.getAttribute("protocol");
-							
-					    	//--------------------------------------------------------------------
-							// 	Create and store a HttpRequesterConfig into the configuration store
-					    	//--------------------------------------------------------------------							
-							configurations.put(configName, new HttpRequesterConfig(host,
-									                                               port == "" ? "80": port,
-									                                               protocol == "" ? "HTTP": protocol));
+							records = MuleConfigFileParser.parse(file);
+							index.put(file.getPath(), checksum, records);
+							parsedFiles.incrementAndGet();
 						}
+						return records;
+					}));
+				}
+				
+				//------------------------------------------------------------------------------------
+				//	Store the configurations in file order
+				//------------------------------------------------------------------------------------
+				for (Future<List<ConnectorConfigRecord>> result : results)
+				{
+					try
+					{
+						result.get().forEach(this::addConfig);
 					}
-	
-			    	//----------------------------------------------------------------------------
-			    	//	Process all of the Database Configurations in the XML file
-			    	//----------------------------------------------------------------------------
-					NodeList dbConfigNodesList = doc.getElementsByTagNameNS(dbNS, "config");
-					int dbConfigNodes = dbConfigNodesList.getLength();
-					
-					for (int i = 0; i < dbConfigNodes; i++)
+					catch (ExecutionException e)
 					{
-						Node node = dbConfigNodesList.item(i);
-						
-						if (node.getNodeType() == Node.ELEMENT_NODE)
-						{
-							Element e = (Element) node;
-							String configName = e.getAttribute("name");
-							
-							Element e2 = (Element)e.getElementsByTagNameNS(dbNS, "*").item(0);
-							String type = e2.getLocalName();
-							String host = e2.getAttribute("host");
-							String port = e2.getAttribute("port");
-							String user = e2.getAttribute("user");
-							String database = e2.getAttribute("database");
-							
-					    	//--------------------------------------------------------------------
-							// 	Create and store a DbConfig into the configuration store
-					    	//--------------------------------------------------------------------							
-							configurations.put(configName, new DbConfig(host, port, user, database, type));
-						}
+						logger.debug(e.getCause().getMessage());
 					}
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+			
+			if (parsedFiles.get() > 0)
+			{
+				index.retain(files.stream().map(File::getPath).collect(Collectors.toSet()));
+				index.store(indexFile);
+			}
+			
+			long buildTime = System.currentTimeMillis() - startTime;
+			
+			AgentSelfTelemetry.getInstance().setConfigStoreBuildMillis(buildTime);
+			logger.info("Connector configurations loaded from {} file(s), {} parsed, in {} ms", 
+			            files.size(), parsedFiles.get(), buildTime);
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+		finally
+		{
+			ready.countDown();
+		}
+	}
+	
+	//--------------------------------------------------------------------------------------------
+	// 	Create and store a configuration from a raw record into the configuration store
+	//--------------------------------------------------------------------------------------------
+	private void addConfig(ConnectorConfigRecord record)
+	{
+		try
+		{
+			switch (record.getType())
+			{
+				case ConnectorConfigRecord.HTTP_REQUESTER:
+					String port = record.getAttribute("port");
+					String protocol = record.getAttribute("protocol");
+					
+					configurations.put(record.getName(), new HttpRequesterConfig(record.getAttribute("host"),
+					                                                             port.isEmpty() ? "80" : port,
+					                                                             protocol.isEmpty() ? "HTTP" : protocol));
+					break;
+					
+				case ConnectorConfigRecord.DATABASE:
+					configurations.put(record.getName(), new DbConfig(record.getAttribute("host"), 
+					                                                  record.getAttribute("port"), 
+					                                                  record.getAttribute("user"), 
+					                                                  record.getAttribute("database"), 
+					                                                  record.getAttribute("type")));
+					break;
 					
-                    //----------------------------------------------------------------------------
-                    //  Process all of the Anypoint MQ Configurations in the XML file
-                    //----------------------------------------------------------------------------
-                    NodeList anypointMQConfigNodesList = doc.getElementsByTagNameNS(anypointMQNS, "config");
-                    int anyppointMQConfigNodes = anypointMQConfigNodesList.getLength();
-                    
-                    for (int i = 0; i < anyppointMQConfigNodes; i++)
-                    {
-                        Node node = anypointMQConfigNodesList.item(i);
-                        
-                        if (node.getNodeType() == Node.ELEMENT_NODE)
-                        {
-                            Element e = (Element) node;
-                            String configName = e.getAttribute("name");
-                            
-                            Element e2 = (Element)e.getElementsByTagNameNS(anypointMQNS, "connection").item(0);
-                            String url = e2.getAttribute("url");
-                            String clientId = e2.getAttribute("clientId");
-                            
-                            //--------------------------------------------------------------------
-                            //  Create and store a DbConfig into the configuration store
-                            //--------------------------------------------------------------------                          
-                            configurations.put(configName, new AnypointMQConfig(url, clientId));
-                        }
-                    }					
-			    }
-			    catch (Exception e)
-			    {
-			    	logger.debug(e.getMessage());
-			    }
+				case ConnectorConfigRecord.ANYPOINT_MQ:
+					configurations.put(record.getName(), new AnypointMQConfig(record.getAttribute("url"), 
+					                                                          record.getAttribute("clientId")));
+					break;
 			}
-		}	
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+	}
+	
+	//------------------------------------------------------------------------------------------------
+	//	Create the singleton and start loading the configurations on a background thread.
+	//------------------------------------------------------------------------------------------------
+	/**
+	 * Create the singleton {@code MuleConnectorConfigStore} and process the Mule configuration files 
+	 * on a background thread.  Use {@link #awaitReady(long)} to wait for the configurations.
+	 * 
+	 * @param muleConfiguration - Default Mule Configuration
+	 * @param expressionManager - used to resolve property placeholders
+	 * 
+	 * @return Singleton {@code MuleConnectorConfigStore}
+	 */
+	public static synchronized MuleConnectorConfigStore initialize(MuleConfiguration muleConfiguration,
+	                                                               ExpressionManager expressionManager)
+	{
+		if (muleConnectorConfigStore == null)
+		{
+			MuleConnectorConfigStore store = new MuleConnectorConfigStore(muleConfiguration, expressionManager);
+			Thread loader = new Thread(store::build, "otel-agent-config-store-loader");
+			
+			loader.setDaemon(true);
+			loader.start();
+			
+			muleConnectorConfigStore = store;
+		}
+		return muleConnectorConfigStore;
 	}
 	
 	//------------------------------------------------------------------------------------------------
@@ -197,7 +264,8 @@ public class MuleConnectorConfigStore
 	//	if it doesn't already exist.
 	//------------------------------------------------------------------------------------------------
 	/**
-	 * Retrieve the singleton instance of this MuleConnectorConfigStore object. 
+	 * Retrieve the singleton instance of this MuleConnectorConfigStore object.  If the store was not
+	 * initialized yet, the configurations are loaded on the calling thread.
 	 * 
 	 * @param muleConfiguration - Default Mule Configuration
 	 * 
@@ -209,10 +277,38 @@ public class MuleConnectorConfigStore
 		if (muleConnectorConfigStore == null)
 		{
 			muleConnectorConfigStore = new MuleConnectorConfigStore(muleConfiguration, expressionManager);
+			muleConnectorConfigStore.build();
 		}
 		return muleConnectorConfigStore;
 	}
 	
+	/**
+	 * @return <b>true</b> once all of the configuration files have been processed; else false
+	 */
+	public boolean isReady()
+	{
+		return ready.getCount() == 0;
+	}
+	
+	/**
+	 * Wait, for at most the specified time, until all of the configuration files have been processed.
+	 * 
+	 * @param timeoutMillis
+	 * @return <b>true</b> if the store is ready; else false
+	 */
+	public boolean awaitReady(long timeoutMillis)
+	{
+		try
+		{
+			return ready.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return isReady();
+		}
+	}
+	
 	//------------------------------------------------------------------------------------------------
 	//	Retrieve either a DB, Anypoint MQ or HTTP Requester Configuration
 	//------------------------------------------------------------------------------------------------
@@ -279,6 +375,22 @@ public class MuleConnectorConfigStore
 	    return value;
 	}
 	
+	//------------------------------------------------------------------------------------------------
+	//	Port of a connector configuration as a number, parsed once when the configuration is created
+	//------------------------------------------------------------------------------------------------
+	private static int parsePort(String port)
+	{
+		try
+		{
+			return (port != null) ? Integer.parseInt(port.trim()) : -1;
+		}
+		catch (NumberFormatException e)
+		{
+			logger.debug(e.getMessage());
+			return -1;
+		}
+	}
+	
 	//------------------------------------------------------------------------------------------------
     //  Nested class for storing some configuration details on the Anypoint MQ Connector.
     //------------------------------------------------------------------------------------------------
@@ -309,10 +421,15 @@ public class MuleConnectorConfigStore
         }
         
         public String getPort()
+        {
+            return Integer.toString(getPortNumber());
+        }
+        
+        public int getPortNumber()
         {
             int port = url.getPort();
             
-            return (port == -1) ? Integer.toString(url.getDefaultPort()) : Integer.toString(port);
+            return (port == -1) ? url.getDefaultPort() : port;
         }
         
         public String getProtocol()
@@ -334,12 +451,14 @@ public class MuleConnectorConfigStore
 	{
 		private String host;
 		private String port;
+		private int    portNumber;
 		private String protocol;
 		
 		public HttpRequesterConfig(String host, String port, String protocol)
 		{
 		    this.host = resolveProperty(host);
 		    this.port = resolveProperty(port);
+		    this.portNumber = parsePort(this.port);
 		    this.protocol = resolveProperty(protocol);
 		}
 		
@@ -353,6 +472,14 @@ public class MuleConnectorConfigStore
 			return port;
 		}
 		
+		/**
+		 * @return the port, -1 if it is not a number
+		 */
+		public int getPortNumber()
+		{
+			return portNumber;
+		}
+		
 		public String getProtocol()
 		{
 			return protocol;
@@ -366,6 +493,7 @@ public class MuleConnectorConfigStore
 	{
 		private String host;
 		private String port;
+		private int    portNumber;
 		private String user;
 		private String dbName;
 		private String connectionType;
@@ -374,6 +502,7 @@ public class MuleConnectorConfigStore
 		{
 		    this.host = resolveProperty(host);
 		    this.port = resolveProperty(port);
+		    this.portNumber = parsePort(this.port);
 		    this.user = resolveProperty(user);
 		    this.dbName = resolveProperty(dbName);
 		    this.connectionType = resolveProperty(connectionType);
@@ -390,6 +519,14 @@ public class MuleConnectorConfigStore
 			return port;
 		}
 		
+		/**
+		 * @return the port, -1 if it is not a number
+		 */
+		public int getPortNumber()
+		{
+			return portNumber;
+		}
+		
 		public String getUser()
 		{
 			return user;
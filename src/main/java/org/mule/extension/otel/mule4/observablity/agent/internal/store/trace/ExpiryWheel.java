@@ -0,0 +1,115 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.trace;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+//------------------------------------------------------------------------------------------------
+//	Hashed timer wheel used by the MuleSoftTraceStore to expire orphaned traces and pipelines.
+//
+//	Scheduling is an insert into the set of the slot the deadline hashes to, whatever the number
+//	of scheduled entries.  Each tick only looks at one slot; entries whose deadline is more than 
+//	one rotation away stay in their slot until their round comes.  The traces and pipelines which
+//	end normally cancel their entry, which removes it from its slot, so the wheel only holds the 
+//	orphans until their deadline;  the expiry handler still checks whether the entry is live.
+//------------------------------------------------------------------------------------------------
+/**
+ * Timer wheel with a fixed tick, single consumer ({@link #advance}) and any number of 
+ * producers ({@link #schedule}).
+ *
+ * @param <T> scheduled entry type
+ */
+final class ExpiryWheel<T>
+{
+	private final long tickMillis;
+	private final int  mask;
+	private final Set<Entry<T>>[] slots;
+	
+	private volatile long currentTick;
+	
+	/**
+	 * A scheduled entry, to cancel when its item ends before the deadline
+	 */
+	static final class Entry<T>
+	{
+		private final T             item;
+		private final long          deadlineTick;
+		private final Set<Entry<T>> slot;
+		
+		private Entry(T item, long deadlineTick, Set<Entry<T>> slot)
+		{
+			this.item = item;
+			this.deadlineTick = deadlineTick;
+			this.slot = slot;
+		}
+		
+		/**
+		 * Remove the entry from the wheel, so it no longer holds its item
+		 */
+		void cancel()
+		{
+			slot.remove(this);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	ExpiryWheel(long tickMillis, int slotCount, long nowMillis)
+	{
+		int size = Integer.highestOneBit(Math.max(2, slotCount) * 2 - 1);
+		
+		this.tickMillis = Math.max(1, tickMillis);
+		this.mask = size - 1;
+		this.slots = new Set[size];
+		
+		for (int i = 0; i < size; i++)
+		{
+			slots[i] = ConcurrentHashMap.newKeySet();
+		}
+		
+		this.currentTick = nowMillis / this.tickMillis;
+	}
+	
+	/**
+	 * @param item - entry to expire
+	 * @param deadlineMillis - epoch time (ms) at which the entry expires
+	 * @return the scheduled entry
+	 */
+	Entry<T> schedule(T item, long deadlineMillis)
+	{
+		long deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+		Set<Entry<T>> slot = slots[(int) (deadlineTick & mask)];
+		Entry<T> entry = new Entry<>(item, deadlineTick, slot);
+		
+		slot.add(entry);
+		
+		return entry;
+	}
+	
+	/**
+	 * Advance the wheel up to {@code nowMillis} and hand every entry due to {@code expiryHandler}
+	 */
+	void advance(long nowMillis, Consumer<T> expiryHandler)
+	{
+		long targetTick = nowMillis / tickMillis;
+		
+		while (currentTick < targetTick)
+		{
+			long tick = currentTick + 1;
+			Iterator<Entry<T>> slot = slots[(int) (tick & mask)].iterator();
+			
+			while (slot.hasNext())
+			{
+				Entry<T> entry = slot.next();
+				
+				if (entry.deadlineTick <= tick)
+				{
+					slot.remove();
+					expiryHandler.accept(entry.item);
+				}
+			}
+			
+			currentTick = tick;
+		}
+	}
+}
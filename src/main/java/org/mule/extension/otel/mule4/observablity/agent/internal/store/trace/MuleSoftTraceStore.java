@@ -1,14 +1,28 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.store.trace;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.api.trace.Span;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TailSamplingConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TraceStoreConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.TailSampler.HeldTrace;
 import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,120 +45,230 @@ import org.slf4j.LoggerFactory;
 //                               |                                |
 //                  [Message Processor Span E]     [Message Processor Span F]
 //
+//	Pipeline and message processor spans are kept in a single flat index keyed by (trace id, 
+//	pipeline id, location, execution id); the per-trace record holds the root span and the open
+//	pipeline spans, and each pipeline span its open message processor spans, so the spans left 
+//	open by a missing end notification are ended without walking the index.  Spans are removed 
+//	from the index as soon as they end, and lookups for spans that are not (or no longer) in the
+//	store are no-ops rather than failures.
+//
+//	Once started, traces and pipelines still open after their time to live (e.g., because the 
+//	PROCESS_COMPLETE notification was never delivered) are evicted by a timer wheel and their 
+//	spans ended with an evicted status.  Above the maximum number of in-flight traces, new traces
+//	only get their root span.
+//
+//	With tail sampling, the spans of a trace are held (not ended) until the trace ends or is 
+//	evicted, and the TailSampler then decides whether they are exported (see TailSampler).
+//
+//	With span compaction, message processor spans shorter than the minimum duration and not 
+//	failed are never ended (hence never exported, nor held by the tail sampler); their pipeline
+//	span gets a count and total duration per component instead.
 //------------------------------------------------------------------------------------------------
 
 public class MuleSoftTraceStore
 {
-	@SuppressWarnings("unused")
 	private static Logger logger = LoggerFactory.getLogger(MuleSoftTraceStore.class);
+	
+	private static final int    EXPIRY_WHEEL_SLOTS = 512;
+	private static final String EVICTED_STATUS     = "evicted";
 
 	//------------------------------------------------------------------------
-	//	Collection of MuleSoftTraces persisted as a simple hash map
+	//	In-flight MuleSoftTraces, by trace id
+	//------------------------------------------------------------------------
+	private final Map<String, MuleSoftTrace> muleSoftTraces = new ConcurrentHashMap<>();
+	
+	//------------------------------------------------------------------------
+	//	Open pipeline and message processor spans of all in-flight traces
+	//------------------------------------------------------------------------
+	private final Map<SpanKey, SpanHandle> spans = new ConcurrentHashMap<>();
+	
+	//------------------------------------------------------------------------
+	//	Eviction and admission control (see start)
 	//------------------------------------------------------------------------
-	private Map<String, MuleSoftTrace> muleSoftTraces = new ConcurrentHashMap<>();
+	private volatile long                traceTimeToLive;
+	private volatile Map<String, Long>   flowTimeToLives = Collections.emptyMap();
+	private volatile int                 maxInFlightTraces;
+	private volatile ExpiryWheel<Object> expiryWheel;
+	private ScheduledExecutorService     expiryScheduler;
+	private volatile Consumer<String>    traceEvictionListener;
+	private volatile TailSampler         tailSampler;
+	private volatile long                minProcessorSpanDuration;
+	
+	private final AtomicInteger admittedTraces       = new AtomicInteger();
+	private final LongAdder     rootSpanOnlyTraces   = new LongAdder();
+	private final LongAdder     unsampledTraces      = new LongAdder();
+	private final LongAdder     evictedTraces        = new LongAdder();
+	private final LongAdder     evictedPipelines     = new LongAdder();
+	private final LongAdder     compactedSpans       = new LongAdder();
+	private final LongAdder     droppedLoggerOutputs = new LongAdder();
+	private final LongAdder[]   tailSampledTraces    = { new LongAdder(), new LongAdder(), new LongAdder() };
 	
 	//------------------------------------------------------------------------
-	//	Nested class for storing all MuleSoft spans (pipeline and message 
-	//	processor) associated with a MuleSoft trace.
+	//	Nested class holding the trace level state of a MuleSoft trace.
 	//------------------------------------------------------------------------
-	private class MuleSoftTrace
+	private static class MuleSoftTrace
 	{
-		private Span traceRootSpan;
+		private final String traceId;
+		private final String rootPipelineId;
+		private final Instant startInstant;
+		private final Span traceRootSpan;
+		private final boolean sampled;
+		private final boolean rootSpanOnly;
+		private final HeldTrace heldTrace;
+		private final Set<SpanHandle> openPipelines = ConcurrentHashMap.newKeySet();
+		private final AtomicInteger spanCount = new AtomicInteger();
+		private final AtomicInteger loggerOutputs = new AtomicInteger();
+		private volatile long deadline;
+		private volatile ExpiryWheel.Entry<Object> expiry;
 		
-		private Map<String, PipelineSpan> pipelineSpans = new ConcurrentHashMap<>();
-		
-		private MuleSoftTrace(String rootSpanId, Span rootSpan)
+		private MuleSoftTrace(String traceId, String rootPipelineId, Instant startInstant, Span rootSpan, 
+		                      boolean sampled, boolean rootSpanOnly, HeldTrace heldTrace)
 		{
+			this.traceId = traceId;
+			this.rootPipelineId = rootPipelineId;
+			this.startInstant = startInstant;
 			this.traceRootSpan = rootSpan;
-			pipelineSpans.put(rootSpanId, new PipelineSpan(rootSpan));
+			this.sampled = sampled;
+			this.rootSpanOnly = rootSpanOnly;
+			this.heldTrace = heldTrace;
 		}
 		
+		//--------------------------------------------------------------------
+		//	Unsampled traces and traces above the in-flight limit do not get 
+		//	pipeline or message processor spans
+		//--------------------------------------------------------------------
+		private boolean isRootSpanOnly()
+		{
+			return rootSpanOnly || !sampled;
+		}
 		
 		private Span getRootSpan()
 		{
 			return traceRootSpan;
 		}
 		
-		
-		private boolean isPipelineSpansEmpty()
+		private void extendDeadline(long newDeadline)
 		{
-			return pipelineSpans.isEmpty();
+			if (newDeadline > deadline)
+				deadline = newDeadline;
 		}
 		
-		private void putPipelineSpan(String pipelineSpanId, Span pipelineSpan)
+		private void cancelExpiry()
 		{
-			pipelineSpans.put(pipelineSpanId, new PipelineSpan(pipelineSpan));
+			ExpiryWheel.Entry<Object> entry = expiry;
+			
+			if (entry != null)
+				entry.cancel();
 		}
+	}
+	
+	//------------------------------------------------------------------------
+	//	Lifecycle
+	//------------------------------------------------------------------------
+	/**
+	 * Start evicting orphaned traces and limiting the number of in-flight traces.  Restarts the
+	 * eviction if it is already running.
+	 * 
+	 * @param traceStoreConfig - time to live and in-flight limits
+	 */
+	public synchronized void start(TraceStoreConfig traceStoreConfig)
+	{
+		start(traceStoreConfig, null);
+	}
+	
+	/**
+	 * Start evicting orphaned traces, limiting the number of in-flight traces and, when enabled, 
+	 * tail sampling the traces started from now on.  Restarts the eviction if it is already running.
+	 * 
+	 * @param traceStoreConfig - time to live and in-flight limits
+	 * @param tailSamplingConfig - tail sampling policies, may be null
+	 */
+	public synchronized void start(TraceStoreConfig traceStoreConfig, TailSamplingConfig tailSamplingConfig)
+	{
+		stop();
 		
-		private PipelineSpan removePipelineSpan(String pipelineSpanId)
+		if (tailSamplingConfig != null && tailSamplingConfig.getEnableTailSampling())
 		{
-			return pipelineSpans.remove(pipelineSpanId);
+			tailSampler = new TailSampler(tailSamplingConfig);
+			logger.info("Tail sampling is ENABLED, {}", tailSampler);
 		}
 		
-		private PipelineSpan getPipelineSpan(String pipelineSpanId)
-		{
-			return pipelineSpans.get(pipelineSpanId);
-		}
-
-		private void end()
+		if (traceStoreConfig == null)
+			return;
+		
+		traceTimeToLive   = traceStoreConfig.getTraceTimeToLive();
+		flowTimeToLives   = traceStoreConfig.getFlowTimeToLiveMap();
+		maxInFlightTraces = traceStoreConfig.getMaxInFlightTraces();
+		
+		if (traceTimeToLive <= 0)
 		{
-			pipelineSpans.forEach((id, pipelineSpan) -> pipelineSpan.end());
-			//traceRootSpan.end();
+			logger.info("Trace eviction is DISABLED");
+			return;
 		}
-
+		
+		long interval = (traceStoreConfig.getEvictionCheckInterval() > 0) ? traceStoreConfig.getEvictionCheckInterval() : 1000;
+		
+		expiryWheel = new ExpiryWheel<>(interval, EXPIRY_WHEEL_SLOTS, System.currentTimeMillis());
+		
 		//--------------------------------------------------------------------
-		//	Nested class for storing all MuleSoft processor spans associated 
-		//	with a MuleSoft pipeline span.
+		//	Traces already in flight are scheduled with the new time to live
 		//--------------------------------------------------------------------
-		private class PipelineSpan
+		long now = System.currentTimeMillis();
+		
+		muleSoftTraces.forEach((id, muleSoftTrace) -> 
 		{
-			private Span pipelineRootSpan;
-			private Map<String, Span> messageProcessorSpans = new ConcurrentHashMap<>();
-			
-			private PipelineSpan(Span rootSpan)
-			{
-				this.pipelineRootSpan = rootSpan;
-			}
+			muleSoftTrace.extendDeadline(now + traceTimeToLive);
+			muleSoftTrace.expiry = expiryWheel.schedule(muleSoftTrace, muleSoftTrace.deadline);
+		});
+		
+		expiryScheduler = Executors.newSingleThreadScheduledExecutor((r) -> 
+		{
+			Thread thread = new Thread(r, "otel-agent-trace-expiry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		expiryScheduler.scheduleWithFixedDelay(this::expire, interval, interval, TimeUnit.MILLISECONDS);
+		
+		logger.info("Evicting traces open for more than {} ms (flow overrides: {}), maximum in-flight traces: {}", 
+		            traceTimeToLive, flowTimeToLives, (maxInFlightTraces > 0) ? maxInFlightTraces : "unlimited");
+	}
 	
-			private Span getRootSpan()
-			{
-				return pipelineRootSpan;
-			}
-			
-			private void putSpan(String spanId, Span span)
-			{
-				this.messageProcessorSpans.put(spanId, span);
-			}
-			
-			private Span getSpan(String spanID)
-			{
-				return this.messageProcessorSpans.get(spanID);			
-			}
-			
-			private void endSpan(String spanId, Instant endInstant)
-			{
-				Span messageProcessorSpan = messageProcessorSpans.get(spanId);
-				messageProcessorSpan.end(endInstant);
-			}
-			
-			private void end()
-			{
-				end(Instant.now(), null);
-			}
-			
-			private void end(Instant endInstant, Exception e)
-			{
-				messageProcessorSpans.forEach((id, span) -> span.end());
-				
-				if (e != null)
-				{
-					pipelineRootSpan.setStatus(StatusCode.ERROR, e.getMessage());
-					pipelineRootSpan.recordException(e);
-				}
-				pipelineRootSpan.setAttribute(Constants.END_DATETIME_ATTRIBUTE, endInstant.toString());
-				pipelineRootSpan.end(endInstant);
-			}
+	/**
+	 * Release the per-trace state kept outside the store when a trace is evicted, since its flow
+	 * end notification, which releases it otherwise, never arrived.
+	 * 
+	 * @param traceEvictionListener - called with the MuleSoft trace id of each evicted trace, 
+	 *                                replaces the current listener
+	 */
+	public void setTraceEvictionListener(Consumer<String> traceEvictionListener)
+	{
+		this.traceEvictionListener = traceEvictionListener;
+	}
+	
+	/**
+	 * Compact the message processor spans shorter than {@code minProcessorSpanDuration} into 
+	 * their pipeline span.
+	 * 
+	 * @param minProcessorSpanDuration - in ms, 0 to export every message processor span
+	 */
+	public void setMinProcessorSpanDuration(long minProcessorSpanDuration)
+	{
+		this.minProcessorSpanDuration = Math.max(minProcessorSpanDuration, 0);
+		
+		if (minProcessorSpanDuration > 0)
+			logger.info("Compacting message processor spans shorter than {} ms", minProcessorSpanDuration);
+	}
+	
+	public synchronized void stop()
+	{
+		tailSampler = null;
+		
+		if (expiryScheduler != null)
+		{
+			expiryScheduler.shutdownNow();
+			expiryScheduler = null;
 		}
+		expiryWheel = null;
 	}
 
 	//------------------------------------------------------------------------
@@ -159,6 +283,32 @@ public class MuleSoftTraceStore
 	{
 		return muleSoftTraces.containsKey(mulesoftTraceId);
 	}
+	
+	/**
+	 * 
+	 * @param mulesoftTraceId
+	 * @return <b>true</b> if the trace was not sampled or was started above the in-flight trace 
+	 *         limit, and therefore only gets its root span; else false
+	 */
+	public boolean isRootSpanOnly(String mulesoftTraceId)
+	{
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
+		
+		return (muleSoftTrace != null) && muleSoftTrace.isRootSpanOnly();
+	}
+	
+	/**
+	 * 
+	 * @param mulesoftTraceId
+	 * @return <b>true</b> if the head sampler decided to record the trace; else false, also when 
+	 *         the trace is not in the store
+	 */
+	public boolean isSampled(String mulesoftTraceId)
+	{
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
+		
+		return (muleSoftTrace != null) && muleSoftTrace.sampled;
+	}
 
 	/**
 	 * 
@@ -168,12 +318,39 @@ public class MuleSoftTraceStore
 	 */
 	public boolean isPipelineSpansEmpty(String mulesoftTraceId)
 	{
-		return muleSoftTraces.get(mulesoftTraceId).isPipelineSpansEmpty();
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
+		
+		return (muleSoftTrace == null) || muleSoftTrace.openPipelines.isEmpty();
+	}
+	
+	/**
+	 * Reserve one Logger output for the trace.  Outputs are only captured for the traces which get
+	 * message processor spans, and at most {@code maxLoggerOutputs} times per trace.
+	 * 
+	 * @param mulesoftTraceId
+	 * @param maxLoggerOutputs - Logger outputs captured per trace, 0 for no limit
+	 * @return <b>true</b> if the Logger output of this trace may be captured; else false
+	 */
+	public boolean tryAddLoggerOutput(String mulesoftTraceId, int maxLoggerOutputs)
+	{
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
+		
+		if (muleSoftTrace == null || muleSoftTrace.isRootSpanOnly())
+			return false;
+		
+		if (maxLoggerOutputs > 0 && muleSoftTrace.loggerOutputs.incrementAndGet() > maxLoggerOutputs)
+		{
+			droppedLoggerOutputs.increment();
+			return false;
+		}
+		return true;
 	}
 	
 	/**
 	 * Create a new MuleSoftTrace with id {@code mulesoftTraceid} and set {@code rootSpan} as 
-	 * the overall uber (root/parent) span
+	 * the overall uber (root/parent) span.  The sampling decision made when the root span was 
+	 * started is kept with the trace:  an unsampled trace does not count against the in-flight 
+	 * trace limit and only gets its root span.
 	 * 
 	 * @param mulesoftTraceId - unique id for this trace
 	 * @param rootSpanId - unique id for the root (parent) span for this trace
@@ -181,31 +358,102 @@ public class MuleSoftTraceStore
 	 */
 	public void startTrace(String mulesoftTraceId, String rootSpanId, Span rootSpan)
 	{
-		muleSoftTraces.put(mulesoftTraceId, new MuleSoftTrace(rootSpanId, rootSpan));
+		startTrace(mulesoftTraceId, rootSpanId, rootSpan, Instant.now());
 	}
 	
-	public Context getTraceContextFor(String mulesoftTraceId)
+	/**
+	 * @param mulesoftTraceId - unique id for this trace
+	 * @param rootSpanId - unique id for the root (parent) span for this trace
+	 * @param rootSpan - the parent {@link Span}
+	 * @param startInstant - start time of the root span, for the tail sampling latency policy
+	 * @see #startTrace(String, String, Span)
+	 */
+	public void startTrace(String mulesoftTraceId, String rootSpanId, Span rootSpan, Instant startInstant)
 	{
-		Context context = Context.current();
+		//--------------------------------------------------------------------
+		//	A span recorded but not sampled (RECORD_ONLY) is still seen by the 
+		//	span processors, so it is handled as sampled
+		//--------------------------------------------------------------------
+		boolean sampled = rootSpan.isRecording();
+		boolean rootSpanOnly = sampled && !admit();
+		TailSampler sampler = tailSampler;
+		HeldTrace heldTrace = (sampled && sampler != null) ? sampler.startTrace() : null;
+		MuleSoftTrace muleSoftTrace = new MuleSoftTrace(mulesoftTraceId, rootSpanId, startInstant, rootSpan, 
+		                                                sampled, rootSpanOnly, heldTrace);
+		
+		if (!sampled)
+			unsampledTraces.increment();
+		else if (rootSpanOnly)
+			rootSpanOnlyTraces.increment();
+		
+		SpanKey key = new SpanKey(mulesoftTraceId, rootSpanId, rootSpanId);
+		SpanHandle rootHandle = new SpanHandle(key, rootSpan, null, null, heldTrace);
 		
-		if (isTracePresent(mulesoftTraceId))
+		muleSoftTrace.openPipelines.add(rootHandle);
+		
+		ExpiryWheel<Object> wheel = expiryWheel;
+		
+		if (wheel != null)
 		{
-			context = muleSoftTraces.get(mulesoftTraceId).getRootSpan().storeInContext(Context.current());
+			muleSoftTrace.deadline = System.currentTimeMillis() + timeToLiveFor(rootSpanId);
+			muleSoftTrace.expiry = wheel.schedule(muleSoftTrace, muleSoftTrace.deadline);
 		}
-
-		return context;
+		
+		MuleSoftTrace previous = muleSoftTraces.put(mulesoftTraceId, muleSoftTrace);
+		
+		if (previous != null)
+		{
+			//----------------------------------------------------------------
+			//	Another request of the same correlation id (e.g., the same 
+			//	X-Correlation-ID) replaced the trace:  end its open spans, 
+			//	before the new root span can take the key of its root span
+			//----------------------------------------------------------------
+			previous.cancelExpiry();
+			release(previous);
+			previous.spanCount.addAndGet(sweepPipelines(previous, Instant.now(), true));
+			decide(previous);
+		}
+		
+		spans.put(key, rootHandle);
+	}
+	
+	public Context getTraceContextFor(String mulesoftTraceId)
+	{
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
+		
+		return (muleSoftTrace != null) ? muleSoftTrace.getRootSpan().storeInContext(Context.current())
+		                               : Context.current();
 	}
 	
 	/**
 	 * 	Remove the trace with id {@code mulesoftTraceid} from the store. Also, close off the trace 
-	 *  by ending each span within the trace.
+	 *  by ending each span within the trace still open.
 	 *  
 	 *  @param mulesoftTraceId - unique id for this trace
+	 *  @return number of spans created for the trace, 0 if the trace is not in the store
 	 */
-	public void endTrace(String mulesoftTraceId)
+	public int endTrace(String mulesoftTraceId)
 	{
 		MuleSoftTrace muleSoftTrace = muleSoftTraces.remove(mulesoftTraceId);
-		muleSoftTrace.end();
+		
+		if (muleSoftTrace == null)
+			return 0;
+		
+		muleSoftTrace.cancelExpiry();
+		release(muleSoftTrace);
+		
+		if (!muleSoftTrace.openPipelines.isEmpty())
+		{
+			//----------------------------------------------------------------
+			//	Rare path: pipelines which never received their end 
+			//	notification
+			//----------------------------------------------------------------
+			muleSoftTrace.spanCount.addAndGet(sweepPipelines(muleSoftTrace, Instant.now(), false));
+		}
+		
+		decide(muleSoftTrace);
+		
+		return muleSoftTrace.spanCount.get();
 	}
 
 	//------------------------------------------------------------------------
@@ -215,10 +463,34 @@ public class MuleSoftTraceStore
 	{
 		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
 		
+		if (muleSoftTrace == null || muleSoftTrace.isRootSpanOnly())
+			return;
+		
 		Span newSpan = spanBuilder.setParent(Context.current().with(muleSoftTrace.getRootSpan()))
 				                  .startSpan();
 		
-		muleSoftTrace.putPipelineSpan(pipelineId, newSpan);
+		SpanKey key = new SpanKey(mulesoftTraceId, pipelineId, pipelineId);
+		SpanHandle handle = new SpanHandle(key, newSpan, null, null, muleSoftTrace.heldTrace);
+		ExpiryWheel<Object> wheel = expiryWheel;
+		
+		if (wheel != null)
+		{
+			long deadline = System.currentTimeMillis() + timeToLiveFor(pipelineId);
+			
+			muleSoftTrace.extendDeadline(deadline);
+			handle.setExpiry(wheel.schedule(handle, deadline));
+		}
+		
+		muleSoftTrace.openPipelines.add(handle);
+		
+		SpanHandle previous = spans.put(key, handle);
+		
+		if (previous != null)
+		{
+			muleSoftTrace.openPipelines.remove(previous);
+			previous.cancelExpiry();
+			endPipeline(previous, Instant.now(), null, false);
+		}
 	}
 	
 	public void endPipelineSpan(String mulesoftTraceId, String pipelineId)
@@ -228,39 +500,476 @@ public class MuleSoftTraceStore
 	
 	public void endPipelineSpan(String mulesoftTraceId, String pipelineId, Instant endInstant, Exception e)
 	{
+		SpanHandle pipelineSpan = spans.remove(new SpanKey(mulesoftTraceId, pipelineId, pipelineId));
+		
+		if (pipelineSpan == null)
+		{
+			logger.debug("No open pipeline span for trace {} and pipeline {}", mulesoftTraceId, pipelineId);
+			return;
+		}
+		
+		pipelineSpan.cancelExpiry();
+		
 		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
-		MuleSoftTrace.PipelineSpan pipelineSpan = muleSoftTrace.removePipelineSpan(pipelineId);
-		pipelineSpan.end(endInstant, e);		
+		
+		if (muleSoftTrace != null)
+		{
+			muleSoftTrace.openPipelines.remove(pipelineSpan);
+			muleSoftTrace.spanCount.addAndGet(pipelineSpan.getSpanCount());
+		}
+		
+		if (pipelineSpan.hasOpenChildren())
+			sweepProcessors(pipelineSpan, endInstant, false);
+		
+		endPipeline(pipelineSpan, endInstant, e, false);
 	}
 	
 	//------------------------------------------------------------------------
 	//	Helper Methods for Message Processor Spans
 	//------------------------------------------------------------------------
-	public void addMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
-			                            String messageProcessorId, SpanBuilder spanBuilder)
+	/**
+	 * Start a message processor span as a child of the pipeline span {@code pipelineId}
+	 * 
+	 * @param mulesoftTraceId - unique id for this trace
+	 * @param pipelineId - id of the pipeline (flow) the processor belongs to
+	 * @param messageProcessorId - location of the message processor
+	 * @param spanBuilder - builder for the new span
+	 * @param parser - the parser handling the processor notifications
+	 * @return the handle of the started span, or <b>null</b> when the pipeline span is not in the 
+	 *         store
+	 */
+	public SpanHandle addMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
+			                                  String messageProcessorId, SpanBuilder spanBuilder,
+			                                  NotificationParser parser)
 	{
-		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(mulesoftTraceId);
-		MuleSoftTrace.PipelineSpan pipelineSpan = muleSoftTrace.getPipelineSpan(pipelineId);
+		return addMessageProcessorSpan(mulesoftTraceId, pipelineId, messageProcessorId, null, spanBuilder, parser, null, 0);
+	}
+	
+	/**
+	 * Start a message processor span of one execution of the processor, which may be compacted 
+	 * when it ends
+	 * 
+	 * @param executionId - id of the execution (event context) of the processor, tells apart the 
+	 *                      concurrent executions of a processor in a trace;  may be null
+	 * @param componentId - component the span is compacted under (e.g., ee:transform), null to 
+	 *                      never compact the span
+	 * @param startMillis - start time of the message processor
+	 * @see #addMessageProcessorSpan(String, String, String, SpanBuilder, NotificationParser)
+	 * @see #compactMessageProcessorSpan(SpanHandle, long)
+	 */
+	public SpanHandle addMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
+			                                  String messageProcessorId, String executionId, SpanBuilder spanBuilder,
+			                                  NotificationParser parser, String componentId, long startMillis)
+	{
+		SpanHandle pipelineSpan = spans.get(new SpanKey(mulesoftTraceId, pipelineId, pipelineId));
+		
+		if (pipelineSpan == null)
+			return null;
 		
 		Span newMessageProcessorSpan = spanBuilder.setParent(Context.current()
-				                                                    .with(pipelineSpan
-				                                                    .getRootSpan()))
+				                                                    .with(pipelineSpan.getSpan()))
 				                                  .startSpan();
-				
-		pipelineSpan.putSpan(messageProcessorId, newMessageProcessorSpan);
+		
+		SpanKey key = new SpanKey(mulesoftTraceId, pipelineId, messageProcessorId, executionId);
+		SpanHandle handle = new SpanHandle(key, newMessageProcessorSpan, parser, pipelineSpan, pipelineSpan.getHeldTrace(),
+		                                   componentId, startMillis);
+		
+		pipelineSpan.childStarted(handle);
+		
+		SpanHandle previous = spans.put(key, handle);
+		
+		if (previous != null)
+			previous.end(Instant.now(), false);
+		
+		return handle;
 	}
 
 	public Span getMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
 			                            String messageProcessorId)
 	{
-		return muleSoftTraces.get(mulesoftTraceId)
-				             .getPipelineSpan(pipelineId)
-				             .getSpan(messageProcessorId);
+		SpanHandle handle = spans.get(new SpanKey(mulesoftTraceId, pipelineId, messageProcessorId));
+		
+		return (handle != null) ? handle.getSpan() : null;
+	}
+	
+	/**
+	 * Remove a message processor span from the store without ending it.  The caller is expected
+	 * to complete the span and then pass the handle to {@link #endMessageProcessorSpan(SpanHandle, Instant)}.
+	 * 
+	 * @return the handle of the span, or <b>null</b> when it is not in the store
+	 */
+	public SpanHandle removeMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
+	                                             String messageProcessorId)
+	{
+		return removeMessageProcessorSpan(mulesoftTraceId, pipelineId, messageProcessorId, null);
+	}
+	
+	/**
+	 * @param executionId - id of the execution the span was started with
+	 * @see #removeMessageProcessorSpan(String, String, String)
+	 */
+	public SpanHandle removeMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
+	                                             String messageProcessorId, String executionId)
+	{
+		return spans.remove(new SpanKey(mulesoftTraceId, pipelineId, messageProcessorId, executionId));
+	}
+	
+	/**
+	 * Compact a message processor span which ended successfully, if it is shorter than the minimum
+	 * message processor span duration.  A compacted span is not ended, and must not be passed to
+	 * {@link #endMessageProcessorSpan(SpanHandle, Instant, Exception)}.
+	 * 
+	 * @param messageProcessorSpan - handle returned by {@link #removeMessageProcessorSpan}
+	 * @param endMillis - end time of the message processor
+	 * @return <b>true</b> if the span was compacted into its pipeline span; else false
+	 */
+	public boolean compactMessageProcessorSpan(SpanHandle messageProcessorSpan, long endMillis)
+	{
+		long minDuration = minProcessorSpanDuration;
+		
+		if (minDuration <= 0 || messageProcessorSpan.getComponentId() == null)
+			return false;
+		
+		long durationMillis = endMillis - messageProcessorSpan.getStartMillis();
+		
+		if (durationMillis >= minDuration)
+			return false;
+		
+		messageProcessorSpan.compact(Math.max(durationMillis, 0));
+		compactedSpans.increment();
+		
+		return true;
+	}
+	
+	public void endMessageProcessorSpan(SpanHandle messageProcessorSpan, Instant endInstant)
+	{
+		endMessageProcessorSpan(messageProcessorSpan, endInstant, null);
+	}
+	
+	/**
+	 * @param messageProcessorSpan - handle returned by {@link #removeMessageProcessorSpan}, may be null
+	 * @param endInstant - end time of the span
+	 * @param e - exception of a failed message processor, may be null
+	 */
+	public void endMessageProcessorSpan(SpanHandle messageProcessorSpan, Instant endInstant, Exception e)
+	{
+		if (messageProcessorSpan != null)
+			messageProcessorSpan.end(endInstant, e != null);
 	}
 	
 	public void endMessageProcessorSpan(String mulesoftTraceId, String pipelineId, 
                                         String messageProcessorId, Instant endInstant)
 	{
-		muleSoftTraces.get(mulesoftTraceId).getPipelineSpan(pipelineId).endSpan(messageProcessorId, endInstant);
+		endMessageProcessorSpan(removeMessageProcessorSpan(mulesoftTraceId, pipelineId, messageProcessorId), 
+		                        endInstant);
+	}
+	
+	//------------------------------------------------------------------------
+	//	Store statistics
+	//------------------------------------------------------------------------
+	/**
+	 * @return number of traces in the store
+	 */
+	public int getInFlightTraceCount()
+	{
+		return muleSoftTraces.size();
+	}
+	
+	/**
+	 * @return number of open pipeline and message processor spans in the store
+	 */
+	public int getInFlightSpanCount()
+	{
+		return spans.size();
+	}
+	
+	/**
+	 * @return number of traces evicted since startup
+	 */
+	public long getEvictedTraceCount()
+	{
+		return evictedTraces.sum();
+	}
+	
+	/**
+	 * @return number of pipelines evicted since startup
+	 */
+	public long getEvictedPipelineCount()
+	{
+		return evictedPipelines.sum();
+	}
+	
+	/**
+	 * @return number of message processor spans compacted into their pipeline span since startup
+	 */
+	public long getCompactedSpanCount()
+	{
+		return compactedSpans.sum();
+	}
+	
+	/**
+	 * @return number of Logger outputs not captured since startup because their trace reached the
+	 *         per-trace limit
+	 */
+	public long getDroppedLoggerOutputCount()
+	{
+		return droppedLoggerOutputs.sum();
+	}
+	
+	/**
+	 * @return number of traces started above the in-flight trace limit since startup
+	 */
+	public long getRootSpanOnlyTraceCount()
+	{
+		return rootSpanOnlyTraces.sum();
+	}
+	
+	/**
+	 * @return number of traces kept by the tail sampler since startup
+	 */
+	public long getTailSamplingKeptTraceCount()
+	{
+		return tailSampledTraces[TailSampler.KEPT].sum();
+	}
+	
+	/**
+	 * @return number of traces dropped by the tail sampling policies since startup
+	 */
+	public long getTailSamplingDroppedTraceCount()
+	{
+		return tailSampledTraces[TailSampler.DROPPED].sum();
+	}
+	
+	/**
+	 * @return number of traces exported without a tail sampling decision since startup, because 
+	 *         their spans did not fit in the per-trace or global limit
+	 */
+	public long getTailSamplingOverflowTraceCount()
+	{
+		return tailSampledTraces[TailSampler.OVERFLOW].sum();
+	}
+	
+	/**
+	 * @return number of spans held by the tail sampler, 0 when tail sampling is disabled
+	 */
+	public int getTailSamplingHeldSpanCount()
+	{
+		TailSampler sampler = tailSampler;
+		
+		return (sampler != null) ? sampler.getHeldSpanCount() : 0;
+	}
+	
+	/**
+	 * @return number of traces not recorded since startup, decided by the head sampler or started 
+	 *         above the rate limit of their flow
+	 */
+	public long getUnsampledTraceCount()
+	{
+		return unsampledTraces.sum();
+	}
+	
+	//------------------------------------------------------------------------
+	//	Private Helper Methods
+	//------------------------------------------------------------------------
+	private long timeToLiveFor(String pipelineId)
+	{
+		Long timeToLive = flowTimeToLives.get(pipelineId);
+		
+		return (timeToLive != null) ? timeToLive : traceTimeToLive;
+	}
+	
+	private boolean admit()
+	{
+		int max = maxInFlightTraces;
+		
+		while (true)
+		{
+			int admitted = admittedTraces.get();
+			
+			if (max > 0 && admitted >= max)
+				return false;
+			
+			if (admittedTraces.compareAndSet(admitted, admitted + 1))
+				return true;
+		}
+	}
+	
+	private void release(MuleSoftTrace muleSoftTrace)
+	{
+		if (muleSoftTrace.sampled && !muleSoftTrace.rootSpanOnly)
+			admittedTraces.decrementAndGet();
+	}
+	
+	private void decide(MuleSoftTrace muleSoftTrace)
+	{
+		if (muleSoftTrace.heldTrace != null)
+		{
+			int decision = muleSoftTrace.heldTrace.decide(muleSoftTrace.rootPipelineId, muleSoftTrace.startInstant, 
+			                                              muleSoftTrace.getRootSpan());
+			
+			tailSampledTraces[decision].increment();
+		}
+	}
+	
+	private void endPipeline(SpanHandle pipelineSpan, Instant endInstant, Exception e, boolean evicted)
+	{
+		Span span = pipelineSpan.getSpan();
+		
+		if (evicted)
+		{
+			markEvicted(span);
+		}
+		else if (e != null)
+		{
+			span.setStatus(StatusCode.ERROR, e.getMessage());
+			span.recordException(e);
+		}
+		span.setAttribute(MuleAttributeKeys.END_DATETIME, endInstant.toString());
+		pipelineSpan.recordCompactedSpans(endInstant);
+		pipelineSpan.end(endInstant, evicted || e != null);
+	}
+	
+	private void markEvicted(Span span)
+	{
+		span.setStatus(StatusCode.ERROR, EVICTED_STATUS);
+		span.setAttribute(MuleAttributeKeys.SPAN_EVICTED, true);
+	}
+	
+	//------------------------------------------------------------------------
+	//	End and remove the open message processor spans of a pipeline, for 
+	//	spans whose end notification never arrived
+	//------------------------------------------------------------------------
+	private void sweepProcessors(SpanHandle pipelineSpan, Instant endInstant, boolean evicted)
+	{
+		for (SpanHandle handle : pipelineSpan.getOpenChildren())
+		{
+			if (spans.remove(handle.getKey(), handle))
+			{
+				if (evicted)
+					markEvicted(handle.getSpan());
+				
+				handle.end(endInstant, evicted);
+			}
+		}
+	}
+	
+	//------------------------------------------------------------------------
+	//	End and remove the open pipeline spans of a trace, each after its open
+	//	message processor spans.  Returns the number of spans created under 
+	//	the pipelines ended.
+	//------------------------------------------------------------------------
+	private int sweepPipelines(MuleSoftTrace muleSoftTrace, Instant endInstant, boolean evicted)
+	{
+		int spanCount = 0;
+		
+		for (SpanHandle pipelineSpan : muleSoftTrace.openPipelines)
+		{
+			muleSoftTrace.openPipelines.remove(pipelineSpan);
+			
+			if (spans.remove(pipelineSpan.getKey(), pipelineSpan))
+			{
+				pipelineSpan.cancelExpiry();
+				sweepProcessors(pipelineSpan, endInstant, evicted);
+				spanCount += pipelineSpan.getSpanCount();
+				endPipeline(pipelineSpan, endInstant, null, evicted);
+			}
+		}
+		
+		return spanCount;
+	}
+	
+	//------------------------------------------------------------------------
+	//	Timer wheel tick: evict the traces and pipelines past their deadline
+	//------------------------------------------------------------------------
+	private void expire()
+	{
+		ExpiryWheel<Object> wheel = expiryWheel;
+		
+		if (wheel == null)
+			return;
+		
+		try
+		{
+			wheel.advance(System.currentTimeMillis(), (entry) -> 
+			{
+				if (entry instanceof MuleSoftTrace)
+					evictTrace(wheel, (MuleSoftTrace) entry);
+				else
+					evictPipeline((SpanHandle) entry);
+			});
+		}
+		catch (Exception e)
+		{
+			logger.debug(e.getMessage());
+		}
+	}
+	
+	private void evictTrace(ExpiryWheel<Object> wheel, MuleSoftTrace muleSoftTrace)
+	{
+		long now = System.currentTimeMillis();
+		
+		//--------------------------------------------------------------------
+		//	The deadline moves out when pipelines are added to the trace
+		//--------------------------------------------------------------------
+		if (muleSoftTrace.deadline > now)
+		{
+			muleSoftTrace.expiry = wheel.schedule(muleSoftTrace, muleSoftTrace.deadline);
+			return;
+		}
+		
+		if (!muleSoftTraces.remove(muleSoftTrace.traceId, muleSoftTrace))
+			return;
+		
+		release(muleSoftTrace);
+		evictedTraces.increment();
+		
+		logger.debug("Evicting trace {} after its time to live expired", muleSoftTrace.traceId);
+		
+		Instant endInstant = Instant.ofEpochMilli(now);
+		
+		sweepPipelines(muleSoftTrace, endInstant, true);
+		
+		decide(muleSoftTrace);
+		
+		//--------------------------------------------------------------------
+		//	Per-trace state kept outside the store, e.g., by the metrics
+		//--------------------------------------------------------------------
+		Consumer<String> listener = traceEvictionListener;
+		
+		if (listener != null)
+		{
+			try
+			{
+				listener.accept(muleSoftTrace.traceId);
+			}
+			catch (Exception e)
+			{
+				logger.debug(e.getMessage());
+			}
+		}
+	}
+	
+	private void evictPipeline(SpanHandle pipelineSpan)
+	{
+		SpanKey key = pipelineSpan.getKey();
+		
+		if (!spans.remove(key, pipelineSpan))
+			return;
+		
+		MuleSoftTrace muleSoftTrace = muleSoftTraces.get(key.getTraceId());
+		
+		if (muleSoftTrace != null)
+			muleSoftTrace.openPipelines.remove(pipelineSpan);
+		
+		evictedPipelines.increment();
+		
+		logger.debug("Evicting pipeline {} of trace {} after its time to live expired", key.getPipelineId(), key.getTraceId());
+		
+		Instant endInstant = Instant.now();
+		
+		if (pipelineSpan.hasOpenChildren())
+			sweepProcessors(pipelineSpan, endInstant, true);
+		
+		endPipeline(pipelineSpan, endInstant, null, true);
 	}
 }
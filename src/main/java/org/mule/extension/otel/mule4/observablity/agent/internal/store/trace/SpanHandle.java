@@ -0,0 +1,241 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.trace;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.parser.service.provider.NotificationParser;
+import org.mule.extension.otel.mule4.observablity.agent.internal.store.trace.TailSampler.HeldTrace;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.Constants;
+import org.mule.extension.otel.mule4.observablity.agent.internal.util.MuleAttributeKeys;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+
+//------------------------------------------------------------------------------------------------
+//	A started pipeline or message processor span, as held in the MuleSoftTraceStore span index.  
+//	Message processor handles also carry the parser chosen at start time so the end notification
+//	is handled without a second parser lookup.  The spans of a tail sampled trace share the holder
+//	their end is deferred to.
+//
+//	Pipeline handles also hold their open message processor spans, so the spans left open when a
+//	pipeline ends abnormally are found without walking the index, and count and time the message
+//	processor spans compacted under them, per component; the totals are added as events when the 
+//	pipeline span ends.
+//------------------------------------------------------------------------------------------------
+/**
+ * Handle to a span started through the {@link MuleSoftTraceStore}.
+ */
+public final class SpanHandle
+{
+	private final SpanKey            key;
+	private final Span               span;
+	private final NotificationParser parser;
+	private final SpanHandle         parent;
+	private final HeldTrace          heldTrace;
+	private final String             componentId;
+	private final long               startMillis;
+	
+	//------------------------------------------------------------------------
+	//	Processor spans still open under a pipeline span, created on the 
+	//	first child; the store only sweeps these when a pipeline ends with 
+	//	open children.
+	//------------------------------------------------------------------------
+	private volatile Set<SpanHandle> openChildren;
+	private final AtomicInteger      startedChildren = new AtomicInteger();
+	
+	//------------------------------------------------------------------------
+	//	Compacted message processor spans by component id, {count, total ms};
+	//	created on the first compaction
+	//------------------------------------------------------------------------
+	private Map<String, long[]> compactedSpans;
+	
+	//------------------------------------------------------------------------
+	//	Expiry of a pipeline span, cancelled when it ends normally
+	//------------------------------------------------------------------------
+	private volatile ExpiryWheel.Entry<Object> expiry;
+	
+	SpanHandle(SpanKey key, Span span, NotificationParser parser, SpanHandle parent, HeldTrace heldTrace)
+	{
+		this(key, span, parser, parent, heldTrace, null, 0);
+	}
+	
+	SpanHandle(SpanKey key, Span span, NotificationParser parser, SpanHandle parent, HeldTrace heldTrace,
+	           String componentId, long startMillis)
+	{
+		this.key = key;
+		this.span = span;
+		this.parser = parser;
+		this.parent = parent;
+		this.heldTrace = heldTrace;
+		this.componentId = componentId;
+		this.startMillis = startMillis;
+	}
+
+	/**
+	 * @return the started {@link Span}
+	 */
+	public Span getSpan()
+	{
+		return span;
+	}
+	
+	/**
+	 * @return the parser which handled the start notification of this span, or <b>null</b> for 
+	 *         pipeline spans
+	 */
+	public NotificationParser getParser()
+	{
+		return parser;
+	}
+	
+	SpanKey getKey()
+	{
+		return key;
+	}
+	
+	SpanHandle getParent()
+	{
+		return parent;
+	}
+	
+	HeldTrace getHeldTrace()
+	{
+		return heldTrace;
+	}
+	
+	/**
+	 * @return the component of a message processor span (e.g., mule:logger), null if the span is 
+	 *         never compacted
+	 */
+	public String getComponentId()
+	{
+		return componentId;
+	}
+	
+	long getStartMillis()
+	{
+		return startMillis;
+	}
+	
+	void childStarted(SpanHandle child)
+	{
+		Set<SpanHandle> children = openChildren;
+		
+		if (children == null)
+		{
+			synchronized (this)
+			{
+				if ((children = openChildren) == null)
+					openChildren = children = ConcurrentHashMap.newKeySet();
+			}
+		}
+		children.add(child);
+		startedChildren.incrementAndGet();
+	}
+	
+	void childEnded(SpanHandle child)
+	{
+		Set<SpanHandle> children = openChildren;
+		
+		if (children != null)
+			children.remove(child);
+	}
+	
+	/**
+	 * @return number of spans started under this span, plus one for the span itself
+	 */
+	int getSpanCount()
+	{
+		return startedChildren.get() + 1;
+	}
+	
+	boolean hasOpenChildren()
+	{
+		Set<SpanHandle> children = openChildren;
+		
+		return children != null && !children.isEmpty();
+	}
+	
+	/**
+	 * @return the message processor spans still open under this pipeline span; the set is live
+	 */
+	Iterable<SpanHandle> getOpenChildren()
+	{
+		Set<SpanHandle> children = openChildren;
+		
+		return (children != null) ? children : Collections.<SpanHandle>emptySet();
+	}
+	
+	void setExpiry(ExpiryWheel.Entry<Object> expiry)
+	{
+		this.expiry = expiry;
+	}
+	
+	/**
+	 * Remove the pipeline span from the expiry wheel, once it ended or was replaced
+	 */
+	void cancelExpiry()
+	{
+		ExpiryWheel.Entry<Object> entry = expiry;
+		
+		if (entry != null)
+			entry.cancel();
+	}
+	
+	//------------------------------------------------------------------------
+	//	The span of a compacted message processor is never ended, so it is not
+	//	exported; its pipeline keeps the count and duration instead
+	//------------------------------------------------------------------------
+	void compact(long durationMillis)
+	{
+		parent.childEnded(this);
+		parent.addCompacted(componentId, durationMillis);
+	}
+	
+	private synchronized void addCompacted(String compactedComponentId, long durationMillis)
+	{
+		if (compactedSpans == null)
+			compactedSpans = new LinkedHashMap<>();
+		
+		long[] totals = compactedSpans.computeIfAbsent(compactedComponentId, (id) -> new long[2]);
+		
+		totals[0]++;
+		totals[1] += durationMillis;
+	}
+	
+	synchronized void recordCompactedSpans(Instant endInstant)
+	{
+		if (compactedSpans == null)
+			return;
+		
+		long count = 0;
+		
+		for (Map.Entry<String, long[]> entry : compactedSpans.entrySet())
+		{
+			span.addEvent(Constants.COMPACTED_SPANS_EVENT, 
+			              Attributes.of(MuleAttributeKeys.COMPONENT_ID, entry.getKey(), 
+			                            MuleAttributeKeys.COMPACTED_COUNT, entry.getValue()[0],
+			                            MuleAttributeKeys.COMPACTED_DURATION, entry.getValue()[1]), 
+			              endInstant);
+			count += entry.getValue()[0];
+		}
+		span.setAttribute(MuleAttributeKeys.COMPACTED_SPANS, count);
+		compactedSpans = null;
+	}
+	
+	void end(Instant endInstant, boolean failed)
+	{
+		if (parent != null)
+			parent.childEnded(this);
+		
+		if (heldTrace != null)
+			heldTrace.end(span, endInstant, failed);
+		else
+			span.end(endInstant);
+	}
+}
@@ -0,0 +1,85 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.trace;
+
+//------------------------------------------------------------------------------------------------
+//	Composite key (trace id, pipeline id, location, execution id) of a span in the MuleSoftTraceStore
+//	span index.  The execution id (the event context id) tells apart the concurrent executions of 
+//	the same message processor in a trace, e.g., the routes of a scatter-gather or the iterations 
+//	of a parallel-foreach; it is null for pipeline spans.  The hash is computed once, when the key
+//	is created, as the key is hashed on every lookup of a processor span.
+//------------------------------------------------------------------------------------------------
+/**
+ * Immutable key of a pipeline or message processor span in the {@link MuleSoftTraceStore}.
+ */
+final class SpanKey
+{
+	private final String traceId;
+	private final String pipelineId;
+	private final String location;
+	private final String executionId;
+	private final int hash;
+
+	SpanKey(String traceId, String pipelineId, String location)
+	{
+		this(traceId, pipelineId, location, null);
+	}
+	
+	SpanKey(String traceId, String pipelineId, String location, String executionId)
+	{
+		this.traceId = traceId;
+		this.pipelineId = pipelineId;
+		this.location = location;
+		this.executionId = executionId;
+		
+		int h = (traceId != null) ? traceId.hashCode() : 0;
+		h = 31 * h + ((pipelineId != null) ? pipelineId.hashCode() : 0);
+		h = 31 * h + ((location != null) ? location.hashCode() : 0);
+		h = 31 * h + ((executionId != null) ? executionId.hashCode() : 0);
+		
+		this.hash = h;
+	}
+	
+	String getTraceId()
+	{
+		return traceId;
+	}
+	
+	String getPipelineId()
+	{
+		return pipelineId;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		
+		if (!(obj instanceof SpanKey))
+			return false;
+		
+		SpanKey other = (SpanKey) obj;
+		
+		return hash == other.hash
+			   && equal(location, other.location)
+			   && equal(executionId, other.executionId)
+			   && equal(pipelineId, other.pipelineId)
+			   && equal(traceId, other.traceId);
+	}
+	
+	private static boolean equal(String a, String b)
+	{
+		return (a == b) || (a != null && a.equals(b));
+	}
+
+	@Override
+	public String toString()
+	{
+		return traceId + "|" + pipelineId + "|" + location + ((executionId != null) ? "|" + executionId : "");
+	}
+}
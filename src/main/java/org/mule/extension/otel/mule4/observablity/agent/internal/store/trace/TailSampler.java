@@ -0,0 +1,253 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.store.trace;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.TailSamplingConfig;
+
+import io.opentelemetry.api.trace.Span;
+
+//------------------------------------------------------------------------------------------------
+//	Tail sampling of the traces held by the MuleSoftTraceStore.
+//
+//	The SDK hands a span to its span processors (and so to the batch span processor and the
+//	exporter) when the span is ended.  A tail sampled trace therefore does not end its spans when
+//	their end notification arrives:  the span and its end time are held by the trace until the
+//	trace completes, then either ended with their original end time (kept) or never ended and
+//	left to the garbage collector (dropped).  Dropped spans never reach a span processor.
+//
+//	Held spans are bounded per trace and over all traces.  A trace going over either bound is
+//	not sampled:  its held spans are ended right away and its later spans are ended when their 
+//	end notification arrives, so an overflow costs the sampling of a trace, never its spans 
+//	(e.g., the spans of a failed trace).
+//------------------------------------------------------------------------------------------------
+/**
+ * Tail sampling policies and span hold limits of the {@link MuleSoftTraceStore}.
+ */
+final class TailSampler
+{
+	static final int KEPT     = 0;
+	static final int DROPPED  = 1;
+	static final int OVERFLOW = 2;
+
+	private static final int UNDECIDED = -1;
+
+	private final boolean           keepFailedTraces;
+	private final long              latencyThresholdNanos;
+	private final Map<String, Long> flowLatencyThresholds;
+	private final Set<String>       keptFlows;
+	private final long              ratioUpperBound;
+	private final int               maxSpansPerTrace;
+	private final int               maxHeldSpans;
+
+	private final AtomicInteger heldSpans = new AtomicInteger();
+
+	TailSampler(TailSamplingConfig tailSamplingConfig)
+	{
+		keepFailedTraces      = tailSamplingConfig.getKeepFailedTraces();
+		latencyThresholdNanos = Duration.ofMillis(tailSamplingConfig.getLatencyThreshold()).toNanos();
+		flowLatencyThresholds = tailSamplingConfig.getFlowLatencyThresholdMap();
+		keptFlows             = tailSamplingConfig.getKeptFlowSet();
+		maxSpansPerTrace      = tailSamplingConfig.getMaxSpansPerTrace();
+		maxHeldSpans          = tailSamplingConfig.getMaxHeldSpans();
+
+		//--------------------------------------------------------------------
+		//	Same bound as the SDK trace id ratio sampler, applied to the low
+		//	64 bits of the trace id
+		//--------------------------------------------------------------------
+		double ratio = Math.min(Math.max(tailSamplingConfig.getBaselineRatio(), 0.0), 1.0);
+
+		ratioUpperBound = (ratio >= 1.0) ? Long.MAX_VALUE : (long) (ratio * Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return a span holder for a new trace
+	 */
+	HeldTrace startTrace()
+	{
+		return new HeldTrace();
+	}
+
+	/**
+	 * @return number of spans held for all traces
+	 */
+	int getHeldSpanCount()
+	{
+		return heldSpans.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "keep failed traces: " + keepFailedTraces + ", latency threshold: " + Duration.ofNanos(latencyThresholdNanos).toMillis() +
+		       " ms (flow overrides: " + flowLatencyThresholds + "), kept flows: " + keptFlows + ", baseline ratio: " +
+		       ((double) ratioUpperBound / Long.MAX_VALUE) + ", maximum spans per trace: " + maxSpansPerTrace +
+		       ", maximum held spans: " + maxHeldSpans;
+	}
+
+	//------------------------------------------------------------------------
+	//	Policies
+	//------------------------------------------------------------------------
+	private boolean keep(HeldTrace heldTrace, String rootPipelineId, Instant startInstant, Span rootSpan)
+	{
+		if (keepFailedTraces && heldTrace.failed)
+			return true;
+
+		if (keptFlows.contains(rootPipelineId))
+			return true;
+
+		Long flowLatencyThreshold = flowLatencyThresholds.get(rootPipelineId);
+		long thresholdNanos = (flowLatencyThreshold != null) ? Duration.ofMillis(flowLatencyThreshold).toNanos()
+		                                                     : latencyThresholdNanos;
+
+		if (thresholdNanos > 0 && heldTrace.lastEndInstant != null &&
+		    Duration.between(startInstant, heldTrace.lastEndInstant).toNanos() > thresholdNanos)
+			return true;
+
+		return Math.abs(randomPart(rootSpan.getSpanContext().getTraceId())) < ratioUpperBound;
+	}
+
+	private static long randomPart(String traceId)
+	{
+		try
+		{
+			return Long.parseUnsignedLong(traceId.substring(16), 16);
+		}
+		catch (RuntimeException e)
+		{
+			return Long.MAX_VALUE;
+		}
+	}
+
+	//------------------------------------------------------------------------
+	//	Spans of one trace, held until the trace is decided
+	//------------------------------------------------------------------------
+	final class HeldTrace
+	{
+		private final List<Span>    spans       = new ArrayList<>();
+		private final List<Instant> endInstants = new ArrayList<>();
+
+		private Instant lastEndInstant;
+		private boolean failed;
+		private boolean overflow;
+		private int     decision = UNDECIDED;
+
+		/**
+		 * End the span now if the trace was kept or overflowed, hold it if the trace is not decided
+		 * yet, else drop it.  A span which does not fit overflows the trace, which ends its held 
+		 * spans.
+		 *
+		 * @param span - span whose end notification arrived
+		 * @param endInstant - end time of the span
+		 * @param failed - <b>true</b> if the span has an error status
+		 */
+		void end(Span span, Instant endInstant, boolean failed)
+		{
+			boolean flush = false;
+
+			synchronized (this)
+			{
+				if (decision == UNDECIDED && !overflow)
+				{
+					this.failed |= failed;
+
+					if (hold(span, endInstant))
+						return;
+
+					overflow = true;
+					heldSpans.addAndGet(-spans.size());
+					flush = true;
+				}
+				else if (decision != KEPT && !overflow)
+				{
+					return;
+				}
+			}
+
+			//----------------------------------------------------------------
+			//	Nothing is added to the lists once the trace overflowed
+			//----------------------------------------------------------------
+			if (flush)
+			{
+				for (int i = 0; i < spans.size(); i++)
+					spans.get(i).end(endInstants.get(i));
+
+				spans.clear();
+				endInstants.clear();
+			}
+
+			//----------------------------------------------------------------
+			//	Span of an overflowed trace, or late span of a kept trace 
+			//	(e.g., an async scope ending after the flow)
+			//----------------------------------------------------------------
+			span.end(endInstant);
+		}
+
+		/**
+		 * Decide whether the trace is kept and end its held spans if it is
+		 *
+		 * @param rootPipelineId - name of the flow which started the trace
+		 * @param startInstant - start time of the trace
+		 * @param rootSpan - root span of the trace
+		 * @return {@link #KEPT}, {@link #DROPPED} or {@link #OVERFLOW}
+		 */
+		int decide(String rootPipelineId, Instant startInstant, Span rootSpan)
+		{
+			synchronized (this)
+			{
+				if (decision != UNDECIDED)
+					return decision;
+
+				if (overflow)
+				{
+					decision = OVERFLOW;
+					return decision;
+				}
+
+				decision = keep(this, rootPipelineId, startInstant, rootSpan) ? KEPT : DROPPED;
+
+				heldSpans.addAndGet(-spans.size());
+
+				if (decision != KEPT)
+				{
+					spans.clear();
+					endInstants.clear();
+					return decision;
+				}
+			}
+
+			//----------------------------------------------------------------
+			//	Nothing is added to the lists once the trace is decided
+			//----------------------------------------------------------------
+			for (int i = 0; i < spans.size(); i++)
+				spans.get(i).end(endInstants.get(i));
+
+			return KEPT;
+		}
+
+		private boolean hold(Span span, Instant endInstant)
+		{
+			if (spans.size() >= maxSpansPerTrace)
+				return false;
+
+			if (heldSpans.incrementAndGet() > maxHeldSpans)
+			{
+				heldSpans.decrementAndGet();
+				return false;
+			}
+
+			spans.add(span);
+			endInstants.add(endInstant);
+
+			if (lastEndInstant == null || endInstant.isAfter(lastEndInstant))
+				lastEndInstant = endInstant;
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.mule.runtime.api.component.ComponentIdentifier;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+
+/**
+ * 	Immutable metadata of a component (flow or message processor) at a given location in the Mule 
+ * 	application.  None of these values change for the lifetime of the application, so they are 
+ * 	computed once per location and cached.
+ * 
+ * 	@see NotificationParserUtils#getComponentDescriptor(org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot)
+ */
+public final class ComponentDescriptor
+{
+	private final String              location;
+	private final ComponentIdentifier componentIdentifier;
+	private final String              componentId;
+	private final String              docName;
+	private final String              spanName;
+	private final String              flowId;
+	private final Map<String, String> componentParameters;
+	private final boolean             skipped;
+	private final Attributes          docNameAttributes;
+	private final Attributes          flowNameAttributes;
+	private final Attributes          processorAttributes;
+	
+	ComponentDescriptor(String location, ComponentIdentifier componentIdentifier, String docName, 
+	                    String spanName, String flowId, Map<String, String> componentParameters,
+	                    boolean skipped)
+	{
+		this.location            = location;
+		this.componentIdentifier = componentIdentifier;
+		this.componentId         = (componentIdentifier != null) 
+		                           ? componentIdentifier.getNamespace() + ":" + componentIdentifier.getName()
+		                           : null;
+		this.docName             = docName;
+		this.spanName            = spanName;
+		this.flowId              = flowId;
+		this.componentParameters = (componentParameters != null) 
+		                           ? Collections.unmodifiableMap(componentParameters) 
+		                           : Collections.emptyMap();
+		this.skipped             = skipped;
+		
+		this.docNameAttributes  = (docName != null) ? Attributes.of(MuleAttributeKeys.DOC_NAME, docName) : Attributes.empty();
+		this.flowNameAttributes = (docName != null) ? Attributes.of(MuleAttributeKeys.FLOW_NAME, docName) : Attributes.empty();
+		
+		AttributesBuilder processorAttributesBuilder = Attributes.builder();
+		
+		if (flowId != null)
+			processorAttributesBuilder.put(MuleAttributeKeys.FLOW_NAME, flowId.startsWith("_") ? flowId.substring(1) : flowId);
+		if (componentId != null)
+			processorAttributesBuilder.put(MuleAttributeKeys.COMPONENT_ID, componentId);
+		if (docName != null)
+			processorAttributesBuilder.put(MuleAttributeKeys.DOC_NAME, docName);
+		
+		this.processorAttributes = processorAttributesBuilder.build();
+	}
+	
+	/**
+	 * @return the unique absolute location of this component (also used as the span id)
+	 */
+	public String getLocation()
+	{
+		return location;
+	}
+	
+	public ComponentIdentifier getComponentIdentifier()
+	{
+		return componentIdentifier;
+	}
+	
+	/**
+	 * @return the qualified name {@code <namespace:name>} of this component
+	 */
+	public String getComponentId()
+	{
+		return componentId;
+	}
+	
+	public String getDocName()
+	{
+		return docName;
+	}
+	
+	public String getSpanName()
+	{
+		return spanName;
+	}
+	
+	public String getFlowId()
+	{
+		return flowId;
+	}
+	
+	/**
+	 * @return the {@code {config}componentParameters} annotation of this component (read-only)
+	 */
+	public Map<String, String> getComponentParameters()
+	{
+		return componentParameters;
+	}
+	
+	/**
+	 * @return <b>true</b> if no message processor span is generated for this component; else false
+	 * @see ComponentSkipSet
+	 */
+	public boolean isSkipped()
+	{
+		return skipped;
+	}
+	
+	/**
+	 * @return pre-built {@code doc.name} attribute for this component
+	 */
+	public Attributes getDocNameAttributes()
+	{
+		return docNameAttributes;
+	}
+	
+	/**
+	 * @return pre-built {@code flow.name} attribute for this component
+	 */
+	public Attributes getFlowNameAttributes()
+	{
+		return flowNameAttributes;
+	}
+	
+	/**
+	 * @return pre-built {@code flow.name}, {@code mule.component.id} and {@code doc.name} attributes 
+	 *         of the metrics recorded for this component
+	 */
+	public Attributes getProcessorAttributes()
+	{
+		return processorAttributes;
+	}
+}
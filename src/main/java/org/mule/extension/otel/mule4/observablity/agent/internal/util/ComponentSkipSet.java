@@ -0,0 +1,86 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.MuleComponent;
+import org.mule.runtime.api.component.ComponentIdentifier;
+
+/**
+ * 	Immutable set of components for which no message processor span is generated.  It is compiled
+ * 	once from {@link Constants#AUTO_SKIP_LIST} and the configured bypass components.
+ * 	<p>
+ * 	A bypass component whose name is <code>*</code> (e.g., <code>ee:*</code>) skips every component
+ * 	of that namespace.
+ * 
+ * 	@see NotificationParserUtils#setComponentSkipSet(ComponentSkipSet)
+ */
+public final class ComponentSkipSet
+{
+	private static final String WILDCARD = "*";
+	
+	private final Set<String> componentIds;
+	private final Set<String> namespaces;
+	
+	private ComponentSkipSet(Set<String> componentIds, Set<String> namespaces)
+	{
+		this.componentIds = Collections.unmodifiableSet(componentIds);
+		this.namespaces   = Collections.unmodifiableSet(namespaces);
+	}
+	
+	/**
+	 * 
+	 * @param bypassComponents - configured components to bypass, may be null
+	 * @return a skip set with the auto skipped components plus the bypass components
+	 */
+	public static ComponentSkipSet compile(Collection<MuleComponent> bypassComponents)
+	{
+		Set<String> componentIds = new HashSet<>(Constants.AUTO_SKIP_LIST);
+		Set<String> namespaces = new HashSet<>();
+		
+		if (bypassComponents != null)
+		{
+			for (MuleComponent mc : bypassComponents)
+			{
+				if (mc == null || mc.getNamespace() == null || mc.getName() == null)
+					continue;
+				
+				if (WILDCARD.equals(mc.getName().trim()))
+					namespaces.add(mc.getNamespace().trim());
+				else
+					componentIds.add(mc.getNamespace().trim() + ":" + mc.getName().trim());
+			}
+		}
+		return new ComponentSkipSet(componentIds, namespaces);
+	}
+	
+	/**
+	 * @return a skip set with only the auto skipped components
+	 */
+	public static ComponentSkipSet autoSkipOnly()
+	{
+		return compile(null);
+	}
+	
+	/**
+	 * 
+	 * @param componentIdentifier
+	 * @return <b>true</b> if no span should be generated for this component; else false
+	 */
+	public boolean contains(ComponentIdentifier componentIdentifier)
+	{
+		if (componentIdentifier == null)
+			return false;
+		
+		return namespaces.contains(componentIdentifier.getNamespace()) 
+		       || componentIds.contains(componentIdentifier.getNamespace() + ":" + componentIdentifier.getName());
+	}
+	
+	@Override
+	public String toString()
+	{
+		return componentIds + " " + namespaces;
+	}
+}
@@ -25,6 +25,7 @@ public class Constants
 
 	public static final String DB_SELECT						= "db:select";
 	public static final String DB_MATCHER						= "^db:.*$";
+	public static final String DB_NAMESPACE						= "db:*";
 
 	public static final String HTTP_LISTENER 					= "http:listener";	
 	public static final String HTTP_REQUESTER					= "http:request";
@@ -46,6 +47,17 @@ public class Constants
     public static final String START_WORKLOAD_ATTRIBUTE         = "mule.start.workload.utilization";
     public static final String START_HEAP_USAGE_ATTRIBUTE       = "mule.start.heap.usage.mbytes";
     public static final String CUSTOM_ATTRIBUTE                 = "mule.custom.";
+    public static final String SPAN_EVICTED_ATTRIBUTE           = "mule.span.evicted";
+    public static final String COMPONENT_ID_ATTRIBUTE           = "mule.component.id";
+    public static final String SOURCE_COMPONENT_ATTRIBUTE       = "mule.source.component";
+    public static final String HTTP_METHOD_ATTRIBUTE            = "http.request.method";
+    public static final String HTTP_STATUS_CLASS_ATTRIBUTE      = "http.response.status_class";
+    public static final String COMPACTED_SPANS_ATTRIBUTE        = "mule.compacted.spans";
+    public static final String COMPACTED_COUNT_ATTRIBUTE        = "mule.compacted.count";
+    public static final String COMPACTED_DURATION_ATTRIBUTE     = "mule.compacted.duration_ms";
+    public static final String COMPACTED_SPANS_EVENT            = "mule.compacted_spans";
+    
+    public static final String HTTP_STATUS_VARIABLE             = "httpStatus";
 	
 	public static final String INSTRUMENTATION_VERSION_DEFAULT 	= "0.0.1";
 	public static final String INSTRUMENTATION_NAME 			= "org.mulesoft.extension.otel.mule4.observability.agent";
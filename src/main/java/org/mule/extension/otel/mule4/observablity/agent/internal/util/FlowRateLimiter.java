@@ -0,0 +1,190 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.FlowRateLimit;
+
+/**
+ * 	Per-flow limits on the number of traces started per second, compiled once from the configured
+ * 	flow rate limits.
+ * 	<p>
+ * 	Each flow matching a limit gets a token bucket of its own.  The bucket is kept as a single
+ * 	timestamp (the time at which the bucket is full again, minus one token) updated by compare and
+ * 	set, so {@link #tryAcquire(String)} never locks.  The bucket of a flow is resolved against the
+ * 	patterns the first time the flow starts a trace and cached.
+ *
+ * 	@see org.mule.extension.otel.mule4.observablity.agent.internal.notification.OTelMuleNotificationHandler#setFlowRateLimiter(FlowRateLimiter)
+ */
+public final class FlowRateLimiter
+{
+	private static final String      WILDCARD  = "*";
+	private static final TokenBucket UNLIMITED = new TokenBucket(0, 0);
+
+	private final List<Pattern>           patterns;
+	private final List<FlowRateLimit>     limits;
+	private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	//------------------------------------------------------------------------
+	//	Token bucket of one flow
+	//------------------------------------------------------------------------
+	private static final class TokenBucket
+	{
+		private final long       intervalNanos;
+		private final long       toleranceNanos;
+		private final AtomicLong nextFreeNanos;
+		private final LongAdder  dropped = new LongAdder();
+
+		private TokenBucket(long intervalNanos, int burst)
+		{
+			this.intervalNanos = intervalNanos;
+			this.toleranceNanos = intervalNanos * (burst - 1);
+			this.nextFreeNanos = new AtomicLong(System.nanoTime() - toleranceNanos);
+		}
+
+		private boolean tryAcquire()
+		{
+			long now = System.nanoTime();
+
+			while (true)
+			{
+				long nextFree = nextFreeNanos.get();
+				long start = (nextFree - now > 0) ? nextFree : now;
+
+				if (start - now > toleranceNanos)
+				{
+					dropped.increment();
+					return false;
+				}
+
+				if (nextFreeNanos.compareAndSet(nextFree, start + intervalNanos))
+					return true;
+			}
+		}
+	}
+
+	private FlowRateLimiter(List<Pattern> patterns, List<FlowRateLimit> limits)
+	{
+		this.patterns = Collections.unmodifiableList(patterns);
+		this.limits = Collections.unmodifiableList(limits);
+	}
+
+	/**
+	 *
+	 * @param flowRateLimits - configured flow rate limits, may be null
+	 * @return a rate limiter with the valid limits, in configuration order
+	 */
+	public static FlowRateLimiter compile(Collection<FlowRateLimit> flowRateLimits)
+	{
+		List<Pattern> patterns = new ArrayList<>();
+		List<FlowRateLimit> limits = new ArrayList<>();
+
+		if (flowRateLimits != null)
+		{
+			for (FlowRateLimit frl : flowRateLimits)
+			{
+				if (frl == null || frl.getFlowNamePattern() == null || frl.getTracesPerSecond() <= 0)
+					continue;
+
+				patterns.add(compilePattern(frl.getFlowNamePattern().trim()));
+				limits.add(frl);
+			}
+		}
+		return new FlowRateLimiter(patterns, limits);
+	}
+
+	/**
+	 * @return a rate limiter without limits
+	 */
+	public static FlowRateLimiter unlimited()
+	{
+		return compile(null);
+	}
+
+	/**
+	 * Take a token from the bucket of the flow
+	 *
+	 * @param flowName - name of the flow starting a trace
+	 * @return <b>true</b> if the flow is within its rate or not limited; else false, and the trace
+	 *         is counted as dropped
+	 */
+	public boolean tryAcquire(String flowName)
+	{
+		if (patterns.isEmpty() || flowName == null)
+			return true;
+
+		TokenBucket bucket = buckets.get(flowName);
+
+		if (bucket == null)
+			bucket = buckets.computeIfAbsent(flowName, this::resolve);
+
+		return (bucket == UNLIMITED) || bucket.tryAcquire();
+	}
+
+	/**
+	 * @return flow name to number of traces dropped since startup, for the limited flows which
+	 *         started a trace
+	 */
+	public Map<String, Long> getDroppedTraceCounts()
+	{
+		Map<String, Long> droppedTraceCounts = new LinkedHashMap<>();
+
+		buckets.forEach((flowName, bucket) ->
+		{
+			if (bucket != UNLIMITED)
+				droppedTraceCounts.put(flowName, bucket.dropped.sum());
+		});
+
+		return droppedTraceCounts;
+	}
+
+	@Override
+	public String toString()
+	{
+		return limits.toString();
+	}
+
+	//------------------------------------------------------------------------
+	//	Helper methods
+	//------------------------------------------------------------------------
+	private TokenBucket resolve(String flowName)
+	{
+		for (int i = 0; i < patterns.size(); i++)
+		{
+			if (patterns.get(i).matcher(flowName).matches())
+			{
+				FlowRateLimit limit = limits.get(i);
+				int burst = (limit.getBurst() > 0) ? limit.getBurst()
+				                                   : (int) Math.max(1, Math.ceil(limit.getTracesPerSecond()));
+
+				return new TokenBucket((long) (TimeUnit.SECONDS.toNanos(1) / limit.getTracesPerSecond()), burst);
+			}
+		}
+		return UNLIMITED;
+	}
+
+	private static Pattern compilePattern(String flowNamePattern)
+	{
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		int wildcard;
+
+		while ((wildcard = flowNamePattern.indexOf(WILDCARD, start)) >= 0)
+		{
+			regex.append(Pattern.quote(flowNamePattern.substring(start, wildcard))).append(".*");
+			start = wildcard + WILDCARD.length();
+		}
+		regex.append(Pattern.quote(flowNamePattern.substring(start)));
+
+		return Pattern.compile(regex.toString());
+	}
+}
@@ -0,0 +1,185 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mule.runtime.api.util.MultiMap;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+
+/**
+ * 	Immutable set of the HTTP headers added to the HTTP Listener (request headers) and HTTP
+ * 	Requester (response headers) spans, compiled once from the header capture config.
+ * 	<p>
+ * 	Header names are matched case-insensitively and the {@link AttributeKey} of every allowed
+ * 	header is built at compile time, so capturing a header allocates no key.  With <code>*</code>,
+ * 	every header is captured and the keys are built on first use and cached, up to a bound, since
+ * 	the header names come from the clients.  Values longer than the maximum length are truncated.
+ *
+ * 	@see NotificationParserUtils#setHeaderAllowlist(HeaderAllowlist)
+ */
+public final class HeaderAllowlist
+{
+	private static final String DEFAULT_HEADERS        = "content-type,content-length,user-agent,host";
+	private static final String REQUEST_HEADER_PREFIX  = "headers.";
+	private static final String RESPONSE_HEADER_PREFIX = "response.headers.";
+	private static final String WILDCARD               = "*";
+	private static final String NONE                   = "none";
+	private static final int    MAX_CACHED_KEYS        = 256;
+
+	private final String     capturedHeaders;
+	private final HeaderKeys requestHeaderKeys;
+	private final HeaderKeys responseHeaderKeys;
+	private final int        maxValueLength;
+
+	//------------------------------------------------------------------------
+	//	Attribute keys of the captured headers, for one prefix
+	//------------------------------------------------------------------------
+	private static final class HeaderKeys
+	{
+		private final String                            prefix;
+		private final boolean                           all;
+		private final Map<String, AttributeKey<String>> keys;
+
+		private HeaderKeys(String prefix, boolean all, Iterable<String> headerNames)
+		{
+			this.prefix = prefix;
+			this.all = all;
+
+			if (all)
+			{
+				this.keys = new ConcurrentHashMap<>();
+			}
+			else
+			{
+				Map<String, AttributeKey<String>> allowed = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+				for (String headerName : headerNames)
+					allowed.put(headerName, newKey(headerName));
+
+				this.keys = Collections.unmodifiableMap(allowed);
+			}
+		}
+
+		private AttributeKey<String> get(String headerName)
+		{
+			AttributeKey<String> key = keys.get(headerName);
+
+			if (key != null || !all)
+				return key;
+
+			key = newKey(headerName);
+
+			if (keys.size() < MAX_CACHED_KEYS)
+				keys.putIfAbsent(headerName, key);
+
+			return key;
+		}
+
+		private AttributeKey<String> newKey(String headerName)
+		{
+			return AttributeKey.stringKey(prefix + headerName.toLowerCase(Locale.ROOT));
+		}
+	}
+
+	private HeaderAllowlist(String capturedHeaders, boolean all, Iterable<String> headerNames, int maxValueLength)
+	{
+		this.capturedHeaders = capturedHeaders;
+		this.requestHeaderKeys = new HeaderKeys(REQUEST_HEADER_PREFIX, all, headerNames);
+		this.responseHeaderKeys = new HeaderKeys(RESPONSE_HEADER_PREFIX, all, headerNames);
+		this.maxValueLength = Math.max(maxValueLength, 0);
+	}
+
+	/**
+	 *
+	 * @param capturedHeaders - comma separated header names, <code>*</code> for every header or
+	 *                          <code>none</code>; the default headers when null
+	 * @param maxValueLength - length above which values are truncated, 0 for no limit
+	 * @return the compiled allowlist
+	 */
+	public static HeaderAllowlist compile(String capturedHeaders, int maxValueLength)
+	{
+		String headers = (capturedHeaders != null) ? capturedHeaders.trim() : DEFAULT_HEADERS;
+		Map<String, String> headerNames = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		boolean all = false;
+
+		if (!NONE.equalsIgnoreCase(headers))
+		{
+			for (String headerName : headers.split(","))
+			{
+				headerName = headerName.trim();
+
+				if (WILDCARD.equals(headerName))
+					all = true;
+				else if (!headerName.isEmpty())
+					headerNames.put(headerName, headerName);
+			}
+		}
+		return new HeaderAllowlist(headers, all, headerNames.values(), maxValueLength);
+	}
+
+	/**
+	 * @return an allowlist with the default headers and no value length limit
+	 */
+	public static HeaderAllowlist defaults()
+	{
+		return compile(null, 0);
+	}
+
+	/**
+	 * Add the allowed request headers to an HTTP Listener span
+	 *
+	 * @param headers - headers of the request
+	 * @param spanBuilder - builder of the span
+	 */
+	public void addRequestHeaders(MultiMap<String, String> headers, SpanBuilder spanBuilder)
+	{
+		if (headers == null)
+			return;
+
+		headers.forEach((name, value) ->
+		{
+			AttributeKey<String> key = requestHeaderKeys.get(name);
+
+			if (key != null)
+				spanBuilder.setAttribute(key, truncate(value));
+		});
+	}
+
+	/**
+	 * Add the allowed response headers to an HTTP Requester span
+	 *
+	 * @param headers - headers of the response
+	 * @param span - the span
+	 */
+	public void addResponseHeaders(MultiMap<String, String> headers, Span span)
+	{
+		if (headers == null)
+			return;
+
+		headers.forEach((name, value) ->
+		{
+			AttributeKey<String> key = responseHeaderKeys.get(name);
+
+			if (key != null)
+				span.setAttribute(key, truncate(value));
+		});
+	}
+
+	private String truncate(String value)
+	{
+		return (maxValueLength > 0 && value != null && value.length() > maxValueLength) ? value.substring(0, maxValueLength)
+		                                                                                : value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return capturedHeaders + ((maxValueLength > 0) ? " (values up to " + maxValueLength + " characters)" : "");
+	}
+}
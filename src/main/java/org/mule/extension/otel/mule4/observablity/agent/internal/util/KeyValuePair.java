@@ -1,12 +1,12 @@
 package org.mule.extension.otel.mule4.observablity.agent.internal.util;
 
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.runtime.core.api.el.ExpressionManager;
 import org.mule.runtime.extension.api.annotation.Expression;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.api.el.ExpressionLanguageSession;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.api.metadata.DataType;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,12 +40,12 @@ public abstract class KeyValuePair
 		return value;
 	}
 
-	public String getKey(ExpressionManager em, EnrichedServerNotification n)
+	public String getKey(ExpressionManager em, NotificationSnapshot n)
 	{
 	    return resolve(key, em, n);
 	}
 
-	public String getValue(ExpressionManager em, EnrichedServerNotification n)
+	public String getValue(ExpressionManager em, NotificationSnapshot n)
 	{
 	    return resolve(value, em, n);
 	}
@@ -74,7 +74,7 @@ public abstract class KeyValuePair
 	 * 
 	 * @return resolved value
 	 */ 
-	private String resolve(String property, ExpressionManager em, EnrichedServerNotification n)
+	private String resolve(String property, ExpressionManager em, NotificationSnapshot n)
 	{
 	    String value = property;
 	    String exp;
@@ -105,7 +105,7 @@ public abstract class KeyValuePair
                 // dynamically resolve was by creating new session on the ExpressionManager and using that 
                 // session to evaluate the expressions
                 //
-                ExpressionLanguageSession els = em.openSession(n.getEvent().asBindingContext());
+                ExpressionLanguageSession els = em.openSession(n.getBindingContext());
                 value = (String) els.evaluate(exp, DataType.STRING).getValue();                   
 	        }
 	        else if (em.isExpression(property))
@@ -0,0 +1,131 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.LoggerCaptureConfig;
+
+/**
+ * 	Which Logger messages are captured as span events, and how much of them, compiled once from
+ * 	the logger capture config.
+ * 	<p>
+ * 	The checks only use the raw (unresolved) Logger parameters, so the processor interceptor
+ * 	decides whether to resolve a message before paying for its evaluation.
+ *
+ * 	@see NotificationParserUtils#setLoggerCapture(LoggerCapture)
+ */
+public final class LoggerCapture
+{
+	private static final String WILDCARD              = "*";
+	private static final String DEFAULT_LEVEL         = "INFO";
+	private static final int    DEFAULT_MAX_LENGTH    = 4096;
+	private static final int    DEFAULT_MAX_PER_TRACE = 100;
+
+	private final boolean     enabled;
+	private final Set<String> levels;
+	private final int         maxLength;
+	private final int         maxPerTrace;
+
+	private LoggerCapture(boolean enabled, Set<String> levels, int maxLength, int maxPerTrace)
+	{
+		this.enabled = enabled;
+		this.levels = levels;
+		this.maxLength = Math.max(maxLength, 0);
+		this.maxPerTrace = Math.max(maxPerTrace, 0);
+	}
+
+	/**
+	 *
+	 * @param loggerCaptureConfig - configured logger capture, may be null
+	 * @return the compiled logger capture, the defaults when the config is null
+	 */
+	public static LoggerCapture compile(LoggerCaptureConfig loggerCaptureConfig)
+	{
+		if (loggerCaptureConfig == null)
+			return defaults();
+
+		return new LoggerCapture(loggerCaptureConfig.getCaptureLoggerOutput(),
+		                         compileLevels(loggerCaptureConfig.getCapturedLoggerLevels()),
+		                         loggerCaptureConfig.getMaxLoggerOutputLength(),
+		                         loggerCaptureConfig.getMaxLoggerOutputsPerTrace());
+	}
+
+	/**
+	 * @return a logger capture of every level, with the default length and per-trace limits
+	 */
+	public static LoggerCapture defaults()
+	{
+		return new LoggerCapture(true, null, DEFAULT_MAX_LENGTH, DEFAULT_MAX_PER_TRACE);
+	}
+
+	//------------------------------------------------------------------------
+	//	null for every level
+	//------------------------------------------------------------------------
+	private static Set<String> compileLevels(String capturedLevels)
+	{
+		if (capturedLevels == null)
+			return null;
+
+		Set<String> levels = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+		for (String level : capturedLevels.split(","))
+		{
+			level = level.trim();
+
+			if (WILDCARD.equals(level))
+				return null;
+			if (!level.isEmpty())
+				levels.add(level.toUpperCase(Locale.ROOT));
+		}
+		return Collections.unmodifiableSet(levels);
+	}
+
+	/**
+	 * @return <b>true</b> if Logger messages are captured at all; else false
+	 */
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 *
+	 * @param level - level parameter of the Logger, null for the default level (INFO)
+	 * @return <b>true</b> if the messages of Loggers at this level are captured; else false
+	 */
+	public boolean isLevelCaptured(String level)
+	{
+		return levels == null || levels.contains((level != null) ? level : DEFAULT_LEVEL);
+	}
+
+	/**
+	 * @return number of Logger messages captured per trace, 0 for no limit
+	 */
+	public int getMaxPerTrace()
+	{
+		return maxPerTrace;
+	}
+
+	/**
+	 *
+	 * @param output - resolved Logger message
+	 * @return the message, truncated to the maximum length
+	 */
+	public String truncate(String output)
+	{
+		return (maxLength > 0 && output != null && output.length() > maxLength) ? output.substring(0, maxLength) : output;
+	}
+
+	@Override
+	public String toString()
+	{
+		if (!enabled)
+			return "disabled";
+
+		return "levels " + ((levels != null) ? levels.toString() : WILDCARD)
+		       + ", up to " + ((maxLength > 0) ? maxLength + " characters" : "any length")
+		       + ", " + ((maxPerTrace > 0) ? maxPerTrace + " per trace" : "no limit per trace");
+	}
+}
@@ -0,0 +1,95 @@
+package org.mule.extension.otel.mule4.observablity.agent.internal.util;
+
+import io.opentelemetry.api.common.AttributeKey;
+
+/**
+ * 	Typed {@link AttributeKey}s of every span and metric attribute set by the agent.
+ * 	<p>
+ * 	Setting an attribute by name builds a new key on every call; the parsers, the notification
+ * 	handler and the metrics use these constants instead.  Ports, status codes and counts are
+ * 	numbers, not strings.
+ */
+public final class MuleAttributeKeys
+{
+	//------------------------------------------------------------------------
+	//	Flow and message processor spans
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  MULE_TRACE_ID           = AttributeKey.stringKey(Constants.MULE_TRACE_ID_ATTRIBUTE);
+	public static final AttributeKey<String>  SERVER_ID               = AttributeKey.stringKey(Constants.SERVER_ID_ATTRIBUTE);
+	public static final AttributeKey<String>  FLOW_NAME               = AttributeKey.stringKey(Constants.FLOW_NAME_ATTRIBUTE);
+	public static final AttributeKey<String>  DOC_NAME                = AttributeKey.stringKey(Constants.DOC_NAME_ATTRIBUTE);
+	public static final AttributeKey<String>  COMPONENT_ID            = AttributeKey.stringKey(Constants.COMPONENT_ID_ATTRIBUTE);
+	public static final AttributeKey<String>  SOURCE_COMPONENT        = AttributeKey.stringKey(Constants.SOURCE_COMPONENT_ATTRIBUTE);
+	public static final AttributeKey<String>  START_DATETIME          = AttributeKey.stringKey(Constants.START_DATETIME_ATTRIBUTE);
+	public static final AttributeKey<String>  END_DATETIME            = AttributeKey.stringKey(Constants.END_DATETIME_ATTRIBUTE);
+	public static final AttributeKey<Double>  START_WORKLOAD          = AttributeKey.doubleKey(Constants.START_WORKLOAD_ATTRIBUTE);
+	public static final AttributeKey<Double>  START_HEAP_USAGE        = AttributeKey.doubleKey(Constants.START_HEAP_USAGE_ATTRIBUTE);
+	public static final AttributeKey<Boolean> SPAN_EVICTED            = AttributeKey.booleanKey(Constants.SPAN_EVICTED_ATTRIBUTE);
+	public static final AttributeKey<Long>    COMPACTED_SPANS         = AttributeKey.longKey(Constants.COMPACTED_SPANS_ATTRIBUTE);
+	public static final AttributeKey<Long>    COMPACTED_COUNT         = AttributeKey.longKey(Constants.COMPACTED_COUNT_ATTRIBUTE);
+	public static final AttributeKey<Long>    COMPACTED_DURATION      = AttributeKey.longKey(Constants.COMPACTED_DURATION_ATTRIBUTE);
+	public static final AttributeKey<String>  LOGGER_OUTPUT           = AttributeKey.stringKey("logger.output");
+
+	//------------------------------------------------------------------------
+	//	HTTP Listener and HTTP Requester
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  SCHEME                  = AttributeKey.stringKey("scheme");
+	public static final AttributeKey<String>  METHOD                  = AttributeKey.stringKey("method");
+	public static final AttributeKey<String>  REMOTE_ADDRESS          = AttributeKey.stringKey("remote.address");
+	public static final AttributeKey<String>  REQUEST_PATH            = AttributeKey.stringKey("request.path");
+	public static final AttributeKey<String>  REQUESTER_HOST          = AttributeKey.stringKey("requester.host");
+	public static final AttributeKey<Long>    REQUESTER_PORT          = AttributeKey.longKey("requester.port");
+	public static final AttributeKey<Long>    RESPONSE_STATUS_CODE    = AttributeKey.longKey("response.status.code");
+	public static final AttributeKey<String>  RESPONSE_REASON_PHRASE  = AttributeKey.stringKey("response.reason.phrase");
+	public static final AttributeKey<String>  HTTP_METHOD             = AttributeKey.stringKey(Constants.HTTP_METHOD_ATTRIBUTE);
+	public static final AttributeKey<String>  HTTP_STATUS_CLASS       = AttributeKey.stringKey(Constants.HTTP_STATUS_CLASS_ATTRIBUTE);
+
+	//------------------------------------------------------------------------
+	//	Database Connector
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  SQL_STATEMENT           = AttributeKey.stringKey("sql.statement");
+	public static final AttributeKey<String>  DB_HOST                 = AttributeKey.stringKey("db.host");
+	public static final AttributeKey<Long>    DB_PORT                 = AttributeKey.longKey("db.port");
+	public static final AttributeKey<String>  DB_USER                 = AttributeKey.stringKey("db.user");
+	public static final AttributeKey<String>  DB_NAME                 = AttributeKey.stringKey("db.name");
+	public static final AttributeKey<String>  DB_CONNECTION_TYPE      = AttributeKey.stringKey("db.connection.type");
+
+	//------------------------------------------------------------------------
+	//	Anypoint MQ publish
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  PUBLISH_SCHEME          = AttributeKey.stringKey("publish.scheme");
+	public static final AttributeKey<String>  PUBLISH_HOST            = AttributeKey.stringKey("publish.host");
+	public static final AttributeKey<Long>    PUBLISH_PORT            = AttributeKey.longKey("publish.port");
+	public static final AttributeKey<String>  PUBLISH_PATH            = AttributeKey.stringKey("publish.path");
+	public static final AttributeKey<String>  PUBLISH_CLIENT_ID       = AttributeKey.stringKey("publish.clientId");
+	public static final AttributeKey<String>  PUBLISH_DESTINATION     = AttributeKey.stringKey("publish.destination");
+	public static final AttributeKey<String>  PUBLISH_MESSAGE_ID      = AttributeKey.stringKey("publish.response.messageId");
+
+	//------------------------------------------------------------------------
+	//	Anypoint MQ subscriber
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  SUBSCRIBER_CONTENT_TYPE = AttributeKey.stringKey("subscriber.message.contentType");
+	public static final AttributeKey<String>  SUBSCRIBER_DESTINATION  = AttributeKey.stringKey("subscriber.destination");
+	public static final AttributeKey<String>  SUBSCRIBER_MESSAGE_ID   = AttributeKey.stringKey("subscriber.messageId");
+	public static final AttributeKey<String>  SUBSCRIBER_SCHEME       = AttributeKey.stringKey("subscriber.scheme");
+	public static final AttributeKey<String>  SUBSCRIBER_HOST         = AttributeKey.stringKey("subscriber.host");
+	public static final AttributeKey<Long>    SUBSCRIBER_PORT         = AttributeKey.longKey("subscriber.port");
+	public static final AttributeKey<String>  SUBSCRIBER_PATH         = AttributeKey.stringKey("subscriber.path");
+	public static final AttributeKey<String>  SUBSCRIBER_CLIENT_ID    = AttributeKey.stringKey("subscriber.clientId");
+
+	//------------------------------------------------------------------------
+	//	Agent metrics
+	//------------------------------------------------------------------------
+	public static final AttributeKey<String>  METRIC_FLOW_NAME        = AttributeKey.stringKey("mule.flow.name");
+	public static final AttributeKey<String>  EVICTION_SCOPE          = AttributeKey.stringKey("mule.eviction.scope");
+	public static final AttributeKey<String>  TAIL_SAMPLING_DECISION  = AttributeKey.stringKey("mule.tail_sampling.decision");
+	public static final AttributeKey<String>  OTEL_HANDLER            = AttributeKey.stringKey("mule.otel.handler");
+	public static final AttributeKey<String>  OTEL_PARSER             = AttributeKey.stringKey("mule.otel.parser");
+	public static final AttributeKey<String>  OTEL_OUTCOME            = AttributeKey.stringKey("mule.otel.outcome");
+	public static final AttributeKey<String>  FULL_DOMAIN             = AttributeKey.stringKey("mule.fullDomain");
+	public static final AttributeKey<String>  MEMORY_USAGE            = AttributeKey.stringKey("mule.memory.usage");
+
+	private MuleAttributeKeys()
+	{
+	}
+}
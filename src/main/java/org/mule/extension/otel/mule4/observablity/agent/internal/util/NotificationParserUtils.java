@@ -2,38 +2,153 @@ package org.mule.extension.otel.mule4.observablity.agent.internal.util;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.MuleComponent;
 import org.mule.extension.otel.mule4.observablity.agent.internal.config.advanced.SpanGenerationConfig;
+import org.mule.extension.otel.mule4.observablity.agent.internal.notification.NotificationSnapshot;
 import org.mule.runtime.api.component.ComponentIdentifier;
 import org.mule.runtime.api.event.Event;
-import org.mule.runtime.api.notification.EnrichedServerNotification;
-import org.mule.runtime.api.notification.MessageProcessorNotification;
-import org.mule.runtime.api.notification.PipelineMessageNotification;
 
 /**
  * 
  *	A set of utilities (helper methods) to facilitate parsing of Notifications:
  *	<ul>
- *		<li> {@link #getInstantFrom(EnrichedServerNotification)} </li>
- *		<li> {@link #getSourceIdentifier(EnrichedServerNotification)} </li>
- *		<li> {@link #getDocName(EnrichedServerNotification)} </li>
- *		<li> {@link #getFlowId(EnrichedServerNotification)} </li>
- *		<li> {@link #getSpanName(EnrichedServerNotification)} </li>
- *		<li> {@link #getSpanId(EnrichedServerNotification)} </li>
- *		<li> {@link #getMuleSoftTraceId(EnrichedServerNotification)} </li>
- *		<li> {@link #getComponentId(EnrichedServerNotification)} </li>
- *		<li> {@link #getMessageAttributes(EnrichedServerNotification)} </li>
+ *		<li> {@link #getInstantFrom(NotificationSnapshot)} </li>
+ *		<li> {@link #getSourceIdentifier(NotificationSnapshot)} </li>
+ *		<li> {@link #getDocName(NotificationSnapshot)} </li>
+ *		<li> {@link #getFlowId(NotificationSnapshot)} </li>
+ *		<li> {@link #getSpanName(NotificationSnapshot)} </li>
+ *		<li> {@link #getSpanId(NotificationSnapshot)} </li>
+ *		<li> {@link #getMuleSoftTraceId(NotificationSnapshot)} </li>
+ *		<li> {@link #getExecutionId(NotificationSnapshot)} </li>
+ *		<li> {@link #getComponentId(NotificationSnapshot)} </li>
+ *		<li> {@link #getMessageAttributes(NotificationSnapshot)} </li>
  *		<li> {@link #getMessageAttributes(Event)} </li>
- *		<li> {@link #getMessage(EnrichedServerNotification)} </li>
+ *		<li> {@link #getComponentDescriptor(NotificationSnapshot)} </li>
  *	</ul>
  *
+ *	Metadata which is static for a component location (doc name, span name, flow id, ...) is computed
+ *	once per location and cached in a {@link ComponentDescriptor}.
  */
 @SuppressWarnings("restriction")
 public class NotificationParserUtils
 {
+	// --------------------------------------------------------------------------------------------
+	// Cache of component metadata keyed by component location.  Lazily filled; lookups of existing
+	// entries are lock-free.
+	// --------------------------------------------------------------------------------------------
+	private static final Map<String, ComponentDescriptor> componentDescriptors = new ConcurrentHashMap<>();
+	
+	// --------------------------------------------------------------------------------------------
+	// Components to bypass, compiled from the span generation config at startup
+	// --------------------------------------------------------------------------------------------
+	private static volatile ComponentSkipSet componentSkipSet = ComponentSkipSet.autoSkipOnly();
+	
+	// --------------------------------------------------------------------------------------------
+	// HTTP headers added to the spans, compiled from the header capture config at startup
+	// --------------------------------------------------------------------------------------------
+	private static volatile HeaderAllowlist headerAllowlist = HeaderAllowlist.defaults();
+	
+	// --------------------------------------------------------------------------------------------
+	// Logger outputs added to the spans, compiled from the logger capture config at startup
+	// --------------------------------------------------------------------------------------------
+	private static volatile LoggerCapture loggerCapture = LoggerCapture.defaults();
+	
+	/**
+	 * Install the compiled set of components to bypass.  Cached descriptors are discarded so they 
+	 * pick up the new skip decision.
+	 * 
+	 * @param skipSet
+	 */
+	public static void setComponentSkipSet(ComponentSkipSet skipSet)
+	{
+		componentSkipSet = (skipSet != null) ? skipSet : ComponentSkipSet.autoSkipOnly();
+		componentDescriptors.clear();
+	}
+	
+	/**
+	 * Install the compiled set of HTTP headers added to the spans.
+	 * 
+	 * @param allowlist
+	 */
+	public static void setHeaderAllowlist(HeaderAllowlist allowlist)
+	{
+		headerAllowlist = (allowlist != null) ? allowlist : HeaderAllowlist.defaults();
+	}
+	
+	/**
+	 * 
+	 * @return the HTTP headers added to the HTTP Listener and HTTP Requester spans
+	 */
+	public static HeaderAllowlist getHeaderAllowlist()
+	{
+		return headerAllowlist;
+	}
+	
+	/**
+	 * Install the compiled Logger output capture.
+	 * 
+	 * @param capture
+	 */
+	public static void setLoggerCapture(LoggerCapture capture)
+	{
+		loggerCapture = (capture != null) ? capture : LoggerCapture.defaults();
+	}
+	
+	/**
+	 * 
+	 * @return which Logger outputs are added to the Logger spans
+	 */
+	public static LoggerCapture getLoggerCapture()
+	{
+		return loggerCapture;
+	}
+	
+	/**
+	 * 
+	 * @param componentIdentifier
+	 * @return <b>true</b> if the components of this type get no message processor span; else false
+	 */
+	public static boolean isBypassed(ComponentIdentifier componentIdentifier)
+	{
+		return componentSkipSet.contains(componentIdentifier);
+	}
+	
+	/**
+	 * 
+	 * @param notification
+	 * @return the cached {@link ComponentDescriptor} for the component which fired this notification
+	 */
+	public static ComponentDescriptor getComponentDescriptor(NotificationSnapshot notification)
+	{
+		String location = notification.getComponent().getLocation().getLocation();
+		ComponentDescriptor componentDescriptor = componentDescriptors.get(location);
+		
+		if (componentDescriptor == null)
+		{
+			componentDescriptor = componentDescriptors.computeIfAbsent(location, 
+			                                                           (l) -> createComponentDescriptor(l, notification));
+		}
+		return componentDescriptor;
+	}
+	
+	private static ComponentDescriptor createComponentDescriptor(String location, NotificationSnapshot notification)
+	{
+		String docName = computeDocName(notification);
+		ComponentIdentifier componentIdentifier = getComponentAnnotation("{config}componentIdentifier", notification);
+		
+		return new ComponentDescriptor(location,
+		                               componentIdentifier,
+		                               docName,
+		                               notification.getComponent().getIdentifier().getName() + "::" + docName,
+		                               computeFlowId(notification),
+		                               getComponentAnnotation("{config}componentParameters", notification),
+		                               componentSkipSet.contains(componentIdentifier));
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	// Various public utility parsing helpers
 	// --------------------------------------------------------------------------------------------
@@ -42,7 +157,7 @@ public class NotificationParserUtils
 	 * @param notification
 	 * @return - an time Instant based on the timestamp in the notification
 	 */
-	public static Instant getInstantFrom(EnrichedServerNotification notification)
+	public static Instant getInstantFrom(NotificationSnapshot notification)
 	{
 		return Instant.ofEpochMilli(notification.getTimestamp());
 	}
@@ -52,15 +167,13 @@ public class NotificationParserUtils
 	 * @param notification
 	 * @return - the source/trigger related to this notification
 	 */
-	public static ComponentIdentifier getSourceIdentifier(EnrichedServerNotification notification)
+	public static ComponentIdentifier getSourceIdentifier(NotificationSnapshot notification)
 	{
 		ComponentIdentifier sourceIdentifier = null;
 		
-		if (notification.getEvent() != null && notification.getEvent().getContext().getOriginatingLocation() != null)
+		if (notification.getOriginatingLocation() != null)
 		{
-			sourceIdentifier = notification.getEvent()
-					                       .getContext()
-					                       .getOriginatingLocation()
+			sourceIdentifier = notification.getOriginatingLocation()
 					                       .getComponentIdentifier()
 					                       .getIdentifier();
 		}
@@ -72,14 +185,14 @@ public class NotificationParserUtils
 	 * @param notification
 	 * @return - the user defined name for this component (flow or message processor)
 	 */
-	public static String getDocName(EnrichedServerNotification notification)
+	public static String getDocName(NotificationSnapshot notification)
 	{
-		String docName = "";
-
-		if (notification instanceof PipelineMessageNotification)
-			docName = "name";
-		else if (notification instanceof MessageProcessorNotification)
-			docName = "doc:name";
+		return getComponentDescriptor(notification).getDocName();
+	}
+	
+	private static String computeDocName(NotificationSnapshot notification)
+	{
+		String docName = notification.isPipelineNotification() ? "name" : "doc:name";
 
 		Map<String, String> annotations = getComponentAnnotation("{config}componentParameters", notification);
 		
@@ -95,9 +208,13 @@ public class NotificationParserUtils
 	 * 	Component Location
 	 * </a>	
 	 */
-	public static String getFlowId(EnrichedServerNotification notification)
+	public static String getFlowId(NotificationSnapshot notification)
+	{
+		return getComponentDescriptor(notification).getFlowId();
+	}
+	
+	private static String computeFlowId(NotificationSnapshot notification)
 	{
-
 		String flowId = "_" + notification.getComponent().getLocation().getRootContainerName();
 		
 		//
@@ -112,7 +229,7 @@ public class NotificationParserUtils
 		return flowId;
 	}
 	
-	public static String getServerId(EnrichedServerNotification notification)
+	public static String getServerId(NotificationSnapshot notification)
 	{
 		return notification.getServerId();
 	}
@@ -123,27 +240,37 @@ public class NotificationParserUtils
 	 * @param notification
 	 * @return - a unique name
 	 */
-	public static String getSpanName(EnrichedServerNotification notification)
+	public static String getSpanName(NotificationSnapshot notification)
 	{
-		return notification.getComponent().getIdentifier().getName() + "::" + getDocName(notification);
+		return getComponentDescriptor(notification).getSpanName();
 	}
 
 	/**
 	 * @param notification
 	 * @return The unique absolute location of this component in the Mule application
 	 */
-	public static String getSpanId(EnrichedServerNotification notification)
+	public static String getSpanId(NotificationSnapshot notification)
 	{
-		return notification.getInfo().getComponent().getLocation().getLocation();
+		return getComponentDescriptor(notification).getLocation();
 	}
 
 	/**
 	 * @param notification
 	 * 	@return The Correlation ID in Mule Event as the OTel Trace ID - unique value
 	 */
-	public static String getMuleSoftTraceId(EnrichedServerNotification notification)
+	public static String getMuleSoftTraceId(NotificationSnapshot notification)
 	{
-		return notification.getEvent().getCorrelationId();
+		return notification.getCorrelationId();
+	}
+	
+	/**
+	 * @param notification
+	 * 	@return The id of the Mule Event context - tells apart the concurrent executions of the same
+	 * 			component in a trace (e.g., scatter-gather routes, parallel-foreach iterations)
+	 */
+	public static String getExecutionId(NotificationSnapshot notification)
+	{
+		return notification.getExecutionId();
 	}
 
 	/**
@@ -151,19 +278,27 @@ public class NotificationParserUtils
 	 * @param notification
 	 * @return The qualified name {@code <namespace:name>} of this component.  For example, {@code http:listener, http:requester,}...
 	 */
-	public static String getComponentId(EnrichedServerNotification notification)
+	public static String getComponentId(NotificationSnapshot notification)
 	{
-		ComponentIdentifier componentIdentifier = getComponentIdentifier(notification);
-
-		return (componentIdentifier.getNamespace() + ":" + componentIdentifier.getName());
+		return getComponentDescriptor(notification).getComponentId();
 	}
 	
-	public static ComponentIdentifier getComponentIdentifier(EnrichedServerNotification notification)
+	public static ComponentIdentifier getComponentIdentifier(NotificationSnapshot notification)
 	{
-		return getComponentAnnotation("{config}componentIdentifier", notification);
+		return getComponentDescriptor(notification).getComponentIdentifier();
 	}
 	
-	public static MuleComponent getComponentAsMuleComponent(EnrichedServerNotification notification) 
+	/**
+	 * 
+	 * @param notification
+	 * @return the (read-only) {@code {config}componentParameters} annotation of this component
+	 */
+	public static Map<String, String> getComponentParameters(NotificationSnapshot notification)
+	{
+		return getComponentDescriptor(notification).getComponentParameters();
+	}
+	
+	public static MuleComponent getComponentAsMuleComponent(NotificationSnapshot notification) 
 	{
 		MuleComponent muleComponent = new MuleComponent();
 		ComponentIdentifier ci = getComponentIdentifier(notification);
@@ -174,11 +309,12 @@ public class NotificationParserUtils
 		return muleComponent;
 	}
 
-	public static boolean skipParsing(EnrichedServerNotification notification, SpanGenerationConfig spanGenerationConfig)
+	public static boolean skipParsing(NotificationSnapshot notification, SpanGenerationConfig spanGenerationConfig)
 	{
-		return (Constants.AUTO_SKIP_LIST.contains(getComponentId(notification))
-				|| !(spanGenerationConfig.getGenerateMessageProcessorsSpans())
-				|| spanGenerationConfig.getBypassComponents().contains((MuleComponent)getComponentAsMuleComponent(notification)));
+		if (!spanGenerationConfig.getGenerateMessageProcessorsSpans())
+			return true;
+		
+		return getComponentDescriptor(notification).isSkipped();
 	}
 	
 	/**
@@ -187,9 +323,9 @@ public class NotificationParserUtils
 	 * @param notification 
 	 * @return - the attributes associated with this notification
 	 */
-	public static <T> T getMessageAttributes(EnrichedServerNotification notification)
+	public static <T> T getMessageAttributes(NotificationSnapshot notification)
 	{
-		return (T) notification.getEvent().getMessage().getAttributes().getValue();
+		return (T) notification.getMessageAttributes();
 	}
 	
 	/**
@@ -203,18 +339,7 @@ public class NotificationParserUtils
 		return (T) event.getMessage().getAttributes().getValue();
 	}
 	
-	/**
-	 * 
-	 * @param <T>
-	 * @param notification
-	 * @return - return the "payload" associated with this notification
-	 */
-	public static  <T> T getMessage(EnrichedServerNotification notification)
-	{
-		return (T) notification.getEvent().getMessage().getPayload().getValue();
-	}
-	
-	public static <T> T getComponentAnnotation(String annotationName, EnrichedServerNotification notification)
+	public static <T> T getComponentAnnotation(String annotationName, NotificationSnapshot notification)
 	{
 		return (T) notification.getComponent().getAnnotation(QName.valueOf(annotationName));
 	}